@@ -0,0 +1,25 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Runs in-memory bookkeeping only once the surrounding transaction commits,
+// or straight away when the caller is not in a transaction.
+public final class AfterCommit {
+
+	private AfterCommit() {
+	}
+
+	public static void run(Runnable change) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			change.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				change.run();
+			}
+		});
+	}
+}
@@ -0,0 +1,138 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.HospitalAppointmentScheduling.DAO.AppointmentArchiveDAO;
+import com.HospitalAppointmentScheduling.DAO.AppointmentArchiveRepo;
+import com.HospitalAppointmentScheduling.Entity.AppointmentsVO;
+import com.HospitalAppointmentScheduling.Entity.ArchivedAppointmentVO;
+
+// Keeps the appointments table to recent and upcoming appointments. A
+// scheduled job moves the ones dated more than archive.horizon-days ago to
+// appointments_archive, one batch per transaction. Reads whose dates can
+// reach before the boundary add the archived rows; reads after it never
+// touch the archive. The boundary follows from the date and the horizon, so
+// every node agrees on it without asking the others.
+@Component
+public class AppointmentArchiveBO {
+
+	Logger log = Logger.getLogger(AppointmentArchiveBO.class);
+
+	@Autowired
+	AppointmentArchiveDAO archiveDAO;
+
+	@Autowired
+	AppointmentArchiveRepo archiveRepo;
+
+	@Autowired
+	ScatterGatherBO scatter;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	LeaderElectionBO leaderElection;
+
+	@Value("${archive.enabled:true}")
+	private boolean enabled;
+
+	@Value("${archive.horizon-days:365}")
+	private int horizonDays;
+
+	@Value("${archive.batch-size:500}")
+	private int batchSize;
+
+	@Value("${archive.max-batches-per-run:200}")
+	private int maxBatches;
+
+	// the day after the latest archived appointment found at startup, covers
+	// rows archived under a longer horizon or before archiving was switched off
+	private volatile LocalDate archivedBefore;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadBoundary() {
+		LocalDate latest = null;
+		for (LocalDate d : scatter.onEveryShard(() -> archiveRepo.findLatestDate()).values()) {
+			if (d != null && (latest == null || d.isAfter(latest))) {
+				latest = d;
+			}
+		}
+		archivedBefore = latest == null ? null : latest.plusDays(1);
+	}
+
+	// appointments dated before this may be in the archive; null when none are
+	public LocalDate boundary() {
+		LocalDate b = archivedBefore;
+		if (enabled && (b == null || cutoff().isAfter(b))) {
+			b = cutoff();
+		}
+		return b;
+	}
+
+	// whether a read from the date on (null for no lower bound) needs the archive
+	public boolean reaches(LocalDate from) {
+		LocalDate b = boundary();
+		return b != null && (from == null || from.isBefore(b));
+	}
+
+	// the archived rows first, they are the older ones, then the live rows
+	public List<AppointmentsVO> withArchived(LocalDate from, List<AppointmentsVO> live,
+			Supplier<List<ArchivedAppointmentVO>> archived) {
+		if (!reaches(from)) {
+			return live;
+		}
+		List<AppointmentsVO> all = new ArrayList<>();
+		archived.get().forEach(a -> all.add(a.toAppointment()));
+		all.addAll(live);
+		return all;
+	}
+
+	@Scheduled(fixedDelayString = "${archive.run-ms:3600000}", initialDelayString = "${archive.initial-delay-ms:60000}")
+	@LeaderOnly("appointment-archive")
+	public void archive() {
+		if (!enabled) {
+			return;
+		}
+		LocalDate before = cutoff();
+		long moved = 0;
+		for (int n : scatter.onEachShardInTurn(() -> archiveShard(before)).values()) {
+			moved += n;
+		}
+		if (moved > 0) {
+			log.info("archived " + moved + " appointments dated before " + before);
+		}
+	}
+
+	// stops after max-batches-per-run, the next run carries on
+	private int archiveShard(LocalDate before) {
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		int total = 0;
+		for (int i = 0; i < maxBatches; i++) {
+			leaderElection.fence();
+			Integer n = tx.execute(s -> archiveDAO.moveBatch(before, batchSize, LocalDateTime.now()));
+			total += n;
+			if (n < batchSize) {
+				break;
+			}
+		}
+		return total;
+	}
+
+	private LocalDate cutoff() {
+		return LocalDate.now().minusDays(horizonDays);
+	}
+}
@@ -0,0 +1,150 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.HospitalAppointmentScheduling.BO.AppointmentCountBO.DoctorDateKey;
+import com.HospitalAppointmentScheduling.CustomExceptions.IdException;
+import com.HospitalAppointmentScheduling.DAO.AppointmentCancelDAO;
+import com.HospitalAppointmentScheduling.DAO.AppointmentCancelDAO.Row;
+import com.HospitalAppointmentScheduling.DAO.DoctorRepo;
+import com.HospitalAppointmentScheduling.DAO.HospitalRepo;
+
+// Cancels appointments in bulk, e.g. for a clinic closure. The appointments
+// are picked and locked with one query, deleted with a few set-based
+// statements, and the ledger, counters and analytics are adjusted once per
+// doctor day or patient rather than once per appointment. A list of IDs or a
+// hospital can span shards; each shard is then cancelled in its own
+// transaction.
+@Component
+public class AppointmentCancelBO {
+
+	Logger log = Logger.getLogger(AppointmentCancelBO.class);
+
+	@Autowired
+	AppointmentCancelDAO cancelDAO;
+
+	@Autowired
+	DoctorRepo doctorRepo;
+
+	@Autowired
+	HospitalRepo hospitalRepo;
+
+	@Autowired
+	AppointmentCountBO countBO;
+
+	@Autowired
+	CapacityLedgerBO ledger;
+
+	@Autowired
+	PatientAnalyticsBO analyticsBO;
+
+	@Autowired
+	OutboxBO outbox;
+
+	@Autowired
+	ApplicationEventPublisher publisher;
+
+	@Autowired
+	ScatterGatherBO scatter;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Value("${appointment.cancel.max-ids:1000}")
+	int maxIds = 1000;
+
+	public record CancelReport(int cancelled, List<Long> appointmentIds) {
+	}
+
+	// IDs that do not exist are skipped
+	public CancelReport cancelByIds(List<Long> ids) throws IdException {
+		if (ids == null || ids.isEmpty()) {
+			throw new IdException("ERROR: appointment ID list could not be empty");
+		}
+		if (ids.size() > maxIds) {
+			throw new IdException("ERROR: at most " + maxIds + " appointments can be cancelled at once");
+		}
+		for (Long id : ids) {
+			if (id == null || id <= 0) {
+				throw new IdException("ERROR: appointment ID could not be null, negative or zero");
+			}
+		}
+		List<Long> distinct = ids.stream().distinct().toList();
+		return onEachShard(() -> cancelDAO.lockByIds(distinct));
+	}
+
+	// must run inside the caller's transaction, on the appointment's shard
+	public boolean cancelById(long id) {
+		return !cancel(cancelDAO.lockByIds(List.of(id))).isEmpty();
+	}
+
+	// must run inside the caller's transaction, on the doctor's shard
+	public CancelReport cancelForDoctor(long doctorId, LocalDate from, LocalDate to) throws IdException {
+		if (!doctorRepo.existsById(doctorId)) {
+			throw new IdException("ERROR: Doctor ID not exist in the database");
+		}
+		List<Long> cancelled = cancel(cancelDAO.lockForDoctor(doctorId, from, to));
+		log.info("cancelled " + cancelled.size() + " appointments of doctor " + doctorId + " from " + from + " to "
+				+ to);
+		return new CancelReport(cancelled.size(), cancelled);
+	}
+
+	public CancelReport cancelForHospital(long hospitalId, LocalDate date) throws IdException {
+		if (!hospitalRepo.existsById(hospitalId)) {
+			throw new IdException("ERROR: Hospital ID not exist in the database");
+		}
+		CancelReport report = onEachShard(() -> cancelDAO.lockForHospital(hospitalId, date));
+		log.info("cancelled " + report.cancelled() + " appointments of hospital " + hospitalId + " on " + date);
+		return report;
+	}
+
+	// must run inside a transaction; returns the IDs deleted
+	public List<Long> cancel(List<Row> rows) {
+		if (rows.isEmpty()) {
+			return List.of();
+		}
+		List<Long> ids = new ArrayList<>(rows.size());
+		Map<DoctorDateKey, Long> deltas = new LinkedHashMap<>();
+		Map<Long, Integer> perPatient = new HashMap<>();
+		for (Row r : rows) {
+			ids.add(r.appointmentId());
+			deltas.merge(new DoctorDateKey(r.doctorId(), r.date()), -1L, Long::sum);
+			perPatient.merge(r.patientId(), 1, Integer::sum);
+		}
+		cancelDAO.delete(ids);
+		// only gives slots back, so it cannot run out of room
+		ledger.apply(deltas);
+		for (long id : ids) {
+			outbox.deleted(OutboxBO.APPOINTMENT, "AppointmentDeleted", id);
+		}
+		countBO.adjusted(deltas);
+		perPatient.forEach(analyticsBO::cancelled);
+		for (DoctorDateKey k : deltas.keySet()) {
+			publisher.publishEvent(new SlotChangeEvent(k.doctorId(), k.date()));
+		}
+		return ids;
+	}
+
+	private CancelReport onEachShard(Supplier<List<Row>> rows) {
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		List<Long> cancelled = new ArrayList<>();
+		for (List<Long> ids : scatter.onEachShardInTurn(() -> tx.execute(s -> cancel(rows.get()))).values()) {
+			cancelled.addAll(ids);
+		}
+		return new CancelReport(cancelled.size(), cancelled);
+	}
+}
@@ -0,0 +1,266 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.HospitalAppointmentScheduling.DAO.AppointmentArchiveRepo;
+import com.HospitalAppointmentScheduling.DAO.AppointmentsRepo;
+import com.HospitalAppointmentScheduling.DAO.DoctorDateCountProjection;
+
+import jakarta.annotation.PostConstruct;
+
+// Appointment counts per date and per (doctor, date) kept in memory. Seeded
+// from one grouped query per shard, archived appointments included, before
+// the web server takes requests, moved by AppointmentsBO on every write and
+// checked against the database by a periodic reconciliation. Archived days no
+// longer change and are left out of the reconciliation.
+@Component
+public class AppointmentCountBO {
+
+	Logger log = Logger.getLogger(AppointmentCountBO.class);
+
+	@Autowired
+	AppointmentsRepo appointmentsRepo;
+
+	@Autowired
+	ScatterGatherBO scatter;
+
+	@Autowired
+	AppointmentArchiveRepo archiveRepo;
+
+	@Autowired
+	AppointmentArchiveBO archiveBO;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	public record DoctorDateKey(long doctorId, LocalDate date) {
+	}
+
+	private final Map<LocalDate, AtomicLong> perDate = new ConcurrentHashMap<>();
+	private final Map<DoctorDateKey, AtomicLong> perDoctorDate = new ConcurrentHashMap<>();
+
+	// writes registered in an open transaction and not applied yet, per
+	// doctor day: their commit may already be in a database snapshot
+	private final Map<DoctorDateKey, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+	// doctor days written while a reconciliation reads the database, null
+	// outside of one
+	private volatile Set<DoctorDateKey> touched;
+
+	private volatile boolean seeded = false;
+
+	// no request can book before this runs, so the counts are set straight
+	// from the database
+	@PostConstruct
+	public void seed() {
+		// both tables in one read-only transaction per shard, so a row the
+		// archive job moves in between is counted exactly once
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		tx.setReadOnly(true);
+		load(scatter.gatherAll(() -> tx.execute(s -> {
+			List<DoctorDateCountProjection> rows = new ArrayList<>(appointmentsRepo.countAppointmentsByDoctorAndDate());
+			rows.addAll(archiveRepo.countByDoctorAndDate());
+			return rows;
+		})), perDate, perDoctorDate);
+		seeded = true;
+		log.info("appointment counters seeded for " + perDoctorDate.size() + " doctor days");
+	}
+
+	public boolean isSeeded() {
+		return seeded;
+	}
+
+	// O(1) reads, the database is only asked before the counters are seeded
+	public long countByDate(LocalDate date) {
+		if (!seeded) {
+			return scatter.sum(() -> appointmentsRepo.countAppointmentsByDate(date));
+		}
+		AtomicLong c = perDate.get(date);
+		return c == null ? 0 : c.get();
+	}
+
+	public long countByDoctorAndDate(long doctorId, LocalDate date) {
+		if (!seeded) {
+			return scatter.sum(() -> appointmentsRepo.countAppointmentsForDoctorOnDate(doctorId, date));
+		}
+		AtomicLong c = perDoctorDate.get(new DoctorDateKey(doctorId, date));
+		return c == null ? 0 : c.get();
+	}
+
+	// write hooks, applied only once the surrounding transaction commits
+	public void booked(long doctorId, LocalDate date) {
+		change(Map.of(new DoctorDateKey(doctorId, date), 1L));
+	}
+
+	public void cancelled(long doctorId, LocalDate date) {
+		change(Map.of(new DoctorDateKey(doctorId, date), -1L));
+	}
+
+	public void moved(long doctorId, LocalDate from, long toDoctorId, LocalDate to) {
+		if (doctorId == toDoctorId && from.equals(to)) {
+			return;
+		}
+		change(Map.of(new DoctorDateKey(doctorId, from), -1L, new DoctorDateKey(toDoctorId, to), 1L));
+	}
+
+	// net change per (doctor, date) of a bulk write, applied in one pass
+	public void adjusted(Map<DoctorDateKey, Long> deltas) {
+		change(Map.copyOf(deltas));
+	}
+
+	// like AfterCommit, but the days stay marked in flight from now until the
+	// transaction completes, so a reconciliation in between leaves them alone
+	private void change(Map<DoctorDateKey, Long> deltas) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			apply(deltas);
+			return;
+		}
+		deltas.keySet().forEach(k -> inFlight.computeIfAbsent(k, x -> new AtomicInteger()).incrementAndGet());
+		markTouched(deltas.keySet());
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				apply(deltas);
+			}
+
+			@Override
+			public void afterCompletion(int status) {
+				deltas.keySet().forEach(k -> inFlight.get(k).decrementAndGet());
+			}
+		});
+	}
+
+	private void apply(Map<DoctorDateKey, Long> deltas) {
+		deltas.forEach((k, delta) -> add(k.doctorId(), k.date(), delta));
+		markTouched(deltas.keySet());
+	}
+
+	private void markTouched(Set<DoctorDateKey> keys) {
+		Set<DoctorDateKey> window = touched;
+		if (window != null) {
+			window.addAll(keys);
+		}
+	}
+
+	// compares the counters with a fresh grouped query and repairs any drift.
+	// A day written to while the query runs, or with a write committed but
+	// not applied yet, cannot be compared with the snapshot and waits for the
+	// next round. The repair is a compare-and-set, so a write applied after
+	// the comparison is never overwritten.
+	@Scheduled(fixedDelayString = "${appointment.count.reconcile-ms:300000}", initialDelayString = "${appointment.count.reconcile-ms:300000}")
+	public synchronized void reconcile() {
+		if (!seeded) {
+			return;
+		}
+		Set<DoctorDateKey> window = ConcurrentHashMap.newKeySet();
+		touched = window;
+		try {
+			Set<DoctorDateKey> unsettled = new HashSet<>();
+			inFlight.forEach((k, n) -> {
+				if (n.get() > 0) {
+					unsettled.add(k);
+				}
+			});
+			Map<LocalDate, AtomicLong> dbDate = new HashMap<>();
+			Map<DoctorDateKey, AtomicLong> dbDoctorDate = new HashMap<>();
+			load(scatter.gatherAll(() -> appointmentsRepo.countAppointmentsByDoctorAndDate()), dbDate, dbDoctorDate);
+			unsettled.addAll(window);
+			Set<LocalDate> unsettledDates = new HashSet<>();
+			unsettled.forEach(k -> unsettledDates.add(k.date()));
+
+			LocalDate boundary = archiveBO.boundary();
+			int drift = 0;
+			drift += repair(perDoctorDate, dbDoctorDate,
+					k -> (boundary == null || !k.date().isBefore(boundary)) && !unsettled.contains(k));
+			drift += repair(perDate, dbDate,
+					d -> (boundary == null || !d.isBefore(boundary)) && !unsettledDates.contains(d));
+			if (drift > 0) {
+				log.warn("appointment counters drifted from the database, repaired " + drift + " entries");
+			}
+		} finally {
+			touched = null;
+		}
+	}
+
+	// sets one doctor day from the database, for changes other nodes made to
+	// it. Same rules as reconcile: a day with a write in flight or applied
+	// while the count is read is left alone.
+	public synchronized void refresh(DoctorDateKey key) {
+		if (!seeded) {
+			return;
+		}
+		Set<DoctorDateKey> window = ConcurrentHashMap.newKeySet();
+		touched = window;
+		try {
+			AtomicInteger n = inFlight.get(key);
+			if (n != null && n.get() > 0) {
+				return;
+			}
+			long expected = scatter
+					.sum(() -> appointmentsRepo.countAppointmentsForDoctorOnDate(key.doctorId(), key.date()));
+			if (window.contains(key)) {
+				return;
+			}
+			AtomicLong actual = perDoctorDate.computeIfAbsent(key, k -> new AtomicLong());
+			long seen = actual.get();
+			if (seen != expected && actual.compareAndSet(seen, expected)) {
+				perDate.computeIfAbsent(key.date(), d -> new AtomicLong()).addAndGet(expected - seen);
+			}
+		} finally {
+			touched = null;
+		}
+	}
+
+	// zero entries are kept: removing one could drop an add racing with it
+	private <K> int repair(Map<K, AtomicLong> memory, Map<K, AtomicLong> db, Predicate<K> settled) {
+		Set<K> keys = new HashSet<>(db.keySet());
+		keys.addAll(memory.keySet());
+		int drift = 0;
+		for (K key : keys) {
+			if (!settled.test(key)) {
+				continue;
+			}
+			AtomicLong stored = db.get(key);
+			long expected = stored == null ? 0 : stored.get();
+			AtomicLong actual = memory.computeIfAbsent(key, k -> new AtomicLong());
+			long seen = actual.get();
+			if (seen != expected && actual.compareAndSet(seen, expected)) {
+				log.warn("count drift for " + key + ": memory=" + seen + " database=" + expected);
+				drift++;
+			}
+		}
+		return drift;
+	}
+
+	private void load(List<DoctorDateCountProjection> rows, Map<LocalDate, AtomicLong> dates,
+			Map<DoctorDateKey, AtomicLong> doctorDates) {
+		for (DoctorDateCountProjection row : rows) {
+			dates.computeIfAbsent(row.getAppointmentDate(), d -> new AtomicLong()).addAndGet(row.getTotal());
+			doctorDates.computeIfAbsent(new DoctorDateKey(row.getDoctorId(), row.getAppointmentDate()),
+					k -> new AtomicLong()).addAndGet(row.getTotal());
+		}
+	}
+
+	private void add(long doctorId, LocalDate date, long delta) {
+		perDate.computeIfAbsent(date, d -> new AtomicLong()).addAndGet(delta);
+		perDoctorDate.computeIfAbsent(new DoctorDateKey(doctorId, date), k -> new AtomicLong()).addAndGet(delta);
+	}
+}
@@ -1,8 +1,89 @@
 package com.HospitalAppointmentScheduling.BO;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.HospitalAppointmentScheduling.DAO.AppointmentStatusDAO;
+import com.HospitalAppointmentScheduling.DAO.AppointmentStatusDAO.Chunk;
+import com.HospitalAppointmentScheduling.WebConfig.StatusSweepProperties;
+import com.HospitalAppointmentScheduling.WebConfig.StatusSweepProperties.Transition;
 
+// Moves past appointments on from Pending once their day is over, following
+// the status.sweep.transitions rules. Each chunk of batch-size appointments
+// is its own transaction with one outbox event, so locks are held briefly and
+// a run that stops part way keeps what it did; the next run carries on.
 @Component
 public class AppointmentStatusBO {
 
+	Logger log = Logger.getLogger(AppointmentStatusBO.class);
+
+	@Autowired
+	AppointmentStatusDAO statusDAO;
+
+	@Autowired
+	StatusSweepProperties props;
+
+	@Autowired
+	OutboxBO outbox;
+
+	@Autowired
+	ScatterGatherBO scatter;
+
+	@Autowired
+	LeaderElectionBO leaderElection;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Scheduled(cron = "${status.sweep.cron:0 30 0 * * *}")
+	@LeaderOnly("status-sweep")
+	public void sweep() {
+		if (!props.isEnabled()) {
+			return;
+		}
+		for (Transition t : props.getTransitions()) {
+			LocalDate before = LocalDate.now().minusDays(t.getAfterDays() - 1L);
+			long changed = 0;
+			for (long n : scatter.onEachShardInTurn(() -> sweepShard(t, before)).values()) {
+				changed += n;
+			}
+			if (changed > 0) {
+				log.info("moved " + changed + " appointments dated before " + before + " from " + t.getFrom()
+						+ " to " + t.getTo());
+			}
+		}
+	}
+
+	// stops after max-batches-per-run
+	long sweepShard(Transition t, LocalDate before) {
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		LocalDate from = LocalDate.EPOCH;
+		long total = 0;
+		for (int i = 0; i < props.getMaxBatchesPerRun(); i++) {
+			leaderElection.fence();
+			LocalDate chunkFrom = from;
+			Chunk chunk = tx.execute(s -> {
+				Chunk c = statusDAO.transition(t.getFrom(), t.getTo(), chunkFrom, before, props.getBatchSize(),
+						LocalDateTime.now());
+				if (!c.ids().isEmpty()) {
+					outbox.appointmentsStatusChanged(c.ids(), t.getFrom(), t.getTo());
+				}
+				return c;
+			});
+			total += chunk.ids().size();
+			if (chunk.ids().size() < props.getBatchSize()) {
+				break;
+			}
+			// the changed rows no longer match, only the last day is read again
+			from = chunk.lastDate();
+		}
+		return total;
+	}
 }
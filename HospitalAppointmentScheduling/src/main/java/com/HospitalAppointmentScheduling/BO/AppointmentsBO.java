@@ -2,11 +2,15 @@ package com.HospitalAppointmentScheduling.BO;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
+import com.HospitalAppointmentScheduling.BO.AppointmentCountBO.DoctorDateKey;
+import com.HospitalAppointmentScheduling.BO.WaitlistBO.WaitlistEntry;
 import com.HospitalAppointmentScheduling.CustomExceptions.AppointmentBookingDateException;
 import com.HospitalAppointmentScheduling.CustomExceptions.AppointmentException;
 import com.HospitalAppointmentScheduling.CustomExceptions.DateException;
@@ -17,6 +21,8 @@ import com.HospitalAppointmentScheduling.CustomExceptions.PasswordException;
 import com.HospitalAppointmentScheduling.CustomExceptions.PatientException;
 import com.HospitalAppointmentScheduling.CustomExceptions.PhoneNumberException;
 import com.HospitalAppointmentScheduling.CustomExceptions.ReasonException;
+import com.HospitalAppointmentScheduling.CustomExceptions.WaitlistException;
+import com.HospitalAppointmentScheduling.DAO.AppointmentArchiveRepo;
 import com.HospitalAppointmentScheduling.DAO.AppointmentsRepo;
 import com.HospitalAppointmentScheduling.DAO.PatientRepo;
 import com.HospitalAppointmentScheduling.Entity.AppointmentsVO;
@@ -31,11 +37,54 @@ public class AppointmentsBO {
 	@Autowired
 	PatientRepo pRepo;
 
+	@Autowired
+	AppointmentCountBO countBO;
+
+	@Autowired
+	PatientAnalyticsBO analyticsBO;
+
+	@Autowired
+	ApplicationEventPublisher publisher;
+
+	@Autowired
+	WaitlistBO waitlistBO;
+
+	@Autowired
+	PasswordHashBO passwordHashBO;
+
+	@Autowired
+	SlotLockBO slotLocks;
+
+	@Autowired
+	CapacityLedgerBO ledger;
+
+	@Autowired
+	ScatterGatherBO scatter;
+
+	@Autowired
+	AppointmentArchiveBO archiveBO;
+
+	@Autowired
+	AppointmentArchiveRepo archiveRepo;
+
+	@Autowired
+	AppointmentCancelBO cancelBO;
+
 	// Insert method:
 	public AppointmentsVO insertAppointments(AppointmentsVO vo) throws IdException, EmailException, PasswordException,
 			PhoneNumberException, AppointmentException, PatientException, DateOfBirthException {
 		if (validatePatient(vo.getPatient())) {
+			long doctorId = vo.getDoctor().getDoctorId();
+			// held slots count as taken, as in insertAppointmentsWithPatientID
+			slotLocks.lockForTransaction(List.of(new DoctorDateKey(doctorId, vo.getAppointmentDate())));
+			if (waitlistBO.isFull(doctorId, vo.getAppointmentDate())
+					|| !ledger.take(doctorId, vo.getAppointmentDate())) {
+				throw new AppointmentException("ERROR: the doctor is fully booked on " + vo.getAppointmentDate());
+			}
 			appointmentsRepo.save(vo);
+			countBO.booked(vo.getDoctor().getDoctorId(), vo.getAppointmentDate());
+			analyticsBO.booked(vo.getPatient().getPatientId());
+			publisher.publishEvent(new SlotChangeEvent(vo.getDoctor().getDoctorId(), vo.getAppointmentDate()));
 			return vo;
 		} else {
 			throw new AppointmentException("ERROR: in creating appointments");
@@ -45,20 +94,68 @@ public class AppointmentsBO {
 
 	public AppointmentsVO insertAppointmentsWithPatientID(AppointmentsVO vo)
 			throws IdException, EmailException, PasswordException, PhoneNumberException, AppointmentException,
-			PatientException, DateOfBirthException, AppointmentBookingDateException, ReasonException {
+			PatientException, DateOfBirthException, AppointmentBookingDateException, ReasonException,
+			WaitlistException {
 		if (vo.getPatient().getPatientId() != null && validatePatID(vo.getPatient().getPatientId())
 				&& validateAppointmentBookingDate(vo.getAppointmentDate()) && isValidReason(vo.getReason())) {
-			PatientVO pvo = pRepo.findById(vo.getPatient().getPatientId()).get();
-			vo.setPatient(pvo);
-			if (validatePatient(pvo)) {
-				appointmentsRepo.save(vo);
+			long doctorId = vo.getDoctor().getDoctorId();
+			slotLocks.lockForTransaction(List.of(new DoctorDateKey(doctorId, vo.getAppointmentDate())));
+			// this node's view first, then the ledger, which also counts the
+			// bookings other nodes made
+			AppointmentsVO booked = waitlistBO.isFull(doctorId, vo.getAppointmentDate()) ? null
+					: bookWithPatientID(vo);
+			if (booked == null) {
+				WaitlistEntry entry = waitlistBO.join(vo.getPatient().getPatientId(), doctorId,
+						vo.getAppointmentDate(), vo.getReason(), 0);
+				throw new WaitlistException("The doctor is fully booked on " + vo.getAppointmentDate()
+						+ ", you are number " + waitlistBO.position(entry) + " on the waitlist");
 			}
-			return vo;
+			return booked;
 		} else {
 			throw new AppointmentException("ERROR: in creating appointments");
 		}
 	}
 
+	// books a slot held for an accepted waitlist offer or a hold, this node's
+	// capacity check was done when the slot was held; the ledger can still say
+	// no when other nodes filled the day in the meantime
+	public AppointmentsVO insertHeldAppointment(AppointmentsVO vo) throws IdException, EmailException,
+			PasswordException, PhoneNumberException, AppointmentException, PatientException, DateOfBirthException,
+			AppointmentBookingDateException, ReasonException {
+		if (validatePatID(vo.getPatient().getPatientId()) && validateAppointmentBookingDate(vo.getAppointmentDate())
+				&& isValidReason(vo.getReason())) {
+			AppointmentsVO booked = bookWithPatientID(vo);
+			if (booked == null) {
+				throw new AppointmentException("ERROR: the doctor is fully booked on " + vo.getAppointmentDate());
+			}
+			return booked;
+		}
+		throw new AppointmentException("ERROR: in creating appointments");
+	}
+
+	// null when the ledger has no slot left. The slot is taken after the last
+	// check that can throw, a checked exception does not roll it back.
+	private AppointmentsVO bookWithPatientID(AppointmentsVO vo) throws EmailException, PasswordException,
+			PhoneNumberException, AppointmentException, PatientException, DateOfBirthException {
+		PatientVO pvo = pRepo.findById(vo.getPatient().getPatientId()).get();
+		vo.setPatient(pvo);
+		if (validatePatient(pvo)) {
+			if (!ledger.take(vo.getDoctor().getDoctorId(), vo.getAppointmentDate())) {
+				return null;
+			}
+			appointmentsRepo.save(vo);
+			countBO.booked(vo.getDoctor().getDoctorId(), vo.getAppointmentDate());
+			analyticsBO.booked(pvo.getPatientId());
+			publisher.publishEvent(new SlotChangeEvent(vo.getDoctor().getDoctorId(), vo.getAppointmentDate()));
+		}
+		return vo;
+	}
+
+	// the patient of an appointment, null when there is no such appointment
+	public Long patientOfAppointment(long id) {
+		return appointmentsRepo.findPatientIdByAppointmentId(id);
+	}
+
 	// fetchById method:
 	public AppointmentsVO fetchByID(Long id) throws IdException {
 		if (validateApptID(id)) {
@@ -71,13 +168,19 @@ public class AppointmentsBO {
 
 	// fetchAll method:
 	public List<AppointmentsVO> fetchAll() {
-		return appointmentsRepo.findAll();
+		return scatter.gatherAll(() -> appointmentsRepo.findAll());
 	}
 
-	public AppointmentsVO updateAppointmentDetails(AppointmentsVO vo, Long id) throws IdException {
+	public AppointmentsVO updateAppointmentDetails(AppointmentsVO vo, Long id)
+			throws IdException, AppointmentException {
 		if (validateApptID(id)) {
 			AppointmentsVO existingData = appointmentsRepo.findById(id).get();
-			existingData.setAppointmentDate(vo.getAppointmentDate());
+			if (vo.getAppointmentDate() == null) {
+				throw new AppointmentException("ERROR: appointment date could not be empty");
+			}
+			if (!vo.getAppointmentDate().equals(existingData.getAppointmentDate())) {
+				moveDate(existingData, vo.getAppointmentDate());
+			}
 			existingData.setReason(vo.getReason());
 
 			appointmentsRepo.save(existingData);
@@ -87,22 +190,68 @@ public class AppointmentsBO {
 
 	}
 
+	// partial update: only a given field that differs from the stored one is
+	// validated and set, so the dynamic UPDATE writes just that column. A date
+	// change is checked for room like a booking.
+	public AppointmentsVO patchAppointmentDetails(AppointmentsVO vo, long id)
+			throws IdException, AppointmentBookingDateException, ReasonException, AppointmentException {
+		if (id <= 0) {
+			throw new IdException("ERROR: appointment ID could not be negative or zero");
+		}
+		AppointmentsVO existing = appointmentsRepo.findById(id)
+				.orElseThrow(() -> new IdException("ERROR: appointment ID does not exist in the database"));
+		LocalDate date = PatientBO.changed(vo.getAppointmentDate(), existing.getAppointmentDate());
+		String reason = PatientBO.changed(vo.getReason(), existing.getReason());
+		if (date != null) {
+			validateAppointmentBookingDate(date);
+		}
+		if (reason != null) {
+			isValidReason(reason);
+		}
+		if (date != null) {
+			moveDate(existing, date);
+		}
+		if (reason != null) {
+			existing.setReason(reason);
+		}
+		return appointmentsRepo.save(existing);
+	}
+
+	// moves an appointment to another day of its doctor under the checks of a
+	// booking: the new day is locked, then this node's view and the ledger
+	// must have room. The old day's slot is given back only once the new one
+	// is taken, and nothing is changed when the day is full, a checked
+	// exception does not roll the transaction back.
+	private void moveDate(AppointmentsVO existing, LocalDate to) throws AppointmentException {
+		long doctorId = existing.getDoctor().getDoctorId();
+		LocalDate from = existing.getAppointmentDate();
+		slotLocks.lockForTransaction(List.of(new DoctorDateKey(doctorId, to)));
+		if (waitlistBO.isFull(doctorId, to) || !ledger.take(doctorId, to)) {
+			throw new AppointmentException("ERROR: the doctor is fully booked on " + to);
+		}
+		ledger.release(doctorId, from);
+		existing.setAppointmentDate(to);
+		countBO.moved(doctorId, from, doctorId, to);
+		publisher.publishEvent(new SlotChangeEvent(doctorId, from));
+		publisher.publishEvent(new SlotChangeEvent(doctorId, to));
+	}
+
 	// delete method:
 	public String deleteAppointment(long id) throws IdException {
-		String ret = "patient ID does not exists in the database give the valid ID";
-		if (validateApptID(id)) {
-			appointmentsRepo.deleteByAppointmentId(id);
-			if (appointmentsRepo.existsById(id)) {
-				ret = "appointment deleted";
-			}
+		if (id <= 0) {
+			throw new IdException("ERROR: patient ID could not be negative or zero");
 		}
-		return ret;
+		if (!cancelBO.cancelById(id)) {
+			throw new IdException("ERROR: patient ID does not exist in the database");
+		}
+		return "appointment deleted";
 	}
 
 	// fetches all the appointments respect to the patient id:
 	public List<AppointmentsVO> findAllAppointmentsByPatientID(long id) throws IdException {
 		if (validatePatID(id)) {
-			List<AppointmentsVO> apptList = appointmentsRepo.findAllApptByPatientId(id);
+			List<AppointmentsVO> apptList = scatter.gatherAll(() -> archiveBO.withArchived(null,
+					appointmentsRepo.findAllApptByPatientId(id), () -> archiveRepo.findAllByPatientId(id)));
 			if (apptList.isEmpty() || apptList == null) {
 				return (new ArrayList<>());
 			}
@@ -113,10 +262,15 @@ public class AppointmentsBO {
 
 	// returns the number that the particular date having count
 	public long countOfAppointmentsByDate(LocalDate date) {
-		long ret = appointmentsRepo.countAppointmentsByDate(date);
+		long ret = countBO.countByDate(date);
 		return ret;
 	}
 
+	// returns the number of appointments the doctor has on the date
+	public long countOfAppointmentsByDoctorAndDate(long doctorId, LocalDate date) {
+		return countBO.countByDoctorAndDate(doctorId, date);
+	}
+
 	// Appointment by between two days:
 	public List<AppointmentsVO> findAppointmentsByPatientIdAndDateRange(LocalDate sd, LocalDate ld, long id)
 			throws DateException, IdException, AppointmentException {
@@ -124,7 +278,9 @@ public class AppointmentsBO {
 		if (sd.isAfter(ld)) {
 			throw new DateException("start date could be before the end date");
 		}
-		List<AppointmentsVO> list = appointmentsRepo.findAppointmentsByPatientIdAndDateRange(sd, ld, id);
+		List<AppointmentsVO> list = scatter.gatherAll(() -> archiveBO.withArchived(sd,
+				appointmentsRepo.findAppointmentsByPatientIdAndDateRange(sd, ld, id),
+				() -> archiveRepo.findByPatientIdAndDateRange(sd, ld, id)));
 		if (list.size() <= 0) {
 			throw new AppointmentException("No records available");
 		}
@@ -136,7 +292,9 @@ public class AppointmentsBO {
 	public List<AppointmentsVO> findAppointmentsByPatientIdAndDate(LocalDate ld, long id)
 			throws IdException, AppointmentException {
 		validatePatID(id);
-		List<AppointmentsVO> list = appointmentsRepo.findAppointmentsByPatientIdAndDate(ld, id);
+		List<AppointmentsVO> list = scatter.gatherAll(() -> archiveBO.withArchived(ld,
+				appointmentsRepo.findAppointmentsByPatientIdAndDate(ld, id),
+				() -> archiveRepo.findByPatientIdAndDateRange(ld, ld, id)));
 		if (list.size() <= 0) {
 			throw new AppointmentException("No records available");
 		}
@@ -145,7 +303,10 @@ public class AppointmentsBO {
 
 	// ascending order:
 	public List<AppointmentsVO> ascendingDate() throws AppointmentException {
-		List<AppointmentsVO> list = appointmentsRepo.fetchApptsAscendingDate();
+		List<AppointmentsVO> list = scatter.gatherAll(() -> archiveBO.withArchived(null,
+				appointmentsRepo.fetchApptsAscendingDate(), () -> archiveRepo.findAllOrderByDate()));
+		// each shard's part is in date order, the merged list has to be too
+		list.sort(Comparator.comparing(AppointmentsVO::getAppointmentDate));
 		if (!(list.size() > 0)) {
 			throw new AppointmentException("ERROR: There is no Records in the DataBase");
 		}
@@ -370,7 +531,7 @@ public class AppointmentsBO {
 		return true;
 	}
 
-	private boolean isValidReason(String reason) throws ReasonException {
+	public boolean isValidReason(String reason) throws ReasonException {
 		boolean flag = true;
 		int reasonLength = reason.length();
 		if (reasonLength > 31) {
@@ -382,11 +543,12 @@ public class AppointmentsBO {
 		return flag;
 	}
 
-	// Main validation method to validate a patient object:
+	// Main validation method to validate a patient object. A stored patient's
+	// password is already hashed, its plain text was checked at registration.
 	public boolean validatePatient(PatientVO vo)
 			throws PatientException, PhoneNumberException, EmailException, PasswordException, DateOfBirthException {
 		return validatePhoneNumber(vo.getPatientPhone()) && validateEmail(vo.getPatientEmail())
-				&& validatePassword(vo.getPatientPassword())
+				&& (passwordHashBO.isHashed(vo.getPatientPassword()) || validatePassword(vo.getPatientPassword()))
 				&& validateCombinedName(vo.getFirstName(), vo.getLastName()) && validateFirstName(vo.getFirstName())
 				&& validateLastName(vo.getLastName()) && validateDOB(vo.getDob());
 
@@ -0,0 +1,231 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.HospitalAppointmentScheduling.BO.AppointmentCountBO.DoctorDateKey;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Live slot availability over Server-Sent Events. Every (doctor, date) that
+// somebody watches has one topic; a change is read from the in-memory
+// counters and serialised once per topic, then the same bytes go to all of
+// its subscribers. Open connections cost no database work. Writes made on
+// this node arrive as SlotChangeEvents; those of other nodes only in the
+// relayed change stream, and the days they touch are read again from the
+// database before they are pushed.
+@Component
+public class AvailabilityFeedBO {
+
+	Logger log = Logger.getLogger(AvailabilityFeedBO.class);
+
+	@Autowired
+	AppointmentCountBO countBO;
+
+	@Autowired
+	WaitlistBO waitlistBO;
+
+	@Autowired
+	ObjectMapper mapper;
+
+	@Value("${availability.max-range-days:31}")
+	private int maxRangeDays;
+
+	@Value("${availability.emitter-timeout-ms:1800000}")
+	private long emitterTimeoutMs;
+
+	private static class Topic {
+		final Set<SseEmitter> subscribers = new CopyOnWriteArraySet<>();
+		volatile long lastBooked = -1;
+		volatile int lastAvailable = -1;
+	}
+
+	private final Map<DoctorDateKey, Topic> topics = new ConcurrentHashMap<>();
+
+	// keys changed by committed writes since the last flush
+	private final Set<DoctorDateKey> dirty = ConcurrentHashMap.newKeySet();
+
+	// keys changed by other nodes since the last flush, and whether a change
+	// that does not name its day came in
+	private final Set<DoctorDateKey> stale = ConcurrentHashMap.newKeySet();
+	private volatile boolean allStale;
+
+	public int getMaxRangeDays() {
+		return maxRangeDays;
+	}
+
+	// opens a stream for one doctor over [from, to]; the current availability
+	// of every day in the range is sent first, then only changes
+	public SseEmitter subscribe(long doctorId, LocalDate from, LocalDate to) throws IOException {
+		SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+		List<DoctorDateKey> keys = new ArrayList<>();
+		for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+			keys.add(new DoctorDateKey(doctorId, d));
+		}
+		Runnable unsubscribe = () -> {
+			for (DoctorDateKey key : keys) {
+				topics.computeIfPresent(key, (k, t) -> {
+					t.subscribers.remove(emitter);
+					return t.subscribers.isEmpty() ? null : t;
+				});
+			}
+		};
+		emitter.onCompletion(unsubscribe);
+		emitter.onTimeout(unsubscribe);
+		emitter.onError(e -> unsubscribe.run());
+
+		for (DoctorDateKey key : keys) {
+			topics.compute(key, (k, t) -> {
+				Topic topic = t == null ? new Topic() : t;
+				topic.subscribers.add(emitter);
+				return topic;
+			});
+			emitter.send(message(key, countBO.countByDoctorAndDate(key.doctorId(), key.date()),
+					waitlistBO.freeSlots(key.doctorId(), key.date())));
+		}
+		return emitter;
+	}
+
+	@EventListener
+	public void onSlotChange(SlotChangeEvent event) {
+		DoctorDateKey key = new DoctorDateKey(event.doctorId(), event.date());
+		if (!topics.containsKey(key)) {
+			return;
+		}
+		// registered after the counter update of the same write, so by the
+		// time the key is marked the counter already holds the new value
+		AfterCommit.run(() -> dirty.add(key));
+	}
+
+	// every node's committed changes, this one's included. A booking names
+	// its day; deletes, bulk status changes and moves do not name the day
+	// they freed, so all watched days are read again.
+	@EventListener
+	public void onChange(ChangeEvent event) {
+		if (topics.isEmpty() || (!OutboxBO.APPOINTMENT.equals(event.aggregateType())
+				&& !OutboxBO.APPOINTMENT_BATCH.equals(event.aggregateType()))) {
+			return;
+		}
+		DoctorDateKey key = "AppointmentBooked".equals(event.eventType()) ? bookedDay(event.payload()) : null;
+		if (key == null) {
+			allStale = true;
+		} else if (topics.containsKey(key)) {
+			stale.add(key);
+		}
+	}
+
+	// pushes changed topics, coalescing bursts of writes on the same day into
+	// one message
+	@Scheduled(fixedDelayString = "${availability.flush-ms:250}")
+	public void flush() {
+		if (allStale) {
+			allStale = false;
+			stale.addAll(topics.keySet());
+		}
+		if (!stale.isEmpty()) {
+			List<DoctorDateKey> keys = new ArrayList<>(stale);
+			stale.removeAll(keys);
+			for (DoctorDateKey key : keys) {
+				if (topics.containsKey(key)) {
+					countBO.refresh(key);
+					dirty.add(key);
+				}
+			}
+		}
+		if (dirty.isEmpty()) {
+			return;
+		}
+		List<DoctorDateKey> keys = new ArrayList<>(dirty);
+		dirty.removeAll(keys);
+		for (DoctorDateKey key : keys) {
+			Topic topic = topics.get(key);
+			if (topic == null) {
+				continue;
+			}
+			long booked = countBO.countByDoctorAndDate(key.doctorId(), key.date());
+			int available = waitlistBO.freeSlots(key.doctorId(), key.date());
+			if (booked == topic.lastBooked && available == topic.lastAvailable) {
+				continue;
+			}
+			topic.lastBooked = booked;
+			topic.lastAvailable = available;
+			Set<DataWithMediaType> message = message(key, booked, available).build();
+			for (SseEmitter emitter : topic.subscribers) {
+				send(topic, emitter, message);
+			}
+		}
+	}
+
+	// comment lines keep idle connections open through proxies
+	@Scheduled(fixedDelayString = "${availability.heartbeat-ms:30000}")
+	public void heartbeat() {
+		Set<DataWithMediaType> ping = SseEmitter.event().comment("ping").build();
+		for (Topic topic : topics.values()) {
+			for (SseEmitter emitter : topic.subscribers) {
+				send(topic, emitter, ping);
+			}
+		}
+	}
+
+	public int topicCount() {
+		return topics.size();
+	}
+
+	private void send(Topic topic, SseEmitter emitter, Set<DataWithMediaType> message) {
+		try {
+			emitter.send(message);
+		} catch (IOException | IllegalStateException e) {
+			// client went away, the completion callback cleans up the other topics
+			topic.subscribers.remove(emitter);
+			emitter.completeWithError(e);
+		}
+	}
+
+	// null when the payload does not carry the doctor and the date
+	private DoctorDateKey bookedDay(String payload) {
+		try {
+			JsonNode node = mapper.readTree(payload);
+			if (!node.hasNonNull("doctorId") || !node.hasNonNull("appointmentDate")) {
+				return null;
+			}
+			return new DoctorDateKey(node.get("doctorId").asLong(),
+					LocalDate.parse(node.get("appointmentDate").asText()));
+		} catch (JsonProcessingException | DateTimeParseException e) {
+			return null;
+		}
+	}
+
+	// available leaves out the slots held for waitlist offers and patient holds
+	private SseEmitter.SseEventBuilder message(DoctorDateKey key, long booked, int available) {
+		Map<String, Object> body = new LinkedHashMap<>();
+		body.put("doctorId", key.doctorId());
+		body.put("date", key.date());
+		body.put("booked", booked);
+		body.put("available", available);
+		try {
+			return SseEmitter.event().name("availability").data(mapper.writeValueAsString(body),
+					MediaType.APPLICATION_JSON);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("ERROR: could not serialise availability", e);
+		}
+	}
+}
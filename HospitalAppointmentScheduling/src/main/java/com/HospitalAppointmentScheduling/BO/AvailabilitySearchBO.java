@@ -0,0 +1,192 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntBiFunction;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.HospitalAppointmentScheduling.DAO.DoctorPlacementProjection;
+import com.HospitalAppointmentScheduling.DAO.DoctorRepo;
+
+// Earliest free days across all doctors of a specialization. Every doctor has
+// a bitset over the next horizon-days days where a set bit means the day is
+// full. A search puts each matching doctor's first clear bit in a heap, pops
+// the earliest and pushes that doctor's next clear bit, until it has as many
+// days as asked for: a k-way merge of the doctors' free days, with no query
+// per doctor. Popped days are checked against the live counters, so a bit
+// that missed an update costs one skip, not a wrong answer.
+// Bits follow SlotChangeEvents after commit; the index is rebuilt every
+// minute and when the date rolls over, which also picks up new doctors.
+@Component
+public class AvailabilitySearchBO {
+
+	Logger log = Logger.getLogger(AvailabilitySearchBO.class);
+
+	@Autowired
+	DoctorRepo doctorRepo;
+
+	@Autowired
+	WaitlistBO waitlistBO;
+
+	@Autowired
+	AppointmentCountBO countBO;
+
+	@Value("${availability.search.horizon-days:90}")
+	private int horizonDays;
+
+	@Value("${availability.search.max-results:100}")
+	private int maxResults;
+
+	public record DoctorPlace(long doctorId, long hospitalId, int cityId) {
+	}
+
+	public record FreeDay(long doctorId, LocalDate date, int freeSlots) {
+	}
+
+	// bitsets are replaced, never changed, once they are in the index
+	private record Index(LocalDate base, Map<Integer, List<DoctorPlace>> bySpecialization,
+			Map<Long, BitSet> full) {
+	}
+
+	private record Cursor(int day, DoctorPlace doctor, BitSet full) {
+	}
+
+	private volatile Index index;
+
+	public int getMaxResults() {
+		return maxResults;
+	}
+
+	// the doctors of a specialization as of the last rebuild
+	public List<DoctorPlace> doctorsOf(int specializationId) {
+		return current().bySpecialization().getOrDefault(specializationId, List.of());
+	}
+
+	@Scheduled(fixedDelayString = "${availability.search.rebuild-ms:60000}")
+	public synchronized void rebuild() {
+		if (!countBO.isSeeded()) {
+			return;
+		}
+		index = build(LocalDate.now());
+	}
+
+	@EventListener
+	public void onSlotChange(SlotChangeEvent event) {
+		AfterCommit.run(() -> mark(event.doctorId(), event.date()));
+	}
+
+	// the earliest days with a free slot from the given day on, for doctors of
+	// the specialization, optionally only in one hospital or city
+	public List<FreeDay> search(int specializationId, Long hospitalId, Integer cityId, LocalDate from, int limit) {
+		Index ix = current();
+		List<DoctorPlace> doctors = new ArrayList<>();
+		for (DoctorPlace d : ix.bySpecialization().getOrDefault(specializationId, List.of())) {
+			if ((hospitalId == null || d.hospitalId() == hospitalId) && (cityId == null || d.cityId() == cityId)) {
+				doctors.add(d);
+			}
+		}
+		int start = from == null ? 0 : (int) Math.max(0, ChronoUnit.DAYS.between(ix.base(), from));
+		return merge(doctors, ix.full(), ix.base(), start, horizonDays, limit, (doctorId, date) -> {
+			int free = waitlistBO.freeSlots(doctorId, date);
+			if (free == 0) {
+				mark(doctorId, date);
+			}
+			return free;
+		});
+	}
+
+	// full holds the bitset of every doctor in the list, bit i standing for
+	// base + i days
+	static List<FreeDay> merge(List<DoctorPlace> doctors, Map<Long, BitSet> full, LocalDate base, int start,
+			int horizon, int limit, ToIntBiFunction<Long, LocalDate> freeSlots) {
+		PriorityQueue<Cursor> heap = new PriorityQueue<>(Math.max(1, doctors.size()),
+				Comparator.comparingInt(Cursor::day).thenComparingLong(c -> c.doctor().doctorId()));
+		for (DoctorPlace d : doctors) {
+			BitSet bits = full.get(d.doctorId());
+			int day = bits.nextClearBit(start);
+			if (day < horizon) {
+				heap.add(new Cursor(day, d, bits));
+			}
+		}
+		List<FreeDay> days = new ArrayList<>(limit);
+		while (days.size() < limit && !heap.isEmpty()) {
+			Cursor c = heap.poll();
+			LocalDate date = base.plusDays(c.day());
+			int free = freeSlots.applyAsInt(c.doctor().doctorId(), date);
+			if (free > 0) {
+				days.add(new FreeDay(c.doctor().doctorId(), date, free));
+			}
+			int next = c.full().nextClearBit(c.day() + 1);
+			if (next < horizon) {
+				heap.add(new Cursor(next, c.doctor(), c.full()));
+			}
+		}
+		return days;
+	}
+
+	private Index current() {
+		Index ix = index;
+		if (ix == null || !ix.base().equals(LocalDate.now())) {
+			synchronized (this) {
+				ix = index;
+				if (ix == null || !ix.base().equals(LocalDate.now())) {
+					ix = build(LocalDate.now());
+					index = ix;
+				}
+			}
+		}
+		return ix;
+	}
+
+	private Index build(LocalDate base) {
+		Map<Integer, List<DoctorPlace>> bySpecialization = new HashMap<>();
+		Map<Long, BitSet> full = new ConcurrentHashMap<>();
+		for (DoctorPlacementProjection d : doctorRepo.findDoctorPlacements()) {
+			bySpecialization.computeIfAbsent(d.getSpecializationId(), k -> new ArrayList<>())
+					.add(new DoctorPlace(d.getDoctorId(), d.getHospitalId(), d.getCityId()));
+			BitSet bits = new BitSet(horizonDays);
+			for (int day = 0; day < horizonDays; day++) {
+				if (waitlistBO.freeSlots(d.getDoctorId(), base.plusDays(day)) == 0) {
+					bits.set(day);
+				}
+			}
+			full.put(d.getDoctorId(), bits);
+		}
+		return new Index(base, bySpecialization, full);
+	}
+
+	// copy on write, searches read the bitsets without a lock
+	private void mark(long doctorId, LocalDate date) {
+		Index ix = index;
+		if (ix == null) {
+			return;
+		}
+		int day = (int) ChronoUnit.DAYS.between(ix.base(), date);
+		if (day < 0 || day >= horizonDays) {
+			return;
+		}
+		boolean isFull = waitlistBO.freeSlots(doctorId, date) == 0;
+		ix.full().computeIfPresent(doctorId, (id, bits) -> {
+			if (bits.get(day) == isFull) {
+				return bits;
+			}
+			BitSet copy = (BitSet) bits.clone();
+			copy.set(day, isFull);
+			return copy;
+		});
+	}
+}
@@ -0,0 +1,107 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.HospitalAppointmentScheduling.BO.AppointmentCountBO.DoctorDateKey;
+import com.HospitalAppointmentScheduling.DAO.CapacityLedgerDAO;
+
+// Capacity that holds across nodes. The in-memory checks (counters, holds,
+// waitlist, slot locks) only see this node's bookings; every booking also
+// takes its slot in doctor_day_capacity inside its own transaction, and that
+// conditional UPDATE is what finally says yes or no. Cancellations and moves
+// give slots back the same way, so the ledger follows the appointments table.
+@Component
+public class CapacityLedgerBO {
+
+	Logger log = Logger.getLogger(CapacityLedgerBO.class);
+
+	private static final Comparator<DoctorDateKey> KEY_ORDER = Comparator.comparingLong(DoctorDateKey::doctorId)
+			.thenComparing(DoctorDateKey::date);
+
+	@Autowired
+	CapacityLedgerDAO ledgerDAO;
+
+	@Autowired
+	ScatterGatherBO scatter;
+
+	@Value("${appointment.slots-per-doctor-day:5}")
+	int slotsPerDay = 5;
+
+	// a change of appointment.slots-per-doctor-day applies to upcoming days
+	@EventListener(ApplicationReadyEvent.class)
+	public void syncCapacity() {
+		scatter.onEachShardInTurn(() -> ledgerDAO.setCapacity(slotsPerDay, LocalDate.now()));
+	}
+
+	public boolean take(long doctorId, LocalDate date) {
+		return ledgerDAO.take(doctorId, date, 1, slotsPerDay);
+	}
+
+	public void release(long doctorId, LocalDate date) {
+		ledgerDAO.release(doctorId, date, 1);
+	}
+
+	// gives back the negative deltas, then takes the positive ones in key
+	// order, so two nodes adjusting overlapping days lock the rows in the same
+	// order. Returns the first day without room, null when all fit. On failure
+	// the changes already made are undone: the callers throw checked
+	// exceptions, which do not roll the transaction back.
+	public DoctorDateKey apply(Map<DoctorDateKey, Long> deltas) {
+		List<DoctorDateKey> keys = new ArrayList<>(deltas.keySet());
+		keys.sort(KEY_ORDER);
+		for (DoctorDateKey k : keys) {
+			long d = deltas.get(k);
+			if (d < 0) {
+				ledgerDAO.release(k.doctorId(), k.date(), (int) -d);
+			}
+		}
+		List<DoctorDateKey> taken = new ArrayList<>();
+		for (DoctorDateKey k : keys) {
+			long d = deltas.get(k);
+			if (d <= 0) {
+				continue;
+			}
+			if (!ledgerDAO.take(k.doctorId(), k.date(), (int) d, slotsPerDay)) {
+				for (DoctorDateKey t : taken) {
+					ledgerDAO.release(t.doctorId(), t.date(), deltas.get(t).intValue());
+				}
+				for (DoctorDateKey r : keys) {
+					if (deltas.get(r) < 0) {
+						ledgerDAO.force(r.doctorId(), r.date(), (int) -deltas.get(r), slotsPerDay);
+					}
+				}
+				return k;
+			}
+			taken.add(k);
+		}
+		return null;
+	}
+
+	public void patientsRemoved(List<Long> patientIds) {
+		ledgerDAO.releasePatients(patientIds, LocalDate.now());
+	}
+
+	// only today and later are ever booked against
+	@Scheduled(cron = "${capacity.purge-cron:0 15 0 * * *}")
+	@LeaderOnly("capacity-purge")
+	public void purge() {
+		LocalDate today = LocalDate.now();
+		long n = 0;
+		for (int removed : scatter.onEachShardInTurn(() -> ledgerDAO.purgeBefore(today)).values()) {
+			n += removed;
+		}
+		log.info("purged " + n + " past days from the capacity ledger");
+	}
+}
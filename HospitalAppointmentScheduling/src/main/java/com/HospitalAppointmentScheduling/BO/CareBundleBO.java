@@ -0,0 +1,161 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.HospitalAppointmentScheduling.BO.AppointmentCountBO.DoctorDateKey;
+import com.HospitalAppointmentScheduling.CustomExceptions.AppointmentBookingDateException;
+import com.HospitalAppointmentScheduling.CustomExceptions.AppointmentException;
+import com.HospitalAppointmentScheduling.CustomExceptions.DateOfBirthException;
+import com.HospitalAppointmentScheduling.CustomExceptions.EmailException;
+import com.HospitalAppointmentScheduling.CustomExceptions.IdException;
+import com.HospitalAppointmentScheduling.CustomExceptions.PasswordException;
+import com.HospitalAppointmentScheduling.CustomExceptions.PatientException;
+import com.HospitalAppointmentScheduling.CustomExceptions.PhoneNumberException;
+import com.HospitalAppointmentScheduling.CustomExceptions.ReasonException;
+import com.HospitalAppointmentScheduling.DAO.AppointmentBatchDAO;
+import com.HospitalAppointmentScheduling.DAO.AppointmentsRepo;
+import com.HospitalAppointmentScheduling.DAO.DoctorRepo;
+import com.HospitalAppointmentScheduling.DAO.PatientRepo;
+import com.HospitalAppointmentScheduling.Entity.AppointmentsVO;
+import com.HospitalAppointmentScheduling.Entity.PatientVO;
+
+// Books several appointments for one patient all or nothing. The patient is
+// checked once, the items are checked against each other and against the
+// patient's existing bookings with one query, then the slot locks of every
+// (doctor, date) are taken together and all capacity checks pass before the
+// single multi-row insert. A failure anywhere rolls back the whole bundle.
+@Component
+public class CareBundleBO {
+
+	Logger log = Logger.getLogger(CareBundleBO.class);
+
+	@Autowired
+	AppointmentsBO apptBO;
+
+	@Autowired
+	AppointmentsRepo appointmentsRepo;
+
+	@Autowired
+	AppointmentBatchDAO batchDAO;
+
+	@Autowired
+	PatientRepo patientRepo;
+
+	@Autowired
+	DoctorRepo doctorRepo;
+
+	@Autowired
+	SlotLockBO slotLocks;
+
+	@Autowired
+	WaitlistBO waitlistBO;
+
+	@Autowired
+	AppointmentCountBO countBO;
+
+	@Autowired
+	PatientAnalyticsBO analyticsBO;
+
+	@Autowired
+	ShardMapBO shardMap;
+
+	@Autowired
+	ApplicationEventPublisher publisher;
+
+	@Autowired
+	CapacityLedgerBO ledger;
+
+	@Value("${booking.bundle.max-size:20}")
+	private int maxSize;
+
+	// must run inside the caller's transaction
+	public List<AppointmentsVO> book(long patientId, List<AppointmentsVO> appts)
+			throws IdException, AppointmentException, AppointmentBookingDateException, ReasonException,
+			EmailException, PasswordException, PhoneNumberException, PatientException, DateOfBirthException {
+		if (appts == null || appts.isEmpty()) {
+			throw new AppointmentException("ERROR: Appointments could not be zero..");
+		}
+		if (appts.size() > maxSize) {
+			throw new AppointmentException("ERROR: at most " + maxSize + " appointments can be booked together");
+		}
+		Optional<PatientVO> patient = patientRepo.findById(patientId);
+		if (patient.isEmpty()) {
+			throw new IdException("ERROR: patient ID not exist in the database");
+		}
+		apptBO.validatePatient(patient.get());
+
+		Map<DoctorDateKey, Integer> perKey = new HashMap<>();
+		LocalDate first = null;
+		LocalDate last = null;
+		for (AppointmentsVO a : appts) {
+			apptBO.validateAppointmentBookingDate(a.getAppointmentDate());
+			apptBO.isValidReason(a.getReason());
+			DoctorDateKey key = new DoctorDateKey(a.getDoctor().getDoctorId(), a.getAppointmentDate());
+			if (perKey.merge(key, 1, Integer::sum) > 1) {
+				throw new AppointmentException("ERROR: doctor " + key.doctorId() + " appears twice on "
+						+ key.date() + " in the bundle");
+			}
+			first = first == null || a.getAppointmentDate().isBefore(first) ? a.getAppointmentDate() : first;
+			last = last == null || a.getAppointmentDate().isAfter(last) ? a.getAppointmentDate() : last;
+		}
+		Set<Long> doctors = new HashSet<>();
+		perKey.keySet().forEach(k -> doctors.add(k.doctorId()));
+		if (doctorRepo.findAllById(doctors).size() != doctors.size()) {
+			throw new IdException("ERROR: Doctor ID not exist in the database");
+		}
+		// one transaction, one shard
+		Set<String> shards = new HashSet<>();
+		doctors.forEach(d -> shards.add(shardMap.shardOfDoctor(d)));
+		if (shards.size() > 1) {
+			throw new AppointmentException(
+					"ERROR: a care bundle can only hold appointments of hospitals on the same shard");
+		}
+		for (AppointmentsVO existing : appointmentsRepo.findAppointmentsByPatientIdAndDateRange(first, last,
+				patientId)) {
+			DoctorDateKey key = new DoctorDateKey(existing.getDoctor().getDoctorId(), existing.getAppointmentDate());
+			if (perKey.containsKey(key)) {
+				throw new AppointmentException("ERROR: the patient already has an appointment with doctor "
+						+ key.doctorId() + " on " + key.date());
+			}
+		}
+
+		slotLocks.lockForTransaction(perKey.keySet());
+		for (DoctorDateKey key : perKey.keySet()) {
+			if (!waitlistBO.canBook(key.doctorId(), key.date(), 1)) {
+				throw new AppointmentException(
+						"ERROR: doctor " + key.doctorId() + " is fully booked on " + key.date());
+			}
+		}
+
+		Map<DoctorDateKey, Long> deltas = new HashMap<>();
+		perKey.forEach((k, n) -> deltas.put(k, (long) n));
+		DoctorDateKey full = ledger.apply(deltas);
+		if (full != null) {
+			throw new AppointmentException("ERROR: doctor " + full.doctorId() + " is fully booked on " + full.date());
+		}
+
+		for (AppointmentsVO a : appts) {
+			a.setPatient(patient.get());
+		}
+		batchDAO.insertAll(appts);
+		countBO.adjusted(deltas);
+		analyticsBO.booked(patientId, appts.size());
+		for (DoctorDateKey key : perKey.keySet()) {
+			publisher.publishEvent(new SlotChangeEvent(key.doctorId(), key.date()));
+		}
+		log.info("care bundle of " + appts.size() + " appointments booked for patient " + patientId);
+		return appts;
+	}
+}
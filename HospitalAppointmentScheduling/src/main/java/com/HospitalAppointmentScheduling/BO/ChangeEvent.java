@@ -0,0 +1,10 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.time.LocalDateTime;
+
+// A committed change as seen by consumers. The offset is the position in the
+// change log and only grows, so a consumer resumes by asking for everything
+// after the last offset it processed. eventId is the outbox row it came from.
+public record ChangeEvent(long offset, long eventId, String aggregateType, long aggregateId, String eventType,
+		String payload, LocalDateTime createdAt) {
+}
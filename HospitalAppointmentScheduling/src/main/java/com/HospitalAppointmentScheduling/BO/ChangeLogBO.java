@@ -0,0 +1,192 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Append-only local copy of the change stream, one JSON line per event. The
+// offsets are the ones the relay numbered the outbox rows with, so they mean
+// the same on every node. A sparse index (every INDEX_EVERY lines) maps
+// offsets to byte positions, so reading from an offset seeks close to it
+// instead of scanning the file.
+@Component
+public class ChangeLogBO {
+
+	private static final int INDEX_EVERY = 256;
+
+	Logger log = Logger.getLogger(ChangeLogBO.class);
+
+	@Autowired
+	ObjectMapper mapper;
+
+	@Value("${outbox.log.path:data/change-events.log}")
+	private String path;
+
+	private FileChannel channel;
+
+	private final NavigableMap<Long, Long> index = new ConcurrentSkipListMap<>();
+
+	private volatile long lastOffset = 0;
+	private long size = 0;
+
+	@PostConstruct
+	public void open() throws IOException {
+		Path file = Paths.get(path);
+		if (file.getParent() != null) {
+			Files.createDirectories(file.getParent());
+		}
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		recover();
+		log.info("change log " + file.toAbsolutePath() + " opened at offset " + lastOffset);
+	}
+
+	@PreDestroy
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	public long lastOffset() {
+		return lastOffset;
+	}
+
+	// appends the relayed batch in offset order, events at or below the last
+	// offset are in the log already and skipped. Returns the events written.
+	public synchronized List<ChangeEvent> append(List<ChangeEvent> batch) throws IOException {
+		List<ChangeEvent> written = new ArrayList<>(batch.size());
+		List<byte[]> lines = new ArrayList<>(batch.size());
+		int bytes = 0;
+		long offset = lastOffset;
+		for (ChangeEvent e : batch) {
+			if (e.offset() <= offset) {
+				continue;
+			}
+			offset = e.offset();
+			byte[] line = (mapper.writeValueAsString(e) + "\n").getBytes(StandardCharsets.UTF_8);
+			written.add(e);
+			lines.add(line);
+			bytes += line.length;
+		}
+		if (written.isEmpty()) {
+			return written;
+		}
+
+		ByteBuffer buf = ByteBuffer.allocate(bytes);
+		for (byte[] line : lines) {
+			buf.put(line);
+		}
+		buf.flip();
+		long position = size;
+		while (buf.hasRemaining()) {
+			position += channel.write(buf, position);
+		}
+		channel.force(false);
+
+		// index and bookkeeping only once the bytes are on disk
+		long linePosition = size;
+		for (int i = 0; i < written.size(); i++) {
+			ChangeEvent e = written.get(i);
+			if (e.offset() % INDEX_EVERY == 1) {
+				index.put(e.offset(), linePosition);
+			}
+			linePosition += lines.get(i).length;
+		}
+		size = position;
+		lastOffset = offset;
+		return written;
+	}
+
+	// up to limit events with an offset greater than after, in log order
+	public List<ChangeEvent> readAfter(long after, int limit) throws IOException {
+		List<ChangeEvent> ret = new ArrayList<>();
+		// lines past the end taken here may be half written by append
+		long end;
+		synchronized (this) {
+			if (after >= lastOffset || limit <= 0) {
+				return ret;
+			}
+			end = size;
+		}
+		Map.Entry<Long, Long> start = index.floorEntry(after + 1);
+		long position = start == null ? 0 : start.getValue();
+
+		// readers get their own channel, the writer's is never repositioned
+		try (FileChannel in = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+			in.position(position);
+			BufferedReader reader = new BufferedReader(
+					new InputStreamReader(Channels.newInputStream(in), StandardCharsets.UTF_8));
+			String line;
+			while (ret.size() < limit && (line = reader.readLine()) != null) {
+				position += line.getBytes(StandardCharsets.UTF_8).length + 1;
+				if (position > end) {
+					break;
+				}
+				if (line.isEmpty()) {
+					continue;
+				}
+				ChangeEvent e = mapper.readValue(line, ChangeEvent.class);
+				if (e.offset() > after) {
+					ret.add(e);
+				}
+			}
+		}
+		return ret;
+	}
+
+	// rebuilds offset and index from the file, dropping a torn
+	// last line left by a crash in the middle of a write
+	private void recover() throws IOException {
+		long fileSize = channel.size();
+		long position = 0;
+		long valid = 0;
+		BufferedReader reader = new BufferedReader(
+				new InputStreamReader(Files.newInputStream(Paths.get(path)), StandardCharsets.UTF_8));
+		String line;
+		while ((line = reader.readLine()) != null) {
+			int length = line.getBytes(StandardCharsets.UTF_8).length + 1;
+			ChangeEvent e;
+			try {
+				if (position + length > fileSize) {
+					throw new IOException("no line terminator");
+				}
+				e = mapper.readValue(line, ChangeEvent.class);
+			} catch (IOException ex) {
+				log.warn("change log has an unreadable line at byte " + position + ", truncating there");
+				break;
+			}
+			if (e.offset() % INDEX_EVERY == 1) {
+				index.put(e.offset(), position);
+			}
+			lastOffset = e.offset();
+			position += length;
+			valid = position;
+		}
+		reader.close();
+		if (fileSize > valid) {
+			channel.truncate(valid);
+		}
+		size = valid;
+	}
+}
@@ -0,0 +1,519 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.HospitalAppointmentScheduling.DAO.AppointmentSnapshotDAO;
+
+// Columnar snapshot of all appointments for reporting. One row per
+// appointment in parallel primitive arrays: ID, epoch day, patient, doctor,
+// a status code and a dictionary code for the reason, 31 bytes a row. Rows
+// stay in ID order so an update finds its row by binary search.
+//
+// Group-by counts are fork-join scans over row ranges; each leaf counts into
+// its own primitive hash map and the maps are merged on the way up.
+//
+// A frequent refresh applies the rows changed since the updated_at watermark,
+// reading a little further back so transactions that commit late are not
+// missed. Deletes come in through the change feed and only mark the row. A
+// full rebuild every few hours drops the marked rows and picks up the
+// archive. There is one writer at a time. A scan reads the row count once
+// and sees every row appended before it; a row updated during a scan may be
+// counted with its old or its new values.
+@Component
+public class ColumnarAnalyticsBO {
+
+	Logger log = Logger.getLogger(ColumnarAnalyticsBO.class);
+
+	@Autowired
+	AppointmentSnapshotDAO snapshotDAO;
+
+	@Autowired
+	ScatterGatherBO scatter;
+
+	@Autowired
+	@Qualifier("analyticsPool")
+	ForkJoinPool pool;
+
+	@Value("${analytics.columnar.overlap-ms:60000}")
+	long overlapMs = 60000;
+
+	// rows per fork-join leaf
+	int leafSize = 1 << 16;
+
+	static final int BYTES_PER_ROW = Long.BYTES + Integer.BYTES + Long.BYTES + Long.BYTES + Byte.BYTES
+			+ Character.BYTES;
+
+	private static final byte DELETED = -1;
+	private static final byte OTHER_STATUS = Byte.MAX_VALUE;
+	private static final char OTHER_REASON = Character.MAX_VALUE;
+	private static final String OTHER = "(other)";
+
+	public enum Dimension {
+		DATE, DOCTOR, PATIENT, STATUS, REASON
+	}
+
+	// null fields do not filter
+	public record Filter(LocalDate from, LocalDate to, Long doctorId, Long patientId, String status) {
+	}
+
+	record Row(long id, LocalDate date, long patientId, long doctorId, String status, String reason,
+			LocalDateTime updatedAt) {
+	}
+
+	private static final class Columns {
+		final long[] ids;
+		final int[] days;
+		final long[] patients;
+		final long[] doctors;
+		final byte[] statuses;
+		final char[] reasons;
+		volatile int size;
+
+		Columns(int capacity) {
+			ids = new long[capacity];
+			days = new int[capacity];
+			patients = new long[capacity];
+			doctors = new long[capacity];
+			statuses = new byte[capacity];
+			reasons = new char[capacity];
+		}
+
+		int capacity() {
+			return ids.length;
+		}
+
+		Columns copy(int capacity) {
+			Columns c = new Columns(capacity);
+			int n = size;
+			System.arraycopy(ids, 0, c.ids, 0, n);
+			System.arraycopy(days, 0, c.days, 0, n);
+			System.arraycopy(patients, 0, c.patients, 0, n);
+			System.arraycopy(doctors, 0, c.doctors, 0, n);
+			System.arraycopy(statuses, 0, c.statuses, 0, n);
+			System.arraycopy(reasons, 0, c.reasons, 0, n);
+			c.size = n;
+			return c;
+		}
+
+		void copyRow(int from, Columns to, int at) {
+			to.ids[at] = ids[from];
+			to.days[at] = days[from];
+			to.patients[at] = patients[from];
+			to.doctors[at] = doctors[from];
+			to.statuses[at] = statuses[from];
+			to.reasons[at] = reasons[from];
+		}
+	}
+
+	private volatile Columns columns = new Columns(0);
+	private LocalDateTime watermark;
+
+	// the dictionaries only grow; scans decode through the concurrent maps
+	private final Map<String, Byte> statusCodes = new ConcurrentHashMap<>();
+	private final Map<Integer, String> statusNames = new ConcurrentHashMap<>();
+	private final Map<String, Character> reasonCodes = new HashMap<>();
+	private final Map<Integer, String> reasonNames = new ConcurrentHashMap<>();
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void load() {
+		rebuild();
+	}
+
+	@Scheduled(fixedDelayString = "${analytics.columnar.rebuild-ms:21600000}", initialDelayString = "${analytics.columnar.rebuild-ms:21600000}")
+	public synchronized void rebuild() {
+		Columns[] built = { new Columns(Math.max(16, columns.size)) };
+		LocalDateTime[] latest = { null };
+		scatter.onEachShardInTurn(() -> {
+			snapshotDAO.streamAll((id, date, p, d, s, r, u) -> {
+				built[0] = append(built[0], new Row(id, date, p, d, s, r, u), built[0].capacity() >> 1);
+				latest[0] = latest[0] == null || u.isAfter(latest[0]) ? u : latest[0];
+			});
+			return null;
+		});
+		Columns c = isSorted(built[0]) ? built[0] : sortById(built[0]);
+		// no slack until the next append
+		columns = c.capacity() == c.size ? c : c.copy(c.size);
+		if (latest[0] != null && (watermark == null || latest[0].isAfter(watermark))) {
+			watermark = latest[0];
+		} else if (watermark == null) {
+			watermark = LocalDateTime.now();
+		}
+		log.info("columnar snapshot of " + c.size + " appointments, " + (long) c.size * BYTES_PER_ROW / 1024 + " KB");
+	}
+
+	@Scheduled(fixedDelayString = "${analytics.columnar.refresh-ms:5000}", initialDelayString = "${analytics.columnar.refresh-ms:5000}")
+	public synchronized void refresh() {
+		if (watermark == null) {
+			return;
+		}
+		LocalDateTime since = watermark.minusNanos(overlapMs * 1_000_000);
+		List<Row> changed = new ArrayList<>();
+		scatter.onEachShardInTurn(() -> {
+			snapshotDAO.streamChangedSince(since, (id, date, p, d, s, r, u) -> changed.add(new Row(id, date, p, d, s, r, u)));
+			return null;
+		});
+		apply(changed);
+	}
+
+	// updates known rows in place, appends new IDs; an ID lower than the last
+	// one that is not in the snapshot yet (a late commit) is merged in with a
+	// copy of the columns
+	synchronized void apply(List<Row> changed) {
+		Columns c = columns;
+		List<Row> late = new ArrayList<>();
+		for (Row row : changed) {
+			int at = Arrays.binarySearch(c.ids, 0, c.size, row.id());
+			if (at >= 0) {
+				write(c, at, row);
+			} else if (-at - 1 == c.size) {
+				Columns grown = append(c, row, slack(c.size));
+				if (grown != c) {
+					c = grown;
+					columns = c;
+				}
+			} else {
+				late.add(row);
+			}
+			if (watermark == null || row.updatedAt().isAfter(watermark)) {
+				watermark = row.updatedAt();
+			}
+		}
+		if (!late.isEmpty()) {
+			late.sort(Comparator.comparingLong(Row::id));
+			Columns merged = new Columns(c.size + late.size() + slack(c.size + late.size()));
+			int i = 0;
+			int j = 0;
+			while (i < c.size || j < late.size()) {
+				if (j == late.size() || (i < c.size && c.ids[i] < late.get(j).id())) {
+					c.copyRow(i++, merged, merged.size);
+				} else {
+					write(merged, merged.size, late.get(j++));
+				}
+				merged.size++;
+			}
+			c = merged;
+		}
+		columns = c;
+	}
+
+	// deleted appointments, and those of a deleted patient, stop being counted
+	@EventListener
+	public synchronized void onChange(ChangeEvent event) {
+		if (!event.eventType().endsWith("Deleted")) {
+			return;
+		}
+		Columns c = columns;
+		if (OutboxBO.APPOINTMENT.equals(event.aggregateType())) {
+			int at = Arrays.binarySearch(c.ids, 0, c.size, event.aggregateId());
+			if (at >= 0) {
+				c.statuses[at] = DELETED;
+			}
+		} else if (OutboxBO.PATIENT.equals(event.aggregateType())) {
+			for (int i = 0; i < c.size; i++) {
+				if (c.patients[i] == event.aggregateId()) {
+					c.statuses[i] = DELETED;
+				}
+			}
+		}
+	}
+
+	// appointments counted per value of the dimension; dates in date order,
+	// the others most first. top > 0 keeps only that many groups.
+	public Map<String, Long> count(Dimension by, Filter filter, int top) {
+		Columns c = columns;
+		int n = c.size;
+		int status = -2;
+		if (filter.status() != null) {
+			Byte code = statusCodes.get(filter.status());
+			if (code == null) {
+				return new LinkedHashMap<>();
+			}
+			status = code;
+		}
+		CountTask task = new CountTask(c, by, filter.from() == null ? Integer.MIN_VALUE : (int) filter.from().toEpochDay(),
+				filter.to() == null ? Integer.MAX_VALUE : (int) filter.to().toEpochDay(), filter.doctorId(),
+				filter.patientId(), status, leafSize, 0, n);
+		LongCounts counts = n == 0 ? new LongCounts() : pool.invoke(task);
+
+		List<long[]> groups = new ArrayList<>(counts.size());
+		counts.forEach((k, v) -> groups.add(new long[] { k, v }));
+		if (by == Dimension.DATE) {
+			groups.sort(Comparator.comparingLong(g -> g[0]));
+		} else {
+			groups.sort((a, b) -> a[1] != b[1] ? Long.compare(b[1], a[1]) : Long.compare(a[0], b[0]));
+		}
+		Map<String, Long> result = new LinkedHashMap<>();
+		for (long[] g : groups) {
+			if (top > 0 && result.size() == top) {
+				break;
+			}
+			result.put(decode(by, g[0]), g[1]);
+		}
+		return result;
+	}
+
+	public int size() {
+		return columns.size;
+	}
+
+	// bytes of column storage per appointment held, slack included
+	public double bytesPerAppointment() {
+		Columns c = columns;
+		return c.size == 0 ? 0 : (double) c.capacity() * BYTES_PER_ROW / c.size;
+	}
+
+	private String decode(Dimension by, long key) {
+		switch (by) {
+		case DATE:
+			return LocalDate.ofEpochDay(key).toString();
+		case STATUS:
+			return statusNames.get((int) key);
+		case REASON:
+			return reasonNames.get((int) key);
+		default:
+			return Long.toString(key);
+		}
+	}
+
+	// grows the columns by half when full, the caller publishes a new copy
+	// grows by at least 16 rows when full
+	private Columns append(Columns c, Row row, int growBy) {
+		if (c.size == c.capacity()) {
+			c = c.copy(c.capacity() + Math.max(16, growBy));
+		}
+		write(c, c.size, row);
+		c.size++;
+		return c;
+	}
+
+	// room kept for rows added between rebuilds: a 32nd of the rows, so with
+	// 31 bytes a row a large snapshot stays under 32 bytes an appointment
+	private static int slack(int size) {
+		return Math.max(16, size >> 5);
+	}
+
+	private void write(Columns c, int at, Row row) {
+		c.ids[at] = row.id();
+		c.days[at] = (int) row.date().toEpochDay();
+		c.patients[at] = row.patientId();
+		c.doctors[at] = row.doctorId();
+		c.statuses[at] = statusCode(row.status());
+		c.reasons[at] = reasonCode(row.reason());
+	}
+
+	private byte statusCode(String name) {
+		Byte code = statusCodes.get(name);
+		if (code == null) {
+			if (statusNames.size() >= OTHER_STATUS) {
+				statusNames.putIfAbsent((int) OTHER_STATUS, OTHER);
+				return OTHER_STATUS;
+			}
+			code = (byte) statusNames.size();
+			statusNames.put((int) code, name);
+			statusCodes.put(name, code);
+		}
+		return code;
+	}
+
+	// past 65535 distinct reasons the rest share one code
+	private char reasonCode(String reason) {
+		Character code = reasonCodes.get(reason);
+		if (code == null) {
+			if (reasonCodes.size() >= OTHER_REASON) {
+				reasonNames.putIfAbsent((int) OTHER_REASON, OTHER);
+				return OTHER_REASON;
+			}
+			code = (char) reasonCodes.size();
+			reasonNames.put((int) code, reason);
+			reasonCodes.put(reason, code);
+		}
+		return code;
+	}
+
+	private boolean isSorted(Columns c) {
+		for (int i = 1; i < c.size; i++) {
+			if (c.ids[i - 1] > c.ids[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// only needed when several shards were read
+	private Columns sortById(Columns c) {
+		int[] order = IntStream.range(0, c.size).boxed().sorted(Comparator.comparingLong(i -> c.ids[i]))
+				.mapToInt(Integer::intValue).toArray();
+		Columns sorted = new Columns(c.size);
+		for (int i = 0; i < order.length; i++) {
+			c.copyRow(order[i], sorted, i);
+		}
+		sorted.size = c.size;
+		return sorted;
+	}
+
+	private static final class CountTask extends RecursiveTask<LongCounts> {
+		private static final long serialVersionUID = 1L;
+
+		private final Columns c;
+		private final Dimension by;
+		private final int fromDay;
+		private final int toDay;
+		private final Long doctorId;
+		private final Long patientId;
+		private final int status;
+		private final int leafSize;
+		private final int lo;
+		private final int hi;
+
+		CountTask(Columns c, Dimension by, int fromDay, int toDay, Long doctorId, Long patientId, int status,
+				int leafSize, int lo, int hi) {
+			this.c = c;
+			this.by = by;
+			this.fromDay = fromDay;
+			this.toDay = toDay;
+			this.doctorId = doctorId;
+			this.patientId = patientId;
+			this.status = status;
+			this.leafSize = leafSize;
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		@Override
+		protected LongCounts compute() {
+			if (hi - lo <= leafSize) {
+				return scan();
+			}
+			int mid = (lo + hi) >>> 1;
+			CountTask left = new CountTask(c, by, fromDay, toDay, doctorId, patientId, status, leafSize, lo, mid);
+			CountTask right = new CountTask(c, by, fromDay, toDay, doctorId, patientId, status, leafSize, mid, hi);
+			left.fork();
+			LongCounts counts = right.compute();
+			counts.addAll(left.join());
+			return counts;
+		}
+
+		private LongCounts scan() {
+			LongCounts counts = new LongCounts();
+			long doctor = doctorId == null ? 0 : doctorId;
+			long patient = patientId == null ? 0 : patientId;
+			for (int i = lo; i < hi; i++) {
+				byte s = c.statuses[i];
+				int day = c.days[i];
+				if (s == DELETED || day < fromDay || day > toDay || (status != -2 && s != status)
+						|| (doctorId != null && c.doctors[i] != doctor)
+						|| (patientId != null && c.patients[i] != patient)) {
+					continue;
+				}
+				counts.add(key(i), 1);
+			}
+			return counts;
+		}
+
+		private long key(int i) {
+			switch (by) {
+			case DATE:
+				return c.days[i];
+			case DOCTOR:
+				return c.doctors[i];
+			case PATIENT:
+				return c.patients[i];
+			case STATUS:
+				return c.statuses[i];
+			default:
+				return c.reasons[i];
+			}
+		}
+	}
+
+	// long to long counts with open addressing, no boxing per row
+	static final class LongCounts {
+		private static final long FREE = Long.MIN_VALUE;
+
+		interface Entry {
+			void accept(long key, long value);
+		}
+
+		private long[] keys = newKeys(16);
+		private long[] values = new long[16];
+		private int size;
+
+		void add(long key, long delta) {
+			int i = slot(keys, key);
+			if (keys[i] == FREE) {
+				keys[i] = key;
+				size++;
+			}
+			values[i] += delta;
+			if (size * 2 > keys.length) {
+				grow();
+			}
+		}
+
+		void addAll(LongCounts other) {
+			other.forEach(this::add);
+		}
+
+		int size() {
+			return size;
+		}
+
+		void forEach(Entry entry) {
+			for (int i = 0; i < keys.length; i++) {
+				if (keys[i] != FREE) {
+					entry.accept(keys[i], values[i]);
+				}
+			}
+		}
+
+		private void grow() {
+			long[] oldKeys = keys;
+			long[] oldValues = values;
+			keys = newKeys(oldKeys.length * 2);
+			values = new long[oldKeys.length * 2];
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldKeys[i] != FREE) {
+					int j = slot(keys, oldKeys[i]);
+					keys[j] = oldKeys[i];
+					values[j] = oldValues[i];
+				}
+			}
+		}
+
+		private static int slot(long[] keys, long key) {
+			int mask = keys.length - 1;
+			int i = Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+			while (keys[i] != FREE && keys[i] != key) {
+				i = (i + 1) & mask;
+			}
+			return i;
+		}
+
+		private static long[] newKeys(int n) {
+			long[] k = new long[n];
+			Arrays.fill(k, FREE);
+			return k;
+		}
+	}
+}
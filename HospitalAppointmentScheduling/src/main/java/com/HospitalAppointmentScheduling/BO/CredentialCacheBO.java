@@ -0,0 +1,99 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Login fast path: after a successful slow hash check the password is
+// remembered as a keyed digest for a short time, so a repeated login for the
+// same account costs one HMAC instead of a full key derivation.
+@Component
+public class CredentialCacheBO {
+
+	private static final String ALGORITHM = "HmacSHA256";
+
+	@Value("${login.cache.ttl-minutes:10}")
+	private long ttlMinutes;
+
+	@Value("${login.cache.max-entries:10000}")
+	private int maxEntries;
+
+	// per process key, digests are never stored anywhere else
+	private final SecretKeySpec key;
+
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	private record Entry(long patientId, byte[] digest, long expiry) {
+	}
+
+	public CredentialCacheBO() {
+		byte[] keyBytes = new byte[32];
+		new SecureRandom().nextBytes(keyBytes);
+		key = new SecretKeySpec(keyBytes, ALGORITHM);
+	}
+
+	// returns the cached patient ID when the password matches, null on a miss
+	public Long lookup(String email, String rawPassword) {
+		Entry e = entries.get(email);
+		if (e == null) {
+			return null;
+		}
+		if (e.expiry() < System.currentTimeMillis()) {
+			entries.remove(email, e);
+			return null;
+		}
+		return MessageDigest.isEqual(e.digest(), digest(rawPassword)) ? e.patientId() : null;
+	}
+
+	public void put(String email, String rawPassword, long patientId) {
+		if (entries.size() >= maxEntries) {
+			evict();
+		}
+		entries.put(email, new Entry(patientId, digest(rawPassword), System.currentTimeMillis() + ttlMinutes * 60_000));
+	}
+
+	// called whenever the stored credentials of a patient change
+	public void invalidate(String email) {
+		if (email != null) {
+			entries.remove(email);
+		}
+	}
+
+	// one pass over the cache, however many patients were deleted
+	public void invalidatePatients(Set<Long> patientIds) {
+		entries.values().removeIf(e -> patientIds.contains(e.patientId()));
+	}
+
+	// drops expired entries first, then arbitrary ones until there is room
+	private void evict() {
+		long now = System.currentTimeMillis();
+		entries.values().removeIf(e -> e.expiry() < now);
+		Iterator<String> it = entries.keySet().iterator();
+		while (entries.size() >= maxEntries && it.hasNext()) {
+			it.next();
+			it.remove();
+		}
+	}
+
+	private byte[] digest(String rawPassword) {
+		try {
+			Mac mac = Mac.getInstance(ALGORITHM);
+			mac.init(key);
+			return mac.doFinal(rawPassword.getBytes(StandardCharsets.UTF_8));
+		} catch (NoSuchAlgorithmException | InvalidKeyException e) {
+			throw new IllegalStateException("ERROR: credential cache digest is not available", e);
+		}
+	}
+}
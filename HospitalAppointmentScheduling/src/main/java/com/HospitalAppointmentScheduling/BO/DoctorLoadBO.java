@@ -0,0 +1,195 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.HospitalAppointmentScheduling.BO.AvailabilitySearchBO.DoctorPlace;
+import com.HospitalAppointmentScheduling.CustomExceptions.AppointmentException;
+import com.HospitalAppointmentScheduling.CustomExceptions.WaitlistException;
+
+// Picks the least-loaded doctor of a specialization for a day, for bookings
+// that name a specialization instead of a doctor. Each specialization-day has
+// a min-heap of its doctors keyed by booked plus held slots, built on first
+// use from the counters. Assignment takes the top and counts one slot against
+// it straight away, so a burst of bookings spreads over the doctors instead of
+// all landing on the same one; the real count replaces that guess when the
+// booking's SlotChangeEvent arrives, and the periodic resync clears guesses
+// left by bookings that failed. Every heap has its own lock, so bookings for
+// different specializations or days never wait on each other.
+@Component
+public class DoctorLoadBO {
+
+	Logger log = Logger.getLogger(DoctorLoadBO.class);
+
+	@Autowired
+	AvailabilitySearchBO searchBO;
+
+	@Autowired
+	WaitlistBO waitlistBO;
+
+	private record LoadKey(int specializationId, LocalDate date) {
+	}
+
+	private final Map<LoadKey, LoadHeap> heaps = new ConcurrentHashMap<>();
+
+	public long assign(int specializationId, LocalDate date) throws AppointmentException, WaitlistException {
+		LoadHeap heap = heaps.computeIfAbsent(new LoadKey(specializationId, date), this::build);
+		if (heap.size() == 0) {
+			heaps.remove(new LoadKey(specializationId, date), heap);
+			throw new AppointmentException("ERROR: no doctor found for specialization " + specializationId);
+		}
+		long doctorId = heap.takeBelow(waitlistBO.getSlotsPerDay());
+		if (doctorId < 0) {
+			throw new WaitlistException("No doctor of this specialization has a free slot on " + date);
+		}
+		log.info("doctor " + doctorId + " assigned for specialization " + specializationId + " on " + date);
+		return doctorId;
+	}
+
+	@EventListener
+	public void onSlotChange(SlotChangeEvent event) {
+		AfterCommit.run(() -> {
+			for (Map.Entry<LoadKey, LoadHeap> e : heaps.entrySet()) {
+				if (e.getKey().date().equals(event.date())) {
+					e.getValue().update(event.doctorId(), load(event.doctorId(), event.date()));
+				}
+			}
+		});
+	}
+
+	// rebuilt from the counters, which also picks up new doctors and drops
+	// days that have passed
+	@Scheduled(fixedDelayString = "${doctor.assign.resync-ms:30000}")
+	public void resync() {
+		LocalDate today = LocalDate.now();
+		for (LoadKey key : heaps.keySet()) {
+			if (key.date().isBefore(today)) {
+				heaps.remove(key);
+			} else {
+				heaps.replace(key, build(key));
+			}
+		}
+	}
+
+	private LoadHeap build(LoadKey key) {
+		List<DoctorPlace> doctors = searchBO.doctorsOf(key.specializationId());
+		long[] ids = new long[doctors.size()];
+		int[] loads = new int[doctors.size()];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = doctors.get(i).doctorId();
+			loads[i] = load(ids[i], key.date());
+		}
+		return new LoadHeap(ids, loads);
+	}
+
+	private int load(long doctorId, LocalDate date) {
+		return waitlistBO.getSlotsPerDay() - waitlistBO.freeSlots(doctorId, date);
+	}
+
+	// binary min-heap over (load, doctorId) that knows where every doctor
+	// sits, so a doctor's load can change in O(log n)
+	static final class LoadHeap {
+
+		private final long[] ids;
+		private final int[] loads;
+		private final Map<Long, Integer> position = new HashMap<>();
+
+		LoadHeap(long[] ids, int[] loads) {
+			this.ids = ids.clone();
+			this.loads = loads.clone();
+			for (int i = 0; i < ids.length; i++) {
+				position.put(this.ids[i], i);
+			}
+			for (int i = ids.length / 2 - 1; i >= 0; i--) {
+				down(i);
+			}
+		}
+
+		int size() {
+			return ids.length;
+		}
+
+		// the least-loaded doctor with its load raised by one, or -1 when even
+		// that one is at the limit
+		synchronized long takeBelow(int limit) {
+			if (ids.length == 0 || loads[0] >= limit) {
+				return -1;
+			}
+			long doctorId = ids[0];
+			loads[0]++;
+			down(0);
+			return doctorId;
+		}
+
+		synchronized void update(long doctorId, int load) {
+			Integer i = position.get(doctorId);
+			if (i == null || loads[i] == load) {
+				return;
+			}
+			boolean lower = load < loads[i];
+			loads[i] = load;
+			if (lower) {
+				up(i);
+			} else {
+				down(i);
+			}
+		}
+
+		synchronized int loadOf(long doctorId) {
+			return loads[position.get(doctorId)];
+		}
+
+		private void up(int i) {
+			while (i > 0) {
+				int parent = (i - 1) / 2;
+				if (!less(i, parent)) {
+					return;
+				}
+				swap(i, parent);
+				i = parent;
+			}
+		}
+
+		private void down(int i) {
+			while (true) {
+				int least = i;
+				int left = 2 * i + 1;
+				if (left < ids.length && less(left, least)) {
+					least = left;
+				}
+				if (left + 1 < ids.length && less(left + 1, least)) {
+					least = left + 1;
+				}
+				if (least == i) {
+					return;
+				}
+				swap(i, least);
+				i = least;
+			}
+		}
+
+		private boolean less(int a, int b) {
+			return loads[a] < loads[b] || (loads[a] == loads[b] && ids[a] < ids[b]);
+		}
+
+		private void swap(int a, int b) {
+			long id = ids[a];
+			ids[a] = ids[b];
+			ids[b] = id;
+			int load = loads[a];
+			loads[a] = loads[b];
+			loads[b] = load;
+			position.put(ids[a], a);
+			position.put(ids[b], b);
+		}
+	}
+}
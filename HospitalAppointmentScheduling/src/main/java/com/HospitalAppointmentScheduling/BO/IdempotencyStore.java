@@ -0,0 +1,33 @@
+package com.HospitalAppointmentScheduling.BO;
+
+// Remembers the response to each Idempotency-Key so a retried POST or PUT gets
+// the original answer instead of running again. The first request claims the
+// key, then either completes it with its response or abandons it so a retry
+// can run. Keys expire after the configured TTL.
+public interface IdempotencyStore {
+
+	enum Outcome {
+		// the caller owns the key and must complete or abandon it
+		CLAIMED,
+		// a finished response is stored, see Claim.response
+		REPLAY,
+		// another request with this key has not finished yet
+		IN_PROGRESS,
+		// the key was used for a request with a different body
+		MISMATCH
+	}
+
+	record StoredResponse(int status, String contentType, byte[] body) {
+	}
+
+	record Claim(Outcome outcome, StoredResponse response) {
+	}
+
+	// fingerprint identifies the request the key was first used with
+	Claim claim(String key, String fingerprint);
+
+	void complete(String key, StoredResponse response);
+
+	void abandon(String key);
+
+}
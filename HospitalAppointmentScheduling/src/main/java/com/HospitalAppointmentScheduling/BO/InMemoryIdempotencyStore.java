@@ -0,0 +1,82 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Single node store. Entries are kept in claim order, and since they all live
+// for the same TTL the eldest is always the next to expire; expired entries
+// are dropped from the head on each claim, and the eldest is evicted once
+// maxEntries is reached, so memory stays bounded under any key churn.
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+	private static final class Entry {
+		final String fingerprint;
+		final long expiresAt;
+		StoredResponse response;
+
+		Entry(String fingerprint, long expiresAt) {
+			this.fingerprint = fingerprint;
+			this.expiresAt = expiresAt;
+		}
+	}
+
+	private final long ttlMs;
+	private final int maxEntries;
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+	public InMemoryIdempotencyStore(long ttlMs, int maxEntries) {
+		this.ttlMs = ttlMs;
+		this.maxEntries = maxEntries;
+	}
+
+	@Override
+	public synchronized Claim claim(String key, String fingerprint) {
+		long now = System.currentTimeMillis();
+		expire(now);
+		Entry e = entries.get(key);
+		if (e == null) {
+			if (entries.size() >= maxEntries) {
+				Iterator<Entry> eldest = entries.values().iterator();
+				eldest.next();
+				eldest.remove();
+			}
+			entries.put(key, new Entry(fingerprint, now + ttlMs));
+			return new Claim(Outcome.CLAIMED, null);
+		}
+		if (!e.fingerprint.equals(fingerprint)) {
+			return new Claim(Outcome.MISMATCH, null);
+		}
+		if (e.response == null) {
+			return new Claim(Outcome.IN_PROGRESS, null);
+		}
+		return new Claim(Outcome.REPLAY, e.response);
+	}
+
+	@Override
+	public synchronized void complete(String key, StoredResponse response) {
+		Entry e = entries.get(key);
+		if (e != null) {
+			e.response = response;
+		}
+	}
+
+	@Override
+	public synchronized void abandon(String key) {
+		Entry e = entries.get(key);
+		if (e != null && e.response == null) {
+			entries.remove(key);
+		}
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	private void expire(long now) {
+		Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+		while (it.hasNext() && it.next().getValue().expiresAt <= now) {
+			it.remove();
+		}
+	}
+}
@@ -0,0 +1,203 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.HospitalAppointmentScheduling.DAO.LeaseDAO;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Decides which node runs each @LeaderOnly job. A node leads a job while it
+// holds the job's row in scheduler_leases; the heartbeat renews the leases it
+// holds and tries to take over the others, so when a leader dies another node
+// takes its jobs within lease-ms plus one heartbeat, and at once when it shuts
+// down cleanly. Every takeover raises the lease token; a job that writes in
+// batches calls fence() before each one, so a leader that stalled past its
+// lease stops instead of writing alongside the new one.
+@Component
+public class LeaderElectionBO {
+
+	Logger log = Logger.getLogger(LeaderElectionBO.class);
+
+	private static final ThreadLocal<Lease> CURRENT = new ThreadLocal<>();
+
+	@Autowired
+	LeaseDAO leaseDAO;
+
+	@Value("${leader.enabled:true}")
+	boolean enabled = true;
+
+	@Value("${leader.lease-ms:15000}")
+	long leaseMs = 15_000;
+
+	@Value("${leader.node-id:}")
+	String nodeId = "";
+
+	public record Lease(String name, long token) {
+	}
+
+	// a held lease and when its last successful renewal started
+	private record Held(Lease lease, long renewedAt) {
+	}
+
+	private final Map<String, Held> held = new ConcurrentHashMap<>();
+
+	// every job asked about, the heartbeat competes for the ones not held
+	private final Set<String> names = ConcurrentHashMap.newKeySet();
+
+	@PostConstruct
+	public void init() {
+		if (nodeId == null || nodeId.isBlank()) {
+			String host;
+			try {
+				host = InetAddress.getLocalHost().getHostName();
+			} catch (UnknownHostException e) {
+				host = "unknown";
+			}
+			nodeId = host + "-" + ProcessHandle.current().pid() + "-" + UUID.randomUUID().toString().substring(0, 8);
+		}
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public String nodeId() {
+		return nodeId;
+	}
+
+	// the lease of the job running on this thread, null outside @LeaderOnly jobs
+	public static Lease current() {
+		return CURRENT.get();
+	}
+
+	public static Lease enter(Lease lease) {
+		Lease previous = CURRENT.get();
+		CURRENT.set(lease);
+		return previous;
+	}
+
+	public static void leave(Lease previous) {
+		if (previous == null) {
+			CURRENT.remove();
+		} else {
+			CURRENT.set(previous);
+		}
+	}
+
+	// the job's lease when this node leads it, taking it if it is free; null
+	// when another node leads or the database cannot be reached. A lease
+	// renewed less than half a lease ago is trusted without asking again.
+	public synchronized Lease tryLead(String name) {
+		names.add(name);
+		Held h = held.get(name);
+		if (h != null && System.nanoTime() - h.renewedAt() < leaseMs * 500_000) {
+			return h.lease();
+		}
+		if (h != null) {
+			return renew(h) ? h.lease() : null;
+		}
+		return acquire(name);
+	}
+
+	@Scheduled(fixedDelayString = "${leader.heartbeat-ms:5000}")
+	public synchronized void heartbeat() {
+		if (!enabled) {
+			return;
+		}
+		for (Held h : held.values()) {
+			renew(h);
+		}
+		for (String name : names) {
+			if (!held.containsKey(name)) {
+				acquire(name);
+			}
+		}
+	}
+
+	// throws when the job on this thread has lost its lease; call it outside
+	// the job's transaction, the lease row lives on the default database
+	public void fence() {
+		Lease lease = CURRENT.get();
+		if (lease == null) {
+			return;
+		}
+		boolean ours = ShardContext.call(ShardContext.DEFAULT,
+				() -> leaseDAO.isHeld(lease.name(), nodeId, lease.token()));
+		if (!ours) {
+			synchronized (this) {
+				held.computeIfPresent(lease.name(), (n, h) -> h.lease().equals(lease) ? null : h);
+			}
+			throw new IllegalStateException("ERROR: lease " + lease.name() + " with token " + lease.token()
+					+ " is no longer held by " + nodeId);
+		}
+	}
+
+	public Set<String> leading() {
+		return Set.copyOf(held.keySet());
+	}
+
+	@PreDestroy
+	public synchronized void releaseAll() {
+		for (Held h : held.values()) {
+			try {
+				leaseDAO.release(h.lease().name(), nodeId, h.lease().token());
+			} catch (DataAccessException e) {
+				log.warn("could not release lease " + h.lease().name() + ", it runs out by itself", e);
+			}
+		}
+		held.clear();
+	}
+
+	private Lease acquire(String name) {
+		long started = System.nanoTime();
+		long token;
+		try {
+			token = ShardContext.call(ShardContext.DEFAULT, () -> leaseDAO.acquire(name, nodeId, leaseMs));
+		} catch (DataAccessException e) {
+			log.warn("could not compete for lease " + name, e);
+			return null;
+		}
+		if (token == 0) {
+			return null;
+		}
+		Lease lease = new Lease(name, token);
+		held.put(name, new Held(lease, started));
+		log.info(nodeId + " now leads " + name + " with token " + token);
+		return lease;
+	}
+
+	// a lease that cannot be renewed for a database error is kept but no
+	// longer trusted; one taken over by another node is dropped
+	private boolean renew(Held h) {
+		long started = System.nanoTime();
+		Lease lease = h.lease();
+		boolean ours;
+		try {
+			ours = ShardContext.call(ShardContext.DEFAULT,
+					() -> leaseDAO.renew(lease.name(), nodeId, lease.token(), leaseMs));
+		} catch (DataAccessException e) {
+			log.warn("could not renew lease " + lease.name(), e);
+			return false;
+		}
+		if (ours) {
+			held.put(lease.name(), new Held(lease, started));
+		} else {
+			held.remove(lease.name());
+			log.warn(nodeId + " lost " + lease.name() + ", token " + lease.token() + " was taken over");
+		}
+		return ours;
+	}
+}
@@ -0,0 +1,16 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Runs a scheduled job only on the node holding the lease of that name; on
+// the other nodes the call returns straight away. The lease is on the thread
+// while the job runs, see LeaderElectionBO.current() and fence().
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface LeaderOnly {
+
+	String value();
+}
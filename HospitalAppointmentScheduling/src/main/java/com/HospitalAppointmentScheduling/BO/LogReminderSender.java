@@ -0,0 +1,15 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import org.apache.log4j.Logger;
+
+// default sender until a real channel is configured
+public class LogReminderSender implements ReminderSender {
+
+	Logger log = Logger.getLogger(LogReminderSender.class);
+
+	@Override
+	public void send(Reminder reminder) {
+		// IDs only, contact details stay out of the application log
+		log.info("reminder for appointment " + reminder.appointmentId() + " to patient " + reminder.patientId());
+	}
+}
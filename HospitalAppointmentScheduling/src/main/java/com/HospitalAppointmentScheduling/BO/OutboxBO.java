@@ -0,0 +1,101 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.HospitalAppointmentScheduling.DAO.OutboxRepo;
+import com.HospitalAppointmentScheduling.Entity.AppointmentsVO;
+import com.HospitalAppointmentScheduling.Entity.OutboxEventVO;
+import com.HospitalAppointmentScheduling.Entity.PatientVO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Appends change events to the outbox table. Called from the service methods,
+// so the row commits or rolls back together with the change it describes.
+// Payloads carry IDs, dates and statuses only: the change stream is copied to
+// every node's log file and served without a login, so names, contact
+// details and appointment reasons stay behind the patient and appointment
+// endpoints.
+@Component
+public class OutboxBO {
+
+	public static final String APPOINTMENT = "appointment";
+	public static final String PATIENT = "patient";
+	// several appointments changed by one bulk statement, aggregateId is the
+	// lowest of them
+	public static final String APPOINTMENT_BATCH = "appointmentBatch";
+
+	@Autowired
+	OutboxRepo outboxRepo;
+
+	@Autowired
+	ObjectMapper mapper;
+
+	public void appointmentEvent(String eventType, AppointmentsVO vo) {
+		Map<String, Object> payload = new LinkedHashMap<>();
+		payload.put("appointmentId", vo.getAppointmentID());
+		payload.put("appointmentDate", vo.getAppointmentDate());
+		if (vo.getDoctor() != null) {
+			payload.put("doctorId", vo.getDoctor().getDoctorId());
+		}
+		if (vo.getPatient() != null) {
+			payload.put("patientId", vo.getPatient().getPatientId());
+		}
+		if (vo.getStatus() != null) {
+			payload.put("status", vo.getStatus().getStatusName());
+		}
+		append(APPOINTMENT, vo.getAppointmentID(), eventType, payload);
+	}
+
+	// bulk moves carry only what changed, the rows are never loaded
+	public void appointmentMoved(String eventType, long appointmentId, long doctorId, LocalDate date) {
+		Map<String, Object> payload = new LinkedHashMap<>();
+		payload.put("appointmentId", appointmentId);
+		payload.put("appointmentDate", date);
+		payload.put("doctorId", doctorId);
+		append(APPOINTMENT, appointmentId, eventType, payload);
+	}
+
+	// one event per chunk of a bulk status change, listing the appointments
+	public void appointmentsStatusChanged(List<Long> appointmentIds, String from, String to) {
+		Map<String, Object> payload = new LinkedHashMap<>();
+		payload.put("appointmentIds", appointmentIds);
+		payload.put("from", from);
+		payload.put("to", to);
+		append(APPOINTMENT_BATCH, Collections.min(appointmentIds), "AppointmentsStatusChanged", payload);
+	}
+
+	public void patientEvent(String eventType, PatientVO vo) {
+		Map<String, Object> payload = new LinkedHashMap<>();
+		payload.put("patientId", vo.getPatientId());
+		append(PATIENT, vo.getPatientId(), eventType, payload);
+	}
+
+	// deletes only carry the ID, the row is gone by the time anyone reads it
+	public void deleted(String aggregateType, String eventType, long id) {
+		Map<String, Object> payload = new LinkedHashMap<>();
+		payload.put(aggregateType + "Id", id);
+		append(aggregateType, id, eventType, payload);
+	}
+
+	private void append(String aggregateType, Long aggregateId, String eventType, Map<String, Object> payload) {
+		OutboxEventVO event = new OutboxEventVO();
+		event.setAggregateType(aggregateType);
+		event.setAggregateId(aggregateId);
+		event.setEventType(eventType);
+		try {
+			event.setPayload(mapper.writeValueAsString(payload));
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("ERROR: could not serialise " + eventType + " event", e);
+		}
+		event.setCreatedAt(LocalDateTime.now());
+		outboxRepo.save(event);
+	}
+}
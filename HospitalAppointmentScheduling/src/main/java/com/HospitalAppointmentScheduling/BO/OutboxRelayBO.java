@@ -0,0 +1,237 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.HospitalAppointmentScheduling.DAO.OutboxDAO;
+import com.HospitalAppointmentScheduling.Entity.OutboxEventVO;
+import com.HospitalAppointmentScheduling.WebConfig.ShardProperties;
+
+// Turns committed outbox rows into the change stream in two steps. The node
+// leading outbox-relay numbers new rows with log offsets, in commit order.
+// Every node then copies the numbered rows to its own change log file and
+// in-process event bus (Spring application events, consumed with
+// @EventListener(ChangeEvent)), so each node's log and listeners see every
+// change in the same order whichever node wrote it. The bus gets an event
+// after it is in the node's log; a node stopped in between does not publish
+// it again.
+//
+// With sharding on, a booking's outbox row commits in the database of its
+// shard. The leader numbers the rows of every database, the default one
+// included, from one offset sequence; followers merge the databases and only
+// take offsets that follow on without a gap, so a database read just before
+// the leader committed to it is read again on the next run rather than
+// skipped.
+@Component
+public class OutboxRelayBO {
+
+	Logger log = Logger.getLogger(OutboxRelayBO.class);
+
+	@Autowired
+	OutboxDAO outboxDAO;
+
+	@Autowired
+	ChangeLogBO changeLog;
+
+	@Autowired
+	ApplicationEventPublisher publisher;
+
+	@Autowired
+	LeaderElectionBO leaderElection;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	ShardProperties shardProps;
+
+	@Value("${outbox.batch-size:200}")
+	int batchSize = 200;
+
+	@Value("${outbox.gap-wait-ms:5000}")
+	long gapWaitMs = 5000;
+
+	// where the relay is in the outbox of one database. Event IDs are given
+	// out by each database on its own.
+	static final class Cursor {
+		// highest event ID numbered
+		long relayed;
+		// the missing event ID being waited on and since when (nanoTime)
+		long gapAt;
+		long gapSince;
+	}
+
+	// loaded again whenever this node takes the lead, another node may have
+	// numbered rows in between
+	private Map<String, Cursor> cursors;
+	private long leaseToken = -1;
+
+	// a shard the relay cannot read would leave its changes out of the stream
+	// for good, so it stops the start-up instead
+	@EventListener(ApplicationReadyEvent.class)
+	public void checkShards() {
+		for (String shard : shardProps.shardNames()) {
+			try {
+				ShardContext.call(shard, outboxDAO::lastOffset);
+			} catch (DataAccessException e) {
+				throw new IllegalStateException("ERROR: the outbox of shard " + shard + " cannot be read, its changes "
+						+ "would never reach the change stream", e);
+			}
+		}
+		if (shardProps.isEnabled()) {
+			log.info("outbox relay follows " + shardProps.shardNames());
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${outbox.relay-ms:1000}")
+	@LeaderOnly("outbox-relay")
+	public synchronized void relay() {
+		LeaderElectionBO.Lease lease = LeaderElectionBO.current();
+		long token = lease == null ? 0 : lease.token();
+		List<String> shards = shardProps.shardNames();
+		try {
+			if (cursors == null || token != leaseToken) {
+				Map<String, Cursor> loaded = new LinkedHashMap<>();
+				for (String shard : shards) {
+					Cursor c = new Cursor();
+					c.relayed = ShardContext.call(shard, outboxDAO::lastRelayedEventId);
+					loaded.put(shard, c);
+				}
+				cursors = loaded;
+				leaseToken = token;
+			}
+			long offset = 0;
+			for (String shard : shards) {
+				offset = Math.max(offset, ShardContext.call(shard, outboxDAO::lastOffset));
+			}
+			for (String shard : shards) {
+				long last = offset;
+				offset = ShardContext.call(shard, () -> relay(cursors.get(shard), last));
+			}
+		} catch (DataAccessException | IllegalStateException e) {
+			// rows stay unnumbered and are picked up again on the next run
+			log.error("outbox relay could not number the next events", e);
+			cursors = null;
+		}
+	}
+
+	// numbers the ready rows of the database the thread is on after the given
+	// offset, returns the last offset used
+	private long relay(Cursor c, long offset) {
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		int ready;
+		do {
+			List<OutboxEventVO> batch = outboxDAO.findUnpublished(batchSize);
+			ready = ready(c, batch);
+			if (ready == 0) {
+				break;
+			}
+			List<Long> ids = new ArrayList<>(ready);
+			for (OutboxEventVO row : batch.subList(0, ready)) {
+				ids.add(row.getEventId());
+			}
+			leaderElection.fence();
+			long first = offset + 1;
+			tx.executeWithoutResult(s -> outboxDAO.number(ids, first, LocalDateTime.now()));
+			offset += ids.size();
+			for (Long id : ids) {
+				c.relayed = Math.max(c.relayed, id);
+			}
+		} while (ready == batchSize);
+		return offset;
+	}
+
+	// how many rows from the start of the batch can be numbered. An event ID
+	// is taken when its transaction inserts the row, not when it commits, so
+	// a missing ID above the last one numbered may still commit and has to
+	// go first. It is waited on for up to gap-wait-ms, then taken for a
+	// rollback; a row that commits even later goes out as soon as it is seen.
+	int ready(Cursor c, List<OutboxEventVO> batch) {
+		long next = c.relayed + 1;
+		for (int i = 0; i < batch.size(); i++) {
+			long id = batch.get(i).getEventId();
+			if (id > next) {
+				if (c.gapAt != next) {
+					c.gapAt = next;
+					c.gapSince = System.nanoTime();
+				}
+				if (System.nanoTime() - c.gapSince < gapWaitMs * 1_000_000) {
+					return i;
+				}
+			}
+			next = Math.max(next, id + 1);
+		}
+		return batch.size();
+	}
+
+	// copies the rows numbered since this node's log ends to the log and bus
+	@Scheduled(fixedDelayString = "${outbox.relay-ms:1000}")
+	public void follow() {
+		try {
+			List<OutboxEventVO> rows;
+			do {
+				rows = relayedAfter(changeLog.lastOffset());
+				if (!rows.isEmpty()) {
+					publish(rows);
+				}
+			} while (rows.size() == batchSize);
+		} catch (IOException e) {
+			// the log ends where it did and the rows are read again on the next run
+			log.error("outbox relay could not write the change log", e);
+		}
+	}
+
+	// the numbered rows after the offset from every database, in stream
+	// order, up to the first offset not visible yet
+	private List<OutboxEventVO> relayedAfter(long after) {
+		List<OutboxEventVO> rows = new ArrayList<>();
+		for (String shard : shardProps.shardNames()) {
+			rows.addAll(ShardContext.call(shard, () -> outboxDAO.findRelayedAfter(after, batchSize)));
+		}
+		rows.sort(Comparator.comparingLong(OutboxEventVO::getLogOffset));
+		List<OutboxEventVO> ready = new ArrayList<>();
+		long next = after + 1;
+		for (OutboxEventVO row : rows) {
+			if (row.getLogOffset() > next || ready.size() == batchSize) {
+				break;
+			}
+			if (row.getLogOffset() < next) {
+				// only two leaders at once can do this, the fence should prevent it
+				log.error("outbox offset " + row.getLogOffset() + " is used twice, event " + row.getEventId()
+						+ " is left out of the change stream");
+				continue;
+			}
+			ready.add(row);
+			next++;
+		}
+		return ready;
+	}
+
+	private void publish(List<OutboxEventVO> rows) throws IOException {
+		List<ChangeEvent> events = new ArrayList<>(rows.size());
+		for (OutboxEventVO row : rows) {
+			events.add(new ChangeEvent(row.getLogOffset(), row.getEventId(), row.getAggregateType(),
+					row.getAggregateId(), row.getEventType(), row.getPayload(), row.getCreatedAt()));
+		}
+		for (ChangeEvent e : changeLog.append(events)) {
+			publisher.publishEvent(e);
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.spec.InvalidKeySpecException;
+import java.util.Base64;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PasswordHashBO {
+
+	// stored format: pbkdf2$<iterations>$<base64 salt>$<base64 hash>
+	private static final String PREFIX = "pbkdf2";
+	private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+	private static final int SALT_BYTES = 16;
+	private static final int HASH_BITS = 256;
+
+	private final SecureRandom random = new SecureRandom();
+
+	@Value("${login.hash.iterations:120000}")
+	private int iterations;
+
+	public PasswordHashBO() {
+	}
+
+	// used by the benchmark to hash with a fixed cost factor
+	public PasswordHashBO(int iterations) {
+		this.iterations = iterations;
+	}
+
+	public int getIterations() {
+		return iterations;
+	}
+
+	// hashes the raw password with a fresh salt and the configured cost
+	public String hash(String rawPassword) {
+		byte[] salt = new byte[SALT_BYTES];
+		random.nextBytes(salt);
+		byte[] hash = pbkdf2(rawPassword.toCharArray(), salt, iterations);
+		Base64.Encoder enc = Base64.getEncoder();
+		return PREFIX + "$" + iterations + "$" + enc.encodeToString(salt) + "$" + enc.encodeToString(hash);
+	}
+
+	// checks the raw password against the stored value, rows saved before
+	// hashing was introduced still hold the plain password
+	public boolean verify(String rawPassword, String stored) {
+		if (rawPassword == null || stored == null) {
+			return false;
+		}
+		if (!isHashed(stored)) {
+			return MessageDigest.isEqual(rawPassword.getBytes(), stored.getBytes());
+		}
+		String[] parts = stored.split("\\$");
+		if (parts.length != 4) {
+			return false;
+		}
+		int cost = Integer.parseInt(parts[1]);
+		byte[] salt = Base64.getDecoder().decode(parts[2]);
+		byte[] expected = Base64.getDecoder().decode(parts[3]);
+		byte[] actual = pbkdf2(rawPassword.toCharArray(), salt, cost);
+		return MessageDigest.isEqual(expected, actual);
+	}
+
+	// true when the stored value is plain text or was hashed with an older cost
+	public boolean needsRehash(String stored) {
+		if (!isHashed(stored)) {
+			return true;
+		}
+		String[] parts = stored.split("\\$");
+		return parts.length != 4 || Integer.parseInt(parts[1]) != iterations;
+	}
+
+	public boolean isHashed(String stored) {
+		return stored != null && stored.startsWith(PREFIX + "$");
+	}
+
+	private byte[] pbkdf2(char[] password, byte[] salt, int cost) {
+		PBEKeySpec spec = new PBEKeySpec(password, salt, cost, HASH_BITS);
+		try {
+			return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+		} catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+			throw new IllegalStateException("ERROR: password hashing is not available", e);
+		} finally {
+			spec.clearPassword();
+		}
+	}
+}
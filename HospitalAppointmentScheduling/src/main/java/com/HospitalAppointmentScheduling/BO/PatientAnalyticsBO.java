@@ -0,0 +1,235 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.HospitalAppointmentScheduling.DAO.AppointmentArchiveRepo;
+import com.HospitalAppointmentScheduling.DAO.AppointmentsRepo;
+import com.HospitalAppointmentScheduling.DAO.DobCountProjection;
+import com.HospitalAppointmentScheduling.DAO.PatientAppointmentCountProjection;
+import com.HospitalAppointmentScheduling.DAO.PatientRepo;
+
+// Patient aggregates kept in memory: how many patients share each date of
+// birth and how many appointments each patient holds. Both are ranked on
+// every write so the top entries are read without touching the database.
+@Component
+public class PatientAnalyticsBO {
+
+	Logger log = Logger.getLogger(PatientAnalyticsBO.class);
+
+	@Autowired
+	PatientRepo patientRepo;
+
+	@Autowired
+	AppointmentsRepo appointmentsRepo;
+
+	@Autowired
+	AppointmentArchiveRepo archiveRepo;
+
+	@Autowired
+	ScatterGatherBO scatter;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Value("${analytics.top-k:10}")
+	private int topK;
+
+	private volatile RankedCounter<LocalDate> dobCounts = new RankedCounter<>();
+	private volatile RankedCounter<Long> appointmentCounts = new RankedCounter<>();
+
+	// the counters a rebuild is filling, null outside of one. Writes applied
+	// while its queries run go to both, so the swap does not drop them.
+	// Installing, swapping and applying a write hold the lock.
+	private final Object swap = new Object();
+	private RankedCounter<LocalDate> nextDobCounts;
+	private RankedCounter<Long> nextAppointmentCounts;
+
+	private volatile boolean seeded = false;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void seed() {
+		rebuild();
+		seeded = true;
+		log.info("patient analytics seeded for " + dobCounts.size() + " dates of birth and "
+				+ appointmentCounts.size() + " patients with appointments");
+	}
+
+	// the incremental updates only miss writes that bypass the BO layer, a
+	// periodic rebuild from the grouped queries puts the ranking back in line.
+	// Appointments are counted in both tables in one read-only transaction
+	// per shard, like AppointmentCountBO, so archiving does not lower them.
+	@Scheduled(fixedDelayString = "${analytics.rebuild-ms:600000}", initialDelayString = "${analytics.rebuild-ms:600000}")
+	public synchronized void rebuild() {
+		RankedCounter<LocalDate> dobs = new RankedCounter<>();
+		RankedCounter<Long> appts = new RankedCounter<>();
+		synchronized (swap) {
+			nextDobCounts = dobs;
+			nextAppointmentCounts = appts;
+		}
+		try {
+			for (DobCountProjection row : patientRepo.countPatientsByDob()) {
+				if (row.getDob() != null) {
+					dobs.add(row.getDob(), row.getTotal());
+				}
+			}
+			TransactionTemplate tx = new TransactionTemplate(transactionManager);
+			tx.setReadOnly(true);
+			for (PatientAppointmentCountProjection row : scatter.gatherAll(() -> tx.execute(s -> {
+				List<PatientAppointmentCountProjection> rows = new ArrayList<>(
+						appointmentsRepo.countAppointmentsByPatient());
+				rows.addAll(archiveRepo.countByPatient());
+				return rows;
+			}))) {
+				appts.add(row.getPatientId(), row.getTotal());
+			}
+			synchronized (swap) {
+				dobCounts = dobs;
+				appointmentCounts = appts;
+			}
+		} finally {
+			synchronized (swap) {
+				nextDobCounts = null;
+				nextAppointmentCounts = null;
+			}
+		}
+	}
+
+	// most common dates of birth, at most analytics.top-k of them
+	public List<LocalDate> mostCommonDobs() {
+		if (!seeded) {
+			return patientRepo.findMostCommonDOB(PageRequest.of(0, topK));
+		}
+		return dobCounts.top(topK);
+	}
+
+	// IDs of the patients holding the most appointments, busiest first
+	public List<Long> mostActivePatientIds() {
+		if (!seeded) {
+			return patientRepo.findPatientIdsWithMostAppointments(PageRequest.of(0, topK));
+		}
+		return appointmentCounts.top(topK);
+	}
+
+	// write hooks, applied only once the surrounding transaction commits
+	public void patientRegistered(LocalDate dob, long patientId, int appointments) {
+		AfterCommit.run(() -> apply(dobs -> dobs.add(dob, 1), appts -> appts.add(patientId, appointments)));
+	}
+
+	public void dobChanged(LocalDate from, LocalDate to) {
+		if (from == null ? to == null : from.equals(to)) {
+			return;
+		}
+		AfterCommit.run(() -> apply(dobs -> {
+			dobs.add(from, -1);
+			dobs.add(to, 1);
+		}, null));
+	}
+
+	public void patientRemoved(LocalDate dob, long patientId) {
+		AfterCommit.run(() -> apply(dobs -> dobs.add(dob, -1), appts -> appts.remove(patientId)));
+	}
+
+	public void booked(long patientId) {
+		booked(patientId, 1);
+	}
+
+	public void booked(long patientId, int appointments) {
+		AfterCommit.run(() -> apply(null, appts -> appts.add(patientId, appointments)));
+	}
+
+	public void cancelled(long patientId) {
+		cancelled(patientId, 1);
+	}
+
+	public void cancelled(long patientId, int appointments) {
+		AfterCommit.run(() -> apply(null, appts -> appts.add(patientId, -appointments)));
+	}
+
+	// applies a write to the live counters and to the ones being rebuilt
+	private void apply(Consumer<RankedCounter<LocalDate>> dobChange, Consumer<RankedCounter<Long>> apptChange) {
+		synchronized (swap) {
+			if (dobChange != null) {
+				dobChange.accept(dobCounts);
+				if (nextDobCounts != null) {
+					dobChange.accept(nextDobCounts);
+				}
+			}
+			if (apptChange != null) {
+				apptChange.accept(appointmentCounts);
+				if (nextAppointmentCounts != null) {
+					apptChange.accept(nextAppointmentCounts);
+				}
+			}
+		}
+	}
+
+	// counts with a ranking index ordered by count descending, ties broken by
+	// key. A write moves one entry in the index (log n), reading the top k
+	// walks the first k entries.
+	static class RankedCounter<K extends Comparable<? super K>> {
+
+		private record Rank<K>(K key, long count) {
+		}
+
+		private final Map<K, Long> counts = new HashMap<>();
+		private final TreeSet<Rank<K>> ranking = new TreeSet<>(
+				Comparator.<Rank<K>>comparingLong(Rank::count).reversed().thenComparing(Rank::key));
+
+		synchronized void add(K key, long delta) {
+			if (key == null || delta == 0) {
+				return;
+			}
+			Long old = counts.get(key);
+			long current = old == null ? 0 : old;
+			if (old != null) {
+				ranking.remove(new Rank<>(key, current));
+			}
+			long updated = current + delta;
+			if (updated > 0) {
+				counts.put(key, updated);
+				ranking.add(new Rank<>(key, updated));
+			} else {
+				counts.remove(key);
+			}
+		}
+
+		synchronized void remove(K key) {
+			Long old = counts.remove(key);
+			if (old != null) {
+				ranking.remove(new Rank<>(key, old));
+			}
+		}
+
+		synchronized List<K> top(int k) {
+			List<K> ret = new ArrayList<>(Math.min(k, ranking.size()));
+			Iterator<Rank<K>> it = ranking.iterator();
+			while (ret.size() < k && it.hasNext()) {
+				ret.add(it.next().key());
+			}
+			return ret;
+		}
+
+		synchronized int size() {
+			return counts.size();
+		}
+	}
+}
@@ -1,22 +1,42 @@
 package com.HospitalAppointmentScheduling.BO;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.HospitalAppointmentScheduling.BO.AppointmentCountBO.DoctorDateKey;
 import com.HospitalAppointmentScheduling.CustomExceptions.AppointmentBookingDateException;
 import com.HospitalAppointmentScheduling.CustomExceptions.AppointmentException;
 import com.HospitalAppointmentScheduling.CustomExceptions.DateException;
 import com.HospitalAppointmentScheduling.CustomExceptions.DateOfBirthException;
 import com.HospitalAppointmentScheduling.CustomExceptions.EmailException;
 import com.HospitalAppointmentScheduling.CustomExceptions.IdException;
+import com.HospitalAppointmentScheduling.CustomExceptions.LoginException;
 import com.HospitalAppointmentScheduling.CustomExceptions.PasswordException;
 import com.HospitalAppointmentScheduling.CustomExceptions.PatientException;
 import com.HospitalAppointmentScheduling.CustomExceptions.PhoneNumberException;
 import com.HospitalAppointmentScheduling.CustomExceptions.ReasonException;
 import com.HospitalAppointmentScheduling.CustomExceptions.genderException;
+import com.HospitalAppointmentScheduling.DAO.PatientDeletionDAO;
 import com.HospitalAppointmentScheduling.DAO.PatientProjection;
 import com.HospitalAppointmentScheduling.DAO.PatientRepo;
 import com.HospitalAppointmentScheduling.Entity.AppointmentsVO;
@@ -28,13 +48,98 @@ public class PatientBO {
 	@Autowired
 	PatientRepo patientRepo;
 
+	@Autowired
+	PasswordHashBO passwordHashBO;
+
+	@Autowired
+	CredentialCacheBO credentialCache;
+
+	@Autowired
+	PatientDeletionDAO deletionDAO;
+
+	@Autowired
+	PatientAnalyticsBO analyticsBO;
+
+	@Autowired
+	@Qualifier("loginExecutor")
+	ThreadPoolExecutor loginExecutor;
+
+	@Autowired
+	CapacityLedgerBO ledger;
+
+	@Autowired
+	AppointmentCountBO countBO;
+
+	@Autowired
+	ApplicationEventPublisher publisher;
+
+	@Autowired
+	ScatterGatherBO scatter;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Value("${login.pool.timeout-ms:2000}")
+	long loginTimeoutMs;
+
+	@Value("${patient.delete.max-ids:1000}")
+	int maxDeleteIds = 1000;
+
 	// patient authentication method:
-	public PatientVO patientAuthentication(String email, String password) {
-		PatientVO vo = patientRepo.patientAuthentication(email, password);
-		if (vo.getPatientEmail().equals(email) && vo.getPatientPassword().equals(password)) {
-			return vo;
+	public PatientVO patientAuthentication(String email, String password) throws LoginException {
+		if (email == null || password == null) {
+			return null;
+		}
+
+		// fast path: same credentials verified a moment ago
+		Long cachedId = credentialCache.lookup(email, password);
+		if (cachedId != null) {
+			return patientRepo.findById(cachedId).orElse(null);
+		}
+
+		PatientVO vo = patientRepo.findByEmail(email);
+		if (vo == null) {
+			return null;
+		}
+		String stored = vo.getPatientPassword();
+
+		// verifies and, for plain text or outdated hashes, computes the upgraded
+		// hash on the login pool. null means the password did not match.
+		String upgraded = runOnLoginPool(() -> {
+			if (!passwordHashBO.verify(password, stored)) {
+				return null;
+			}
+			return passwordHashBO.needsRehash(stored) ? passwordHashBO.hash(password) : stored;
+		});
+		if (upgraded == null) {
+			return null;
+		}
+		if (!upgraded.equals(stored)) {
+			vo.setPatientPassword(upgraded);
+			patientRepo.save(vo);
+		}
+		credentialCache.put(email, password, vo.getPatientId());
+		return vo;
+	}
+
+	private String runOnLoginPool(Callable<String> task) throws LoginException {
+		Future<String> result;
+		try {
+			result = loginExecutor.submit(task);
+		} catch (RejectedExecutionException e) {
+			throw new LoginException("ERROR: login service is busy, please try again");
+		}
+		try {
+			return result.get(loginTimeoutMs, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			result.cancel(true);
+			throw new LoginException("ERROR: login timed out, please try again");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new LoginException("ERROR: login interrupted");
+		} catch (ExecutionException e) {
+			throw new LoginException("ERROR: login failed", e.getCause());
 		}
-		return null;
 	}
 
 	// Insert method:
@@ -60,7 +165,9 @@ public class PatientBO {
 			throw new PhoneNumberException("Phone number is already registered. Please try logging in.");
 		}
 
+		vo.setPatientPassword(passwordHashBO.hash(vo.getPatientPassword()));
 		patientRepo.save(vo);
+		analyticsBO.patientRegistered(vo.getDob(), vo.getPatientId(), 0);
 		return vo;
 	}
 
@@ -83,15 +190,18 @@ public class PatientBO {
 		if (validateID(id)) {
 			validatePatient(vo);
 			PatientVO existingDetials = patientRepo.findById(id).get();
+			credentialCache.invalidate(existingDetials.getPatientEmail());
+			LocalDate previousDob = existingDetials.getDob();
 			existingDetials.setFirstName(vo.getFirstName());
 			existingDetials.setLastName(vo.getLastName());
 			existingDetials.setDob(vo.getDob());
 			existingDetials.setPatientPhone(vo.getPatientPhone());
 			existingDetials.setPatientEmail(vo.getPatientEmail());
-			existingDetials.setPatientPassword(vo.getPatientPassword());
+			existingDetials.setPatientPassword(passwordHashBO.hash(vo.getPatientPassword()));
 			existingDetials.setGender(vo.getGender());
 
 			patientRepo.save(existingDetials);
+			analyticsBO.dobChanged(previousDob, existingDetials.getDob());
 			return existingDetials;
 
 		}
@@ -142,14 +252,162 @@ public class PatientBO {
 		return null;
 	}
 
+	// partial update: null fields are left alone, and only the fields that
+	// differ from the stored row are validated and set. With dynamic updates
+	// on the entity the UPDATE carries just those columns. Everything is
+	// checked before the first setter, a checked exception does not roll the
+	// transaction back.
+	public PatientVO patchPatientDetails(PatientVO vo, long id) throws IdException, PatientException,
+			PhoneNumberException, EmailException, PasswordException, genderException, DateOfBirthException {
+		if (id <= 0) {
+			throw new IdException("ERROR: patient ID could not be negative or zero");
+		}
+		PatientVO existing = patientRepo.findById(id)
+				.orElseThrow(() -> new IdException("ERROR: patient ID not exist in the database"));
+
+		String firstName = changed(vo.getFirstName(), existing.getFirstName());
+		String lastName = changed(vo.getLastName(), existing.getLastName());
+		String phone = changed(vo.getPatientPhone(), existing.getPatientPhone());
+		String email = changed(vo.getPatientEmail(), existing.getPatientEmail());
+		String gender = changed(vo.getGender(), existing.getGender());
+		LocalDate dob = changed(vo.getDob(), existing.getDob());
+		// stored as a hash, so a given password always counts as changed
+		String password = vo.getPatientPassword();
+
+		if (firstName != null) {
+			validateFirstName(firstName);
+		}
+		if (lastName != null) {
+			validateLastName(lastName);
+		}
+		if (firstName != null || lastName != null) {
+			validateCombinedName(firstName != null ? firstName : existing.getFirstName(),
+					lastName != null ? lastName : existing.getLastName());
+		}
+		if (phone != null) {
+			validatePhoneNumber(phone);
+			if (patientRepo.existsByPhone(phone)) {
+				throw new PhoneNumberException("Phone number is already registered.");
+			}
+		}
+		if (email != null) {
+			validateEmail(email);
+			if (patientRepo.existsByEmail(email)) {
+				throw new EmailException("Email is already registered.");
+			}
+		}
+		if (password != null) {
+			validatePassword(password);
+		}
+		if (gender != null) {
+			validateGender(gender.toLowerCase());
+		}
+		if (dob != null) {
+			validateDOB(dob);
+		}
+
+		if (email != null || password != null) {
+			credentialCache.invalidate(existing.getPatientEmail());
+		}
+		LocalDate previousDob = existing.getDob();
+		if (firstName != null) {
+			existing.setFirstName(firstName);
+		}
+		if (lastName != null) {
+			existing.setLastName(lastName);
+		}
+		if (phone != null) {
+			existing.setPatientPhone(phone);
+		}
+		if (email != null) {
+			existing.setPatientEmail(email);
+		}
+		if (password != null) {
+			existing.setPatientPassword(passwordHashBO.hash(password));
+		}
+		if (gender != null) {
+			existing.setGender(gender);
+		}
+		if (dob != null) {
+			existing.setDob(dob);
+			analyticsBO.dobChanged(previousDob, dob);
+		}
+		return patientRepo.save(existing);
+	}
+
+	// the patched value when it is given and differs from the stored one
+	static <T> T changed(T patched, T stored) {
+		return patched == null || patched.equals(stored) ? null : patched;
+	}
+
 	// delete method:
 	public String deletePatient(long id) throws IdException {
-		String ret = "patient ID does not exists in the database give the valid ID";
-		if (validateID(id)) {
-			patientRepo.deleteById(id);
-			ret = "patient deleted";
+		if (deletePatients(List.of(id)).isEmpty()) {
+			throw new IdException("ERROR: patient ID not exist in the database");
 		}
-		return ret;
+		return "patient deleted";
+	}
+
+	// deletes the patients with their live and archived appointments using a
+	// fixed number of statements, however many appointments they have. Each
+	// appointment gets an AppointmentDeleted event, like a cancelled one.
+	// Returns the IDs that existed, the others are ignored.
+	//
+	// Patients live in the default database, appointments of sharded doctors
+	// in their shard. Each shard removes its appointments in a transaction of
+	// its own that commits first, like a bulk cancel; a failure leaves the
+	// patients in place and the delete can be run again.
+	public List<Long> deletePatients(List<Long> ids) throws IdException {
+		if (ids == null || ids.isEmpty()) {
+			throw new IdException("ERROR: patient ID list could not be empty");
+		}
+		if (ids.size() > maxDeleteIds) {
+			throw new IdException("ERROR: at most " + maxDeleteIds + " patients can be deleted at once");
+		}
+		for (Long id : ids) {
+			if (id == null) {
+				throw new IdException("ERROR: patient Id field could not be null");
+			} else if (id <= 0) {
+				throw new IdException("ERROR: patient ID could not be negative or zero");
+			}
+		}
+		// locked in ID order, so overlapping bulk deletes do not deadlock
+		Map<Long, LocalDate> found = deletionDAO.lockPatients(ids.stream().distinct().sorted().toList());
+		if (found.isEmpty()) {
+			return List.of();
+		}
+		List<Long> existing = new ArrayList<>(found.keySet());
+		// the default database's part runs in the caller's transaction, with
+		// the patient locks; the shards get new ones on their own connections
+		TransactionTemplate shardTx = new TransactionTemplate(transactionManager);
+		shardTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		Map<DoctorDateKey, Long> freed = new HashMap<>();
+		scatter.onEachShardInTurn(() -> ShardContext.DEFAULT.equals(ShardContext.current())
+				? deleteAppointments(existing)
+				: shardTx.execute(s -> deleteAppointments(existing)))
+				.values().forEach(slots -> slots.forEach((k, n) -> freed.merge(k, n, Long::sum)));
+		deletionDAO.deletePatients(existing);
+
+		Map<DoctorDateKey, Long> deltas = new HashMap<>();
+		freed.forEach((k, n) -> deltas.put(k, -n));
+		countBO.adjusted(deltas);
+		for (DoctorDateKey k : freed.keySet()) {
+			publisher.publishEvent(new SlotChangeEvent(k.doctorId(), k.date()));
+		}
+		credentialCache.invalidatePatients(found.keySet());
+		found.forEach((id, dob) -> analyticsBO.patientRemoved(dob, id));
+		return existing;
+	}
+
+	// removes the patients' appointments from the database the thread is on,
+	// returns the upcoming slots they held
+	private Map<DoctorDateKey, Long> deleteAppointments(List<Long> patientIds) {
+		Map<DoctorDateKey, Long> freed = deletionDAO.upcomingSlots(patientIds, LocalDate.now());
+		ledger.patientsRemoved(patientIds);
+		deletionDAO.outboxAppointmentsDeleted(patientIds, OutboxBO.APPOINTMENT, "AppointmentDeleted",
+				LocalDateTime.now());
+		deletionDAO.deleteAppointments(patientIds);
+		return freed;
 	}
 
 	// associate method
@@ -165,7 +423,9 @@ public class PatientBO {
 		}
 
 		if (validatePatient(vo) && validateAppointmentCount(vo) && validateDOB(vo.getDob())) {
+			vo.setPatientPassword(passwordHashBO.hash(vo.getPatientPassword()));
 			PatientVO insert = patientRepo.save(vo);
+			analyticsBO.patientRegistered(insert.getDob(), insert.getPatientId(), appts.size());
 			return insert;
 		}
 		return null;
@@ -217,16 +477,27 @@ public class PatientBO {
 		return list;
 	}
 
-	// find Most Common DOB:
+	// find Most Common DOB, served from the in-memory histogram:
 	public List<LocalDate> findMostCommonDOB() {
-		return patientRepo.findMostCommonDOB();
+		return analyticsBO.mostCommonDobs();
 	}
 
-	// findPatientWithMostAppointments
+	// findPatientWithMostAppointments: the ranking gives the top IDs, only
+	// those patients are loaded and returned busiest first
 	public List<PatientVO> findPatientWithMostAppointments() {
-		List<PatientVO> che = patientRepo.findPatientWithMostAppointments();
-		System.out.println(che);
-		return patientRepo.findPatientWithMostAppointments();
+		List<Long> ids = analyticsBO.mostActivePatientIds();
+		Map<Long, PatientVO> byId = new HashMap<>();
+		for (PatientVO vo : patientRepo.findAllById(ids)) {
+			byId.put(vo.getPatientId(), vo);
+		}
+		List<PatientVO> ret = new ArrayList<>(ids.size());
+		for (Long id : ids) {
+			PatientVO vo = byId.get(id);
+			if (vo != null) {
+				ret.add(vo);
+			}
+		}
+		return ret;
 	}
 
 	// findTotalPatientsCount
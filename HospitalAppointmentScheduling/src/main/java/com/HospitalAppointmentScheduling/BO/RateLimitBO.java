@@ -0,0 +1,98 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.HospitalAppointmentScheduling.WebConfig.RateLimitProperties;
+
+@Component
+public class RateLimitBO {
+
+	Logger log = Logger.getLogger(RateLimitBO.class);
+
+	@Autowired
+	private RateLimitProperties props;
+
+	// key: <route path>|ip|<address> or <route path>|account|<email>
+	private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+	private final Map<String, RouteMetrics> metrics = new ConcurrentHashMap<>();
+
+	static class RouteMetrics {
+		final LongAdder allowed = new LongAdder();
+		final LongAdder throttledByIp = new LongAdder();
+		final LongAdder throttledByAccount = new LongAdder();
+	}
+
+	// per client IP check
+	public boolean tryAcquireIp(RateLimitProperties.Route route, String ip) {
+		TokenBucket bucket = bucket(route.getPath() + "|ip|" + ip, route.getIpCapacity(),
+				route.getIpRefillPerSecond());
+		if (!bucket.tryAcquire(System.nanoTime())) {
+			metrics(route).throttledByIp.increment();
+			return false;
+		}
+		return true;
+	}
+
+	// per account check, the key is normalised so case variants share a bucket
+	public boolean tryAcquireAccount(RateLimitProperties.Route route, String account) {
+		TokenBucket bucket = bucket(route.getPath() + "|account|" + account.trim().toLowerCase(),
+				route.getAccountCapacity(), route.getAccountRefillPerSecond());
+		if (!bucket.tryAcquire(System.nanoTime())) {
+			metrics(route).throttledByAccount.increment();
+			return false;
+		}
+		return true;
+	}
+
+	public void recordAllowed(RateLimitProperties.Route route) {
+		metrics(route).allowed.increment();
+	}
+
+	// snapshot of the counters per route
+	public Map<String, Map<String, Long>> metricsSnapshot() {
+		Map<String, Map<String, Long>> ret = new LinkedHashMap<>();
+		metrics.forEach((path, m) -> {
+			Map<String, Long> row = new LinkedHashMap<>();
+			row.put("allowed", m.allowed.sum());
+			row.put("throttledByIp", m.throttledByIp.sum());
+			row.put("throttledByAccount", m.throttledByAccount.sum());
+			ret.put(path, row);
+		});
+		return ret;
+	}
+
+	public int bucketCount() {
+		return buckets.size();
+	}
+
+	// drops buckets that have refilled completely and seen no traffic since
+	@Scheduled(fixedDelayString = "${ratelimit.sweep-ms:60000}")
+	public void evictIdle() {
+		long now = System.nanoTime();
+		long idle = TimeUnit.MINUTES.toNanos(props.getIdleMinutes());
+		int before = buckets.size();
+		buckets.values().removeIf(b -> b.isIdle(now, idle));
+		int removed = before - buckets.size();
+		if (removed > 0) {
+			log.info("rate limit sweep removed " + removed + " idle buckets");
+		}
+	}
+
+	private TokenBucket bucket(String key, int capacity, double refillPerSecond) {
+		return buckets.computeIfAbsent(key, k -> new TokenBucket(capacity, refillPerSecond, System.nanoTime()));
+	}
+
+	private RouteMetrics metrics(RateLimitProperties.Route route) {
+		return metrics.computeIfAbsent(route.getPath(), p -> new RouteMetrics());
+	}
+}
@@ -0,0 +1,9 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// one appointment reminder as handed to a ReminderSender
+public record Reminder(long appointmentId, LocalDate appointmentDate, String reason, long patientId,
+		String patientName, String patientEmail, String patientPhone, String doctorName, LocalDateTime remindAt) {
+}
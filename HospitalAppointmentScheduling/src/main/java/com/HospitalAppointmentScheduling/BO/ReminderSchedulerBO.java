@@ -0,0 +1,237 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.HospitalAppointmentScheduling.DAO.AppointmentsRepo;
+import com.HospitalAppointmentScheduling.DAO.ReminderProjection;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+
+// Appointment reminders. Upcoming appointments are loaded from the table one
+// keyset page per tick into a timing wheel that only holds appointment IDs;
+// when a timer fires the details are read fresh and handed to the
+// ReminderSender on its own pool. After a restart the wheel is rebuilt the
+// same way, and reminders that were due more than grace-minutes ago count as
+// already sent. Only the node leading appointment-reminders sends them; a
+// node that takes the lead over rebuilds its wheel the same way.
+@Component
+public class ReminderSchedulerBO {
+
+	Logger log = Logger.getLogger(ReminderSchedulerBO.class);
+
+	@Autowired
+	AppointmentsRepo appointmentsRepo;
+
+	@Autowired
+	ReminderSender sender;
+
+	@Autowired
+	@Qualifier("reminderExecutor")
+	Executor executor;
+
+	@Autowired
+	ObjectMapper mapper;
+
+	Clock clock = Clock.systemDefaultZone();
+
+	@Value("${reminder.enabled:true}")
+	boolean enabled = true;
+
+	@Value("${reminder.tick-ms:1000}")
+	long tickMs = 1000;
+
+	@Value("${reminder.days-before:1}")
+	int daysBefore = 1;
+
+	// local time of day the reminder goes out, daysBefore the appointment
+	@Value("${reminder.send-at:09:00}")
+	String sendAtTime = "09:00";
+
+	@Value("${reminder.lookahead-days:7}")
+	int lookaheadDays = 7;
+
+	@Value("${reminder.page-size:500}")
+	int pageSize = 500;
+
+	@Value("${reminder.grace-minutes:15}")
+	long graceMinutes = 15;
+
+	private LocalTime sendAt;
+	private TimingWheel<Long> wheel;
+	private final Map<Long, TimingWheel.Timer<Long>> timers = new HashMap<>();
+
+	// loader state: appointments up to loadedThrough are all in the wheel, the
+	// window being loaded runs to windowTo and continues after cursor
+	private LocalDate loadedThrough;
+	private LocalDate windowFrom;
+	private LocalDate windowTo;
+	private long cursor;
+
+	// token of the reminders lease the wheel was loaded under
+	private long leaseToken;
+
+	@PostConstruct
+	public void init() {
+		sendAt = LocalTime.parse(sendAtTime);
+		wheel = new TimingWheel<>(tickMs, clock.millis());
+	}
+
+	// fires due timers, then loads at most one more page
+	@Scheduled(fixedDelayString = "${reminder.tick-ms:1000}")
+	@LeaderOnly("appointment-reminders")
+	public void tick() {
+		if (!enabled) {
+			return;
+		}
+		LeaderElectionBO.Lease lease = LeaderElectionBO.current();
+		if (lease != null && lease.token() != leaseToken) {
+			// a wheel kept from an earlier lead still holds the reminders the
+			// other node has sent since
+			reset();
+			leaseToken = lease.token();
+		}
+		List<Long> due = new ArrayList<>();
+		synchronized (this) {
+			wheel.advance(clock.millis(), id -> {
+				timers.remove(id);
+				due.add(id);
+			});
+		}
+		for (Long id : due) {
+			executor.execute(() -> dispatch(id));
+		}
+		loadNextPage();
+	}
+
+	public synchronized int pending() {
+		return wheel.size();
+	}
+
+	public synchronized LocalDate loadedThrough() {
+		return loadedThrough;
+	}
+
+	// keeps the wheel in step with appointments booked, moved or deleted
+	// after they were loaded
+	@EventListener
+	public void onChange(ChangeEvent event) {
+		if (!OutboxBO.APPOINTMENT.equals(event.aggregateType())) {
+			return;
+		}
+		long id = event.aggregateId();
+		if (event.eventType().endsWith("Deleted")) {
+			cancel(id);
+			return;
+		}
+		try {
+			JsonNode payload = mapper.readTree(event.payload());
+			LocalDate date = LocalDate.parse(payload.get("appointmentDate").asText());
+			synchronized (this) {
+				// scheduling twice is harmless, the loader may reach the same ID
+				LocalDate covered = windowTo != null ? windowTo : loadedThrough;
+				if (covered != null && !date.isAfter(covered)) {
+					schedule(id, date);
+				} else {
+					// the loader picks it up once its day comes into the window
+					cancel(id);
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			log.warn("could not read appointment change " + event.offset() + " for reminders", e);
+		}
+	}
+
+	synchronized void reset() {
+		wheel = new TimingWheel<>(tickMs, clock.millis());
+		timers.clear();
+		loadedThrough = null;
+		windowFrom = null;
+		windowTo = null;
+		cursor = 0;
+	}
+
+	synchronized void loadNextPage() {
+		LocalDate today = LocalDate.now(clock);
+		LocalDate horizon = today.plusDays(lookaheadDays);
+		if (windowTo == null) {
+			if (loadedThrough != null && !loadedThrough.isBefore(horizon)) {
+				return;
+			}
+			windowFrom = loadedThrough == null || loadedThrough.isBefore(today) ? today : loadedThrough.plusDays(1);
+			windowTo = horizon;
+			cursor = 0;
+		}
+		List<ReminderProjection> page = appointmentsRepo.findUpcomingForReminders(windowFrom, windowTo, cursor,
+				PageRequest.of(0, pageSize));
+		for (ReminderProjection row : page) {
+			schedule(row.getAppointmentId(), row.getAppointmentDate());
+			cursor = row.getAppointmentId();
+		}
+		if (page.size() < pageSize) {
+			log.info("reminders loaded through " + windowTo + ", " + wheel.size() + " pending");
+			loadedThrough = windowTo;
+			windowTo = null;
+		}
+	}
+
+	synchronized void schedule(long appointmentId, LocalDate date) {
+		cancel(appointmentId);
+		long remindAt = remindAt(date);
+		if (remindAt < clock.millis() - graceMinutes * 60_000 || date.isBefore(LocalDate.now(clock))) {
+			return;
+		}
+		timers.put(appointmentId, wheel.schedule(appointmentId, remindAt));
+	}
+
+	synchronized void cancel(long appointmentId) {
+		TimingWheel.Timer<Long> t = timers.remove(appointmentId);
+		if (t != null) {
+			wheel.cancel(t);
+		}
+	}
+
+	private long remindAt(LocalDate date) {
+		return date.minusDays(daysBefore).atTime(sendAt).atZone(clock.getZone()).toInstant().toEpochMilli();
+	}
+
+	private void dispatch(long appointmentId) {
+		ReminderProjection row = appointmentsRepo.findReminderById(appointmentId);
+		if (row == null) {
+			return;
+		}
+		long remindAt = remindAt(row.getAppointmentDate());
+		if (remindAt > clock.millis() + tickMs) {
+			// moved to a later day since the timer was set
+			schedule(appointmentId, row.getAppointmentDate());
+			return;
+		}
+		Reminder reminder = new Reminder(row.getAppointmentId(), row.getAppointmentDate(), row.getReason(),
+				row.getPatientId(), row.getPatientName(), row.getPatientEmail(), row.getPatientPhone(),
+				row.getDoctorName(), LocalDateTime.now(clock));
+		try {
+			sender.send(reminder);
+		} catch (IOException | RuntimeException e) {
+			log.error("sending the reminder for appointment " + appointmentId + " failed", e);
+		}
+	}
+}
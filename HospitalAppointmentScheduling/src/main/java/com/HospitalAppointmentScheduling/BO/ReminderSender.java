@@ -0,0 +1,11 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.io.IOException;
+
+// Delivery channel for appointment reminders (mail, SMS, push, ...). Declare a
+// bean implementing it to replace the default, which only writes to the log.
+public interface ReminderSender {
+
+	void send(Reminder reminder) throws IOException;
+
+}
@@ -0,0 +1,169 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToIntBiFunction;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.HospitalAppointmentScheduling.BO.AppointmentCountBO.DoctorDateKey;
+import com.HospitalAppointmentScheduling.CustomExceptions.AppointmentException;
+import com.HospitalAppointmentScheduling.CustomExceptions.IdException;
+import com.HospitalAppointmentScheduling.DAO.AffectedAppointmentProjection;
+import com.HospitalAppointmentScheduling.DAO.AppointmentsRepo;
+import com.HospitalAppointmentScheduling.DAO.DoctorRepo;
+
+// Moves every appointment of an unavailable doctor in a date range to doctors
+// of the same hospital and specialization. The plan is greedy in date order:
+// each appointment takes the least loaded peer on its own day, otherwise the
+// nearest later day with room (the absent doctor counts again once the range
+// is over). Free slots come from the in-memory counters, so planning never
+// reads the table beyond the affected rows; the moves are then written as one
+// UPDATE per target (doctor, date).
+@Component
+public class RescheduleBO {
+
+	Logger log = Logger.getLogger(RescheduleBO.class);
+
+	private static final int UPDATE_CHUNK = 1000;
+
+	@Autowired
+	AppointmentsRepo appointmentsRepo;
+
+	@Autowired
+	DoctorRepo doctorRepo;
+
+	@Autowired
+	WaitlistBO waitlistBO;
+
+	@Autowired
+	AppointmentCountBO countBO;
+
+	@Autowired
+	OutboxBO outbox;
+
+	@Autowired
+	ApplicationEventPublisher publisher;
+
+	@Autowired
+	CapacityLedgerBO ledger;
+
+	// how many days after the original date a moved appointment may land on
+	@Value("${reschedule.search-days:14}")
+	int searchDays = 14;
+
+	public record Move(long appointmentId, LocalDate fromDate, long toDoctorId, LocalDate toDate) {
+	}
+
+	public record RescheduleReport(long doctorId, LocalDate from, LocalDate to, int affected, List<Move> moved,
+			List<Long> unplaceable, boolean applied) {
+	}
+
+	public RescheduleReport reschedule(long doctorId, LocalDate from, LocalDate to, boolean dryRun)
+			throws IdException, AppointmentException {
+		if (!doctorRepo.existsById(doctorId)) {
+			throw new IdException("ERROR: Doctor ID not exist in the database");
+		}
+		List<AffectedAppointmentProjection> affected = appointmentsRepo.findForDoctorBetween(doctorId, from, to);
+		List<Long> peers = doctorRepo.findPeerDoctorIds(doctorId);
+		List<Move> moves = new ArrayList<>();
+		List<Long> unplaceable = new ArrayList<>();
+		plan(affected, doctorId, to, peers, waitlistBO::freeSlots, searchDays, moves, unplaceable);
+		log.info("reschedule of doctor " + doctorId + " from " + from + " to " + to + ": " + moves.size()
+				+ " placed, " + unplaceable.size() + " unplaceable out of " + affected.size());
+		if (!dryRun && !moves.isEmpty()) {
+			apply(doctorId, moves);
+		}
+		return new RescheduleReport(doctorId, from, to, affected.size(), moves, unplaceable, !dryRun);
+	}
+
+	// affected must be ordered by date. Days where no candidate has room are
+	// remembered so later appointments skip them without a lookup.
+	static void plan(List<AffectedAppointmentProjection> affected, long doctorId, LocalDate unavailableTo,
+			List<Long> peers, ToIntBiFunction<Long, LocalDate> freeSlots, int searchDays, List<Move> moves,
+			List<Long> unplaceable) {
+		Map<DoctorDateKey, Integer> free = new HashMap<>();
+		Set<LocalDate> fullDays = new HashSet<>();
+		for (AffectedAppointmentProjection a : affected) {
+			Move move = null;
+			for (int offset = 0; offset <= searchDays && move == null; offset++) {
+				LocalDate day = a.getAppointmentDate().plusDays(offset);
+				if (fullDays.contains(day)) {
+					continue;
+				}
+				long best = -1;
+				int bestFree = 0;
+				for (Long peer : peers) {
+					int f = free.computeIfAbsent(new DoctorDateKey(peer, day), k -> freeSlots.applyAsInt(peer, day));
+					if (f > bestFree) {
+						best = peer;
+						bestFree = f;
+					}
+				}
+				if (day.isAfter(unavailableTo)) {
+					int f = free.computeIfAbsent(new DoctorDateKey(doctorId, day),
+							k -> freeSlots.applyAsInt(doctorId, day));
+					if (f > bestFree) {
+						best = doctorId;
+						bestFree = f;
+					}
+				}
+				if (best < 0) {
+					fullDays.add(day);
+					continue;
+				}
+				free.put(new DoctorDateKey(best, day), bestFree - 1);
+				move = new Move(a.getAppointmentId(), a.getAppointmentDate(), best, day);
+			}
+			if (move == null) {
+				unplaceable.add(a.getAppointmentId());
+			} else {
+				moves.add(move);
+			}
+		}
+	}
+
+	// must run inside the caller's transaction
+	private void apply(long doctorId, List<Move> moves) throws AppointmentException {
+		Map<DoctorDateKey, List<Long>> groups = new LinkedHashMap<>();
+		Map<DoctorDateKey, Long> deltas = new HashMap<>();
+		for (Move m : moves) {
+			DoctorDateKey target = new DoctorDateKey(m.toDoctorId(), m.toDate());
+			groups.computeIfAbsent(target, k -> new ArrayList<>()).add(m.appointmentId());
+			deltas.merge(new DoctorDateKey(doctorId, m.fromDate()), -1L, Long::sum);
+			deltas.merge(target, 1L, Long::sum);
+		}
+		// the plan only saw this node's bookings
+		DoctorDateKey full = ledger.apply(deltas);
+		if (full != null) {
+			throw new AppointmentException("ERROR: doctor " + full.doctorId() + " was fully booked on " + full.date()
+					+ " by another booking, please run the reschedule again");
+		}
+		LocalDateTime now = LocalDateTime.now();
+		for (Map.Entry<DoctorDateKey, List<Long>> g : groups.entrySet()) {
+			List<Long> ids = g.getValue();
+			for (int i = 0; i < ids.size(); i += UPDATE_CHUNK) {
+				appointmentsRepo.moveAppointments(ids.subList(i, Math.min(ids.size(), i + UPDATE_CHUNK)),
+						doctorRepo.getReferenceById(g.getKey().doctorId()), g.getKey().date(), now);
+			}
+		}
+		for (Move m : moves) {
+			outbox.appointmentMoved("AppointmentRescheduled", m.appointmentId(), m.toDoctorId(), m.toDate());
+		}
+		countBO.adjusted(deltas);
+		for (DoctorDateKey k : deltas.keySet()) {
+			publisher.publishEvent(new SlotChangeEvent(k.doctorId(), k.date()));
+		}
+	}
+}
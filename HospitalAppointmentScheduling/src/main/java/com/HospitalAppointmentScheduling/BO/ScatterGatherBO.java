@@ -0,0 +1,106 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import com.HospitalAppointmentScheduling.WebConfig.ShardProperties;
+
+// Runs a read on every shard in parallel and hands back the answers in shard
+// order. Each shard's call runs on a pool thread switched to that shard and
+// outside any transaction of the caller, so the caller's connection is never
+// reused for another shard. The whole read fails when one shard fails or
+// does not answer within datasource.shards.scatter-timeout-ms: a partial
+// list of a patient's appointments would look complete to the client.
+// With sharding off the call runs once, on the caller's thread.
+@Component
+public class ScatterGatherBO {
+
+	Logger log = Logger.getLogger(ScatterGatherBO.class);
+
+	@Autowired
+	ShardProperties shardProps;
+
+	@Autowired
+	@Qualifier("scatterExecutor")
+	ExecutorService executor;
+
+	public <T> Map<String, T> onEveryShard(Supplier<T> call) {
+		List<String> shards = shardProps.shardNames();
+		Map<String, T> results = new LinkedHashMap<>();
+		if (!shardProps.isEnabled()) {
+			results.put(ShardContext.DEFAULT, call.get());
+			return results;
+		}
+
+		Map<String, Future<T>> futures = new LinkedHashMap<>();
+		String shard = null;
+		try {
+			for (String s : shards) {
+				shard = s;
+				futures.put(s, executor.submit(() -> ShardContext.call(s, call)));
+			}
+			long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shardProps.getScatterTimeoutMs());
+			for (Map.Entry<String, Future<T>> e : futures.entrySet()) {
+				shard = e.getKey();
+				results.put(shard, e.getValue().get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+			}
+			return results;
+		} catch (RejectedExecutionException e) {
+			throw failed(futures, "ERROR: too many cross-shard reads in progress, try again", e);
+		} catch (TimeoutException e) {
+			throw failed(futures, "ERROR: shard " + shard + " did not answer within "
+					+ shardProps.getScatterTimeoutMs() + " ms", e);
+		} catch (ExecutionException e) {
+			throw failed(futures, "ERROR: the read on shard " + shard + " failed", e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw failed(futures, "ERROR: interrupted while reading shard " + shard, e);
+		}
+	}
+
+	// one shard after the other on the caller's thread, for long jobs that
+	// should not hold pool threads or run into the read timeout. The caller
+	// must not be in a transaction, it would keep its first connection.
+	public <T> Map<String, T> onEachShardInTurn(Supplier<T> call) {
+		Map<String, T> results = new LinkedHashMap<>();
+		for (String shard : shardProps.shardNames()) {
+			results.put(shard, ShardContext.call(shard, call));
+		}
+		return results;
+	}
+
+	// concatenates the lists each shard returns
+	public <T> List<T> gatherAll(Supplier<List<T>> call) {
+		List<T> all = new ArrayList<>();
+		onEveryShard(call).values().forEach(all::addAll);
+		return all;
+	}
+
+	public long sum(Supplier<Long> call) {
+		long total = 0;
+		for (Long n : onEveryShard(call).values()) {
+			total += n == null ? 0 : n;
+		}
+		return total;
+	}
+
+	private IllegalStateException failed(Map<String, ? extends Future<?>> futures, String message, Throwable cause) {
+		futures.values().forEach(f -> f.cancel(true));
+		log.warn(message, cause);
+		return new IllegalStateException(message, cause);
+	}
+}
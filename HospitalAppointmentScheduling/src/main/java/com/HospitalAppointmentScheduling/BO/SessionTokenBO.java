@@ -0,0 +1,141 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+@Component
+public class SessionTokenBO {
+
+	private static final String ALGORITHM = "HmacSHA256";
+
+	private static final String ADMIN_PREFIX = "admin-";
+
+	@Value("${login.session.secret:}")
+	private String secret;
+
+	@Value("${login.session.ttl-minutes:30}")
+	private long ttlMinutes;
+
+	private SecretKeySpec key;
+
+	// tokens revoked before their expiry, value is the expiry so it can be purged
+	private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+	@PostConstruct
+	public void init() {
+		byte[] keyBytes;
+		if (secret == null || secret.isEmpty()) {
+			// no shared secret configured: tokens are only valid on this instance
+			keyBytes = new byte[32];
+			new SecureRandom().nextBytes(keyBytes);
+		} else {
+			keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+		}
+		key = new SecretKeySpec(keyBytes, ALGORITHM);
+	}
+
+	// token format: <subject>.<expiry epoch millis>.<base64url signature>,
+	// the subject is the patient ID, or admin-<hospitalId> for an admin login
+	public String issue(long patientId) {
+		return issue(Long.toString(patientId));
+	}
+
+	public String issueAdmin(long hospitalId) {
+		return issue(ADMIN_PREFIX + hospitalId);
+	}
+
+	// returns the patient ID carried by a valid patient token, null otherwise,
+	// admin tokens included. Never touches the database.
+	public Long verify(String token) {
+		return subjectId(token, "");
+	}
+
+	// returns the hospital ID carried by a valid admin token, null otherwise
+	public Long verifyAdmin(String token) {
+		return subjectId(token, ADMIN_PREFIX);
+	}
+
+	// logout: keeps the token in the revoked list until it would have expired.
+	// Only tokens this service signed get in, so the list is bounded by the
+	// logins and their expiry cannot be pushed out by the caller.
+	public void revoke(String token) {
+		Long expiry = signedExpiry(token);
+		if (expiry != null) {
+			revoked.put(token, expiry);
+		}
+		long now = System.currentTimeMillis();
+		revoked.values().removeIf(e -> e < now);
+	}
+
+	private String issue(String subject) {
+		long expiry = System.currentTimeMillis() + ttlMinutes * 60_000;
+		String payload = subject + "." + expiry;
+		return payload + "." + sign(payload);
+	}
+
+	private Long subjectId(String token, String prefix) {
+		Long expiry = signedExpiry(token);
+		if (expiry == null || revoked.containsKey(token)) {
+			return null;
+		}
+		String subject = token.substring(0, token.indexOf('.'));
+		if (!subject.startsWith(prefix)) {
+			return null;
+		}
+		try {
+			return Long.parseLong(subject.substring(prefix.length()));
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	// the expiry of a well-formed, correctly signed and unexpired token, null
+	// for anything else
+	private Long signedExpiry(String token) {
+		if (token == null) {
+			return null;
+		}
+		int second = token.lastIndexOf('.');
+		int first = token.indexOf('.');
+		if (first <= 0 || second <= first) {
+			return null;
+		}
+		String payload = token.substring(0, second);
+		byte[] expected = sign(payload).getBytes(StandardCharsets.US_ASCII);
+		byte[] actual = token.substring(second + 1).getBytes(StandardCharsets.US_ASCII);
+		if (!MessageDigest.isEqual(expected, actual)) {
+			return null;
+		}
+		try {
+			long expiry = Long.parseLong(token.substring(first + 1, second));
+			return expiry < System.currentTimeMillis() ? null : expiry;
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private String sign(String payload) {
+		try {
+			Mac mac = Mac.getInstance(ALGORITHM);
+			mac.init(key);
+			byte[] sig = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(sig);
+		} catch (NoSuchAlgorithmException | InvalidKeyException e) {
+			throw new IllegalStateException("ERROR: session token signing is not available", e);
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.util.function.Supplier;
+
+// The shard the current thread works on, read by ShardRoutingDataSource when
+// a connection is opened. Unset means the default database.
+public final class ShardContext {
+
+	public static final String DEFAULT = "default";
+
+	private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+	private ShardContext() {
+	}
+
+	public static String current() {
+		String shard = CURRENT.get();
+		return shard == null ? DEFAULT : shard;
+	}
+
+	public static boolean isSet() {
+		return CURRENT.get() != null;
+	}
+
+	// switches the thread to the shard and returns the previous one for leave()
+	public static String enter(String shard) {
+		String previous = CURRENT.get();
+		CURRENT.set(shard);
+		return previous;
+	}
+
+	public static void leave(String previous) {
+		if (previous == null) {
+			CURRENT.remove();
+		} else {
+			CURRENT.set(previous);
+		}
+	}
+
+	public static <T> T call(String shard, Supplier<T> work) {
+		String previous = enter(shard);
+		try {
+			return work.get();
+		} finally {
+			leave(previous);
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.HospitalAppointmentScheduling.DAO.AppointmentsRepo;
+import com.HospitalAppointmentScheduling.DAO.DoctorRepo;
+import com.HospitalAppointmentScheduling.WebConfig.ShardProperties;
+
+import jakarta.annotation.PostConstruct;
+
+// Which shard holds the appointments of a hospital, a doctor or an
+// appointment. Hospitals map to shards by configuration; a doctor's hospital
+// is read once from the default database and then kept in memory, doctors
+// do not change hospital. Hospitals that no node lists stay on the default
+// database.
+@Component
+public class ShardMapBO {
+
+	Logger log = Logger.getLogger(ShardMapBO.class);
+
+	@Autowired
+	ShardProperties shardProps;
+
+	@Autowired
+	DoctorRepo doctorRepo;
+
+	@Autowired
+	AppointmentsRepo appointmentsRepo;
+
+	@Autowired
+	ScatterGatherBO scatter;
+
+	private final Map<Long, String> hospitalShard = new HashMap<>();
+	private final Map<Long, Long> doctorHospital = new ConcurrentHashMap<>();
+
+	@PostConstruct
+	void buildMap() {
+		if (!shardProps.isEnabled()) {
+			return;
+		}
+		Set<String> names = new HashSet<>();
+		names.add(ShardContext.DEFAULT);
+		for (ShardProperties.Node node : shardProps.getNodes()) {
+			if (node.getName() == null || node.getUrl() == null || !names.add(node.getName())) {
+				throw new IllegalStateException("ERROR: every shard needs a url and a unique name other than '"
+						+ ShardContext.DEFAULT + "'");
+			}
+			for (Long hospitalId : node.getHospitals()) {
+				String other = hospitalShard.put(hospitalId, node.getName());
+				if (other != null) {
+					throw new IllegalStateException(
+							"ERROR: hospital " + hospitalId + " is on both shard " + other + " and " + node.getName());
+				}
+			}
+		}
+		log.info("sharding on, " + hospitalShard.size() + " hospitals over " + shardProps.getNodes().size()
+				+ " shards");
+	}
+
+	public boolean isEnabled() {
+		return shardProps.isEnabled();
+	}
+
+	public String shardOfHospital(long hospitalId) {
+		return hospitalShard.getOrDefault(hospitalId, ShardContext.DEFAULT);
+	}
+
+	// unknown doctors go to the default database, where booking rejects them
+	public String shardOfDoctor(long doctorId) {
+		if (!isEnabled()) {
+			return ShardContext.DEFAULT;
+		}
+		Long hospitalId = doctorHospital.get(doctorId);
+		if (hospitalId == null) {
+			hospitalId = ShardContext.call(ShardContext.DEFAULT, () -> doctorRepo.findHospitalIdByDoctorId(doctorId));
+			if (hospitalId == null) {
+				return ShardContext.DEFAULT;
+			}
+			doctorHospital.put(doctorId, hospitalId);
+		}
+		return shardOfHospital(hospitalId);
+	}
+
+	// appointment IDs do not carry their shard, so every shard is asked;
+	// unknown IDs go to the default database, where the lookup reports them
+	public String shardOfAppointment(long appointmentId) {
+		if (!isEnabled()) {
+			return ShardContext.DEFAULT;
+		}
+		for (Map.Entry<String, Boolean> e : scatter.onEveryShard(() -> appointmentsRepo.existsById(appointmentId))
+				.entrySet()) {
+			if (Boolean.TRUE.equals(e.getValue())) {
+				return e.getKey();
+			}
+		}
+		return ShardContext.DEFAULT;
+	}
+}
@@ -0,0 +1,8 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.time.LocalDate;
+
+// published by AppointmentsBO whenever a booking, update or delete touches the
+// slots of a doctor on a date
+public record SlotChangeEvent(long doctorId, LocalDate date) {
+}
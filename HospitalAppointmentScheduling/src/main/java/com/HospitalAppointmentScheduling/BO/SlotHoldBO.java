@@ -0,0 +1,160 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.HospitalAppointmentScheduling.CustomExceptions.WaitlistException;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Two-phase booking: a hold reserves one of a doctor's slots for a patient
+// for hold.ttl-ms while they fill in the booking form, confirm books it.
+// The reservation is a held slot in WaitlistBO, so direct bookings, waitlist
+// offers and the availability counts all see it. Expiry goes through a
+// DelayQueue: the reaper thread sleeps until the earliest deadline and only
+// ever touches holds that are due, there is no scan. Confirmed and cancelled
+// holds are left in the queue and skipped when they come out, which is
+// cheaper than removing them from the middle of it.
+//
+// Holds live in memory only, like the waitlist; a restart frees them.
+@Component
+public class SlotHoldBO {
+
+	Logger log = Logger.getLogger(SlotHoldBO.class);
+
+	@Autowired
+	WaitlistBO waitlistBO;
+
+	@Value("${hold.ttl-ms:300000}")
+	long ttlMs = 300_000;
+
+	@Value("${hold.max-active:50000}")
+	int maxActive = 50_000;
+
+	public record Hold(long holdId, long patientId, long doctorId, LocalDate date, long expiresAt) {
+	}
+
+	private record Expiry(long holdId, long deadlineNanos) implements Delayed {
+
+		@Override
+		public long getDelay(TimeUnit unit) {
+			return unit.convert(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+		}
+
+		@Override
+		public int compareTo(Delayed other) {
+			return Long.compare(deadlineNanos, ((Expiry) other).deadlineNanos);
+		}
+	}
+
+	private final Map<Long, Hold> holds = new ConcurrentHashMap<>();
+	private final DelayQueue<Expiry> expiries = new DelayQueue<>();
+	private final AtomicLong ids = new AtomicLong();
+	private Thread reaper;
+
+	@PostConstruct
+	public void start() {
+		reaper = new Thread(this::reap, "slot-hold-reaper");
+		reaper.setDaemon(true);
+		reaper.start();
+	}
+
+	@PreDestroy
+	public void stop() {
+		reaper.interrupt();
+	}
+
+	public Hold hold(long patientId, long doctorId, LocalDate date) throws WaitlistException {
+		if (holds.size() >= maxActive) {
+			throw new WaitlistException("ERROR: too many slots are on hold, please try again shortly");
+		}
+		if (!waitlistBO.hold(doctorId, date)) {
+			throw new WaitlistException("The doctor is fully booked on " + date);
+		}
+		long now = System.currentTimeMillis();
+		Hold h = new Hold(ids.incrementAndGet(), patientId, doctorId, date, now + ttlMs);
+		holds.put(h.holdId(), h);
+		expiries.add(new Expiry(h.holdId(), System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMs)));
+		log.info("hold " + h.holdId() + " for patient " + patientId + " on doctor " + doctorId + " on " + date);
+		return h;
+	}
+
+	// the doctor of an open hold, null when there is none
+	public Long doctorOfHold(long holdId) {
+		Hold h = holds.get(holdId);
+		return h == null ? null : h.doctorId();
+	}
+
+	// takes the hold away from the reaper and other callers; the slot is given
+	// back when the booking transaction completes, see releaseOnCompletion
+	public Hold claim(long holdId, long patientId) throws WaitlistException {
+		Hold h = holds.get(holdId);
+		if (h == null || h.patientId() != patientId) {
+			throw new WaitlistException("ERROR: no open hold " + holdId + " for this patient");
+		}
+		if (h.expiresAt() < System.currentTimeMillis() || !holds.remove(holdId, h)) {
+			throw new WaitlistException("ERROR: the hold has expired");
+		}
+		return h;
+	}
+
+	// after commit the booking is in the counters and the held slot goes away;
+	// after a rollback the slot is free again
+	public void releaseOnCompletion(Hold h) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			release(h);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				release(h);
+			}
+		});
+	}
+
+	public void cancel(long holdId, long patientId) throws WaitlistException {
+		release(claim(holdId, patientId));
+	}
+
+	public int activeHolds() {
+		return holds.size();
+	}
+
+	private void reap() {
+		while (!Thread.currentThread().isInterrupted()) {
+			try {
+				expire(expiries.take());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (RuntimeException e) {
+				log.error("releasing an expired hold failed", e);
+			}
+		}
+	}
+
+	private void expire(Expiry e) {
+		Hold h = holds.get(e.holdId());
+		if (h != null && holds.remove(e.holdId(), h)) {
+			log.info("hold " + h.holdId() + " for patient " + h.patientId() + " expired");
+			release(h);
+		}
+	}
+
+	private void release(Hold h) {
+		waitlistBO.releaseHold(h.doctorId(), h.date());
+	}
+}
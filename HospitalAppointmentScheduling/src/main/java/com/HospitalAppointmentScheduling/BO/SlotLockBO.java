@@ -0,0 +1,79 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.HospitalAppointmentScheduling.BO.AppointmentCountBO.DoctorDateKey;
+import com.HospitalAppointmentScheduling.CustomExceptions.AppointmentException;
+
+// Serialises capacity check and insert per (doctor, date). Keys hash onto a
+// fixed set of lock stripes, and a caller needing several keys takes their
+// stripes in ascending order, so two bookings can never wait on each other in
+// a cycle. The locks are held until the transaction completes, by which time
+// the counters already include the new bookings.
+@Component
+public class SlotLockBO {
+
+	private static final int STRIPES = 256;
+
+	private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+	@Value("${booking.lock-timeout-ms:2000}")
+	private long timeoutMs;
+
+	public SlotLockBO() {
+		for (int i = 0; i < STRIPES; i++) {
+			locks[i] = new ReentrantLock();
+		}
+	}
+
+	public void lockForTransaction(Collection<DoctorDateKey> keys) throws AppointmentException {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			throw new IllegalStateException("slot locks need an active transaction");
+		}
+		TreeSet<Integer> stripes = new TreeSet<>();
+		for (DoctorDateKey k : keys) {
+			stripes.add(Math.floorMod(k.hashCode(), STRIPES));
+		}
+		int taken = 0;
+		try {
+			for (int s : stripes) {
+				if (!locks[s].tryLock(timeoutMs, TimeUnit.MILLISECONDS)) {
+					throw new AppointmentException("ERROR: the slots are busy, please try again");
+				}
+				taken++;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new AppointmentException("ERROR: interrupted while reserving the slots");
+		} finally {
+			if (taken < stripes.size()) {
+				unlock(stripes, taken);
+			}
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				unlock(stripes, stripes.size());
+			}
+		});
+	}
+
+	// releases the first count stripes in the set
+	private void unlock(TreeSet<Integer> stripes, int count) {
+		int i = 0;
+		for (int s : stripes) {
+			if (i++ == count) {
+				break;
+			}
+			locks[s].unlock();
+		}
+	}
+}
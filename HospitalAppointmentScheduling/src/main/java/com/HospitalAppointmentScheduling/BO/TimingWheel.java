@@ -0,0 +1,170 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.util.function.Consumer;
+
+// Hierarchical timing wheel. Level 0 has 64 slots of one tick each, every
+// level above covers 64 slots of the whole level below it, so five levels of
+// one second ticks reach about 34 years ahead. Scheduling and cancelling are
+// O(1); a timer is moved down a level at most once per level as its deadline
+// gets closer. Not thread safe, callers synchronise.
+public class TimingWheel<T> {
+
+	private static final int BITS = 6;
+	private static final int SLOTS = 1 << BITS;
+	private static final int MASK = SLOTS - 1;
+	private static final int LEVELS = 5;
+
+	public static final class Timer<T> {
+		private final long deadlineTick;
+		private final T payload;
+		private Timer<T> prev;
+		private Timer<T> next;
+		private Bucket<T> bucket;
+
+		private Timer(long deadlineTick, T payload) {
+			this.deadlineTick = deadlineTick;
+			this.payload = payload;
+		}
+
+		public T getPayload() {
+			return payload;
+		}
+
+		public boolean isPending() {
+			return bucket != null;
+		}
+	}
+
+	// doubly linked list, so a timer leaves its slot without a search
+	private static final class Bucket<T> {
+		private Timer<T> head;
+
+		void add(Timer<T> t) {
+			t.bucket = this;
+			t.prev = null;
+			t.next = head;
+			if (head != null) {
+				head.prev = t;
+			}
+			head = t;
+		}
+
+		void remove(Timer<T> t) {
+			if (t.prev != null) {
+				t.prev.next = t.next;
+			} else {
+				head = t.next;
+			}
+			if (t.next != null) {
+				t.next.prev = t.prev;
+			}
+			t.prev = null;
+			t.next = null;
+			t.bucket = null;
+		}
+
+		// detaches the whole list and returns its first timer
+		Timer<T> drain() {
+			Timer<T> first = head;
+			head = null;
+			return first;
+		}
+	}
+
+	private final long tickMs;
+	private final Bucket<T>[][] wheels;
+	private long currentTick;
+	private int size;
+
+	public TimingWheel(long tickMs, long startMs) {
+		this.tickMs = tickMs;
+		this.currentTick = startMs / tickMs;
+		@SuppressWarnings("unchecked")
+		Bucket<T>[][] buckets = (Bucket<T>[][]) new Bucket<?>[LEVELS][SLOTS];
+		this.wheels = buckets;
+		for (int level = 0; level < LEVELS; level++) {
+			for (int slot = 0; slot < SLOTS; slot++) {
+				wheels[level][slot] = new Bucket<>();
+			}
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	// latest deadline the wheel can hold, measured from its current time
+	public long horizonMs() {
+		return (1L << (BITS * LEVELS)) * tickMs;
+	}
+
+	// deadlines are rounded up to a whole tick, so a timer never fires early;
+	// deadlines already reached fire on the next advance
+	public Timer<T> schedule(T payload, long deadlineMs) {
+		long deadlineTick = Math.max((deadlineMs + tickMs - 1) / tickMs, currentTick + 1);
+		if (deadlineTick - currentTick >= 1L << (BITS * LEVELS)) {
+			throw new IllegalArgumentException("deadline is beyond the wheel horizon");
+		}
+		Timer<T> t = new Timer<>(deadlineTick, payload);
+		place(t);
+		size++;
+		return t;
+	}
+
+	public boolean cancel(Timer<T> t) {
+		if (t.bucket == null) {
+			return false;
+		}
+		t.bucket.remove(t);
+		size--;
+		return true;
+	}
+
+	// moves the wheel forward to nowMs and hands every expired payload to the
+	// consumer, in deadline order across ticks
+	public void advance(long nowMs, Consumer<T> expired) {
+		long target = nowMs / tickMs;
+		while (currentTick < target) {
+			currentTick++;
+			// on a level boundary the matching slot of the level above is
+			// pulled down before level 0 fires
+			for (int level = 1; level < LEVELS; level++) {
+				if ((currentTick & ((1L << (BITS * level)) - 1)) != 0) {
+					break;
+				}
+				cascade(level, (int) ((currentTick >>> (BITS * level)) & MASK));
+			}
+			Timer<T> t = wheels[0][(int) (currentTick & MASK)].drain();
+			while (t != null) {
+				Timer<T> next = t.next;
+				t.prev = null;
+				t.next = null;
+				t.bucket = null;
+				size--;
+				expired.accept(t.payload);
+				t = next;
+			}
+		}
+	}
+
+	private void cascade(int level, int slot) {
+		Timer<T> t = wheels[level][slot].drain();
+		while (t != null) {
+			Timer<T> next = t.next;
+			place(t);
+			t = next;
+		}
+	}
+
+	// level is the highest one at which the deadline and the current tick
+	// differ, so the timer is found again exactly when that level turns over
+	private void place(Timer<T> t) {
+		long deadline = Math.max(t.deadlineTick, currentTick);
+		long diff = deadline ^ currentTick;
+		int level = 0;
+		while (level < LEVELS - 1 && (diff >>> (BITS * (level + 1))) != 0) {
+			level++;
+		}
+		wheels[level][(int) ((deadline >>> (BITS * level)) & MASK)].add(t);
+	}
+}
@@ -0,0 +1,46 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Lock-free token bucket. Instead of a token count plus a refill timestamp it
+// keeps one "theoretical arrival time" (GCRA), so taking a token is a single
+// compare-and-set on one AtomicLong.
+public class TokenBucket {
+
+	// nanoseconds needed to refill one token
+	private final long interval;
+	// how far ahead of now the arrival time may run: capacity tokens worth
+	private final long tolerance;
+	private final AtomicLong arrival;
+
+	public TokenBucket(int capacity, double refillPerSecond, long now) {
+		this.interval = (long) (1_000_000_000L / refillPerSecond);
+		this.tolerance = interval * capacity;
+		this.arrival = new AtomicLong(now);
+	}
+
+	// takes one token, returns false without waiting when the bucket is empty
+	public boolean tryAcquire(long now) {
+		while (true) {
+			long current = arrival.get();
+			long next = Math.max(current, now) + interval;
+			if (next - now > tolerance) {
+				return false;
+			}
+			if (arrival.compareAndSet(current, next)) {
+				return true;
+			}
+		}
+	}
+
+	// nanoseconds until the next token is available, 0 when one is available now
+	public long waitTime(long now) {
+		long next = Math.max(arrival.get(), now) + interval;
+		return Math.max(0, next - now - tolerance);
+	}
+
+	// a bucket that has been full for longer than idle carries no state worth keeping
+	public boolean isIdle(long now, long idle) {
+		return now - arrival.get() > idle;
+	}
+}
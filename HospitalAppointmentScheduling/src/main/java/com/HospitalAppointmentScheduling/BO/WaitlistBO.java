@@ -0,0 +1,306 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.HospitalAppointmentScheduling.BO.AppointmentCountBO.DoctorDateKey;
+import com.HospitalAppointmentScheduling.CustomExceptions.WaitlistException;
+
+// Waitlist for fully booked doctor days. Each (doctor, date) has a priority
+// queue (higher priority first, then earlier request) and a count of slots
+// held for open offers. When a slot frees up the head of the queue is offered
+// it for waitlist.hold-minutes; accepting books it, expiry or decline passes it
+// on. Queues are concurrent skip lists and holds a CAS counter, so promotions
+// triggered by simultaneous cancellations never block each other.
+//
+// The queues live in memory only, waiting patients are lost on a restart.
+// Each node offers to the patients waiting on it; slots freed on another node
+// reach it through the relayed change stream.
+@Component
+public class WaitlistBO {
+
+	Logger log = Logger.getLogger(WaitlistBO.class);
+
+	private static final int MAX_PRIORITY = 9;
+
+	@Autowired
+	AppointmentCountBO countBO;
+
+	@Value("${appointment.slots-per-doctor-day:5}")
+	private int slotsPerDay;
+
+	@Value("${waitlist.hold-minutes:15}")
+	private long holdMinutes;
+
+	public record WaitlistEntry(long entryId, long patientId, long doctorId, LocalDate date, String reason,
+			int priority, long requestedAt) {
+	}
+
+	public record Offer(long offerId, WaitlistEntry entry, long expiresAt) {
+	}
+
+	private static final Comparator<WaitlistEntry> ORDER = Comparator
+			.comparingInt(WaitlistEntry::priority).reversed()
+			.thenComparingLong(WaitlistEntry::requestedAt)
+			.thenComparingLong(WaitlistEntry::entryId);
+
+	private static final class DayQueue {
+		final ConcurrentSkipListSet<WaitlistEntry> waiting = new ConcurrentSkipListSet<>(ORDER);
+		final Map<Long, WaitlistEntry> byPatient = new ConcurrentHashMap<>();
+		final AtomicInteger held = new AtomicInteger();
+	}
+
+	private final Map<DoctorDateKey, DayQueue> queues = new ConcurrentHashMap<>();
+	private final Map<Long, Offer> offers = new ConcurrentHashMap<>();
+	private final AtomicLong ids = new AtomicLong();
+
+	public int getSlotsPerDay() {
+		return slotsPerDay;
+	}
+
+	// full when booked plus held slots reach the capacity, or when others are
+	// already waiting, so a direct booking never jumps the queue
+	public boolean isFull(long doctorId, LocalDate date) {
+		return !canBook(doctorId, date, 1);
+	}
+
+	public boolean canBook(long doctorId, LocalDate date, int count) {
+		long booked = countBO.countByDoctorAndDate(doctorId, date);
+		DayQueue q = queues.get(new DoctorDateKey(doctorId, date));
+		if (q == null) {
+			return booked + count <= slotsPerDay;
+		}
+		return booked + q.held.get() + count <= slotsPerDay && q.waiting.isEmpty();
+	}
+
+	// slots neither booked nor held for a waitlist offer
+	public int freeSlots(long doctorId, LocalDate date) {
+		long booked = countBO.countByDoctorAndDate(doctorId, date);
+		DayQueue q = queues.get(new DoctorDateKey(doctorId, date));
+		int held = q == null ? 0 : q.held.get();
+		return (int) Math.max(0, slotsPerDay - booked - held);
+	}
+
+	// reserves a slot for a patient hold (see SlotHoldBO) under the same rule
+	// as a direct booking; false when the day is full. Taken inside compute so
+	// the sweep cannot drop the queue between the check and the hold.
+	public boolean hold(long doctorId, LocalDate date) {
+		boolean[] held = new boolean[1];
+		queues.compute(new DoctorDateKey(doctorId, date), (k, q) -> {
+			DayQueue queue = q == null ? new DayQueue() : q;
+			long booked = countBO.countByDoctorAndDate(doctorId, date);
+			while (queue.waiting.isEmpty()) {
+				int h = queue.held.get();
+				if (booked + h >= slotsPerDay) {
+					break;
+				}
+				if (queue.held.compareAndSet(h, h + 1)) {
+					held[0] = true;
+					break;
+				}
+			}
+			return queue;
+		});
+		return held[0];
+	}
+
+	// gives back a slot held for an offer or a patient hold, the waitlist gets
+	// it first
+	public void releaseHold(long doctorId, LocalDate date) {
+		DoctorDateKey key = new DoctorDateKey(doctorId, date);
+		DayQueue q = queues.get(key);
+		if (q != null) {
+			q.held.decrementAndGet();
+			promote(key);
+		}
+	}
+
+	public WaitlistEntry join(long patientId, long doctorId, LocalDate date, String reason, int priority)
+			throws WaitlistException {
+		if (priority < 0 || priority > MAX_PRIORITY) {
+			throw new WaitlistException("ERROR: waitlist priority must be between 0 and " + MAX_PRIORITY);
+		}
+		DoctorDateKey key = new DoctorDateKey(doctorId, date);
+		WaitlistEntry entry = new WaitlistEntry(ids.incrementAndGet(), patientId, doctorId, date, reason, priority,
+				System.currentTimeMillis());
+		WaitlistEntry[] existing = new WaitlistEntry[1];
+		// added inside compute so the sweep cannot drop the queue in between
+		queues.compute(key, (k, q) -> {
+			DayQueue queue = q == null ? new DayQueue() : q;
+			existing[0] = queue.byPatient.putIfAbsent(patientId, entry);
+			if (existing[0] == null) {
+				queue.waiting.add(entry);
+			}
+			return queue;
+		});
+		if (existing[0] != null) {
+			return existing[0];
+		}
+		log.info("patient " + patientId + " waitlisted for doctor " + doctorId + " on " + date);
+		// a slot may have freed up between the capacity check and the join
+		promote(key);
+		return entry;
+	}
+
+	// 1-based place in the queue, 0 when the patient is not waiting
+	public int position(WaitlistEntry entry) {
+		DayQueue q = queues.get(new DoctorDateKey(entry.doctorId(), entry.date()));
+		if (q == null || !q.waiting.contains(entry)) {
+			return 0;
+		}
+		return q.waiting.headSet(entry).size() + 1;
+	}
+
+	public boolean leave(long patientId, long doctorId, LocalDate date) {
+		DayQueue q = queues.get(new DoctorDateKey(doctorId, date));
+		if (q == null) {
+			return false;
+		}
+		WaitlistEntry entry = q.byPatient.remove(patientId);
+		return entry != null && q.waiting.remove(entry);
+	}
+
+	public List<Offer> offersFor(long patientId) {
+		List<Offer> ret = new ArrayList<>();
+		for (Offer o : offers.values()) {
+			if (o.entry().patientId() == patientId) {
+				ret.add(o);
+			}
+		}
+		return ret;
+	}
+
+	// the doctor of an open offer, null when there is none
+	public Long doctorOfOffer(long offerId) {
+		Offer o = offers.get(offerId);
+		return o == null ? null : o.entry().doctorId();
+	}
+
+	// takes the offer away from expiry and other callers; the hold is released
+	// when the booking transaction completes, see releaseOnCompletion
+	public Offer claim(long offerId, long patientId) throws WaitlistException {
+		Offer o = offers.get(offerId);
+		if (o == null || o.entry().patientId() != patientId) {
+			throw new WaitlistException("ERROR: no open waitlist offer " + offerId + " for this patient");
+		}
+		if (o.expiresAt() < System.currentTimeMillis() || !offers.remove(offerId, o)) {
+			throw new WaitlistException("ERROR: the waitlist offer has expired");
+		}
+		return o;
+	}
+
+	// after commit the booking is in the counters and the hold goes away; after
+	// a rollback the slot is free again and goes to the next in line
+	public void releaseOnCompletion(Offer o) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			release(o);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				release(o);
+			}
+		});
+	}
+
+	public void decline(long offerId, long patientId) throws WaitlistException {
+		release(claim(offerId, patientId));
+	}
+
+	@EventListener
+	public void onSlotChange(SlotChangeEvent event) {
+		DoctorDateKey key = new DoctorDateKey(event.doctorId(), event.date());
+		DayQueue q = queues.get(key);
+		if (q == null || q.waiting.isEmpty()) {
+			return;
+		}
+		AfterCommit.run(() -> promote(key));
+	}
+
+	// a change from the relayed stream, made on this node or another one. The
+	// counters only follow other nodes' writes at reconciliation, so each
+	// waiting day is read again before a slot is offered. Deletes and moves
+	// do not name the day they freed, so every waiting day is checked; a day
+	// only has waiting patients while it is full, which keeps this short.
+	@EventListener
+	public void onChange(ChangeEvent event) {
+		if (!OutboxBO.APPOINTMENT.equals(event.aggregateType())
+				&& !OutboxBO.APPOINTMENT_BATCH.equals(event.aggregateType())) {
+			return;
+		}
+		for (Map.Entry<DoctorDateKey, DayQueue> e : queues.entrySet()) {
+			if (!e.getValue().waiting.isEmpty()) {
+				countBO.refresh(e.getKey());
+				promote(e.getKey());
+			}
+		}
+	}
+
+	// expires offers whose hold window has passed and drops idle queues
+	@Scheduled(fixedDelayString = "${waitlist.sweep-ms:5000}")
+	public void sweep() {
+		long now = System.currentTimeMillis();
+		for (Offer o : offers.values()) {
+			if (o.expiresAt() < now && offers.remove(o.offerId(), o)) {
+				log.info("waitlist offer " + o.offerId() + " to patient " + o.entry().patientId() + " expired");
+				release(o);
+			}
+		}
+		LocalDate today = LocalDate.now();
+		for (DoctorDateKey key : queues.keySet()) {
+			queues.computeIfPresent(key, (k, q) -> k.date().isBefore(today)
+					|| (q.waiting.isEmpty() && q.held.get() == 0) ? null : q);
+		}
+	}
+
+	private void release(Offer o) {
+		releaseHold(o.entry().doctorId(), o.entry().date());
+	}
+
+	// offers free slots to the head of the queue. The hold is reserved with a
+	// CAS before the entry is taken, so concurrent promotions can never hand
+	// out more slots than are free.
+	void promote(DoctorDateKey key) {
+		DayQueue q = queues.get(key);
+		if (q == null) {
+			return;
+		}
+		long booked = countBO.countByDoctorAndDate(key.doctorId(), key.date());
+		while (!q.waiting.isEmpty()) {
+			int h = q.held.get();
+			if (booked + h >= slotsPerDay) {
+				return;
+			}
+			if (!q.held.compareAndSet(h, h + 1)) {
+				continue;
+			}
+			WaitlistEntry next = q.waiting.pollFirst();
+			if (next == null) {
+				q.held.decrementAndGet();
+				return;
+			}
+			q.byPatient.remove(next.patientId(), next);
+			Offer o = new Offer(ids.incrementAndGet(), next, System.currentTimeMillis() + holdMinutes * 60_000);
+			offers.put(o.offerId(), o);
+			log.info("waitlist offer " + o.offerId() + " to patient " + next.patientId() + " for doctor "
+					+ key.doctorId() + " on " + key.date());
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package com.HospitalAppointmentScheduling.Controller;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -7,15 +8,20 @@ import java.util.List;
 import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.HospitalAppointmentScheduling.CustomExceptions.AppointmentBookingDateException;
 import com.HospitalAppointmentScheduling.CustomExceptions.AppointmentException;
@@ -27,9 +33,11 @@ import com.HospitalAppointmentScheduling.CustomExceptions.PasswordException;
 import com.HospitalAppointmentScheduling.CustomExceptions.PatientException;
 import com.HospitalAppointmentScheduling.CustomExceptions.PhoneNumberException;
 import com.HospitalAppointmentScheduling.CustomExceptions.ReasonException;
+import com.HospitalAppointmentScheduling.CustomExceptions.WaitlistException;
 import com.HospitalAppointmentScheduling.CustomExceptions.genderException;
 import com.HospitalAppointmentScheduling.DTO.AppointmentDTO;
 import com.HospitalAppointmentScheduling.DTO.AppointmentPatientDoctorAppointmentStatusDTO;
+import com.HospitalAppointmentScheduling.DTO.CareBundleDTO;
 import com.HospitalAppointmentScheduling.Entity.AppointmentStatusVO;
 import com.HospitalAppointmentScheduling.Entity.AppointmentsVO;
 import com.HospitalAppointmentScheduling.Entity.DoctorVO;
@@ -38,11 +46,19 @@ import com.HospitalAppointmentScheduling.Response.ResponseHandle;
 import com.HospitalAppointmentScheduling.Response.ResponseHandleAppointments;
 import com.HospitalAppointmentScheduling.Service.AppointmentsService;
 import com.HospitalAppointmentScheduling.Service.PatientService;
+import com.HospitalAppointmentScheduling.WebConfig.PatientScoped;
+import com.HospitalAppointmentScheduling.WebConfig.SessionTokenInterceptor;
+import com.HospitalAppointmentScheduling.WebConfig.StaffOnly;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
 @RequestMapping("/appointment")
 public class AppointmentController {
 
+	private static final String NOT_YOURS = "ERROR: the appointment belongs to another patient";
+	private static final String ANOTHER_PATIENT = "ERROR: the session token belongs to another patient";
+
 	@Autowired
 	private AppointmentsService aser;
 
@@ -60,9 +76,27 @@ public class AppointmentController {
 	// insert appointments with patient ID
 	@PostMapping("/insertWithPatientID")
 	public ResponseEntity<?> insertAppointmentsWithPatientID(
-			@RequestBody AppointmentPatientDoctorAppointmentStatusDTO dto) {
+			@RequestBody AppointmentPatientDoctorAppointmentStatusDTO dto, HttpServletRequest request) {
 		log.info("Appointment booking with patient ID method triggered in controller layer...");
 
+		// a booking naming only a specialization goes to its least-loaded
+		// doctor for the day
+		if (dto.getDoctor().getDoctorId() == null && dto.getDoctor().getSpecilizationId() > 0) {
+			try {
+				dto.getDoctor().setDoctorId(aser.assignDoctor(dto.getDoctor().getSpecilizationId(),
+						dto.getAppointment().getAppointmentDate()));
+			} catch (AppointmentBookingDateException e) {
+				log.error("Appointment Booking Date Exception caught", e);
+				return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+			} catch (AppointmentException e) {
+				log.error("Appointment exception caught", e);
+				return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+			} catch (WaitlistException e) {
+				log.info(e.getMessage());
+				return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+			}
+		}
+
 		// converting DTO to entity
 		DoctorVO dVO = new DoctorVO();
 		dVO.setDoctorId(dto.getDoctor().getDoctorId());
@@ -76,6 +110,9 @@ public class AppointmentController {
 		vo.setStatus(asVO);
 		vo.setReason(dto.getAppointment().getReason());
 
+		if (!SessionTokenInterceptor.mayActFor(request, dto.getPatient().getPatientId())) {
+			return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ANOTHER_PATIENT);
+		}
 		PatientVO vo1 = new PatientVO();
 		vo1.setPatientId(dto.getPatient().getPatientId());
 		vo.setPatient(vo1);
@@ -112,18 +149,27 @@ public class AppointmentController {
 		} catch (ReasonException e) {
 			log.error("Invalid Reason Exception caught", e);
 			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		} catch (WaitlistException e) {
+			// the day is full and the patient was queued instead
+			log.info(e.getMessage());
+			return ResponseEntity.status(HttpStatus.ACCEPTED).body(e.getMessage());
 		}
 		dto.getAppointment().setAppointmentID(vo.getAppointmentID());
 		dto.getAppointment().setCreatedAt(vo.getCreatedAt());
 		dto.getAppointment().setUpdatedAt(vo.getUpdatedAt());
-		return ResponseEntity.ok("Appointments Details successfully saved: " + apptRes.getAppoVo().getAppointmentID());
+		return ResponseEntity.ok("Appointments Details successfully saved: " + apptRes.getAppoVo().getAppointmentID()
+				+ " with doctor " + dVO.getDoctorId());
 
 	}
 
 	// update method:
 	@PutMapping("/updateAppointments/{id}")
-	public ResponseEntity<?> updateAppointmentDetails(@RequestBody AppointmentDTO dto, @PathVariable long id) {
+	public ResponseEntity<?> updateAppointmentDetails(@RequestBody AppointmentDTO dto, @PathVariable long id,
+			HttpServletRequest request) {
 		log.info("Appointment details update method triggerred");
+		if (ownedByAnother(request, id)) {
+			return ResponseEntity.status(HttpStatus.FORBIDDEN).body(NOT_YOURS);
+		}
 		AppointmentsVO vo = new AppointmentsVO();
 
 		vo.setAppointmentDate(dto.getAppointmentDate());
@@ -137,12 +183,50 @@ public class AppointmentController {
 		} catch (IdException e) {
 			log.error("ID not found in the DataBase", e);
 			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		} catch (AppointmentException e) {
+			log.error("Appointment could not be moved", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		}
+	}
+
+	// partial update method: a date or reason left out of the body is kept
+	@PatchMapping("/updateAppointments/{id}")
+	public ResponseEntity<?> patchAppointmentDetails(@RequestBody AppointmentDTO dto, @PathVariable long id,
+			HttpServletRequest request) {
+		log.info("Appointment details patch method triggerred");
+		if (ownedByAnother(request, id)) {
+			return ResponseEntity.status(HttpStatus.FORBIDDEN).body(NOT_YOURS);
+		}
+		AppointmentsVO vo = new AppointmentsVO();
+
+		vo.setAppointmentDate(dto.getAppointmentDate());
+		vo.setReason(dto.getReason());
+
+		try {
+			ResponseHandleAppointments res = aser.patch(vo, id);
+			log.info("Appointment ID: " + id + " patched successfully.");
+			return ResponseEntity.ok("Appointment ID: " + res.getAppoVo().getAppointmentID() + " updated");
+		} catch (IdException e) {
+			log.error("ID not found in the DataBase", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		} catch (AppointmentBookingDateException e) {
+			log.error("Appointment date is not valid", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		} catch (ReasonException e) {
+			log.error("Reason is not valid", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		} catch (AppointmentException e) {
+			log.error("Appointment could not be moved", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
 		}
 	}
 
 	// delete method: to delete a appointment by ID
 	@DeleteMapping("/delete/{id}")
-	public ResponseEntity<String> deleteAppointment(@PathVariable("id") Long id) {
+	public ResponseEntity<String> deleteAppointment(@PathVariable("id") Long id, HttpServletRequest request) {
+		if (ownedByAnother(request, id)) {
+			return ResponseEntity.status(HttpStatus.FORBIDDEN).body(NOT_YOURS);
+		}
 
 		try {
 			apptRes = aser.deleteAppointment(id);
@@ -153,6 +237,7 @@ public class AppointmentController {
 		}
 	}
 
+	@PatientScoped("id")
 	@GetMapping("/fetchAppointmentsForPatientID/{id}")
 	public ResponseEntity<?> findAllApptByPatientId(@PathVariable long id) {
 		log.info("Find All Appointments By Patient ID method triggered in the controller layer");
@@ -174,6 +259,7 @@ public class AppointmentController {
 		}
 	}
 
+	@StaffOnly
 	@GetMapping("/countOfAppointmentsByDate/{date}")
 	public ResponseEntity<?> countOfAppointmentsByDate(@PathVariable LocalDate date) {
 		log.info("Count of Appointments By particular method triggered in the controller layer");
@@ -181,7 +267,279 @@ public class AppointmentController {
 		return ResponseEntity.ok(apptRes.getApptsCount());
 	}
 
+	@GetMapping("/countOfAppointmentsByDoctorAndDate/{doctorId}/{date}")
+	public ResponseEntity<?> countOfAppointmentsByDoctorAndDate(@PathVariable long doctorId,
+			@PathVariable LocalDate date) {
+		log.info("Count of Appointments of a doctor on a date method triggered in the controller layer");
+		return ResponseEntity.ok(aser.countOfAppointmentsByDoctorAndDate(doctorId, date).getApptsCount());
+	}
+
+	// waitlist for a fully booked doctor day, higher priority is served first
+	@PatientScoped("patientId")
+	@PostMapping("/waitlist/join")
+	public ResponseEntity<?> joinWaitlist(@RequestParam long patientId, @RequestParam long doctorId,
+			@RequestParam LocalDate date, @RequestParam String reason, @RequestParam(defaultValue = "0") int priority) {
+		log.info("waitlist join triggered in the controller layer");
+		try {
+			return ResponseEntity.ok(aser.joinWaitlist(patientId, doctorId, date, reason, priority).getSucessMessage());
+		} catch (IdException e) {
+			log.error("Id Exception", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		} catch (AppointmentBookingDateException e) {
+			log.error("Appointment Booking Date Exception caught", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		} catch (ReasonException e) {
+			log.error("Invalid Reason Exception caught", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		} catch (WaitlistException e) {
+			log.error("Waitlist Exception caught", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		}
+	}
+
+	// open offers of freed slots, each held for the patient until it expires
+	@PatientScoped("patientId")
+	@GetMapping("/waitlist/offers/{patientId}")
+	public ResponseEntity<?> waitlistOffers(@PathVariable long patientId) {
+		return ResponseEntity.ok(aser.waitlistOffers(patientId));
+	}
+
+	@PatientScoped("patientId")
+	@PostMapping("/waitlist/accept/{offerId}/{patientId}")
+	public ResponseEntity<?> acceptWaitlistOffer(@PathVariable long offerId, @PathVariable long patientId) {
+		log.info("waitlist offer accept triggered in the controller layer");
+		ResponseHandleAppointments res;
+		try {
+			res = aser.acceptWaitlistOffer(offerId, patientId);
+		} catch (WaitlistException e) {
+			log.error("Waitlist Exception caught", e);
+			return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+		} catch (IdException | EmailException | PasswordException | PhoneNumberException | AppointmentException
+				| PatientException | DateOfBirthException | AppointmentBookingDateException | ReasonException e) {
+			log.error("Waitlist booking failed", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		}
+		return ResponseEntity.ok("Appointments Details successfully saved: " + res.getAppoVo().getAppointmentID());
+	}
+
+	@PatientScoped("patientId")
+	@PostMapping("/waitlist/decline/{offerId}/{patientId}")
+	public ResponseEntity<?> declineWaitlistOffer(@PathVariable long offerId, @PathVariable long patientId) {
+		try {
+			aser.declineWaitlistOffer(offerId, patientId);
+			return ResponseEntity.ok("Offer declined, the slot goes to the next patient on the waitlist");
+		} catch (WaitlistException e) {
+			log.error("Waitlist Exception caught", e);
+			return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+		}
+	}
+
+	// two-phase booking: hold a slot while the form is filled in, then confirm
+	@PatientScoped("patientId")
+	@PostMapping("/holds")
+	public ResponseEntity<?> holdSlot(@RequestParam long patientId, @RequestParam long doctorId,
+			@RequestParam LocalDate date) {
+		log.info("slot hold triggered in the controller layer");
+		try {
+			return ResponseEntity.ok(aser.holdSlot(patientId, doctorId, date));
+		} catch (IdException e) {
+			log.error("Id Exception", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		} catch (AppointmentBookingDateException e) {
+			log.error("Appointment Booking Date Exception caught", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		} catch (WaitlistException e) {
+			log.info(e.getMessage());
+			return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+		}
+	}
+
+	@PatientScoped("patientId")
+	@PostMapping("/holds/{holdId}/confirm")
+	public ResponseEntity<?> confirmHold(@PathVariable long holdId, @RequestParam long patientId,
+			@RequestParam String reason) {
+		log.info("hold confirm triggered in the controller layer");
+		ResponseHandleAppointments res;
+		try {
+			res = aser.confirmHold(holdId, patientId, reason);
+		} catch (WaitlistException e) {
+			log.error("Waitlist Exception caught", e);
+			return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+		} catch (IdException | EmailException | PasswordException | PhoneNumberException | AppointmentException
+				| PatientException | DateOfBirthException | AppointmentBookingDateException | ReasonException e) {
+			log.error("Hold confirm failed", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		}
+		return ResponseEntity.ok("Appointments Details successfully saved: " + res.getAppoVo().getAppointmentID());
+	}
+
+	@PatientScoped("patientId")
+	@DeleteMapping("/holds/{holdId}")
+	public ResponseEntity<?> cancelHold(@PathVariable long holdId, @RequestParam long patientId) {
+		try {
+			aser.cancelHold(holdId, patientId);
+			return ResponseEntity.ok("Hold released");
+		} catch (WaitlistException e) {
+			log.error("Waitlist Exception caught", e);
+			return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+		}
+	}
+
+	// books several appointments for one patient, all or nothing
+	@PostMapping("/careBundle")
+	public ResponseEntity<?> bookCareBundle(@RequestBody CareBundleDTO dto, HttpServletRequest request) {
+		log.info("care bundle booking triggered in the controller layer");
+		if (dto.getPatientID() == null || dto.getAppointments() == null) {
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("ERROR: patient ID and appointments are required");
+		}
+		if (!SessionTokenInterceptor.mayActFor(request, dto.getPatientID())) {
+			return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ANOTHER_PATIENT);
+		}
+		List<AppointmentsVO> appts = new ArrayList<>();
+		for (AppointmentDTO a : dto.getAppointments()) {
+			if (a.getDoctorID() == null) {
+				return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("ERROR: Doctor Id field could not be null");
+			}
+			DoctorVO dVO = new DoctorVO();
+			dVO.setDoctorId(a.getDoctorID());
+			AppointmentStatusVO asVO = new AppointmentStatusVO();
+			asVO.setStatusName("Pending");
+
+			AppointmentsVO vo = new AppointmentsVO();
+			vo.setAppointmentDate(a.getAppointmentDate());
+			vo.setReason(a.getReason());
+			vo.setDoctor(dVO);
+			vo.setStatus(asVO);
+			appts.add(vo);
+		}
+		ResponseHandleAppointments res;
+		try {
+			res = aser.bookCareBundle(dto.getPatientID(), appts);
+		} catch (IdException | AppointmentException | AppointmentBookingDateException | ReasonException
+				| EmailException | PasswordException | PhoneNumberException | PatientException
+				| DateOfBirthException e) {
+			log.error("Care bundle booking failed", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		}
+		List<Long> ids = new ArrayList<>();
+		for (AppointmentsVO vo : res.getList()) {
+			ids.add(vo.getAppointmentID());
+		}
+		return ResponseEntity.ok(ids);
+	}
+
+	// batch reschedule when a doctor is unavailable; dryRun only returns the plan
+	@StaffOnly
+	@PostMapping("/reschedule/doctor/{doctorId}")
+	public ResponseEntity<?> rescheduleDoctor(@PathVariable long doctorId, @RequestParam LocalDate from,
+			@RequestParam LocalDate to, @RequestParam(defaultValue = "false") boolean dryRun) {
+		log.info("batch reschedule triggered in the controller layer");
+		try {
+			return ResponseEntity.ok(aser.rescheduleDoctor(doctorId, from, to, dryRun));
+		} catch (IdException e) {
+			log.error("Id Exception", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		} catch (DateException e) {
+			log.error("Date Exception caught", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		} catch (AppointmentBookingDateException e) {
+			log.error("Appointment Booking Date Exception caught", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		} catch (AppointmentException e) {
+			log.error("Appointment Exception", e);
+			return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+		}
+	}
+
+	// bulk cancellation, e.g. for a clinic closure; answers with the number
+	// of appointments cancelled and their IDs
+	@StaffOnly
+	@PostMapping("/cancel/ids")
+	public ResponseEntity<?> cancelAppointments(@RequestBody List<Long> ids) {
+		try {
+			return ResponseEntity.ok(aser.cancelAppointments(ids));
+		} catch (IdException e) {
+			log.error("Id Exception", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		}
+	}
+
+	@StaffOnly
+	@PostMapping("/cancel/doctor/{doctorId}")
+	public ResponseEntity<?> cancelDoctorAppointments(@PathVariable long doctorId, @RequestParam LocalDate from,
+			@RequestParam LocalDate to) {
+		try {
+			return ResponseEntity.ok(aser.cancelDoctorAppointments(doctorId, from, to));
+		} catch (IdException e) {
+			log.error("Id Exception", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		} catch (DateException e) {
+			log.error("Date Exception caught", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		}
+	}
+
+	@StaffOnly
+	@PostMapping("/cancel/hospital/{hospitalId}")
+	public ResponseEntity<?> cancelHospitalAppointments(@PathVariable long hospitalId, @RequestParam LocalDate date) {
+		try {
+			return ResponseEntity.ok(aser.cancelHospitalAppointments(hospitalId, date));
+		} catch (IdException e) {
+			log.error("Id Exception", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		}
+	}
+
+	// reporting counts, e.g. /appointment/analytics/counts?by=doctor&from=2025-01-01&to=2025-01-31&top=10
+	@StaffOnly
+	@GetMapping("/analytics/counts")
+	public ResponseEntity<?> appointmentCounts(@RequestParam String by,
+			@RequestParam(required = false) LocalDate from, @RequestParam(required = false) LocalDate to,
+			@RequestParam(required = false) Long doctorId, @RequestParam(required = false) Long patientId,
+			@RequestParam(required = false) String status, @RequestParam(defaultValue = "0") int top) {
+		log.info("appointment counts triggered in the controller layer");
+		try {
+			return ResponseEntity.ok(aser.appointmentCounts(by, from, to, doctorId, patientId, status, top));
+		} catch (DateException e) {
+			log.error("Date Exception caught", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		} catch (AppointmentException e) {
+			log.error("Appointment Exception", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		}
+	}
+
+	// earliest free days across a specialization, e.g.
+	// /appointment/earliestAvailable/3?cityId=1&limit=5
+	@GetMapping("/earliestAvailable/{specializationId}")
+	public ResponseEntity<?> earliestAvailable(@PathVariable int specializationId,
+			@RequestParam(required = false) Long hospitalId, @RequestParam(required = false) Integer cityId,
+			@RequestParam(required = false) LocalDate from, @RequestParam(defaultValue = "10") int limit) {
+		log.info("earliest available search triggered in the controller layer");
+		try {
+			return ResponseEntity.ok(aser.earliestAvailable(specializationId, hospitalId, cityId, from, limit));
+		} catch (AppointmentException e) {
+			log.error("Appointment Exception", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		}
+	}
+
+	// live availability of a doctor between two days as Server-Sent Events,
+	// replaces polling the count endpoints from the checkAvailablity page
+	@GetMapping(value = "/availabilityFeed/{doctorId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter availabilityFeed(@PathVariable long doctorId, @RequestParam LocalDate from,
+			@RequestParam LocalDate to) throws IOException {
+		log.info("availability feed requested in the controller layer");
+		try {
+			return aser.subscribeAvailability(doctorId, from, to);
+		} catch (DateException e) {
+			log.error("Date Exception", e);
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+		}
+	}
+
 	// Appointment by between two days:
+	@PatientScoped("id")
 	@GetMapping("/AppointmentDetailsAmongTwoDate/{sd}/{ld}/{id}")
 	public ResponseEntity<?> betweenTwoDOBpat(@PathVariable("sd") LocalDate sd, @PathVariable("ld") LocalDate ld,
 			@PathVariable("id") long id) {
@@ -214,6 +572,7 @@ public class AppointmentController {
 
 	// fetches all the appointments with respect to logged in patient id and given
 	// date:
+	@PatientScoped("id")
 	@GetMapping("/AppointmentsOnDate/{ld}/{id}")
 	public ResponseEntity<?> findAppointmentsByPatientIdAndDate(@PathVariable("ld") LocalDate ld,
 			@PathVariable("id") long id) {
@@ -326,8 +685,11 @@ public class AppointmentController {
 
 	// fetch by ID:
 	@GetMapping("appointmentID/{id}")
-	public ResponseEntity<?> findByappointmentId(@PathVariable("id") long id) {
+	public ResponseEntity<?> findByappointmentId(@PathVariable("id") long id, HttpServletRequest request) {
 		log.info("appointment details by their ID...");
+		if (ownedByAnother(request, id)) {
+			return ResponseEntity.status(HttpStatus.FORBIDDEN).body(NOT_YOURS);
+		}
 		try {
 			String pass = "Fetching appointment details by ID: " + id;
 			log.info(pass);
@@ -341,6 +703,7 @@ public class AppointmentController {
 	}
 
 	// fetch all:
+	@StaffOnly
 	@GetMapping("/fetchallAppointments")
 	public ResponseEntity<?> fetchall() {
 		log.info("appointment chooses fetch all the details option...");
@@ -364,6 +727,7 @@ public class AppointmentController {
 	}
 
 	// ascending order:
+	@StaffOnly
 	@GetMapping("/AppointmentAscendingOrderByDate")
 	public ResponseEntity<?> acendingDate() {
 		log.info("Appointments fetching all the details in ascending order...");
@@ -384,6 +748,13 @@ public class AppointmentController {
 
 	}
 
+	// a patient's session token only reaches that patient's appointments; the
+	// owner is looked up only for patient tokens
+	private boolean ownedByAnother(HttpServletRequest request, long appointmentId) {
+		Long caller = SessionTokenInterceptor.sessionPatient(request);
+		return caller != null && !caller.equals(aser.patientOfAppointment(appointmentId));
+	}
+
 	// Vo to DTO method
 	public static AppointmentDTO mapToDTO(AppointmentsVO vo) {
 		AppointmentDTO dto = new AppointmentDTO();
@@ -0,0 +1,49 @@
+package com.HospitalAppointmentScheduling.Controller;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.HospitalAppointmentScheduling.BO.ChangeEvent;
+import com.HospitalAppointmentScheduling.BO.ChangeLogBO;
+import com.HospitalAppointmentScheduling.WebConfig.StaffOnly;
+
+@RestController
+@StaffOnly
+@RequestMapping("/events")
+public class ChangeEventController {
+
+	private static final int MAX_LIMIT = 1000;
+
+	Logger log = Logger.getLogger(ChangeEventController.class);
+
+	@Autowired
+	ChangeLogBO changeLog;
+
+	// incremental read of the change stream: consumers pass the last offset
+	// they processed and get the events after it, oldest first
+	@GetMapping("/changes")
+	public ResponseEntity<?> changesAfter(@RequestParam(defaultValue = "0") long after,
+			@RequestParam(defaultValue = "100") int limit) {
+		try {
+			List<ChangeEvent> list = changeLog.readAfter(after, Math.min(limit, MAX_LIMIT));
+			return ResponseEntity.ok(list);
+		} catch (IOException e) {
+			log.error("reading the change log failed", e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("ERROR: change log is not readable");
+		}
+	}
+
+	@GetMapping("/lastOffset")
+	public ResponseEntity<?> lastOffset() {
+		return ResponseEntity.ok(changeLog.lastOffset());
+	}
+}
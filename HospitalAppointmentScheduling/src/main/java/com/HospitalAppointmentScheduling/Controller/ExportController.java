@@ -23,6 +23,7 @@ import com.HospitalAppointmentScheduling.Entity.AppointmentsVO;
 import com.HospitalAppointmentScheduling.Entity.DoctorVO;
 import com.HospitalAppointmentScheduling.Service.AppointmentsService;
 import com.HospitalAppointmentScheduling.Service.ExportService;
+import com.HospitalAppointmentScheduling.WebConfig.PatientScoped;
 
 @RestController
 @RequestMapping("/export")
@@ -34,6 +35,7 @@ public class ExportController {
 	@Autowired
 	private ExportService exportService;
 
+	@PatientScoped("id")
 	@GetMapping("/AppointmentExport/{id}")
 	public ResponseEntity<?> exportAppointmentsForPatient(@PathVariable long id, @RequestParam String format)
 			throws IOException {
@@ -7,11 +7,15 @@ import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.HospitalAppointmentScheduling.BO.RateLimitBO;
+import com.HospitalAppointmentScheduling.BO.SessionTokenBO;
 import com.HospitalAppointmentScheduling.DTO.CityDTO;
 import com.HospitalAppointmentScheduling.DTO.CountryDTO;
 import com.HospitalAppointmentScheduling.DTO.DoctorDTO;
@@ -20,14 +24,22 @@ import com.HospitalAppointmentScheduling.DTO.StateDTO;
 import com.HospitalAppointmentScheduling.Entity.HospitalVO;
 import com.HospitalAppointmentScheduling.Response.ResponseHandleHospital;
 import com.HospitalAppointmentScheduling.Service.HospitalService;
+import com.HospitalAppointmentScheduling.WebConfig.StaffOnly;
 
 @RestController
+@StaffOnly
 @RequestMapping("/admin")
 public class HospitalControler {
 
 	@Autowired
 	private HospitalService serHos;
 
+	@Autowired
+	private RateLimitBO rateLimitBO;
+
+	@Autowired
+	private SessionTokenBO sessionTokenBO;
+
 	Logger log = Logger.getLogger(HospitalControler.class);
 
 	@PostMapping("/adminLogin")
@@ -40,7 +52,9 @@ public class HospitalControler {
 
 		if (res.getSucessMessage() != null && res.getHospital() != null) {
 			log.info("patient account available in the database");
-			return ResponseEntity.ok(mapToDTO(res.getHospital()));
+			return ResponseEntity.ok().header(LoginAuthenticationController.SESSION_HEADER, res.getSessionToken())
+					.header("Access-Control-Expose-Headers", LoginAuthenticationController.SESSION_HEADER)
+					.body(mapToDTO(res.getHospital()));
 		} else {
 			log.error("patient account does not available in the database");
 			return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -48,6 +62,23 @@ public class HospitalControler {
 		}
 	}
 
+	@PostMapping("/adminLogout")
+	public ResponseEntity<?> logout(@RequestHeader(LoginAuthenticationController.SESSION_HEADER) String token) {
+		log.info("Admin Logout method triggered in the controller layer");
+		if (sessionTokenBO.verifyAdmin(token) == null) {
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("session token missing or expired");
+		}
+		sessionTokenBO.revoke(token);
+		return ResponseEntity.ok("Logged out");
+	}
+
+	// throttled and allowed request counters per rate limited route
+	@GetMapping("/rateLimitMetrics")
+	public ResponseEntity<?> rateLimitMetrics() {
+		log.info("Rate limit metrics method triggered in the controller layer");
+		return ResponseEntity.ok(rateLimitBO.metricsSnapshot());
+	}
+
 	public static HospitalDTO mapToDTO(HospitalVO hospitalVO) {
 		HospitalDTO dto = new HospitalDTO();
 		dto.setHospitalId(hospitalVO.getHospitalId());
@@ -10,9 +10,12 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.HospitalAppointmentScheduling.BO.SessionTokenBO;
+import com.HospitalAppointmentScheduling.CustomExceptions.LoginException;
 import com.HospitalAppointmentScheduling.DTO.AppointmentDTO;
 import com.HospitalAppointmentScheduling.DTO.PatientDTO;
 import com.HospitalAppointmentScheduling.Entity.AppointmentsVO;
@@ -25,9 +28,14 @@ import com.HospitalAppointmentScheduling.Service.PatientService;
 @RequestMapping("/loginPage")
 public class LoginAuthenticationController {
 
+	public static final String SESSION_HEADER = "X-Session-Token";
+
 	@Autowired
 	private PatientService pservice;
 
+	@Autowired
+	private SessionTokenBO sessionTokenBO;
+
 	Logger log = Logger.getLogger(LoginAuthenticationController.class);
 
 	@PostMapping("/patientLogin")
@@ -35,10 +43,17 @@ public class LoginAuthenticationController {
 		log.info("Patient Login method triggered in the controller layer");
 		String patientEmail = loginData.get("patientEmail");
 		String patientPassword = loginData.get("patientPassword");
-		ResponseHandle res = pservice.patientAuthentication(patientEmail, patientPassword);
+		ResponseHandle res;
+		try {
+			res = pservice.patientAuthentication(patientEmail, patientPassword);
+		} catch (LoginException e) {
+			log.error("login could not be processed", e);
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+		}
 		if (res.getSucessMessage() != null && res.getPatient() != null) {
 			log.info("patient account available in the database");
-			return ResponseEntity.ok(mapToDTO(res.getPatient()));
+			return ResponseEntity.ok().header(SESSION_HEADER, res.getSessionToken())
+					.header("Access-Control-Expose-Headers", SESSION_HEADER).body(mapToDTO(res.getPatient()));
 		} else {
 			log.error("patient account does not available in the database");
 			return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -46,6 +61,16 @@ public class LoginAuthenticationController {
 		}
 	}
 
+	@PostMapping("/patientLogout")
+	public ResponseEntity<?> logout(@RequestHeader(SESSION_HEADER) String token) {
+		log.info("Patient Logout method triggered in the controller layer");
+		if (sessionTokenBO.verify(token) == null) {
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("session token missing or expired");
+		}
+		sessionTokenBO.revoke(token);
+		return ResponseEntity.ok("Logged out");
+	}
+
 	// own method: converts entity to DTO
 	public static PatientDTO mapToDTO(PatientVO patientVO) {
 		// Map PatientVO to PatientDTO
@@ -10,6 +10,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -32,6 +33,8 @@ import com.HospitalAppointmentScheduling.Entity.DoctorVO;
 import com.HospitalAppointmentScheduling.Entity.PatientVO;
 import com.HospitalAppointmentScheduling.Response.ResponseHandle;
 import com.HospitalAppointmentScheduling.Service.PatientService;
+import com.HospitalAppointmentScheduling.WebConfig.PatientScoped;
+import com.HospitalAppointmentScheduling.WebConfig.StaffOnly;
 
 @RestController
 @RequestMapping("/patient")
@@ -93,6 +96,7 @@ public class PatientController {
 	}
 
 	// fetch by id:
+	@PatientScoped("id")
 	@GetMapping("patientId/{id}")
 	public ResponseEntity<?> findBypatientId(@PathVariable("id") long id) {
 		log.info("patient chooses fetch Details by their ID...");
@@ -109,6 +113,7 @@ public class PatientController {
 	}
 
 	// fetch all:
+	@StaffOnly
 	@GetMapping("/fetchallPatient")
 	public List<PatientDTO> fetchall() {
 		log.info("fetch all the details option...");
@@ -125,6 +130,7 @@ public class PatientController {
 	}
 
 	// update method
+	@PatientScoped("id")
 	@PutMapping("/update/{id}")
 	public ResponseEntity<?> updatePatientDetails(@RequestBody PatientDTO dto, @PathVariable long id) {
 		log.info("patient chooses Update their information by their ID...");
@@ -163,8 +169,52 @@ public class PatientController {
 		}
 	}
 
+	// partial update method: only the fields present in the body are
+	// validated and written
+	@PatientScoped("id")
+	@PatchMapping("/update/{id}")
+	public ResponseEntity<?> patchPatientDetails(@RequestBody PatientDTO dto, @PathVariable long id) {
+		log.info("patient chooses to update some of their information by their ID...");
+		PatientVO vo = new PatientVO();
+
+		vo.setFirstName(dto.getFirstName());
+		vo.setLastName(dto.getLastName());
+		vo.setDob(dto.getDob());
+		vo.setPatientPhone(dto.getPatientPhone());
+		vo.setPatientEmail(dto.getPatientEmail());
+		vo.setPatientPassword(dto.getPatientPassword());
+		vo.setGender(dto.getGender());
+		try {
+			res = pservice.patchPatientDetails(vo, id);
+			log.info("Patient details patched successfully for ID: " + id);
+			return ResponseEntity.ok(mapToDTO(res.getPatient()));
+		} catch (IdException e) {
+			log.error("ID not found in the DataBase", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		} catch (PatientException e) {
+			log.error("Patient does not having the valid inputs", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		} catch (PhoneNumberException e) {
+			log.error("Phone number format is wrong", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		} catch (EmailException e) {
+			log.error("email format is not valid", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		} catch (PasswordException e) {
+			log.error("password format is not valid", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		} catch (genderException e) {
+			log.error("Gender you entered is not valid", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		} catch (DateOfBirthException e) {
+			log.error("Date of birth you entered is not valid", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		}
+	}
+
 	// delete method
 	// DELETE request to delete a patient by ID
+	@PatientScoped("id")
 	@DeleteMapping("/delete/{id}")
 	public ResponseEntity<String> deletePatient(@PathVariable("id") Long id) {
 
@@ -177,6 +227,19 @@ public class PatientController {
 		}
 	}
 
+	// deletes several patients, with their appointments, in one request
+	@StaffOnly
+	@PostMapping("/deleteBulk")
+	public ResponseEntity<String> deletePatients(@RequestBody List<Long> ids) {
+		try {
+			res = pservice.deletePatients(ids);
+			return ResponseEntity.ok(res.getSucessMessage());
+		} catch (IdException e) {
+			log.error("bulk patient delete rejected", e);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		}
+	}
+
 	// association method
 //	@PostMapping("/associatePatientsWithAppointments")
 //	public ResponseEntity<?> associate(@RequestBody PatientDoctorDTO dto) {
@@ -259,6 +322,7 @@ public class PatientController {
 //	}
 
 	// find by patient phone number:
+	@StaffOnly
 	@GetMapping("/fetchByPhoneNumber/{ph}")
 	public ResponseEntity<?> findbyphone(@PathVariable("ph") String ph) {
 		log.info("patient chooses fetching their details by their phone number...");
@@ -275,6 +339,7 @@ public class PatientController {
 	}
 
 	// fetch by day appointments:
+	@StaffOnly
 	@GetMapping("/appointmentDate/{td}")
 	public ResponseEntity<?> findapptDay(@PathVariable("td") LocalDate td) {
 		log.info("patient chooses to fetch the appointment details by the day...");
@@ -298,6 +363,7 @@ public class PatientController {
 	}
 
 	// fetch first name and last name:
+	@PatientScoped("id")
 	@GetMapping("/findFirstandLastNamebyPatientId/{id}")
 	public ResponseEntity<?> findName(@PathVariable("id") long n) {
 		log.info("patient chooses Find their First and Last names in the records...");
@@ -337,6 +403,7 @@ public class PatientController {
 //	}
 
 	// ascending order:
+	@StaffOnly
 	@GetMapping("/AscendingOrder")
 	public ResponseEntity<?> acending() {
 		log.info("patient chooses fetching all the patient details in ascending order...");
@@ -359,6 +426,7 @@ public class PatientController {
 	}
 
 	// find Latest Phone Number Entry
+	@StaffOnly
 	@GetMapping("/findMostCommonDOB")
 	public ResponseEntity<?> findMostCommonDOB() {
 		log.info("patient chooses fetching the recent number added in the controller layer");
@@ -372,26 +440,28 @@ public class PatientController {
 	}
 
 	// find Patient With Most Appointments
-//	@GetMapping("/findPatientWithMostAppointments")
-//	public ResponseEntity<?> findPatientWithMostAppointments() {
-//		log.info("fetching the patient having more appointment triggered in the controller layer");
-//		res = pservice.findPatientWithMostAppointments();
-//		List<PatientVO> list = res.getListPatient();
-//		List<PatientDTO> listd = new ArrayList<>();
-//		for (int i = 0; i < list.size(); i++) {
-//			PatientVO vo = list.get(i);
-//			PatientDTO getDto = mapToDTO(vo);
-//			listd.add(getDto);
-//		}
-//		log.info("patient with more appointments fetched successfully");
-//		if (res.getSucessMessage() != null) {
-//			return ResponseEntity.ok(listd);
-//		} else {
-//			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res.getFailureMessage());
-//		}
-//	}
+	@StaffOnly
+	@GetMapping("/findPatientWithMostAppointments")
+	public ResponseEntity<?> findPatientWithMostAppointments() {
+		log.info("fetching the patient having more appointment triggered in the controller layer");
+		res = pservice.findPatientWithMostAppointments();
+		List<PatientVO> list = res.getListPatient();
+		List<PatientDTO> listd = new ArrayList<>();
+		for (int i = 0; i < list.size(); i++) {
+			PatientVO vo = list.get(i);
+			PatientDTO getDto = mapToDTO(vo);
+			listd.add(getDto);
+		}
+		log.info("patient with more appointments fetched successfully");
+		if (res.getSucessMessage() != null) {
+			return ResponseEntity.ok(listd);
+		} else {
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res.getFailureMessage());
+		}
+	}
 
 	// find Total Patients Count
+	@StaffOnly
 	@GetMapping("/findTotalPatientsCount")
 	public ResponseEntity<?> findTotalPatientsCount() {
 		log.info("find the total number of patient records method triggered in the controller layer");
@@ -0,0 +1,23 @@
+package com.HospitalAppointmentScheduling.CustomExceptions;
+
+public class LoginException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	public LoginException() {
+		super();
+	}
+
+	public LoginException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+	public LoginException(String message) {
+		super(message);
+	}
+
+	public LoginException(Throwable cause) {
+		super(cause);
+	}
+
+}
@@ -0,0 +1,23 @@
+package com.HospitalAppointmentScheduling.CustomExceptions;
+
+public class WaitlistException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	public WaitlistException() {
+		super();
+	}
+
+	public WaitlistException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+	public WaitlistException(String message) {
+		super(message);
+	}
+
+	public WaitlistException(Throwable cause) {
+		super(cause);
+	}
+
+}
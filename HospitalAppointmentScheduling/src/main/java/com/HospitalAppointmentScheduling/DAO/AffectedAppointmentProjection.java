@@ -0,0 +1,13 @@
+package com.HospitalAppointmentScheduling.DAO;
+
+import java.time.LocalDate;
+
+public interface AffectedAppointmentProjection {
+
+	Long getAppointmentId();
+
+	LocalDate getAppointmentDate();
+
+	Long getPatientId();
+
+}
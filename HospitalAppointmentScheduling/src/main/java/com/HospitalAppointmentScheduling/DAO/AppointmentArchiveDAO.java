@@ -0,0 +1,44 @@
+package com.HospitalAppointmentScheduling.DAO;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+// Moves past appointments to appointments_archive in batches. Each batch
+// locks its rows, copies them with one INSERT ... SELECT and deletes them
+// with one DELETE, on the connection of the surrounding transaction, so a
+// row is always in exactly one of the two tables.
+@Repository
+public class AppointmentArchiveDAO {
+
+	private static final String COLUMNS = "appointment_id, appointment_date, created_at, doctor_id, reason, "
+			+ "updated_at, patient_id, status_id";
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	// oldest first, returns the number of appointments moved
+	public int moveBatch(LocalDate before, int limit, LocalDateTime archivedAt) {
+		List<Long> ids = jdbc.queryForList("SELECT appointment_id FROM appointments WHERE appointment_date < ? "
+				+ "ORDER BY appointment_date, appointment_id LIMIT ? FOR UPDATE", Long.class, Date.valueOf(before),
+				limit);
+		if (ids.isEmpty()) {
+			return 0;
+		}
+		String in = String.join(", ", Collections.nCopies(ids.size(), "?"));
+		List<Object> args = new ArrayList<>();
+		args.add(Timestamp.valueOf(archivedAt));
+		args.addAll(ids);
+		jdbc.update("INSERT INTO appointments_archive (" + COLUMNS + ", archived_at) SELECT " + COLUMNS
+				+ ", ? FROM appointments WHERE appointment_id IN (" + in + ")", args.toArray());
+		return jdbc.update("DELETE FROM appointments WHERE appointment_id IN (" + in + ")", ids.toArray());
+	}
+}
@@ -0,0 +1,44 @@
+package com.HospitalAppointmentScheduling.DAO;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.HospitalAppointmentScheduling.Entity.ArchivedAppointmentVO;
+
+// reads of appointments_archive, the counterparts of the AppointmentsRepo
+// queries that AppointmentArchiveBO completes with archived rows
+@Repository
+public interface AppointmentArchiveRepo extends JpaRepository<ArchivedAppointmentVO, Long> {
+
+	@Query("SELECT a FROM ArchivedAppointmentVO a WHERE a.patient.patientId = :patientId")
+	List<ArchivedAppointmentVO> findAllByPatientId(@Param("patientId") long patientId);
+
+	@Query("SELECT a FROM ArchivedAppointmentVO a WHERE a.patient.patientId = :patientId "
+			+ "AND a.appointmentDate BETWEEN :startDate AND :endDate")
+	List<ArchivedAppointmentVO> findByPatientIdAndDateRange(@Param("startDate") LocalDate startDate,
+			@Param("endDate") LocalDate endDate, @Param("patientId") long patientId);
+
+	@Query("SELECT a FROM ArchivedAppointmentVO a ORDER BY a.appointmentDate ASC")
+	List<ArchivedAppointmentVO> findAllOrderByDate();
+
+	@Query("SELECT a.doctor.doctorId AS doctorId, a.appointmentDate AS appointmentDate, COUNT(a) AS total "
+			+ "FROM ArchivedAppointmentVO a GROUP BY a.doctor.doctorId, a.appointmentDate")
+	List<DoctorDateCountProjection> countByDoctorAndDate();
+
+	@Query("SELECT a.patient.patientId AS patientId, COUNT(a) AS total FROM ArchivedAppointmentVO a "
+			+ "GROUP BY a.patient.patientId")
+	List<PatientAppointmentCountProjection> countByPatient();
+
+	@Query("SELECT MAX(a.appointmentDate) FROM ArchivedAppointmentVO a")
+	LocalDate findLatestDate();
+
+	@Modifying
+	@Query("DELETE FROM ArchivedAppointmentVO a WHERE a.patient.patientId = :patientId")
+	int deleteByPatientId(@Param("patientId") long patientId);
+}
@@ -0,0 +1,83 @@
+package com.HospitalAppointmentScheduling.DAO;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import com.HospitalAppointmentScheduling.Entity.AppointmentStatusVO;
+import com.HospitalAppointmentScheduling.Entity.AppointmentsVO;
+
+// Multi-row inserts for bookings made together. The identity keys keep
+// Hibernate from batching inserts, so a bundle would otherwise cost one round
+// trip per appointment; here it is one statement for the status rows and one
+// for the appointments, whatever the bundle size. Runs on the connection of
+// the surrounding JPA transaction.
+@Repository
+public class AppointmentBatchDAO {
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	// sets the generated status and appointment IDs on the given objects
+	public void insertAll(List<AppointmentsVO> appts) {
+		if (appts.isEmpty()) {
+			return;
+		}
+		LocalDateTime now = LocalDateTime.now();
+		List<Number> statusIds = insert("INSERT INTO appointmentstatus (status_name) VALUES ",
+				"(?)", appts.size(), (ps, i) -> ps.setString(1 + i, appts.get(i).getStatus().getStatusName()));
+		for (int i = 0; i < appts.size(); i++) {
+			AppointmentStatusVO status = appts.get(i).getStatus();
+			status.setStatusId(statusIds.get(i).intValue());
+		}
+		List<Number> ids = insert("INSERT INTO appointments (appointment_date, created_at, doctor_id, reason, "
+				+ "updated_at, patient_id, status_id) VALUES ", "(?, ?, ?, ?, ?, ?, ?)", appts.size(), (ps, i) -> {
+					AppointmentsVO a = appts.get(i);
+					int p = i * 7;
+					ps.setObject(p + 1, a.getAppointmentDate());
+					ps.setObject(p + 2, now);
+					ps.setLong(p + 3, a.getDoctor().getDoctorId());
+					ps.setString(p + 4, a.getReason());
+					ps.setObject(p + 5, now);
+					ps.setLong(p + 6, a.getPatient().getPatientId());
+					ps.setInt(p + 7, a.getStatus().getStatusId());
+				});
+		for (int i = 0; i < appts.size(); i++) {
+			appts.get(i).setAppointmentID(ids.get(i).longValue());
+			appts.get(i).setCreatedAt(now);
+			appts.get(i).setUpdatedAt(now);
+		}
+	}
+
+	private interface RowBinder {
+		void bind(PreparedStatement ps, int row) throws SQLException;
+	}
+
+	// one INSERT with a value tuple per row, the binder fills row i's parameters
+	private List<Number> insert(String head, String tuple, int rows, RowBinder binder) {
+		String sql = head + String.join(", ", Collections.nCopies(rows, tuple));
+		KeyHolder keys = new GeneratedKeyHolder();
+		jdbc.update(con -> {
+			PreparedStatement ps = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+			for (int i = 0; i < rows; i++) {
+				binder.bind(ps, i);
+			}
+			return ps;
+		}, keys);
+		List<Map<String, Object>> generated = keys.getKeyList();
+		if (generated.size() != rows) {
+			throw new IllegalStateException("expected " + rows + " generated keys, got " + generated.size());
+		}
+		return generated.stream().map(m -> (Number) m.values().iterator().next()).toList();
+	}
+}
@@ -0,0 +1,65 @@
+package com.HospitalAppointmentScheduling.DAO;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+// Bulk cancellation: one locking SELECT picks the appointments, then their
+// status rows and the appointments go with one DELETE each per chunk of IDs,
+// on the connection of the surrounding transaction.
+@Repository
+public class AppointmentCancelDAO {
+
+	private static final int CHUNK = 1000;
+
+	private static final String SELECT = "SELECT appointment_id, doctor_id, appointment_date, patient_id "
+			+ "FROM appointments a WHERE ";
+
+	private static final RowMapper<Row> ROW = (rs, i) -> new Row(rs.getLong(1), rs.getLong(2),
+			rs.getDate(3).toLocalDate(), rs.getLong(4));
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	public record Row(long appointmentId, long doctorId, LocalDate date, long patientId) {
+	}
+
+	public List<Row> lockByIds(List<Long> ids) {
+		return jdbc.query(SELECT + "a.appointment_id IN (" + in(ids.size())
+				+ ") ORDER BY a.appointment_id FOR UPDATE", ROW, ids.toArray());
+	}
+
+	public List<Row> lockForDoctor(long doctorId, LocalDate from, LocalDate to) {
+		return jdbc.query(SELECT + "a.doctor_id = ? AND a.appointment_date BETWEEN ? AND ? "
+				+ "ORDER BY a.appointment_id FOR UPDATE", ROW, doctorId, Date.valueOf(from), Date.valueOf(to));
+	}
+
+	// the doctor rows are read without a lock, only the appointments are locked
+	public List<Row> lockForHospital(long hospitalId, LocalDate date) {
+		return jdbc.query(SELECT + "a.appointment_date = ? AND a.doctor_id IN (SELECT d.doctor_id FROM doctor d "
+				+ "WHERE d.hospital_id = ?) ORDER BY a.appointment_id FOR UPDATE", ROW, Date.valueOf(date), hospitalId);
+	}
+
+	public int delete(List<Long> ids) {
+		int n = 0;
+		for (int i = 0; i < ids.size(); i += CHUNK) {
+			List<Long> chunk = ids.subList(i, Math.min(ids.size(), i + CHUNK));
+			String in = in(chunk.size());
+			Object[] args = chunk.toArray();
+			jdbc.update("DELETE FROM appointmentstatus WHERE status_id IN (SELECT status_id FROM appointments "
+					+ "WHERE appointment_id IN (" + in + "))", args);
+			n += jdbc.update("DELETE FROM appointments WHERE appointment_id IN (" + in + ")", args);
+		}
+		return n;
+	}
+
+	private static String in(int n) {
+		return String.join(", ", Collections.nCopies(n, "?"));
+	}
+}
@@ -0,0 +1,43 @@
+package com.HospitalAppointmentScheduling.DAO;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+// Flat appointment rows for the columnar analytics snapshot, read with plain
+// JDBC so no entity graphs are built. Rows are handed to the sink one by one.
+@Repository
+public class AppointmentSnapshotDAO {
+
+	private static final String SELECT = "SELECT a.appointment_id, a.appointment_date, a.patient_id, a.doctor_id, "
+			+ "s.status_name, a.reason, a.updated_at FROM %s a JOIN appointmentstatus s ON s.status_id = a.status_id";
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	public interface RowSink {
+		void row(long id, LocalDate date, long patientId, long doctorId, String status, String reason,
+				LocalDateTime updatedAt);
+	}
+
+	// every appointment, the archived ones included, in ID order
+	public void streamAll(RowSink sink) {
+		jdbc.query(String.format(SELECT, "appointments") + " UNION ALL " + String.format(SELECT, "appointments_archive")
+				+ " ORDER BY 1", rs -> {
+					sink.row(rs.getLong(1), rs.getDate(2).toLocalDate(), rs.getLong(3), rs.getLong(4), rs.getString(5),
+							rs.getString(6), rs.getTimestamp(7).toLocalDateTime());
+				});
+	}
+
+	// live appointments changed at or after the time, oldest change first
+	public void streamChangedSince(LocalDateTime since, RowSink sink) {
+		jdbc.query(String.format(SELECT, "appointments") + " WHERE a.updated_at >= ? ORDER BY a.updated_at", rs -> {
+			sink.row(rs.getLong(1), rs.getDate(2).toLocalDate(), rs.getLong(3), rs.getLong(4), rs.getString(5),
+					rs.getString(6), rs.getTimestamp(7).toLocalDateTime());
+		}, Timestamp.valueOf(since));
+	}
+}
@@ -0,0 +1,58 @@
+package com.HospitalAppointmentScheduling.DAO;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+// Moves appointments from one status to another in chunks. A chunk locks its
+// rows in date order, renames their status rows with one UPDATE and bumps
+// updated_at with another, on the connection of the surrounding transaction.
+@Repository
+public class AppointmentStatusDAO {
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	// the appointments changed and the date of the last one, for the next
+	// chunk to start from
+	public record Chunk(List<Long> ids, LocalDate lastDate) {
+	}
+
+	// appointments dated from fromDate up to before, in date order
+	public Chunk transition(String from, String to, LocalDate fromDate, LocalDate before, int limit,
+			LocalDateTime now) {
+		List<Long> ids = new ArrayList<>();
+		List<Integer> statusIds = new ArrayList<>();
+		List<LocalDate> dates = new ArrayList<>();
+		jdbc.query("SELECT a.appointment_id, a.status_id, a.appointment_date FROM appointments a "
+				+ "JOIN appointmentstatus s ON s.status_id = a.status_id WHERE a.appointment_date >= ? "
+				+ "AND a.appointment_date < ? AND s.status_name = ? ORDER BY a.appointment_date, a.appointment_id "
+				+ "LIMIT ? FOR UPDATE", rs -> {
+					ids.add(rs.getLong(1));
+					statusIds.add(rs.getInt(2));
+					dates.add(rs.getDate(3).toLocalDate());
+				}, Date.valueOf(fromDate), Date.valueOf(before), from, limit);
+		if (ids.isEmpty()) {
+			return new Chunk(ids, null);
+		}
+		List<Object> args = new ArrayList<>();
+		args.add(to);
+		args.addAll(statusIds);
+		jdbc.update("UPDATE appointmentstatus SET status_name = ? WHERE status_id IN ("
+				+ String.join(", ", Collections.nCopies(statusIds.size(), "?")) + ")", args.toArray());
+		args.clear();
+		args.add(Timestamp.valueOf(now));
+		args.addAll(ids);
+		jdbc.update("UPDATE appointments SET updated_at = ? WHERE appointment_id IN ("
+				+ String.join(", ", Collections.nCopies(ids.size(), "?")) + ")", args.toArray());
+		return new Chunk(ids, dates.get(dates.size() - 1));
+	}
+}
@@ -1,16 +1,18 @@
 package com.HospitalAppointmentScheduling.DAO;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import org.springframework.transaction.annotation.Transactional;
 
 import com.HospitalAppointmentScheduling.Entity.AppointmentsVO;
+import com.HospitalAppointmentScheduling.Entity.DoctorVO;
 
 @Repository
 public interface AppointmentsRepo extends JpaRepository<AppointmentsVO, Long> {
@@ -30,16 +32,54 @@ public interface AppointmentsRepo extends JpaRepository<AppointmentsVO, Long> {
 	@Query("SELECT a FROM AppointmentsVO a WHERE a.patient.patientId = :patientId")
 	List<AppointmentsVO> findAllApptByPatientId(@Param("patientId") long patientId);
 
-	// delete the appointment by the given ID:
-	@Modifying
-	@Transactional
-	@Query("DELETE FROM AppointmentsVO a WHERE a.appointmentID = :appointmentId")
-	void deleteByAppointmentId(@Param("appointmentId") long appointmentId);
-
 	// returns the long (number of appointments for the particular date)
 	@Query("SELECT COUNT(a) FROM AppointmentsVO a WHERE a.appointmentDate = :appointmentDate")
 	long countAppointmentsByDate(@Param("appointmentDate") LocalDate appointmentDate);
 
+	// returns the number of appointments of one doctor on the given date
+	@Query("SELECT COUNT(a) FROM AppointmentsVO a WHERE a.doctor.doctorId = :doctorId AND a.appointmentDate = :appointmentDate")
+	long countAppointmentsForDoctorOnDate(@Param("doctorId") long doctorId,
+			@Param("appointmentDate") LocalDate appointmentDate);
+
+	// number of appointments per doctor and date, seeds the in-memory counters
+	@Query("SELECT a.doctor.doctorId AS doctorId, a.appointmentDate AS appointmentDate, COUNT(a) AS total "
+			+ "FROM AppointmentsVO a GROUP BY a.doctor.doctorId, a.appointmentDate")
+	List<DoctorDateCountProjection> countAppointmentsByDoctorAndDate();
+
+	// upcoming appointments for the reminder wheel, one keyset page at a time
+	@Query("SELECT a.appointmentID AS appointmentId, a.appointmentDate AS appointmentDate FROM AppointmentsVO a "
+			+ "WHERE a.appointmentDate BETWEEN :fromDate AND :toDate AND a.appointmentID > :afterId "
+			+ "ORDER BY a.appointmentID ASC")
+	List<ReminderProjection> findUpcomingForReminders(@Param("fromDate") LocalDate fromDate,
+			@Param("toDate") LocalDate toDate, @Param("afterId") long afterId, Pageable page);
+
+	// everything a reminder needs, read when it fires so it is never stale
+	@Query("SELECT a.appointmentID AS appointmentId, a.appointmentDate AS appointmentDate, a.reason AS reason, "
+			+ "p.patientId AS patientId, CONCAT(p.firstName, ' ', p.lastName) AS patientName, "
+			+ "p.patientEmail AS patientEmail, p.patientPhone AS patientPhone, "
+			+ "CONCAT(d.firstName, ' ', d.lastName) AS doctorName "
+			+ "FROM AppointmentsVO a JOIN a.patient p JOIN a.doctor d WHERE a.appointmentID = :appointmentId")
+	ReminderProjection findReminderById(@Param("appointmentId") long appointmentId);
+
+	// number of appointments per patient, seeds the patient analytics ranking
+	@Query("SELECT a.patient.patientId AS patientId, COUNT(a) AS total FROM AppointmentsVO a GROUP BY a.patient.patientId")
+	List<PatientAppointmentCountProjection> countAppointmentsByPatient();
+
+	// appointments of one doctor in a date range, the input of a batch reschedule
+	@Query("SELECT a.appointmentID AS appointmentId, a.appointmentDate AS appointmentDate, "
+			+ "a.patient.patientId AS patientId FROM AppointmentsVO a "
+			+ "WHERE a.doctor.doctorId = :doctorId AND a.appointmentDate BETWEEN :fromDate AND :toDate "
+			+ "ORDER BY a.appointmentDate ASC, a.appointmentID ASC")
+	List<AffectedAppointmentProjection> findForDoctorBetween(@Param("doctorId") long doctorId,
+			@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+	// moves a group of appointments to one doctor and date in a single statement
+	@Modifying
+	@Query("UPDATE AppointmentsVO a SET a.doctor = :doctor, a.appointmentDate = :appointmentDate, "
+			+ "a.updatedAt = :updatedAt WHERE a.appointmentID IN :ids")
+	int moveAppointments(@Param("ids") List<Long> ids, @Param("doctor") DoctorVO doctor,
+			@Param("appointmentDate") LocalDate appointmentDate, @Param("updatedAt") LocalDateTime updatedAt);
+
 	// fetches all the appointments with respect to logged in patient id and given
 	// date:
 	@Query("SELECT a FROM AppointmentsVO a JOIN a.patient p WHERE a.appointmentDate = :date AND p.patientId = :patientId")
@@ -51,4 +91,8 @@ public interface AppointmentsRepo extends JpaRepository<AppointmentsVO, Long> {
 	List<AppointmentsVO> findAppointmentsByPatientIdAndDateRange(@Param("startDate") LocalDate startDate,
 			@Param("endDate") LocalDate endDate, @Param("patientId") Long patientId);
 
+	// owner of an appointment, for session checks
+	@Query("SELECT a.patient.patientId FROM AppointmentsVO a WHERE a.appointmentID = :id")
+	Long findPatientIdByAppointmentId(@Param("id") long id);
+
 }
\ No newline at end of file
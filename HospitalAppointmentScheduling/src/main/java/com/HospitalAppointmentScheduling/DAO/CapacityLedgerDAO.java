@@ -0,0 +1,84 @@
+package com.HospitalAppointmentScheduling.DAO;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+// The doctor_day_capacity table. Every statement runs on the connection of the
+// surrounding transaction, so a taken slot is given back if the booking rolls
+// back, and the row stays locked against other nodes until it commits.
+@Repository
+public class CapacityLedgerDAO {
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	// false when the day has fewer than count slots left. The conditional
+	// UPDATE is the whole check. The day's row is created empty first, so the
+	// UPDATE always has a row to lock: on InnoDB two first bookings of a day
+	// running a 0-row UPDATE both take gap locks and their INSERTs deadlock.
+	public boolean take(long doctorId, LocalDate date, int count, int capacity) {
+		return add(doctorId, date, count, capacity, true);
+	}
+
+	// counts slots whether or not the day has room, for changes that were not
+	// capacity checked before either
+	public void force(long doctorId, LocalDate date, int count, int capacity) {
+		add(doctorId, date, count, capacity, false);
+	}
+
+	public void release(long doctorId, LocalDate date, int count) {
+		jdbc.update("UPDATE doctor_day_capacity SET booked = GREATEST(booked - ?, 0) "
+				+ "WHERE doctor_id = ? AND appointment_date = ?", count, doctorId, Date.valueOf(date));
+	}
+
+	// gives back the upcoming slots of the patients' appointments, before
+	// they are deleted with the patients
+	public int releasePatients(List<Long> patientIds, LocalDate from) {
+		String in = String.join(", ", Collections.nCopies(patientIds.size(), "?"));
+		List<Object> args = new ArrayList<>(patientIds);
+		args.add(Date.valueOf(from));
+		args.addAll(patientIds);
+		args.add(Date.valueOf(from));
+		return jdbc.update("UPDATE doctor_day_capacity c SET booked = GREATEST(booked - (SELECT COUNT(*) "
+				+ "FROM appointments a WHERE a.patient_id IN (" + in + ") AND a.doctor_id = c.doctor_id "
+				+ "AND a.appointment_date = c.appointment_date), 0) WHERE c.appointment_date >= ? "
+				+ "AND c.doctor_id IN (SELECT a.doctor_id FROM appointments a WHERE a.patient_id IN (" + in + ") "
+				+ "AND a.appointment_date >= ?)", args.toArray());
+	}
+
+	public int booked(long doctorId, LocalDate date) {
+		Integer n = jdbc.query("SELECT booked FROM doctor_day_capacity WHERE doctor_id = ? AND appointment_date = ?",
+				rs -> rs.next() ? rs.getInt(1) : 0, doctorId, Date.valueOf(date));
+		return n == null ? 0 : n;
+	}
+
+	public int setCapacity(int capacity, LocalDate from) {
+		return jdbc.update("UPDATE doctor_day_capacity SET capacity = ? WHERE capacity <> ? AND appointment_date >= ?",
+				capacity, capacity, Date.valueOf(from));
+	}
+
+	public int purgeBefore(LocalDate date) {
+		return jdbc.update("DELETE FROM doctor_day_capacity WHERE appointment_date < ?", Date.valueOf(date));
+	}
+
+	private boolean add(long doctorId, LocalDate date, int count, int capacity, boolean checked) {
+		jdbc.update("INSERT INTO doctor_day_capacity (doctor_id, appointment_date, booked, capacity) "
+				+ "VALUES (?, ?, 0, ?) ON DUPLICATE KEY UPDATE booked = booked", doctorId, Date.valueOf(date),
+				capacity);
+		return increment(doctorId, date, count, checked);
+	}
+
+	private boolean increment(long doctorId, LocalDate date, int count, boolean checked) {
+		return jdbc.update("UPDATE doctor_day_capacity SET booked = booked + ? WHERE doctor_id = ? "
+				+ "AND appointment_date = ?" + (checked ? " AND booked + ? <= capacity" : ""),
+				checked ? new Object[] { count, doctorId, Date.valueOf(date), count }
+						: new Object[] { count, doctorId, Date.valueOf(date) }) == 1;
+	}
+}
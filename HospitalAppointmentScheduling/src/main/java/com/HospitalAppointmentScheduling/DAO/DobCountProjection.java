@@ -0,0 +1,11 @@
+package com.HospitalAppointmentScheduling.DAO;
+
+import java.time.LocalDate;
+
+public interface DobCountProjection {
+
+	LocalDate getDob();
+
+	Long getTotal();
+
+}
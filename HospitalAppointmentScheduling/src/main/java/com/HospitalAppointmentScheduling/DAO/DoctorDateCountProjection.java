@@ -0,0 +1,13 @@
+package com.HospitalAppointmentScheduling.DAO;
+
+import java.time.LocalDate;
+
+public interface DoctorDateCountProjection {
+
+	Long getDoctorId();
+
+	LocalDate getAppointmentDate();
+
+	Long getTotal();
+
+}
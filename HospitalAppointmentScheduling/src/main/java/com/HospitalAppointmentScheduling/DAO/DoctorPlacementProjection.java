@@ -0,0 +1,13 @@
+package com.HospitalAppointmentScheduling.DAO;
+
+public interface DoctorPlacementProjection {
+
+	Long getDoctorId();
+
+	Integer getSpecializationId();
+
+	Long getHospitalId();
+
+	Integer getCityId();
+
+}
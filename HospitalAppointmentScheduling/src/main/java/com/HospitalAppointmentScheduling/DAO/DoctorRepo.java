@@ -4,6 +4,7 @@ import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.HospitalAppointmentScheduling.Entity.DoctorVO;
@@ -19,4 +20,18 @@ public interface DoctorRepo extends JpaRepository<DoctorVO, Long> {
 	@Query("SELECT d.doctorId AS doctorId FROM DoctorVO d")
 	List<Long> fetchDoctorId();
 
+	// doctors of the same hospital and specialization as the given one
+	@Query("SELECT d.doctorId FROM DoctorVO d, DoctorVO x WHERE x.doctorId = :doctorId "
+			+ "AND d.hospital = x.hospital AND d.specialization = x.specialization AND d.doctorId <> x.doctorId "
+			+ "ORDER BY d.doctorId ASC")
+	List<Long> findPeerDoctorIds(@Param("doctorId") long doctorId);
+
+	// where every doctor works, for the earliest available search
+	@Query("SELECT d.doctorId AS doctorId, d.specialization.specializationId AS specializationId, "
+			+ "h.hospitalId AS hospitalId, h.city.cityId AS cityId FROM DoctorVO d JOIN d.hospital h")
+	List<DoctorPlacementProjection> findDoctorPlacements();
+
+	@Query("SELECT d.hospital.hospitalId FROM DoctorVO d WHERE d.doctorId = :doctorId")
+	Long findHospitalIdByDoctorId(@Param("doctorId") long doctorId);
+
 }
@@ -0,0 +1,99 @@
+package com.HospitalAppointmentScheduling.DAO;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.HospitalAppointmentScheduling.BO.IdempotencyStore;
+import com.HospitalAppointmentScheduling.BO.LeaderOnly;
+
+// Idempotency keys in the idempotency_keys table, for several nodes behind a
+// load balancer. The primary key on the key column decides which request
+// claims it. Each statement commits on its own, outside the request's
+// transaction, so a claim is visible to the other nodes straight away. A
+// claim only lives for leaseMs until its request completes it, so the key of
+// a node that died mid-request is free again after the lease, not the TTL.
+public class IdempotencyKeyDAO implements IdempotencyStore {
+
+	Logger log = Logger.getLogger(IdempotencyKeyDAO.class);
+
+	private final JdbcTemplate jdbc;
+	private final long ttlMs;
+	private final long leaseMs;
+
+	public IdempotencyKeyDAO(JdbcTemplate jdbc, long ttlMs, long leaseMs) {
+		this.jdbc = jdbc;
+		this.ttlMs = ttlMs;
+		this.leaseMs = leaseMs;
+	}
+
+	private record Row(String fingerprint, Integer status, String contentType, byte[] body, LocalDateTime expiresAt) {
+	}
+
+	@Override
+	public Claim claim(String key, String fingerprint) {
+		LocalDateTime now = LocalDateTime.now();
+		if (insert(key, fingerprint, now)) {
+			return new Claim(Outcome.CLAIMED, null);
+		}
+		List<Row> rows = jdbc.query(
+				"SELECT fingerprint, status, content_type, body, expires_at FROM idempotency_keys WHERE idem_key = ?",
+				(rs, i) -> new Row(rs.getString(1), (Integer) rs.getObject(2), rs.getString(3), rs.getBytes(4),
+						rs.getTimestamp(5).toLocalDateTime()),
+				key);
+		if (rows.isEmpty() || rows.get(0).expiresAt().isBefore(now)) {
+			// abandoned or expired in between, take it over unless another
+			// node is quicker
+			jdbc.update("DELETE FROM idempotency_keys WHERE idem_key = ? AND expires_at < ?", key,
+					Timestamp.valueOf(now));
+			return new Claim(insert(key, fingerprint, now) ? Outcome.CLAIMED : Outcome.IN_PROGRESS, null);
+		}
+		Row row = rows.get(0);
+		if (!row.fingerprint().equals(fingerprint)) {
+			return new Claim(Outcome.MISMATCH, null);
+		}
+		if (row.status() == null) {
+			return new Claim(Outcome.IN_PROGRESS, null);
+		}
+		return new Claim(Outcome.REPLAY, new StoredResponse(row.status(), row.contentType(), row.body()));
+	}
+
+	@Override
+	public void complete(String key, StoredResponse response) {
+		LocalDateTime expiresAt = LocalDateTime.now().plus(Duration.ofMillis(ttlMs));
+		jdbc.update("UPDATE idempotency_keys SET status = ?, content_type = ?, body = ?, expires_at = ? "
+				+ "WHERE idem_key = ? AND status IS NULL", response.status(), response.contentType(), response.body(),
+				Timestamp.valueOf(expiresAt), key);
+	}
+
+	@Override
+	public void abandon(String key) {
+		jdbc.update("DELETE FROM idempotency_keys WHERE idem_key = ? AND status IS NULL", key);
+	}
+
+	@Scheduled(fixedDelayString = "${idempotency.purge-ms:300000}")
+	@LeaderOnly("idempotency-purge")
+	public void purge() {
+		int n = jdbc.update("DELETE FROM idempotency_keys WHERE expires_at < ?", Timestamp.valueOf(LocalDateTime.now()));
+		if (n > 0) {
+			log.info("purged " + n + " expired idempotency keys");
+		}
+	}
+
+	// false when the key is already in the table
+	private boolean insert(String key, String fingerprint, LocalDateTime now) {
+		try {
+			jdbc.update("INSERT INTO idempotency_keys (idem_key, fingerprint, created_at, expires_at) VALUES (?, ?, ?, ?)",
+					key, fingerprint, Timestamp.valueOf(now), Timestamp.valueOf(now.plus(Duration.ofMillis(leaseMs))));
+			return true;
+		} catch (DuplicateKeyException e) {
+			return false;
+		}
+	}
+}
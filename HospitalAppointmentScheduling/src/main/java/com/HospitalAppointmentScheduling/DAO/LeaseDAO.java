@@ -0,0 +1,57 @@
+package com.HospitalAppointmentScheduling.DAO;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+// Job leases in scheduler_leases. Expiry is computed with the database clock,
+// so nodes with drifting clocks still agree on when a lease has run out. Each
+// statement commits on its own.
+@Repository
+public class LeaseDAO {
+
+	private static final String EXPIRY = "TIMESTAMPADD(MICROSECOND, ?, CURRENT_TIMESTAMP(6))";
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	// the token the lease was taken with, 0 when another node holds it; every
+	// takeover gets a higher token than the holder before it
+	public long acquire(String name, String owner, long leaseMs) {
+		int n = jdbc.update("UPDATE scheduler_leases SET owner = ?, token = token + 1, expires_at = " + EXPIRY
+				+ " WHERE name = ? AND expires_at < CURRENT_TIMESTAMP(6)", owner, leaseMs * 1000, name);
+		if (n == 0) {
+			try {
+				jdbc.update("INSERT INTO scheduler_leases (name, owner, token, expires_at) VALUES (?, ?, 1, " + EXPIRY
+						+ ")", name, owner, leaseMs * 1000);
+			} catch (DuplicateKeyException e) {
+				// held by another node, or taken by one just now
+				return 0;
+			}
+		}
+		List<Long> token = jdbc.queryForList("SELECT token FROM scheduler_leases WHERE name = ? AND owner = ?",
+				Long.class, name, owner);
+		return token.isEmpty() ? 0 : token.get(0);
+	}
+
+	// false once another node has taken the lease over; a lease that ran out
+	// but was not taken over is still ours to renew
+	public boolean renew(String name, String owner, long token, long leaseMs) {
+		return jdbc.update("UPDATE scheduler_leases SET expires_at = " + EXPIRY
+				+ " WHERE name = ? AND owner = ? AND token = ?", leaseMs * 1000, name, owner, token) == 1;
+	}
+
+	public boolean isHeld(String name, String owner, long token) {
+		return jdbc.queryForObject("SELECT COUNT(*) FROM scheduler_leases WHERE name = ? AND owner = ? AND token = ?"
+				+ " AND expires_at > CURRENT_TIMESTAMP(6)", Integer.class, name, owner, token) > 0;
+	}
+
+	// lets the next node take over without waiting for the expiry
+	public void release(String name, String owner, long token) {
+		jdbc.update("UPDATE scheduler_leases SET expires_at = TIMESTAMPADD(SECOND, -1, CURRENT_TIMESTAMP(6))"
+				+ " WHERE name = ? AND owner = ? AND token = ?", name, owner, token);
+	}
+}
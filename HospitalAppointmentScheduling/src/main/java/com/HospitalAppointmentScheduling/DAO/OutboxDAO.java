@@ -0,0 +1,77 @@
+package com.HospitalAppointmentScheduling.DAO;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import com.HospitalAppointmentScheduling.Entity.OutboxEventVO;
+
+// The relay's statements on outbox_events. Rows are written through OutboxRepo
+// with the change they describe; here they are numbered into the change
+// stream and read back in stream order.
+@Repository
+public class OutboxDAO {
+
+	private static final String SELECT = "SELECT event_id, aggregate_type, aggregate_id, event_type, payload, "
+			+ "created_at, published_at, log_offset FROM outbox_events ";
+
+	private static final RowMapper<OutboxEventVO> ROW = (rs, i) -> {
+		OutboxEventVO e = new OutboxEventVO();
+		e.setEventId(rs.getLong(1));
+		e.setAggregateType(rs.getString(2));
+		e.setAggregateId(rs.getLong(3));
+		e.setEventType(rs.getString(4));
+		e.setPayload(rs.getString(5));
+		e.setCreatedAt(rs.getTimestamp(6).toLocalDateTime());
+		Timestamp published = rs.getTimestamp(7);
+		e.setPublishedAt(published == null ? null : published.toLocalDateTime());
+		long offset = rs.getLong(8);
+		e.setLogOffset(rs.wasNull() ? null : offset);
+		return e;
+	};
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	// next rows to number, lowest id first
+	public List<OutboxEventVO> findUnpublished(int limit) {
+		return jdbc.query(SELECT + "WHERE published_at IS NULL ORDER BY event_id LIMIT ?", ROW, limit);
+	}
+
+	// numbered rows after the given offset, in stream order
+	public List<OutboxEventVO> findRelayedAfter(long after, int limit) {
+		return jdbc.query(SELECT + "WHERE log_offset > ? ORDER BY log_offset LIMIT ?", ROW, after, limit);
+	}
+
+	public long lastOffset() {
+		Long n = jdbc.queryForObject("SELECT MAX(log_offset) FROM outbox_events", Long.class);
+		return n == null ? 0 : n;
+	}
+
+	public long lastRelayedEventId() {
+		Long n = jdbc.queryForObject("SELECT MAX(event_id) FROM outbox_events WHERE published_at IS NOT NULL",
+				Long.class);
+		return n == null ? 0 : n;
+	}
+
+	// gives the rows the offsets from first on, in list order. The relay picks
+	// first, the stream spans the outbox of every shard. Throws when a row was
+	// numbered already, so the caller's transaction rolls back; two relays
+	// taking the same offsets in one database are stopped by the unique index.
+	public void number(List<Long> eventIds, long first, LocalDateTime publishedAt) {
+		long offset = first - 1;
+		for (Long id : eventIds) {
+			offset++;
+			int n = jdbc.update("UPDATE outbox_events SET log_offset = ?, published_at = ? "
+					+ "WHERE event_id = ? AND log_offset IS NULL", offset, Timestamp.valueOf(publishedAt), id);
+			if (n == 0) {
+				throw new IllegalStateException("ERROR: outbox event " + id + " was relayed already");
+			}
+		}
+	}
+}
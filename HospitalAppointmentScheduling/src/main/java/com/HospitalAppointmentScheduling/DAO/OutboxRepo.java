@@ -0,0 +1,12 @@
+package com.HospitalAppointmentScheduling.DAO;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.HospitalAppointmentScheduling.Entity.OutboxEventVO;
+
+// rows are appended here, the relay reads and numbers them through OutboxDAO
+@Repository
+public interface OutboxRepo extends JpaRepository<OutboxEventVO, Long> {
+
+}
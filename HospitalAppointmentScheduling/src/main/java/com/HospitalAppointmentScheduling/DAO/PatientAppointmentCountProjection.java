@@ -0,0 +1,9 @@
+package com.HospitalAppointmentScheduling.DAO;
+
+public interface PatientAppointmentCountProjection {
+
+	Long getPatientId();
+
+	Long getTotal();
+
+}
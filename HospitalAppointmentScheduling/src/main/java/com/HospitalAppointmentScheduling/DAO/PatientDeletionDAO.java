@@ -0,0 +1,94 @@
+package com.HospitalAppointmentScheduling.DAO;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.HospitalAppointmentScheduling.BO.AppointmentCountBO.DoctorDateKey;
+
+// Deletes patients with everything that hangs off them using one statement
+// per table, whatever the number of appointments. Runs on the connection of
+// the surrounding transaction and never loads the entities, so the eager
+// appointment collection of PatientVO is not touched.
+@Repository
+public class PatientDeletionDAO {
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	// the patients that exist among the IDs, locked, with their dates of birth
+	public Map<Long, LocalDate> lockPatients(List<Long> patientIds) {
+		Map<Long, LocalDate> found = new LinkedHashMap<>();
+		jdbc.query("SELECT patient_id, dob FROM patients WHERE patient_id IN (" + in(patientIds)
+				+ ") ORDER BY patient_id FOR UPDATE", rs -> {
+					found.put(rs.getLong(1), rs.getDate(2).toLocalDate());
+				}, patientIds.toArray());
+		return found;
+	}
+
+	// the patients' appointments from the date on, counted per doctor day
+	public Map<DoctorDateKey, Long> upcomingSlots(List<Long> patientIds, LocalDate from) {
+		Map<DoctorDateKey, Long> slots = new LinkedHashMap<>();
+		jdbc.query("SELECT doctor_id, appointment_date, COUNT(*) FROM appointments WHERE patient_id IN ("
+				+ in(patientIds) + ") AND appointment_date >= ? GROUP BY doctor_id, appointment_date", rs -> {
+					slots.put(new DoctorDateKey(rs.getLong(1), rs.getDate(2).toLocalDate()), rs.getLong(3));
+				}, args(patientIds, Date.valueOf(from)));
+		return slots;
+	}
+
+	// writes an outbox row for each live and archived appointment of the
+	// patients, with the payload OutboxBO.deleted gives, one statement per
+	// table. Call it before the appointments are deleted.
+	public int outboxAppointmentsDeleted(List<Long> patientIds, String aggregateType, String eventType,
+			LocalDateTime at) {
+		String in = in(patientIds);
+		int n = 0;
+		for (String table : List.of("appointments", "appointments_archive")) {
+			List<Object> args = new ArrayList<>(
+					List.of(aggregateType, eventType, aggregateType + "Id", Timestamp.valueOf(at)));
+			args.addAll(patientIds);
+			n += jdbc.update("INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, payload, created_at) "
+					+ "SELECT ?, appointment_id, ?, CONCAT('{\"', ?, '\":', appointment_id, '}'), ? FROM " + table
+					+ " WHERE patient_id IN (" + in + ") ORDER BY appointment_id", args.toArray());
+		}
+		return n;
+	}
+
+	// status rows first, they are found through the appointments; returns the
+	// number of live and archived appointments deleted
+	public int deleteAppointments(List<Long> patientIds) {
+		String in = in(patientIds);
+		Object[] ids = patientIds.toArray();
+		int n = 0;
+		for (String table : List.of("appointments", "appointments_archive")) {
+			jdbc.update("DELETE FROM appointmentstatus WHERE status_id IN (SELECT status_id FROM " + table
+					+ " WHERE patient_id IN (" + in + "))", ids);
+			n += jdbc.update("DELETE FROM " + table + " WHERE patient_id IN (" + in + ")", ids);
+		}
+		return n;
+	}
+
+	public int deletePatients(List<Long> patientIds) {
+		return jdbc.update("DELETE FROM patients WHERE patient_id IN (" + in(patientIds) + ")", patientIds.toArray());
+	}
+
+	private static String in(List<Long> ids) {
+		return String.join(", ", Collections.nCopies(ids.size(), "?"));
+	}
+
+	private static Object[] args(List<Long> ids, Object last) {
+		List<Object> args = new ArrayList<>(ids);
+		args.add(last);
+		return args.toArray();
+	}
+}
@@ -3,6 +3,7 @@ package com.HospitalAppointmentScheduling.DAO;
 import java.time.LocalDate;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,9 +14,10 @@ import com.HospitalAppointmentScheduling.Entity.PatientVO;
 @Repository
 public interface PatientRepo extends JpaRepository<PatientVO, Long> {
 
-	// patient authentication for the login page in the console
-	@Query("SELECT p FROM PatientVO p WHERE p.patientEmail = :email AND p.patientPassword = :password")
-	PatientVO patientAuthentication(@Param("email") String email, @Param("password") String password);
+	// patient authentication for the login page: fetched by email only, the
+	// password hash is checked in the BO layer
+	@Query("SELECT p FROM PatientVO p WHERE p.patientEmail = :email")
+	PatientVO findByEmail(@Param("email") String email);
 
 	@Query("SELECT COUNT(p) > 0 FROM PatientVO p WHERE p.patientEmail = :email")
 	boolean existsByEmail(@Param("email") String email);
@@ -55,13 +57,18 @@ public interface PatientRepo extends JpaRepository<PatientVO, Long> {
 	@Query("SELECT p.patientPhone AS patientPhone FROM PatientVO p ")
 	List<String> fetchPatientPhoneNumber();
 
-	// fetching the common date of births in the database
+	// fetching the common date of births in the database, only used until the
+	// in-memory analytics are seeded
 	@Query("SELECT p.dob FROM PatientVO p GROUP BY p.dob ORDER BY COUNT(p) DESC")
-	List<LocalDate> findMostCommonDOB();
+	List<LocalDate> findMostCommonDOB(Pageable page);
 
-	// Finds the ID of the patient who has the highest number of appointments.
-	@Query("SELECT p FROM PatientVO p JOIN p.appointments a GROUP BY p.patientId ORDER BY COUNT(a) DESC")
-	List<PatientVO> findPatientWithMostAppointments();
+	// Finds the IDs of the patients with the highest number of appointments.
+	@Query("SELECT a.patient.patientId FROM AppointmentsVO a GROUP BY a.patient.patientId ORDER BY COUNT(a) DESC")
+	List<Long> findPatientIdsWithMostAppointments(Pageable page);
+
+	// number of patients per date of birth, seeds the analytics histogram
+	@Query("SELECT p.dob AS dob, COUNT(p) AS total FROM PatientVO p GROUP BY p.dob")
+	List<DobCountProjection> countPatientsByDob();
 
 	// Retrieves the total count of patients in the Patients table.
 	@Query("SELECT COUNT(p) FROM PatientVO p")
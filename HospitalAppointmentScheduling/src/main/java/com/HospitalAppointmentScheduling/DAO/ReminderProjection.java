@@ -0,0 +1,23 @@
+package com.HospitalAppointmentScheduling.DAO;
+
+import java.time.LocalDate;
+
+public interface ReminderProjection {
+
+	Long getAppointmentId();
+
+	LocalDate getAppointmentDate();
+
+	String getReason();
+
+	Long getPatientId();
+
+	String getPatientName();
+
+	String getPatientEmail();
+
+	String getPatientPhone();
+
+	String getDoctorName();
+
+}
@@ -0,0 +1,26 @@
+package com.HospitalAppointmentScheduling.DTO;
+
+import java.util.List;
+
+public class CareBundleDTO {
+
+	private Long patientID;
+	private List<AppointmentDTO> appointments;
+
+	public Long getPatientID() {
+		return patientID;
+	}
+
+	public void setPatientID(Long patientID) {
+		this.patientID = patientID;
+	}
+
+	public List<AppointmentDTO> getAppointments() {
+		return appointments;
+	}
+
+	public void setAppointments(List<AppointmentDTO> appointments) {
+		this.appointments = appointments;
+	}
+
+}
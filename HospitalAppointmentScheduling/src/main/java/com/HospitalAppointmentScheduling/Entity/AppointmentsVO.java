@@ -3,6 +3,7 @@ package com.HospitalAppointmentScheduling.Entity;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -26,6 +27,7 @@ import jakarta.persistence.TemporalType;
 @Entity
 @Table(name = "appointments")
 @EntityListeners(AuditingEntityListener.class)
+@DynamicUpdate
 @NamedQueries({
 		@NamedQuery(name = "AppointmentsVO.findAllByPatientIdOrderByDate", query = "SELECT a FROM AppointmentsVO a ORDER BY a.appointmentDate ASC") })
 
@@ -0,0 +1,101 @@
+package com.HospitalAppointmentScheduling.Entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+
+// A past appointment in appointments_archive. Read only, rows get here by
+// AppointmentArchiveDAO moving them out of appointments.
+@Entity
+@Table(name = "appointments_archive")
+public class ArchivedAppointmentVO {
+
+	@Id
+	@Column(name = "appointment_id")
+	private Long appointmentID;
+
+	@Column(name = "appointment_date", nullable = false)
+	private LocalDate appointmentDate;
+
+	@Column(name = "reason", nullable = false)
+	private String reason;
+
+	@Column(name = "created_at", nullable = false)
+	private LocalDateTime createdAt;
+
+	@Column(name = "updated_at", nullable = false)
+	private LocalDateTime updatedAt;
+
+	@Column(name = "archived_at", nullable = false)
+	private LocalDateTime archivedAt;
+
+	@ManyToOne(fetch = FetchType.EAGER)
+	@JoinColumn(name = "doctor_id", nullable = false)
+	private DoctorVO doctor;
+
+	@ManyToOne(fetch = FetchType.EAGER)
+	@JoinColumn(name = "patient_id", nullable = false)
+	private PatientVO patient;
+
+	@ManyToOne(fetch = FetchType.EAGER)
+	@JoinColumn(name = "status_id", nullable = false)
+	private AppointmentStatusVO status;
+
+	// the same appointment as the API returns it from the live table
+	public AppointmentsVO toAppointment() {
+		AppointmentsVO vo = new AppointmentsVO();
+		vo.setAppointmentID(appointmentID);
+		vo.setAppointmentDate(appointmentDate);
+		vo.setReason(reason);
+		vo.setCreatedAt(createdAt);
+		vo.setUpdatedAt(updatedAt);
+		vo.setDoctor(doctor);
+		vo.setPatient(patient);
+		vo.setStatus(status);
+		return vo;
+	}
+
+	// Getters method
+	public Long getAppointmentID() {
+		return appointmentID;
+	}
+
+	public LocalDate getAppointmentDate() {
+		return appointmentDate;
+	}
+
+	public String getReason() {
+		return reason;
+	}
+
+	public LocalDateTime getCreatedAt() {
+		return createdAt;
+	}
+
+	public LocalDateTime getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public LocalDateTime getArchivedAt() {
+		return archivedAt;
+	}
+
+	public DoctorVO getDoctor() {
+		return doctor;
+	}
+
+	public PatientVO getPatient() {
+		return patient;
+	}
+
+	public AppointmentStatusVO getStatus() {
+		return status;
+	}
+}
@@ -0,0 +1,119 @@
+package com.HospitalAppointmentScheduling.Entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "outbox_events")
+public class OutboxEventVO {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "event_id")
+	private Long eventId;
+
+	// "appointment" or "patient"
+	@Column(name = "aggregate_type", nullable = false, length = 32)
+	private String aggregateType;
+
+	@Column(name = "aggregate_id", nullable = false)
+	private Long aggregateId;
+
+	@Column(name = "event_type", nullable = false, length = 64)
+	private String eventType;
+
+	// JSON with the IDs, dates and status of the change, no personal data
+	@Column(name = "payload", nullable = false, columnDefinition = "text")
+	private String payload;
+
+	@Column(name = "created_at", nullable = false)
+	private LocalDateTime createdAt;
+
+	// null until the relay has handed the event to the bus and the log file
+	@Column(name = "published_at")
+	private LocalDateTime publishedAt;
+
+	// position in the change stream, given by the relay in commit order
+	@Column(name = "log_offset")
+	private Long logOffset;
+
+	// Getters and Setters method
+	public Long getEventId() {
+		return eventId;
+	}
+
+	public void setEventId(Long eventId) {
+		this.eventId = eventId;
+	}
+
+	public String getAggregateType() {
+		return aggregateType;
+	}
+
+	public void setAggregateType(String aggregateType) {
+		this.aggregateType = aggregateType;
+	}
+
+	public Long getAggregateId() {
+		return aggregateId;
+	}
+
+	public void setAggregateId(Long aggregateId) {
+		this.aggregateId = aggregateId;
+	}
+
+	public String getEventType() {
+		return eventType;
+	}
+
+	public void setEventType(String eventType) {
+		this.eventType = eventType;
+	}
+
+	public String getPayload() {
+		return payload;
+	}
+
+	public void setPayload(String payload) {
+		this.payload = payload;
+	}
+
+	public LocalDateTime getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(LocalDateTime createdAt) {
+		this.createdAt = createdAt;
+	}
+
+	public LocalDateTime getPublishedAt() {
+		return publishedAt;
+	}
+
+	public void setPublishedAt(LocalDateTime publishedAt) {
+		this.publishedAt = publishedAt;
+	}
+
+	public Long getLogOffset() {
+		return logOffset;
+	}
+
+	public void setLogOffset(Long logOffset) {
+		this.logOffset = logOffset;
+	}
+
+	// ToString method:
+	@Override
+	public String toString() {
+		return "OutboxEventVO [eventId=" + eventId + ", aggregateType=" + aggregateType + ", aggregateId=" + aggregateId
+				+ ", eventType=" + eventType + ", createdAt=" + createdAt + ", publishedAt=" + publishedAt
+				+ ", logOffset=" + logOffset + "]";
+	}
+
+}
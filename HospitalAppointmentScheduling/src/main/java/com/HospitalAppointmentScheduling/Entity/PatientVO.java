@@ -4,6 +4,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -26,6 +27,7 @@ import jakarta.persistence.TemporalType;
 @Entity
 @Table(name = "Patients")
 @EntityListeners(AuditingEntityListener.class)
+@DynamicUpdate
 @NamedQueries({
 		@NamedQuery(name = "AppointmentsVO.findByDOBRange", query = "SELECT p FROM PatientVO p WHERE p.dob BETWEEN :startDate AND :endDate"),
 		@NamedQuery(name = "PatientVO.findAllOrderedByAttendance", query = "SELECT p FROM PatientVO p ORDER BY p.firstName ASC") })
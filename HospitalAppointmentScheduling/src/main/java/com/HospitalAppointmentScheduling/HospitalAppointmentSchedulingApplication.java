@@ -13,6 +13,7 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.ApplicationContext;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import com.HospitalAppointmentScheduling.Clinet.PatientClient;
 import com.HospitalAppointmentScheduling.CustomExceptions.AppointmentBookingDateException;
@@ -21,10 +22,12 @@ import com.HospitalAppointmentScheduling.CustomExceptions.DateException;
 import com.HospitalAppointmentScheduling.CustomExceptions.DateOfBirthException;
 import com.HospitalAppointmentScheduling.CustomExceptions.EmailException;
 import com.HospitalAppointmentScheduling.CustomExceptions.IdException;
+import com.HospitalAppointmentScheduling.CustomExceptions.LoginException;
 import com.HospitalAppointmentScheduling.CustomExceptions.PasswordException;
 import com.HospitalAppointmentScheduling.CustomExceptions.PatientException;
 import com.HospitalAppointmentScheduling.CustomExceptions.PhoneNumberException;
 import com.HospitalAppointmentScheduling.CustomExceptions.ReasonException;
+import com.HospitalAppointmentScheduling.CustomExceptions.WaitlistException;
 import com.HospitalAppointmentScheduling.CustomExceptions.genderException;
 import com.HospitalAppointmentScheduling.DAO.DoctorDetailsProjection;
 import com.HospitalAppointmentScheduling.DTO.PatientDTO;
@@ -41,6 +44,7 @@ import com.HospitalAppointmentScheduling.Service.PatientService;
 
 @SpringBootApplication
 @EnableJpaAuditing
+@EnableScheduling
 public class HospitalAppointmentSchedulingApplication {
 
 	@Autowired
@@ -89,7 +93,13 @@ public class HospitalAppointmentSchedulingApplication {
 			System.out.print("Enter the registered patient Password: ");
 			String password = sc.next();
 
-			ResponseHandle resAuth = ref.pService.patientAuthentication(email, password);
+			ResponseHandle resAuth;
+			try {
+				resAuth = ref.pService.patientAuthentication(email, password);
+			} catch (LoginException e) {
+				System.out.println(e.getMessage());
+				continue;
+			}
 			if (resAuth.getSucessMessage() != null) {
 				tryLogIn = 0;
 				System.out.println("Your LogIn Success...");
@@ -873,6 +883,9 @@ public class HospitalAppointmentSchedulingApplication {
 
 		try {
 			resAppt = aService.insertAppointmentsWithPatientID(avo);
+		} catch (WaitlistException e) {
+			System.out.println(e.getMessage());
+			return;
 		} catch (IdException e) {
 			System.out.println(e.getMessage());
 		} catch (EmailException e) {
@@ -20,6 +20,15 @@ public class ResponseHandle {
 	private PatientProjection pro;
 	private LocalDate date;
 	private List<LocalDate> listOfDates;
+	private String sessionToken;
+
+	public String getSessionToken() {
+		return sessionToken;
+	}
+
+	public void setSessionToken(String sessionToken) {
+		this.sessionToken = sessionToken;
+	}
 
 	public List<LocalDate> getListOfDates() {
 		return listOfDates;
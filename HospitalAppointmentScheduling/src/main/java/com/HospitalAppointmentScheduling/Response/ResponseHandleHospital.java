@@ -11,6 +11,7 @@ public class ResponseHandleHospital {
 	private String failureMessage;
 	private long id;
 	private HospitalVO hospital;
+	private String sessionToken;
 
 	public String getSucessMessage() {
 		return sucessMessage;
@@ -44,6 +45,14 @@ public class ResponseHandleHospital {
 		this.hospital = hospital;
 	}
 
+	public String getSessionToken() {
+		return sessionToken;
+	}
+
+	public void setSessionToken(String sessionToken) {
+		this.sessionToken = sessionToken;
+	}
+
 	@Override
 	public String toString() {
 		return "HospitalControler [sucessMessage=" + sucessMessage + ", failureMessage=" + failureMessage + ", id=" + id
@@ -1,13 +1,35 @@
 package com.HospitalAppointmentScheduling.Service;
 
+import java.io.IOException;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.HospitalAppointmentScheduling.BO.AppointmentsBO;
+import com.HospitalAppointmentScheduling.BO.AvailabilitySearchBO;
+import com.HospitalAppointmentScheduling.BO.AvailabilitySearchBO.FreeDay;
+import com.HospitalAppointmentScheduling.BO.AvailabilityFeedBO;
+import com.HospitalAppointmentScheduling.BO.CareBundleBO;
+import com.HospitalAppointmentScheduling.BO.ColumnarAnalyticsBO;
+import com.HospitalAppointmentScheduling.BO.ColumnarAnalyticsBO.Dimension;
+import com.HospitalAppointmentScheduling.BO.ColumnarAnalyticsBO.Filter;
+import com.HospitalAppointmentScheduling.BO.DoctorLoadBO;
+import com.HospitalAppointmentScheduling.BO.AppointmentCancelBO;
+import com.HospitalAppointmentScheduling.BO.AppointmentCancelBO.CancelReport;
+import com.HospitalAppointmentScheduling.BO.OutboxBO;
+import com.HospitalAppointmentScheduling.BO.RescheduleBO;
+import com.HospitalAppointmentScheduling.BO.RescheduleBO.RescheduleReport;
+import com.HospitalAppointmentScheduling.BO.SlotHoldBO;
+import com.HospitalAppointmentScheduling.BO.SlotHoldBO.Hold;
+import com.HospitalAppointmentScheduling.BO.WaitlistBO;
+import com.HospitalAppointmentScheduling.BO.WaitlistBO.Offer;
+import com.HospitalAppointmentScheduling.BO.WaitlistBO.WaitlistEntry;
 import com.HospitalAppointmentScheduling.CustomExceptions.AppointmentBookingDateException;
 import com.HospitalAppointmentScheduling.CustomExceptions.AppointmentException;
 import com.HospitalAppointmentScheduling.CustomExceptions.DateException;
@@ -18,8 +40,13 @@ import com.HospitalAppointmentScheduling.CustomExceptions.PasswordException;
 import com.HospitalAppointmentScheduling.CustomExceptions.PatientException;
 import com.HospitalAppointmentScheduling.CustomExceptions.PhoneNumberException;
 import com.HospitalAppointmentScheduling.CustomExceptions.ReasonException;
+import com.HospitalAppointmentScheduling.CustomExceptions.WaitlistException;
+import com.HospitalAppointmentScheduling.Entity.AppointmentStatusVO;
 import com.HospitalAppointmentScheduling.Entity.AppointmentsVO;
+import com.HospitalAppointmentScheduling.Entity.DoctorVO;
+import com.HospitalAppointmentScheduling.Entity.PatientVO;
 import com.HospitalAppointmentScheduling.Response.ResponseHandleAppointments;
+import com.HospitalAppointmentScheduling.Service.Sharded.By;
 
 import jakarta.transaction.Transactional;
 
@@ -34,13 +61,45 @@ public class AppointmentsService {
 	@Autowired
 	ResponseHandleAppointments apptsRes;
 
+	@Autowired
+	OutboxBO outbox;
+
+	@Autowired
+	AvailabilityFeedBO availabilityFeed;
+
+	@Autowired
+	WaitlistBO waitlistBO;
+
+	@Autowired
+	RescheduleBO rescheduleBO;
+
+	@Autowired
+	AppointmentCancelBO cancelBO;
+
+	@Autowired
+	CareBundleBO careBundleBO;
+
+	@Autowired
+	ColumnarAnalyticsBO columnarBO;
+
+	@Autowired
+	AvailabilitySearchBO searchBO;
+
+	@Autowired
+	DoctorLoadBO doctorLoadBO;
+
+	@Autowired
+	SlotHoldBO slotHoldBO;
+
 	// Insert method:
+	@Sharded(By.DOCTOR)
 	@Transactional
 	public ResponseHandleAppointments insertAppointments(AppointmentsVO vo) throws IdException, EmailException,
 			PasswordException, PhoneNumberException, AppointmentException, PatientException, DateOfBirthException {
 		log.info("Appointments insert method triggered");
 		AppointmentsVO flag = apptBO.insertAppointments(vo);
 		if (flag != null) {
+			outbox.appointmentEvent("AppointmentBooked", flag);
 			apptsRes.setSucessMessage("Appointments added successfully");
 			apptsRes.setAppoVo(vo);
 		} else {
@@ -49,14 +108,17 @@ public class AppointmentsService {
 		return apptsRes;
 	}
 
+	@Sharded(By.DOCTOR)
 	@Transactional
 	public ResponseHandleAppointments insertAppointmentsWithPatientID(AppointmentsVO vo)
 			throws IdException, EmailException, PasswordException, PhoneNumberException, AppointmentException,
-			PatientException, DateOfBirthException, AppointmentBookingDateException, ReasonException {
+			PatientException, DateOfBirthException, AppointmentBookingDateException, ReasonException,
+			WaitlistException {
 		log.info("Appointments insert method triggered");
 		AppointmentsVO flag = apptBO.insertAppointmentsWithPatientID(vo);
 		log.info("insertAppointments method - Appointment insertion logic executed");
 		if (flag != null) {
+			outbox.appointmentEvent("AppointmentBooked", flag);
 			log.info("Appointment insertion successful");
 			apptsRes.setSucessMessage("Appointments added successfully");
 			apptsRes.setAppoVo(vo);
@@ -67,7 +129,128 @@ public class AppointmentsService {
 		return apptsRes;
 	}
 
+	// the least-loaded doctor of the specialization on that day, for a booking
+	// that names no doctor
+	public long assignDoctor(int specializationId, LocalDate date)
+			throws AppointmentBookingDateException, AppointmentException, WaitlistException {
+		log.info("doctor assignment triggered for specialization " + specializationId);
+		apptBO.validateAppointmentBookingDate(date);
+		return doctorLoadBO.assign(specializationId, date);
+	}
+
+	// waitlist: queue for a fully booked doctor day
+	public ResponseHandleAppointments joinWaitlist(long patientId, long doctorId, LocalDate date, String reason,
+			int priority) throws IdException, AppointmentBookingDateException, ReasonException, WaitlistException {
+		log.info("waitlist join triggered for patient " + patientId);
+		ResponseHandleAppointments apptsRes = new ResponseHandleAppointments();
+		apptBO.validatePatID(patientId);
+		apptBO.validateAppointmentBookingDate(date);
+		apptBO.isValidReason(reason);
+		WaitlistEntry entry = waitlistBO.join(patientId, doctorId, date, reason, priority);
+		apptsRes.setId(entry.entryId());
+		apptsRes.setSucessMessage("You are number " + waitlistBO.position(entry) + " on the waitlist");
+		return apptsRes;
+	}
+
+	public List<Offer> waitlistOffers(long patientId) {
+		return waitlistBO.offersFor(patientId);
+	}
+
+	// books the slot held for the offer; the hold is released once this
+	// transaction commits or rolls back
+	@Sharded(By.DOCTOR)
+	@Transactional
+	public ResponseHandleAppointments acceptWaitlistOffer(long offerId, long patientId) throws WaitlistException,
+			IdException, EmailException, PasswordException, PhoneNumberException, AppointmentException,
+			PatientException, DateOfBirthException, AppointmentBookingDateException, ReasonException {
+		log.info("waitlist offer " + offerId + " accepted by patient " + patientId);
+		ResponseHandleAppointments apptsRes = new ResponseHandleAppointments();
+		Offer offer = waitlistBO.claim(offerId, patientId);
+		waitlistBO.releaseOnCompletion(offer);
+
+		DoctorVO dVO = new DoctorVO();
+		dVO.setDoctorId(offer.entry().doctorId());
+		AppointmentStatusVO asVO = new AppointmentStatusVO();
+		asVO.setStatusName("Pending");
+		PatientVO pVO = new PatientVO();
+		pVO.setPatientId(patientId);
+
+		AppointmentsVO vo = new AppointmentsVO();
+		vo.setAppointmentDate(offer.entry().date());
+		vo.setReason(offer.entry().reason());
+		vo.setDoctor(dVO);
+		vo.setStatus(asVO);
+		vo.setPatient(pVO);
+
+		AppointmentsVO booked = apptBO.insertHeldAppointment(vo);
+		outbox.appointmentEvent("AppointmentBooked", booked);
+		apptsRes.setSucessMessage("Appointments added successfully");
+		apptsRes.setAppoVo(booked);
+		return apptsRes;
+	}
+
+	public void declineWaitlistOffer(long offerId, long patientId) throws WaitlistException {
+		log.info("waitlist offer " + offerId + " declined by patient " + patientId);
+		waitlistBO.decline(offerId, patientId);
+	}
+
+	// first phase of a booking: keeps a slot for the patient while they fill in
+	// the form
+	public Hold holdSlot(long patientId, long doctorId, LocalDate date)
+			throws IdException, AppointmentBookingDateException, WaitlistException {
+		log.info("slot hold triggered for patient " + patientId);
+		apptBO.validatePatID(patientId);
+		apptBO.validateAppointmentBookingDate(date);
+		return slotHoldBO.hold(patientId, doctorId, date);
+	}
+
+	// second phase: books the held slot; the hold is released once this
+	// transaction commits or rolls back
+	@Sharded(By.DOCTOR)
+	@Transactional
+	public ResponseHandleAppointments confirmHold(long holdId, long patientId, String reason)
+			throws WaitlistException, IdException, EmailException, PasswordException, PhoneNumberException,
+			AppointmentException, PatientException, DateOfBirthException, AppointmentBookingDateException,
+			ReasonException {
+		log.info("hold " + holdId + " confirmed by patient " + patientId);
+		ResponseHandleAppointments apptsRes = new ResponseHandleAppointments();
+		Hold hold = slotHoldBO.claim(holdId, patientId);
+		slotHoldBO.releaseOnCompletion(hold);
+
+		DoctorVO dVO = new DoctorVO();
+		dVO.setDoctorId(hold.doctorId());
+		AppointmentStatusVO asVO = new AppointmentStatusVO();
+		asVO.setStatusName("Pending");
+		PatientVO pVO = new PatientVO();
+		pVO.setPatientId(patientId);
+
+		AppointmentsVO vo = new AppointmentsVO();
+		vo.setAppointmentDate(hold.date());
+		vo.setReason(reason);
+		vo.setDoctor(dVO);
+		vo.setStatus(asVO);
+		vo.setPatient(pVO);
+
+		AppointmentsVO booked = apptBO.insertHeldAppointment(vo);
+		outbox.appointmentEvent("AppointmentBooked", booked);
+		apptsRes.setSucessMessage("Appointments added successfully");
+		apptsRes.setAppoVo(booked);
+		return apptsRes;
+	}
+
+	public void cancelHold(long holdId, long patientId) throws WaitlistException {
+		log.info("hold " + holdId + " cancelled by patient " + patientId);
+		slotHoldBO.cancel(holdId, patientId);
+	}
+
+	// the patient of an appointment, null when there is none
+	@Sharded(By.APPOINTMENT)
+	public Long patientOfAppointment(long id) {
+		return apptBO.patientOfAppointment(id);
+	}
+
 	// fetchByID method:
+	@Sharded(By.APPOINTMENT)
 	@Transactional
 	public ResponseHandleAppointments fetchByID(Long id) throws IdException {
 		log.info("Fetch by ID method triggered...");
@@ -101,12 +284,15 @@ public class AppointmentsService {
 	}
 
 	// update method:
+	@Sharded(By.APPOINTMENT)
 	@Transactional
-	public ResponseHandleAppointments update(AppointmentsVO passedData, Long id) throws IdException {
+	public ResponseHandleAppointments update(AppointmentsVO passedData, Long id)
+			throws IdException, AppointmentException {
 		log.info("Appointments update method triggered");
 		AppointmentsVO vo = apptBO.updateAppointmentDetails(passedData, id);
 		log.info("update method - Updating appointment details executed");
 		if (vo != null) {
+			outbox.appointmentEvent("AppointmentUpdated", vo);
 			log.info("Appointment update successful");
 			apptsRes.setSucessMessage("Appointment updated succuessfully");
 			apptsRes.setAppoVo(vo);
@@ -117,7 +303,24 @@ public class AppointmentsService {
 		return apptsRes;
 	}
 
+	// partial update method:
+	@Sharded(By.APPOINTMENT)
+	@Transactional
+	public ResponseHandleAppointments patch(AppointmentsVO passedData, long id)
+			throws IdException, AppointmentBookingDateException, ReasonException, AppointmentException {
+		log.info("Appointments patch method triggered");
+		ResponseHandleAppointments apptsRes = new ResponseHandleAppointments();
+		AppointmentsVO vo = apptBO.patchAppointmentDetails(passedData, id);
+		outbox.appointmentEvent("AppointmentUpdated", vo);
+		apptsRes.setSucessMessage("Appointment updated succuessfully");
+		apptsRes.setAppoVo(vo);
+		log.info("patch method - END");
+		return apptsRes;
+	}
+
 	// delete method:
+	@Sharded(By.APPOINTMENT)
+	@Transactional
 	public ResponseHandleAppointments deleteAppointment(long id) throws IdException {
 		log.info("delete method triggered in the service layer");
 		String res = apptBO.deleteAppointment(id);
@@ -133,6 +336,7 @@ public class AppointmentsService {
 	}
 
 	// fetches all appointments to the respective patient id:
+	@ReadOnlyTransactional
 	public ResponseHandleAppointments findAllApptByPatientId(long id) throws IdException {
 		log.info("Fetching all the appointments with respect to the patient ID method triggered in the service layer");
 
@@ -152,6 +356,73 @@ public class AppointmentsService {
 		return apptsRes;
 	}
 
+	// opens the live availability stream of a doctor for a range of days
+	public SseEmitter subscribeAvailability(long doctorId, LocalDate from, LocalDate to)
+			throws DateException, IOException {
+		log.info("availability feed subscription for doctor " + doctorId + " from " + from + " to " + to);
+		if (from.isAfter(to)) {
+			throw new DateException("ERROR: start date could be before the end date");
+		}
+		if (ChronoUnit.DAYS.between(from, to) >= availabilityFeed.getMaxRangeDays()) {
+			throw new DateException(
+					"ERROR: availability can be watched for at most " + availabilityFeed.getMaxRangeDays() + " days");
+		}
+		return availabilityFeed.subscribe(doctorId, from, to);
+	}
+
+	// books all the appointments of a care bundle or none of them
+	@Sharded(By.DOCTOR)
+	@Transactional
+	public ResponseHandleAppointments bookCareBundle(long patientId, List<AppointmentsVO> appts)
+			throws IdException, AppointmentException, AppointmentBookingDateException, ReasonException,
+			EmailException, PasswordException, PhoneNumberException, PatientException, DateOfBirthException {
+		log.info("care bundle booking triggered for patient " + patientId);
+		ResponseHandleAppointments apptsRes = new ResponseHandleAppointments();
+		List<AppointmentsVO> booked = careBundleBO.book(patientId, appts);
+		for (AppointmentsVO vo : booked) {
+			outbox.appointmentEvent("AppointmentBooked", vo);
+		}
+		apptsRes.setSucessMessage(booked.size() + " appointments booked");
+		apptsRes.setList(booked);
+		return apptsRes;
+	}
+
+	// moves all appointments of an unavailable doctor between two days to
+	// doctors of the same specialization in the same hospital
+	@Sharded(By.DOCTOR)
+	@Transactional
+	public RescheduleReport rescheduleDoctor(long doctorId, LocalDate from, LocalDate to, boolean dryRun)
+			throws IdException, DateException, AppointmentBookingDateException, AppointmentException {
+		log.info("batch reschedule for doctor " + doctorId + " from " + from + " to " + to);
+		if (from.isAfter(to)) {
+			throw new DateException("ERROR: start date could be before the end date");
+		}
+		apptBO.validateAppointmentBookingDate(from);
+		return rescheduleBO.reschedule(doctorId, from, to, dryRun);
+	}
+
+	// bulk cancellation; each shard involved commits on its own
+	public CancelReport cancelAppointments(List<Long> ids) throws IdException {
+		log.info("bulk cancel of " + (ids == null ? 0 : ids.size()) + " appointment IDs");
+		return cancelBO.cancelByIds(ids);
+	}
+
+	@Sharded(By.DOCTOR)
+	@Transactional
+	public CancelReport cancelDoctorAppointments(long doctorId, LocalDate from, LocalDate to)
+			throws IdException, DateException {
+		log.info("bulk cancel for doctor " + doctorId + " from " + from + " to " + to);
+		if (from.isAfter(to)) {
+			throw new DateException("ERROR: start date could be before the end date");
+		}
+		return cancelBO.cancelForDoctor(doctorId, from, to);
+	}
+
+	public CancelReport cancelHospitalAppointments(long hospitalId, LocalDate date) throws IdException {
+		log.info("bulk cancel for hospital " + hospitalId + " on " + date);
+		return cancelBO.cancelForHospital(hospitalId, date);
+	}
+
 	// returns the number that the particular date having count
 	public ResponseHandleAppointments countOfAppointmentsByDate(LocalDate date) {
 		log.info("Appointments on the given date count method triggered");
@@ -168,6 +439,43 @@ public class AppointmentsService {
 		return apptsRes;
 	}
 
+	// returns the number of appointments of a doctor on the date
+	public ResponseHandleAppointments countOfAppointmentsByDoctorAndDate(long doctorId, LocalDate date) {
+		log.info("Appointments of the doctor on the given date count method triggered");
+		ResponseHandleAppointments apptsRes = new ResponseHandleAppointments();
+		long ret = apptBO.countOfAppointmentsByDoctorAndDate(doctorId, date);
+		apptsRes.setApptsCount(ret);
+		apptsRes.setSucessMessage("fetched successfully");
+		return apptsRes;
+	}
+
+	// appointment counts grouped by date, doctor, patient, status or reason,
+	// answered from the in-memory columnar snapshot instead of the database
+	public Map<String, Long> appointmentCounts(String by, LocalDate from, LocalDate to, Long doctorId,
+			Long patientId, String status, int top) throws DateException, AppointmentException {
+		log.info("appointment counts by " + by + " triggered");
+		if (from != null && to != null && from.isAfter(to)) {
+			throw new DateException("ERROR: start date could be before the end date");
+		}
+		Dimension dimension;
+		try {
+			dimension = Dimension.valueOf(by.toUpperCase());
+		} catch (IllegalArgumentException e) {
+			throw new AppointmentException("ERROR: counts can be grouped by date, doctor, patient, status or reason");
+		}
+		return columnarBO.count(dimension, new Filter(from, to, doctorId, patientId, status), top);
+	}
+
+	// the earliest days any doctor of the specialization has a free slot
+	public List<FreeDay> earliestAvailable(int specializationId, Long hospitalId, Integer cityId, LocalDate from,
+			int limit) throws AppointmentException {
+		log.info("earliest available search triggered");
+		if (limit < 1 || limit > searchBO.getMaxResults()) {
+			throw new AppointmentException("ERROR: limit should be between 1 and " + searchBO.getMaxResults());
+		}
+		return searchBO.search(specializationId, hospitalId, cityId, from, limit);
+	}
+
 	// fetching appt details between two dates
 	@Transactional
 	public ResponseHandleAppointments findAppointmentsByPatientIdAndDateRange(LocalDate sd, LocalDate ld, long id)
@@ -204,6 +512,7 @@ public class AppointmentsService {
 	}
 
 	// ascending order:
+	@ReadOnlyTransactional
 	public ResponseHandleAppointments acendingDate() throws AppointmentException {
 		log.info("Fetching the patient details in ascending order method triggered...");
 		List<AppointmentsVO> list = apptBO.ascendingDate();
@@ -5,6 +5,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.HospitalAppointmentScheduling.BO.HospitalBO;
+import com.HospitalAppointmentScheduling.BO.SessionTokenBO;
 import com.HospitalAppointmentScheduling.Entity.HospitalVO;
 import com.HospitalAppointmentScheduling.Response.ResponseHandleHospital;
 
@@ -14,16 +15,19 @@ public class HospitalService {
 	private HospitalBO hospitalBO;
 
 	@Autowired
-	private ResponseHandleHospital resHos;
+	private SessionTokenBO sessionTokenBO;
 
 	Logger log = Logger.getLogger(HospitalService.class);
 
-	// hospital admin authentication
+	// hospital admin authentication: answers with its own response object,
+	// as the patient login does, since it carries the admin's session token
 	public ResponseHandleHospital hospitalAuthentication(String email, String password) {
+		ResponseHandleHospital resHos = new ResponseHandleHospital();
 		HospitalVO vo = hospitalBO.hospitalAuthentication(email, password);
 		if (vo != null) {
 			resHos.setSucessMessage("Hospital Admin ID available");
 			resHos.setHospital(vo);
+			resHos.setSessionToken(sessionTokenBO.issueAdmin(vo.getHospitalId()));
 //			resHos.setFailureMessage(null);
 		} else {
 //			resHos.setSucessMessage(null);
@@ -7,19 +7,23 @@ import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.HospitalAppointmentScheduling.BO.OutboxBO;
 import com.HospitalAppointmentScheduling.BO.PatientBO;
+import com.HospitalAppointmentScheduling.BO.SessionTokenBO;
 import com.HospitalAppointmentScheduling.CustomExceptions.AppointmentBookingDateException;
 import com.HospitalAppointmentScheduling.CustomExceptions.AppointmentException;
 import com.HospitalAppointmentScheduling.CustomExceptions.DateException;
 import com.HospitalAppointmentScheduling.CustomExceptions.DateOfBirthException;
 import com.HospitalAppointmentScheduling.CustomExceptions.EmailException;
 import com.HospitalAppointmentScheduling.CustomExceptions.IdException;
+import com.HospitalAppointmentScheduling.CustomExceptions.LoginException;
 import com.HospitalAppointmentScheduling.CustomExceptions.PasswordException;
 import com.HospitalAppointmentScheduling.CustomExceptions.PatientException;
 import com.HospitalAppointmentScheduling.CustomExceptions.PhoneNumberException;
 import com.HospitalAppointmentScheduling.CustomExceptions.ReasonException;
 import com.HospitalAppointmentScheduling.CustomExceptions.genderException;
 import com.HospitalAppointmentScheduling.DAO.PatientProjection;
+import com.HospitalAppointmentScheduling.Entity.AppointmentsVO;
 import com.HospitalAppointmentScheduling.Entity.PatientVO;
 import com.HospitalAppointmentScheduling.Response.ResponseHandle;
 
@@ -33,20 +37,27 @@ public class PatientService {
 	@Autowired
 	private ResponseHandle response;
 
+	@Autowired
+	private SessionTokenBO sessionTokenBO;
+
+	@Autowired
+	private OutboxBO outbox;
+
 	Logger log = Logger.getLogger(PatientService.class);
 
-	// patient authentication method:
-	public ResponseHandle patientAuthentication(String email, String password) {
+	// patient authentication method: answers with its own response object,
+	// the shared one would hand a concurrent login this patient's token
+	public ResponseHandle patientAuthentication(String email, String password) throws LoginException {
+		ResponseHandle login = new ResponseHandle();
 		PatientVO vo = patientBO.patientAuthentication(email, password);
 		if (vo != null) {
-			response.setSucessMessage("Patient ID available in the db");
-			response.setFailureMessage(null);
-			response.setPatient(vo);
+			login.setSucessMessage("Patient ID available in the db");
+			login.setPatient(vo);
+			login.setSessionToken(sessionTokenBO.issue(vo.getPatientId()));
 		} else {
-			response.setSucessMessage(null);
-			response.setFailureMessage("patient don't have any account in the database");
+			login.setFailureMessage("patient don't have any account in the database");
 		}
-		return response;
+		return login;
 	}
 
 	// insert method
@@ -57,6 +68,7 @@ public class PatientService {
 		PatientVO flag = patientBO.insertPatientDetails(vo);
 		log.info("insertPatientDetails called in BO layer");
 		if (flag != null) {
+			outbox.patientEvent("PatientRegistered", flag);
 			String pass = "Patient details successfully inserted for Patient ID: " + flag.getPatientId();
 			log.info(pass);
 			response.setSucessMessage("patient Details added successfully");
@@ -111,6 +123,7 @@ public class PatientService {
 		PatientVO flag = patientBO.updatePatientDetails(vo, id);
 		log.info("updatePatientDetails called in BO layer");
 		if (flag != null) {
+			outbox.patientEvent("PatientUpdated", flag);
 			String pass = "Successfully updated patient details for Patient ID: " + vo.getPatientId();
 			log.info(pass);
 			response.setSucessMessage("updated the patient details successfully for the patient ID: ");
@@ -122,11 +135,26 @@ public class PatientService {
 		return response;
 	}
 
+	// partial update method
+	@Transactional
+	public ResponseHandle patchPatientDetails(PatientVO vo, long id) throws IdException, PatientException,
+			PhoneNumberException, EmailException, PasswordException, genderException, DateOfBirthException {
+		log.info("Patch method triggered...");
+		PatientVO flag = patientBO.patchPatientDetails(vo, id);
+		outbox.patientEvent("PatientUpdated", flag);
+		log.info("Successfully patched patient details for Patient ID: " + id);
+		response.setSucessMessage("updated the patient details successfully for the patient ID: ");
+		response.setPatient(flag);
+		return response;
+	}
+
 	// delete method:
+	@Transactional
 	public ResponseHandle deletePatient(long id) throws IdException {
 		log.info("delete method triggered in the service layer");
 		String res = patientBO.deletePatient(id);
 		if (!res.isEmpty()) {
+			outbox.deleted(OutboxBO.PATIENT, "PatientDeleted", id);
 			String pass = "successfully deleted the patient details for the patient ID: " + id;
 			log.info(pass);
 			response.setSucessMessage("Deleted successfully");
@@ -137,6 +165,18 @@ public class PatientService {
 
 	}
 
+	// bulk delete, IDs that do not exist are skipped
+	@Transactional
+	public ResponseHandle deletePatients(List<Long> ids) throws IdException {
+		log.info("bulk delete of " + (ids == null ? 0 : ids.size()) + " patients triggered in the service layer");
+		List<Long> deleted = patientBO.deletePatients(ids);
+		for (long id : deleted) {
+			outbox.deleted(OutboxBO.PATIENT, "PatientDeleted", id);
+		}
+		response.setSucessMessage("Deleted " + deleted.size() + " patients: " + deleted);
+		return response;
+	}
+
 	// Associate method:
 	@Transactional(rollbackOn = { PatientException.class, PhoneNumberException.class, EmailException.class,
 			PasswordException.class, AppointmentException.class, AppointmentBookingDateException.class,
@@ -148,6 +188,10 @@ public class PatientService {
 		PatientVO inserted = patientBO.associate(vo);
 		log.info("associate method called in BO layer");
 		if (inserted != null) {
+			outbox.patientEvent("PatientRegistered", inserted);
+			for (AppointmentsVO appt : inserted.getAppointments()) {
+				outbox.appointmentEvent("AppointmentBooked", appt);
+			}
 			String pass = "Appointment successfully added for Patient ID: " + inserted.getPatientId();
 			log.info(pass);
 			response.setSucessMessage("Appointment added successfully");
@@ -178,6 +222,7 @@ public class PatientService {
 	}
 
 	// fetch by day appointments:
+	@ReadOnlyTransactional
 	public ResponseHandle findapptDay(LocalDate td) throws AppointmentException {
 		log.info("Find the appointments by the Date method triggered...");
 		List<PatientVO> list = patientBO.fetchapptDay(td);
@@ -210,6 +255,7 @@ public class PatientService {
 	}
 
 	// Appointment by between two days:
+	@ReadOnlyTransactional
 	public ResponseHandle betweenTwoDOBpat(LocalDate sd, LocalDate ld) throws DateException {
 		log.info(
 				"Fetching the patient details by two date who all are having Date Of Birth between the two dates method triggered...");
@@ -231,6 +277,7 @@ public class PatientService {
 	}
 
 	// ascending order:
+	@ReadOnlyTransactional
 	public ResponseHandle ascending() throws AppointmentException {
 		log.info("Fetching the patient details in ascending order method triggered...");
 		List<PatientVO> list = patientBO.ascending();
@@ -247,6 +294,7 @@ public class PatientService {
 	}
 
 	// find Most Common DOB
+	@ReadOnlyTransactional
 	public ResponseHandle findMostCommonDOB() {
 		log.info("Fetching the patient phone number recently added method triggered...");
 		List<LocalDate> ld = patientBO.findMostCommonDOB();
@@ -264,6 +312,7 @@ public class PatientService {
 	}
 
 	// find Patient With Most Appointments
+	@ReadOnlyTransactional
 	public ResponseHandle findPatientWithMostAppointments() {
 		log.info("Fetching the patient having more appointments method triggered");
 		List<PatientVO> list = patientBO.findPatientWithMostAppointments();
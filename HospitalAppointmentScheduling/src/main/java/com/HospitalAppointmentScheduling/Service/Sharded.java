@@ -0,0 +1,21 @@
+package com.HospitalAppointmentScheduling.Service;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Runs the method on the shard of the doctor or appointment it works on. The
+// doctor comes from an AppointmentsVO argument, a list of them or a doctorId
+// parameter, or the open waitlist offer in an offerId parameter; the
+// appointment from an id or appointmentId parameter.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Sharded {
+
+	enum By {
+		DOCTOR, APPOINTMENT
+	}
+
+	By value();
+}
@@ -0,0 +1,22 @@
+package com.HospitalAppointmentScheduling.WebConfig;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class AnalyticsPoolConfig {
+
+	@Value("${analytics.columnar.parallelism:0}")
+	private int parallelism;
+
+	// fork-join scans of the columnar snapshot get their own pool, so a big
+	// report does not take the common pool from everything else; 0 means one
+	// thread per core
+	@Bean(name = "analyticsPool", destroyMethod = "shutdown")
+	public ForkJoinPool analyticsPool() {
+		return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+	}
+}
@@ -0,0 +1,85 @@
+package com.HospitalAppointmentScheduling.WebConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+// With datasource.replicas.enabled the application DataSource routes by
+// transaction: @ReadOnlyTransactional methods read from the replicas, all
+// other work goes to spring.datasource.url. The lazy proxy only picks the
+// real connection at the first statement, after the transaction has marked
+// it read-only. Without the flag Spring Boot's single DataSource is used.
+// Sharded mode brings its own routing, see ShardingConfig, and replicas are
+// not used with it.
+@Configuration
+@ConditionalOnExpression("${datasource.replicas.enabled:false} && !${datasource.shards.enabled:false}")
+public class DataSourceRoutingConfig {
+
+	@Autowired
+	private ReplicaProperties replicaProps;
+
+	@Bean(destroyMethod = "close")
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties props) {
+		return props.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+
+	@Bean(destroyMethod = "close")
+	public ReplicaDataSource replicaDataSource(DataSourceProperties props, HikariDataSource primaryDataSource) {
+		List<DataSource> replicas = new ArrayList<>();
+		for (String url : replicaProps.getUrls()) {
+			HikariDataSource ds = DataSourceBuilder.create().type(HikariDataSource.class)
+					.driverClassName(props.determineDriverClassName()).url(url)
+					.username(replicaProps.getUsername() != null ? replicaProps.getUsername() : props.determineUsername())
+					.password(replicaProps.getPassword() != null ? replicaProps.getPassword() : props.determinePassword())
+					.build();
+			ds.setReadOnly(true);
+			replicas.add(ds);
+		}
+		ReplicaDataSource replicaDataSource = new ReplicaDataSource(primaryDataSource, replicas);
+		replicaDataSource.checkLag(replicaProps.getLagQuery(), replicaProps.getMaxLagSeconds());
+		return replicaDataSource;
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaDataSource replicaDataSource) {
+		LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primaryDataSource);
+		proxy.setReadOnlyDataSource(replicaDataSource);
+		return proxy;
+	}
+
+	@Bean
+	public ReplicaLagMonitor replicaLagMonitor(ReplicaDataSource replicaDataSource) {
+		return new ReplicaLagMonitor(replicaDataSource, replicaProps);
+	}
+
+	public static class ReplicaLagMonitor {
+		private final ReplicaDataSource replicas;
+		private final ReplicaProperties props;
+
+		ReplicaLagMonitor(ReplicaDataSource replicas, ReplicaProperties props) {
+			this.replicas = replicas;
+			this.props = props;
+		}
+
+		@Scheduled(fixedDelayString = "${datasource.replicas.lag-check-ms:2000}")
+		public void check() {
+			replicas.checkLag(props.getLagQuery(), props.getMaxLagSeconds());
+		}
+	}
+}
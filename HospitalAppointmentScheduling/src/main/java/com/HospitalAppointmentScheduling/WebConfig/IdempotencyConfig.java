@@ -0,0 +1,41 @@
+package com.HospitalAppointmentScheduling.WebConfig;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.HospitalAppointmentScheduling.BO.IdempotencyStore;
+import com.HospitalAppointmentScheduling.BO.InMemoryIdempotencyStore;
+import com.HospitalAppointmentScheduling.DAO.IdempotencyKeyDAO;
+
+@Configuration
+public class IdempotencyConfig {
+
+	@Value("${idempotency.ttl-minutes:1440}")
+	private long ttlMinutes;
+
+	// how long a claimed key waits for its request before another node may
+	// take it over, longer than any request is expected to run
+	@Value("${idempotency.lease-seconds:60}")
+	private long leaseSeconds;
+
+	@Value("${idempotency.max-entries:100000}")
+	private int maxEntries;
+
+	// idempotency.store=table shares the keys between nodes through the
+	// database, the default keeps them in this node's memory
+	@Bean
+	@ConditionalOnProperty(name = "idempotency.store", havingValue = "table")
+	public IdempotencyStore tableIdempotencyStore(JdbcTemplate jdbc) {
+		return new IdempotencyKeyDAO(jdbc, ttlMinutes * 60_000, leaseSeconds * 1000);
+	}
+
+	@Bean
+	@ConditionalOnMissingBean(IdempotencyStore.class)
+	public IdempotencyStore idempotencyStore() {
+		return new InMemoryIdempotencyStore(ttlMinutes * 60_000, maxEntries);
+	}
+}
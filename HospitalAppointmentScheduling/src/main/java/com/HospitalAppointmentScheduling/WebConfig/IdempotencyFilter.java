@@ -0,0 +1,159 @@
+package com.HospitalAppointmentScheduling.WebConfig;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.HospitalAppointmentScheduling.BO.IdempotencyStore;
+import com.HospitalAppointmentScheduling.BO.IdempotencyStore.Claim;
+import com.HospitalAppointmentScheduling.BO.IdempotencyStore.StoredResponse;
+import com.HospitalAppointmentScheduling.BO.SessionTokenBO;
+import com.HospitalAppointmentScheduling.Controller.LoginAuthenticationController;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// POST, PUT and PATCH requests carrying an Idempotency-Key header run once
+// per key: a retry with the same key and body gets the stored response back
+// without reaching the controllers, a retry while the first is still running
+// gets 409, and reusing a key for a different body gets 422. Only successful
+// responses are stored; a refused request changed nothing, so the client's
+// next retry runs again and may get in once a slot is free.
+// Keys are per caller: the patient of a valid session token, else the client
+// IP, so one caller cannot replay or block another's request by reusing its
+// key. Runs after the rate limiter, so replays still count against it.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+	Logger log = Logger.getLogger(IdempotencyFilter.class);
+
+	public static final String HEADER = "Idempotency-Key";
+	public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+	private static final int MAX_KEY_LENGTH = 128;
+
+	@Autowired
+	IdempotencyStore store;
+
+	@Autowired
+	SessionTokenBO sessionTokens;
+
+	@Autowired
+	RateLimitProperties rateLimitProps;
+
+	@Value("${idempotency.enabled:true}")
+	boolean enabled = true;
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		String key = request.getHeader(HEADER);
+		String method = request.getMethod();
+		if (!enabled || key == null || !("POST".equals(method) || "PUT".equals(method) || "PATCH".equals(method))) {
+			chain.doFilter(request, response);
+			return;
+		}
+		if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+			write(response, HttpStatus.BAD_REQUEST.value(),
+					"ERROR: " + HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+			return;
+		}
+
+		byte[] body = request.getInputStream().readAllBytes();
+		request = new RateLimitFilter.CachedBodyRequest(request, body);
+		String path = request.getRequestURI().substring(request.getContextPath().length());
+		// hashed, caller, path and key together can outgrow the key column
+		String scopedKey = digest(caller(request) + " " + method + " " + path + " " + key, new byte[0]);
+		Claim claim = store.claim(scopedKey, digest(request.getQueryString(), body));
+		switch (claim.outcome()) {
+		case REPLAY:
+			StoredResponse stored = claim.response();
+			log.info("replaying the response for " + method + " " + path + " " + key);
+			response.setStatus(stored.status());
+			response.setHeader(REPLAYED_HEADER, "true");
+			if (stored.contentType() != null) {
+				response.setContentType(stored.contentType());
+			}
+			response.getOutputStream().write(stored.body());
+			return;
+		case IN_PROGRESS:
+			write(response, HttpStatus.CONFLICT.value(), "ERROR: a request with this " + HEADER
+					+ " is still being processed");
+			return;
+		case MISMATCH:
+			write(response, HttpStatus.UNPROCESSABLE_ENTITY.value(),
+					"ERROR: this " + HEADER + " was already used for a different request");
+			return;
+		default:
+			break;
+		}
+
+		ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+		boolean kept = false;
+		try {
+			chain.doFilter(request, wrapper);
+			if (isStored(wrapper.getStatus())) {
+				store.complete(scopedKey,
+						new StoredResponse(wrapper.getStatus(), wrapper.getContentType(), wrapper.getContentAsByteArray()));
+				kept = true;
+			}
+		} finally {
+			if (!kept) {
+				store.abandon(scopedKey);
+			}
+			wrapper.copyBodyToResponse();
+		}
+	}
+
+	// a 4xx can come from a request that was fine but found the day full or
+	// the slots locked, and the controllers answer those with 400 like a
+	// validation error, so only 2xx is kept
+	private boolean isStored(int status) {
+		return status >= 200 && status < 300;
+	}
+
+	// the session is checked again here, the interceptor only runs later
+	private String caller(HttpServletRequest request) {
+		String token = request.getHeader(LoginAuthenticationController.SESSION_HEADER);
+		Long patientId = sessionTokens.verify(token);
+		if (patientId != null) {
+			return "patient:" + patientId;
+		}
+		Long hospitalId = sessionTokens.verifyAdmin(token);
+		return hospitalId != null ? "admin:" + hospitalId : "ip:" + RateLimitFilter.clientIp(request, rateLimitProps);
+	}
+
+	private String digest(String prefix, byte[] body) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			if (prefix != null) {
+				digest.update(prefix.getBytes(StandardCharsets.UTF_8));
+			}
+			digest.update((byte) 0);
+			return HexFormat.of().formatHex(digest.digest(body));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("ERROR: SHA-256 is not available", e);
+		}
+	}
+
+	private void write(HttpServletResponse response, int status, String message) throws IOException {
+		response.setStatus(status);
+		response.setContentType("text/plain");
+		response.getWriter().write(message);
+	}
+}
@@ -0,0 +1,42 @@
+package com.HospitalAppointmentScheduling.WebConfig;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.HospitalAppointmentScheduling.BO.LeaderElectionBO;
+import com.HospitalAppointmentScheduling.BO.LeaderElectionBO.Lease;
+import com.HospitalAppointmentScheduling.BO.LeaderOnly;
+
+// Skips a @LeaderOnly job on every node but the one holding its lease, and
+// puts the lease on the thread for the job's fencing checks. Jobs are void,
+// so a skipped run returns null.
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class LeaderOnlyAspect {
+
+	@Autowired
+	LeaderElectionBO leaderElection;
+
+	@Around("@annotation(leaderOnly)")
+	public Object lead(ProceedingJoinPoint pjp, LeaderOnly leaderOnly) throws Throwable {
+		if (!leaderElection.isEnabled()) {
+			return pjp.proceed();
+		}
+		Lease lease = leaderElection.tryLead(leaderOnly.value());
+		if (lease == null) {
+			return null;
+		}
+		Lease previous = LeaderElectionBO.enter(lease);
+		try {
+			return pjp.proceed();
+		} finally {
+			LeaderElectionBO.leave(previous);
+		}
+	}
+}
@@ -0,0 +1,34 @@
+package com.HospitalAppointmentScheduling.WebConfig;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class LoginPoolConfig {
+
+	@Value("${login.pool.size:4}")
+	private int poolSize;
+
+	@Value("${login.pool.queue:64}")
+	private int queueSize;
+
+	// password hashing is CPU bound, so it runs on its own small pool with a
+	// bounded queue instead of on the request threads. When the queue is full
+	// the submit is rejected and the login answers "busy" straight away.
+	@Bean(name = "loginExecutor", destroyMethod = "shutdown")
+	public ThreadPoolExecutor loginExecutor() {
+		AtomicInteger count = new AtomicInteger();
+		return new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueSize), r -> {
+					Thread t = new Thread(r, "login-hash-" + count.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				}, new ThreadPoolExecutor.AbortPolicy());
+	}
+}
@@ -0,0 +1,16 @@
+package com.HospitalAppointmentScheduling.WebConfig;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Handlers working on one patient's data. The value names the path variable
+// or request parameter holding the patient ID; a patient's session token must
+// carry the same ID, an admin token may act for any patient.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PatientScoped {
+
+	String value();
+}
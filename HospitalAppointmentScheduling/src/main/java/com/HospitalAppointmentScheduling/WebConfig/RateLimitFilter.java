@@ -0,0 +1,183 @@
+package com.HospitalAppointmentScheduling.WebConfig;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.HospitalAppointmentScheduling.BO.RateLimitBO;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Throttles the configured routes before they reach the controllers, so a
+// rejected request never touches the database.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+	Logger log = Logger.getLogger(RateLimitFilter.class);
+
+	@Autowired
+	private RateLimitProperties props;
+
+	@Autowired
+	private RateLimitBO rateLimitBO;
+
+	private final AntPathMatcher matcher = new AntPathMatcher();
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		RateLimitProperties.Route route = props.isEnabled() ? findRoute(request) : null;
+		if (route == null) {
+			chain.doFilter(request, response);
+			return;
+		}
+
+		if (!rateLimitBO.tryAcquireIp(route, clientIp(request, props))) {
+			reject(response, route, "too many requests from this client");
+			return;
+		}
+
+		if (route.getAccountField() != null) {
+			// a login body is tiny, the read stops one byte past the limit
+			int max = props.getMaxBodyBytes();
+			byte[] body = request.getContentLengthLong() > max ? null
+					: request.getInputStream().readNBytes(max + 1);
+			if (body == null || body.length > max) {
+				log.info("rate limit: body over " + max + " bytes on " + route.getPath());
+				response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+				response.setContentType("text/plain");
+				response.getWriter().write("request body too large");
+				return;
+			}
+			request = new CachedBodyRequest(request, body);
+			String account = readAccount(body, route.getAccountField());
+			if (account != null && !rateLimitBO.tryAcquireAccount(route, account)) {
+				reject(response, route, "too many attempts for this account");
+				return;
+			}
+		}
+
+		rateLimitBO.recordAllowed(route);
+		chain.doFilter(request, response);
+	}
+
+	private RateLimitProperties.Route findRoute(HttpServletRequest request) {
+		String path = request.getRequestURI().substring(request.getContextPath().length());
+		for (RateLimitProperties.Route route : props.getRoutes()) {
+			if (matcher.match(route.getPath(), path)) {
+				return route;
+			}
+		}
+		return null;
+	}
+
+	// also the caller of an idempotent request without a session
+	static String clientIp(HttpServletRequest request, RateLimitProperties props) {
+		if (props.isTrustForwardedFor()) {
+			String forwarded = request.getHeader("X-Forwarded-For");
+			if (forwarded != null && !forwarded.isEmpty()) {
+				int comma = forwarded.indexOf(',');
+				return (comma < 0 ? forwarded : forwarded.substring(0, comma)).trim();
+			}
+		}
+		return request.getRemoteAddr();
+	}
+
+	private String readAccount(byte[] body, String field) {
+		try {
+			JsonNode node = mapper.readTree(body);
+			JsonNode value = node == null ? null : node.get(field);
+			return value == null || !value.isTextual() ? null : value.asText();
+		} catch (IOException e) {
+			// not JSON, the controller will reject it
+			return null;
+		}
+	}
+
+	private void reject(HttpServletResponse response, RateLimitProperties.Route route, String message)
+			throws IOException {
+		log.info("rate limit: " + message + " on " + route.getPath());
+		response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+		response.setHeader("Retry-After", "1");
+		response.setContentType("text/plain");
+		response.getWriter().write(message);
+	}
+
+	// replays the body that was read to find the account
+	static class CachedBodyRequest extends HttpServletRequestWrapper {
+		private final byte[] body;
+
+		CachedBodyRequest(HttpServletRequest request, byte[] body) {
+			super(request);
+			this.body = body;
+		}
+
+		@Override
+		public ServletInputStream getInputStream() {
+			ByteArrayInputStream in = new ByteArrayInputStream(body);
+			return new ServletInputStream() {
+				@Override
+				public int read() {
+					return in.read();
+				}
+
+				@Override
+				public int read(byte[] b, int off, int len) {
+					return in.read(b, off, len);
+				}
+
+				@Override
+				public boolean isFinished() {
+					return in.available() == 0;
+				}
+
+				@Override
+				public boolean isReady() {
+					return true;
+				}
+
+				// the whole body is in memory, so it is all available at once
+				@Override
+				public void setReadListener(ReadListener listener) {
+					try {
+						if (!isFinished()) {
+							listener.onDataAvailable();
+						}
+						listener.onAllDataRead();
+					} catch (IOException e) {
+						listener.onError(e);
+					}
+				}
+			};
+		}
+
+		@Override
+		public int getContentLength() {
+			return body.length;
+		}
+
+		@Override
+		public long getContentLengthLong() {
+			return body.length;
+		}
+	}
+}
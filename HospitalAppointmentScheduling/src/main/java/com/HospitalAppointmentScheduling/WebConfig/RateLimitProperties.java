@@ -0,0 +1,119 @@
+package com.HospitalAppointmentScheduling.WebConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "ratelimit")
+public class RateLimitProperties {
+
+	private boolean enabled = true;
+	private long idleMinutes = 10;
+	// only enable behind a proxy that overwrites X-Forwarded-For
+	private boolean trustForwardedFor = false;
+	// largest body read to find the account, anything longer is refused
+	private int maxBodyBytes = 8 * 1024;
+	private List<Route> routes = new ArrayList<>();
+
+	// one throttled route: a client IP bucket and, when accountField is set, a
+	// bucket per account read from that field of the JSON body
+	public static class Route {
+		private String path;
+		private int ipCapacity = 20;
+		private double ipRefillPerSecond = 1;
+		private String accountField;
+		private int accountCapacity = 5;
+		private double accountRefillPerSecond = 0.1;
+
+		public String getPath() {
+			return path;
+		}
+
+		public void setPath(String path) {
+			this.path = path;
+		}
+
+		public int getIpCapacity() {
+			return ipCapacity;
+		}
+
+		public void setIpCapacity(int ipCapacity) {
+			this.ipCapacity = ipCapacity;
+		}
+
+		public double getIpRefillPerSecond() {
+			return ipRefillPerSecond;
+		}
+
+		public void setIpRefillPerSecond(double ipRefillPerSecond) {
+			this.ipRefillPerSecond = ipRefillPerSecond;
+		}
+
+		public String getAccountField() {
+			return accountField;
+		}
+
+		public void setAccountField(String accountField) {
+			this.accountField = accountField;
+		}
+
+		public int getAccountCapacity() {
+			return accountCapacity;
+		}
+
+		public void setAccountCapacity(int accountCapacity) {
+			this.accountCapacity = accountCapacity;
+		}
+
+		public double getAccountRefillPerSecond() {
+			return accountRefillPerSecond;
+		}
+
+		public void setAccountRefillPerSecond(double accountRefillPerSecond) {
+			this.accountRefillPerSecond = accountRefillPerSecond;
+		}
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public long getIdleMinutes() {
+		return idleMinutes;
+	}
+
+	public void setIdleMinutes(long idleMinutes) {
+		this.idleMinutes = idleMinutes;
+	}
+
+	public boolean isTrustForwardedFor() {
+		return trustForwardedFor;
+	}
+
+	public void setTrustForwardedFor(boolean trustForwardedFor) {
+		this.trustForwardedFor = trustForwardedFor;
+	}
+
+	public int getMaxBodyBytes() {
+		return maxBodyBytes;
+	}
+
+	public void setMaxBodyBytes(int maxBodyBytes) {
+		this.maxBodyBytes = maxBodyBytes;
+	}
+
+	public List<Route> getRoutes() {
+		return routes;
+	}
+
+	public void setRoutes(List<Route> routes) {
+		this.routes = routes;
+	}
+}
@@ -0,0 +1,44 @@
+package com.HospitalAppointmentScheduling.WebConfig;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.HospitalAppointmentScheduling.BO.LogReminderSender;
+import com.HospitalAppointmentScheduling.BO.ReminderSender;
+
+@Configuration
+public class ReminderConfig {
+
+	@Value("${reminder.senders:2}")
+	private int senders;
+
+	@Value("${reminder.queue:1000}")
+	private int queueSize;
+
+	@Bean
+	@ConditionalOnMissingBean(ReminderSender.class)
+	public ReminderSender reminderSender() {
+		return new LogReminderSender();
+	}
+
+	// sending can be slow, so it runs off the thread that turns the wheel. A
+	// full queue makes the wheel thread send itself, which slows the ticks
+	// down instead of dropping reminders.
+	@Bean(name = "reminderExecutor", destroyMethod = "shutdown")
+	public ThreadPoolExecutor reminderExecutor() {
+		AtomicInteger count = new AtomicInteger();
+		return new ThreadPoolExecutor(senders, senders, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueSize), r -> {
+					Thread t = new Thread(r, "reminder-send-" + count.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				}, new ThreadPoolExecutor.CallerRunsPolicy());
+	}
+}
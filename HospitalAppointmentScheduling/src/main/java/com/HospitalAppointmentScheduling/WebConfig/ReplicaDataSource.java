@@ -0,0 +1,126 @@
+package com.HospitalAppointmentScheduling.WebConfig;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.apache.log4j.Logger;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+// Connections for read-only transactions. Replicas are used round robin while
+// their lag stays under maxLagSeconds; a replica that lags, stops replicating
+// or refuses a connection is skipped until a later check finds it healthy,
+// and with no healthy replica reads fall back to the primary.
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+
+	Logger log = Logger.getLogger(ReplicaDataSource.class);
+
+	private final DataSource primary;
+	private final List<DataSource> replicas;
+	private final boolean[] healthy;
+	private final AtomicInteger next = new AtomicInteger();
+
+	public ReplicaDataSource(DataSource primary, List<DataSource> replicas) {
+		this.primary = primary;
+		this.replicas = replicas;
+		this.healthy = new boolean[replicas.size()];
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return connect(DataSource::getConnection, true);
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		// a refusal may be the caller's credentials, the replica stays healthy
+		return connect(ds -> ds.getConnection(username, password), false);
+	}
+
+	private interface Connector {
+		Connection connect(DataSource ds) throws SQLException;
+	}
+
+	// the next healthy replica in turn, the primary when none takes it
+	private Connection connect(Connector connector, boolean refusalMarksUnhealthy) throws SQLException {
+		int n = replicas.size();
+		int start = Math.floorMod(next.getAndIncrement(), Math.max(n, 1));
+		for (int i = 0; i < n; i++) {
+			int r = (start + i) % n;
+			if (!isHealthy(r)) {
+				continue;
+			}
+			try {
+				return connector.connect(replicas.get(r));
+			} catch (SQLException e) {
+				if (!refusalMarksUnhealthy) {
+					throw e;
+				}
+				log.warn("replica " + r + " refused a connection, reading from the others", e);
+				setHealthy(r, false);
+			}
+		}
+		return connector.connect(primary);
+	}
+
+	// measures every replica with the lag query and updates its state
+	public void checkLag(String lagQuery, long maxLagSeconds) {
+		for (int r = 0; r < replicas.size(); r++) {
+			Long lag = null;
+			try (Connection con = replicas.get(r).getConnection();
+					Statement st = con.createStatement();
+					ResultSet rs = st.executeQuery(lagQuery)) {
+				if (rs.next()) {
+					Object value = hasColumn(rs, "Seconds_Behind_Source") ? rs.getObject("Seconds_Behind_Source")
+							: rs.getObject(1);
+					lag = value == null ? null : ((Number) value).longValue();
+				}
+			} catch (SQLException e) {
+				log.warn("lag check on replica " + r + " failed", e);
+			}
+			boolean ok = lag != null && lag <= maxLagSeconds;
+			if (ok != isHealthy(r)) {
+				log.info("replica " + r + (ok ? " is back in use" : " taken out of use") + ", lag " + lag);
+			}
+			setHealthy(r, ok);
+		}
+	}
+
+	// closes the replica pools, the primary belongs to its own bean
+	@Override
+	public void close() {
+		for (DataSource ds : replicas) {
+			if (ds instanceof AutoCloseable c) {
+				try {
+					c.close();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} catch (Exception e) {
+					log.warn("closing a replica pool failed", e);
+				}
+			}
+		}
+	}
+
+	public synchronized boolean isHealthy(int replica) {
+		return healthy[replica];
+	}
+
+	private synchronized void setHealthy(int replica, boolean ok) {
+		healthy[replica] = ok;
+	}
+
+	private boolean hasColumn(ResultSet rs, String column) throws SQLException {
+		for (int i = 1; i <= rs.getMetaData().getColumnCount(); i++) {
+			if (column.equalsIgnoreCase(rs.getMetaData().getColumnLabel(i))) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,79 @@
+package com.HospitalAppointmentScheduling.WebConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "datasource.replicas")
+public class ReplicaProperties {
+
+	private boolean enabled = false;
+	private List<String> urls = new ArrayList<>();
+	// default to the primary's credentials when not set
+	private String username;
+	private String password;
+	private long maxLagSeconds = 5;
+	private long lagCheckMs = 2000;
+	// returns the lag in seconds, either in a Seconds_Behind_Source column or
+	// in the first column; no row or NULL means replication is not running
+	private String lagQuery = "SHOW REPLICA STATUS";
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public List<String> getUrls() {
+		return urls;
+	}
+
+	public void setUrls(List<String> urls) {
+		this.urls = urls;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	public void setUsername(String username) {
+		this.username = username;
+	}
+
+	public String getPassword() {
+		return password;
+	}
+
+	public void setPassword(String password) {
+		this.password = password;
+	}
+
+	public long getMaxLagSeconds() {
+		return maxLagSeconds;
+	}
+
+	public void setMaxLagSeconds(long maxLagSeconds) {
+		this.maxLagSeconds = maxLagSeconds;
+	}
+
+	public long getLagCheckMs() {
+		return lagCheckMs;
+	}
+
+	public void setLagCheckMs(long lagCheckMs) {
+		this.lagCheckMs = lagCheckMs;
+	}
+
+	public String getLagQuery() {
+		return lagQuery;
+	}
+
+	public void setLagQuery(String lagQuery) {
+		this.lagQuery = lagQuery;
+	}
+}
@@ -0,0 +1,98 @@
+package com.HospitalAppointmentScheduling.WebConfig;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.HospitalAppointmentScheduling.BO.SessionTokenBO;
+import com.HospitalAppointmentScheduling.Controller.LoginAuthenticationController;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@Component
+public class SessionTokenInterceptor implements HandlerInterceptor {
+
+	public static final String PATIENT_ID_ATTRIBUTE = "sessionPatientId";
+	public static final String HOSPITAL_ID_ATTRIBUTE = "sessionHospitalId";
+
+	@Autowired
+	private SessionTokenBO sessionTokenBO;
+
+	// off by default so existing clients without a token keep working; a
+	// token that is sent is always held to its patient or to staff routes
+	@Value("${login.session.required:false}")
+	private boolean required;
+
+	// the token is checked in memory only, the patients table is not queried
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+			throws Exception {
+		if ("OPTIONS".equals(request.getMethod())) {
+			return true;
+		}
+		String token = request.getHeader(LoginAuthenticationController.SESSION_HEADER);
+		Long patientId = sessionTokenBO.verify(token);
+		Long hospitalId = patientId == null ? sessionTokenBO.verifyAdmin(token) : null;
+		if (patientId == null && hospitalId == null) {
+			if (required) {
+				response.sendError(HttpStatus.UNAUTHORIZED.value(), "session token missing or expired");
+				return false;
+			}
+			return true;
+		}
+		if (patientId != null) {
+			request.setAttribute(PATIENT_ID_ATTRIBUTE, patientId);
+		} else {
+			request.setAttribute(HOSPITAL_ID_ATTRIBUTE, hospitalId);
+		}
+		if (!(handler instanceof HandlerMethod method)) {
+			return true;
+		}
+		if (method.hasMethodAnnotation(StaffOnly.class) || method.getBeanType().isAnnotationPresent(StaffOnly.class)) {
+			if (hospitalId == null) {
+				response.sendError(HttpStatus.FORBIDDEN.value(), "an admin session token is required");
+				return false;
+			}
+			return true;
+		}
+		PatientScoped scoped = method.getMethodAnnotation(PatientScoped.class);
+		if (scoped != null && patientId != null && !patientId.equals(requestedPatient(request, scoped.value()))) {
+			response.sendError(HttpStatus.FORBIDDEN.value(), "the session token belongs to another patient");
+			return false;
+		}
+		return true;
+	}
+
+	// for patient IDs the interceptor cannot see, e.g. in a request body:
+	// false when the caller holds another patient's token
+	public static boolean mayActFor(HttpServletRequest request, Long patientId) {
+		Long caller = sessionPatient(request);
+		return caller == null || caller.equals(patientId);
+	}
+
+	// the patient whose token came with the request, null for staff and for
+	// requests without a token
+	public static Long sessionPatient(HttpServletRequest request) {
+		return (Long) request.getAttribute(PATIENT_ID_ATTRIBUTE);
+	}
+
+	// the path variable of that name, else the request parameter
+	private Long requestedPatient(HttpServletRequest request, String name) {
+		@SuppressWarnings("unchecked")
+		Map<String, String> vars = (Map<String, String>) request
+				.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+		String value = vars != null && vars.containsKey(name) ? vars.get(name) : request.getParameter(name);
+		try {
+			return value == null ? null : Long.valueOf(value);
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+}
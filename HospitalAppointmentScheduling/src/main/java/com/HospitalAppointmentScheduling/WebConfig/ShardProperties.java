@@ -0,0 +1,121 @@
+package com.HospitalAppointmentScheduling.WebConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.HospitalAppointmentScheduling.BO.ShardContext;
+
+@Component
+@ConfigurationProperties(prefix = "datasource.shards")
+public class ShardProperties {
+
+	private boolean enabled = false;
+	private List<Node> nodes = new ArrayList<>();
+	// default to the primary's credentials when not set
+	private String username;
+	private String password;
+	private int scatterThreads = 8;
+	private int scatterQueue = 256;
+	private long scatterTimeoutMs = 5000;
+
+	// one shard database and the hospitals whose appointments live in it
+	public static class Node {
+		private String name;
+		private String url;
+		private List<Long> hospitals = new ArrayList<>();
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public String getUrl() {
+			return url;
+		}
+
+		public void setUrl(String url) {
+			this.url = url;
+		}
+
+		public List<Long> getHospitals() {
+			return hospitals;
+		}
+
+		public void setHospitals(List<Long> hospitals) {
+			this.hospitals = hospitals;
+		}
+	}
+
+	// the default database first, then the configured nodes; just the default
+	// one while sharding is off
+	public List<String> shardNames() {
+		List<String> names = new ArrayList<>();
+		names.add(ShardContext.DEFAULT);
+		if (enabled) {
+			nodes.forEach(n -> names.add(n.getName()));
+		}
+		return names;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public List<Node> getNodes() {
+		return nodes;
+	}
+
+	public void setNodes(List<Node> nodes) {
+		this.nodes = nodes;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	public void setUsername(String username) {
+		this.username = username;
+	}
+
+	public String getPassword() {
+		return password;
+	}
+
+	public void setPassword(String password) {
+		this.password = password;
+	}
+
+	public int getScatterThreads() {
+		return scatterThreads;
+	}
+
+	public void setScatterThreads(int scatterThreads) {
+		this.scatterThreads = scatterThreads;
+	}
+
+	public int getScatterQueue() {
+		return scatterQueue;
+	}
+
+	public void setScatterQueue(int scatterQueue) {
+		this.scatterQueue = scatterQueue;
+	}
+
+	public long getScatterTimeoutMs() {
+		return scatterTimeoutMs;
+	}
+
+	public void setScatterTimeoutMs(long scatterTimeoutMs) {
+		this.scatterTimeoutMs = scatterTimeoutMs;
+	}
+}
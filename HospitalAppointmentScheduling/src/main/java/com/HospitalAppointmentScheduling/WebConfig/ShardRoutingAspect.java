@@ -0,0 +1,98 @@
+package com.HospitalAppointmentScheduling.WebConfig;
+
+import java.util.List;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.HospitalAppointmentScheduling.BO.ShardContext;
+import com.HospitalAppointmentScheduling.BO.ShardMapBO;
+import com.HospitalAppointmentScheduling.BO.SlotHoldBO;
+import com.HospitalAppointmentScheduling.BO.WaitlistBO;
+import com.HospitalAppointmentScheduling.Entity.AppointmentsVO;
+import com.HospitalAppointmentScheduling.Service.Sharded;
+
+// Switches the thread to the shard of a @Sharded service method before the
+// transaction interceptor opens the connection, and back afterwards. A
+// method called from one that already picked a shard stays on that shard.
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ShardRoutingAspect {
+
+	@Autowired
+	ShardMapBO shardMap;
+
+	@Autowired
+	WaitlistBO waitlistBO;
+
+	@Autowired
+	SlotHoldBO slotHoldBO;
+
+	@Around("@annotation(sharded)")
+	public Object route(ProceedingJoinPoint pjp, Sharded sharded) throws Throwable {
+		if (!shardMap.isEnabled() || ShardContext.isSet()) {
+			return pjp.proceed();
+		}
+		String shard = sharded.value() == Sharded.By.DOCTOR ? doctorShard(pjp) : appointmentShard(pjp);
+		String previous = ShardContext.enter(shard);
+		try {
+			return pjp.proceed();
+		} finally {
+			ShardContext.leave(previous);
+		}
+	}
+
+	private String doctorShard(ProceedingJoinPoint pjp) {
+		String[] names = ((MethodSignature) pjp.getSignature()).getParameterNames();
+		Object[] args = pjp.getArgs();
+		for (int i = 0; i < args.length; i++) {
+			if (args[i] instanceof AppointmentsVO vo) {
+				return shardOf(vo);
+			}
+			if (args[i] instanceof List<?> list && !list.isEmpty() && list.get(0) instanceof AppointmentsVO vo) {
+				// the others are resolved too, so the booking can check the
+				// whole list is on one shard without another lookup
+				list.forEach(o -> shardOf((AppointmentsVO) o));
+				return shardOf(vo);
+			}
+			if ("doctorId".equals(names[i]) && args[i] instanceof Long id) {
+				return shardMap.shardOfDoctor(id);
+			}
+			if ("offerId".equals(names[i]) && args[i] instanceof Long id) {
+				Long doctorId = waitlistBO.doctorOfOffer(id);
+				// an unknown or expired offer is reported by the claim
+				return doctorId == null ? ShardContext.DEFAULT : shardMap.shardOfDoctor(doctorId);
+			}
+			if ("holdId".equals(names[i]) && args[i] instanceof Long id) {
+				Long doctorId = slotHoldBO.doctorOfHold(id);
+				return doctorId == null ? ShardContext.DEFAULT : shardMap.shardOfDoctor(doctorId);
+			}
+		}
+		throw new IllegalStateException("ERROR: no doctor to pick a shard for " + pjp.getSignature());
+	}
+
+	private String appointmentShard(ProceedingJoinPoint pjp) {
+		String[] names = ((MethodSignature) pjp.getSignature()).getParameterNames();
+		Object[] args = pjp.getArgs();
+		for (int i = 0; i < args.length; i++) {
+			if (("id".equals(names[i]) || "appointmentId".equals(names[i])) && args[i] instanceof Long id) {
+				return shardMap.shardOfAppointment(id);
+			}
+		}
+		throw new IllegalStateException("ERROR: no appointment ID to pick a shard for " + pjp.getSignature());
+	}
+
+	private String shardOf(AppointmentsVO vo) {
+		if (vo.getDoctor() == null || vo.getDoctor().getDoctorId() == null) {
+			return ShardContext.DEFAULT;
+		}
+		return shardMap.shardOfDoctor(vo.getDoctor().getDoctorId());
+	}
+}
@@ -0,0 +1,41 @@
+package com.HospitalAppointmentScheduling.WebConfig;
+
+import javax.sql.DataSource;
+
+import org.apache.log4j.Logger;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import com.HospitalAppointmentScheduling.BO.ShardContext;
+
+// Opens each connection on the shard the calling thread is switched to.
+// Transactions keep the connection they started with, so the switch has to
+// happen before the transaction, see ShardRoutingAspect.
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+	Logger log = Logger.getLogger(ShardRoutingDataSource.class);
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		return ShardContext.current();
+	}
+
+	public DataSource shard(String name) {
+		return getResolvedDataSources().get(name);
+	}
+
+	// closes the shard pools, the default database belongs to its own bean
+	@Override
+	public void close() {
+		for (DataSource ds : getResolvedDataSources().values()) {
+			if (ds != getResolvedDefaultDataSource() && ds instanceof AutoCloseable c) {
+				try {
+					c.close();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} catch (Exception e) {
+					log.warn("closing a shard pool failed", e);
+				}
+			}
+		}
+	}
+}
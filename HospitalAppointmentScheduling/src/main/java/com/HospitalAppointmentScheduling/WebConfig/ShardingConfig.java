@@ -0,0 +1,96 @@
+package com.HospitalAppointmentScheduling.WebConfig;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.apache.log4j.Logger;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.HospitalAppointmentScheduling.BO.ShardContext;
+import com.zaxxer.hikari.HikariDataSource;
+
+// With datasource.shards.enabled appointments are partitioned by hospital:
+// each node in datasource.shards.nodes is a MySQL database with the full
+// schema holding the appointments of its hospitals, and spring.datasource.url
+// stays the default database for everything else. Reference tables
+// (hospitals, doctors, patients, statuses) are replicated from the default
+// database to every shard, the appointment rows reference them.
+@Configuration
+public class ShardingConfig {
+
+	Logger log = Logger.getLogger(ShardingConfig.class);
+
+	@Autowired
+	private ShardProperties shardProps;
+
+	// cross-shard reads, one task per shard; a full queue rejects the read
+	// rather than letting requests pile up behind a slow shard
+	@Bean(name = "scatterExecutor", destroyMethod = "shutdown")
+	public ThreadPoolExecutor scatterExecutor() {
+		AtomicInteger count = new AtomicInteger();
+		return new ThreadPoolExecutor(shardProps.getScatterThreads(), shardProps.getScatterThreads(), 0L,
+				TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(shardProps.getScatterQueue()), r -> {
+					Thread t = new Thread(r, "shard-scatter-" + count.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				}, new ThreadPoolExecutor.AbortPolicy());
+	}
+
+	@Bean(destroyMethod = "close")
+	@ConfigurationProperties("spring.datasource.hikari")
+	@ConditionalOnProperty(name = "datasource.shards.enabled", havingValue = "true")
+	public HikariDataSource defaultShardDataSource(DataSourceProperties props) {
+		return props.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+
+	@Bean(destroyMethod = "close")
+	@Primary
+	@ConditionalOnProperty(name = "datasource.shards.enabled", havingValue = "true")
+	public ShardRoutingDataSource dataSource(DataSourceProperties props, HikariDataSource defaultShardDataSource) {
+		Map<Object, Object> targets = new LinkedHashMap<>();
+		targets.put(ShardContext.DEFAULT, defaultShardDataSource);
+		for (ShardProperties.Node node : shardProps.getNodes()) {
+			HikariDataSource ds = DataSourceBuilder.create().type(HikariDataSource.class)
+					.driverClassName(props.determineDriverClassName()).url(node.getUrl())
+					.username(shardProps.getUsername() != null ? shardProps.getUsername() : props.determineUsername())
+					.password(shardProps.getPassword() != null ? shardProps.getPassword() : props.determinePassword())
+					.build();
+			ds.setPoolName("shard-" + node.getName());
+			targets.put(node.getName(), ds);
+		}
+		ShardRoutingDataSource routing = new ShardRoutingDataSource();
+		routing.setTargetDataSources(targets);
+		routing.setDefaultTargetDataSource(defaultShardDataSource);
+		return routing;
+	}
+
+	// Flyway only sees the default database, the shards get the same
+	// migrations right after it
+	@Bean
+	@ConditionalOnProperty(name = "datasource.shards.enabled", havingValue = "true")
+	public FlywayMigrationStrategy shardMigrations(ShardRoutingDataSource dataSource) {
+		return flyway -> {
+			flyway.migrate();
+			for (ShardProperties.Node node : shardProps.getNodes()) {
+				DataSource shard = dataSource.shard(node.getName());
+				Flyway.configure().configuration(flyway.getConfiguration()).dataSource(shard).load().migrate();
+				log.info("migrated shard " + node.getName());
+			}
+		};
+	}
+}
@@ -0,0 +1,14 @@
+package com.HospitalAppointmentScheduling.WebConfig;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Handlers for hospital staff: SessionTokenInterceptor lets them through only
+// with an admin session token and refuses a patient's with 403. On a
+// controller it covers every handler of the controller.
+@Target({ ElementType.METHOD, ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StaffOnly {
+}
@@ -0,0 +1,81 @@
+package com.HospitalAppointmentScheduling.WebConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "status.sweep")
+public class StatusSweepProperties {
+
+	private boolean enabled = true;
+	private int batchSize = 1000;
+	private int maxBatchesPerRun = 500;
+	private List<Transition> transitions = new ArrayList<>();
+
+	// appointments still in status from afterDays after their date move to
+	// status to
+	public static class Transition {
+		private String from;
+		private String to;
+		private int afterDays = 1;
+
+		public String getFrom() {
+			return from;
+		}
+
+		public void setFrom(String from) {
+			this.from = from;
+		}
+
+		public String getTo() {
+			return to;
+		}
+
+		public void setTo(String to) {
+			this.to = to;
+		}
+
+		public int getAfterDays() {
+			return afterDays;
+		}
+
+		public void setAfterDays(int afterDays) {
+			this.afterDays = afterDays;
+		}
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public int getMaxBatchesPerRun() {
+		return maxBatchesPerRun;
+	}
+
+	public void setMaxBatchesPerRun(int maxBatchesPerRun) {
+		this.maxBatchesPerRun = maxBatchesPerRun;
+	}
+
+	public List<Transition> getTransitions() {
+		return transitions;
+	}
+
+	public void setTransitions(List<Transition> transitions) {
+		this.transitions = transitions;
+	}
+}
@@ -1,15 +1,26 @@
 package com.HospitalAppointmentScheduling.WebConfig;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+	@Autowired
+	private SessionTokenInterceptor sessionTokenInterceptor;
+
 	@Override
 	public void addCorsMappings(CorsRegistry registry) {
 		registry.addMapping("/**").allowedOrigins("http://localhost:3000")
-				.allowedMethods("POST", "GET", "PUT", "DELETE").allowedHeaders("*").allowCredentials(true);
+				.allowedMethods("POST", "GET", "PUT", "PATCH", "DELETE").allowedHeaders("*").allowCredentials(true);
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(sessionTokenInterceptor).excludePathPatterns("/loginPage/patientLogin",
+				"/admin/adminLogin", "/patient/insert");
 	}
 }
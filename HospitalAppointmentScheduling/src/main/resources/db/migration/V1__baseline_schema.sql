@@ -0,0 +1,109 @@
+-- Baseline schema, same tables as database/appointmentdb.sql without the data.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate)
+-- so this script only runs against an empty schema.
+
+CREATE TABLE `country` (
+  `country_id` int NOT NULL AUTO_INCREMENT,
+  `country` varchar(255) NOT NULL,
+  PRIMARY KEY (`country_id`),
+  UNIQUE KEY `UK3s51q344kj9jse05r86moo9ka` (`country`)
+);
+
+CREATE TABLE `state` (
+  `state_id` int NOT NULL AUTO_INCREMENT,
+  `state` varchar(255) NOT NULL,
+  PRIMARY KEY (`state_id`),
+  UNIQUE KEY `UKripdjupjrduxaforlqnyge42c` (`state`)
+);
+
+CREATE TABLE `city` (
+  `city_id` int NOT NULL AUTO_INCREMENT,
+  `city` varchar(255) NOT NULL,
+  PRIMARY KEY (`city_id`),
+  UNIQUE KEY `UK9s1n56j4o997fpcp1do8juel1` (`city`)
+);
+
+CREATE TABLE `specialization` (
+  `specialization_id` int NOT NULL AUTO_INCREMENT,
+  `specialization` varchar(255) NOT NULL,
+  PRIMARY KEY (`specialization_id`),
+  UNIQUE KEY `UK2c30b1a6u0uy5g19hbush0bxo` (`specialization`)
+);
+
+CREATE TABLE `appointmentstatus` (
+  `status_id` int NOT NULL AUTO_INCREMENT,
+  `status_name` varchar(30) NOT NULL,
+  PRIMARY KEY (`status_id`)
+);
+
+CREATE TABLE `hospital` (
+  `hospital_id` bigint NOT NULL AUTO_INCREMENT,
+  `created_at` datetime(6) NOT NULL,
+  `hospital_email` varchar(255) NOT NULL,
+  `hospital_name` varchar(255) NOT NULL,
+  `hospital_phone` varchar(255) NOT NULL,
+  `updated_at` datetime(6) NOT NULL,
+  `city_id` int NOT NULL,
+  `country_id` int NOT NULL,
+  `state_id` int NOT NULL,
+  PRIMARY KEY (`hospital_id`),
+  UNIQUE KEY `UKk7d8jdv7xv6rnpgqh9ge0jslb` (`hospital_email`),
+  UNIQUE KEY `UKq1oy3bctai10nq1h4ppn42g5v` (`hospital_phone`),
+  KEY `FKtdmqkgrqa2694xrw7pw9josgi` (`city_id`),
+  KEY `FKi6itl5yp63c5s6i9u6dfcb5uv` (`country_id`),
+  KEY `FK4yi5nbx2uyovhmlt468n8826n` (`state_id`),
+  CONSTRAINT `FK4yi5nbx2uyovhmlt468n8826n` FOREIGN KEY (`state_id`) REFERENCES `state` (`state_id`),
+  CONSTRAINT `FKi6itl5yp63c5s6i9u6dfcb5uv` FOREIGN KEY (`country_id`) REFERENCES `country` (`country_id`),
+  CONSTRAINT `FKtdmqkgrqa2694xrw7pw9josgi` FOREIGN KEY (`city_id`) REFERENCES `city` (`city_id`)
+);
+
+CREATE TABLE `doctor` (
+  `doctor_id` bigint NOT NULL AUTO_INCREMENT,
+  `created_at` datetime(6) DEFAULT NULL,
+  `doc_email` varchar(255) NOT NULL,
+  `doc_password` varchar(255) NOT NULL,
+  `doc_phone` varchar(255) NOT NULL,
+  `first_name` varchar(255) NOT NULL,
+  `last_name` varchar(255) NOT NULL,
+  `updated_at` datetime(6) DEFAULT NULL,
+  `hospital_id` bigint NOT NULL,
+  `specialization_id` int NOT NULL,
+  PRIMARY KEY (`doctor_id`),
+  UNIQUE KEY `UKm3qpaxdxsoksy0f5w7mhsfpsr` (`doc_email`),
+  UNIQUE KEY `UKtcadkdtg5veemjc4pxdrkmknb` (`doc_password`),
+  UNIQUE KEY `UKfq3v7ex241ytrro3k9n4dgv3m` (`doc_phone`),
+  KEY `FKds7ws3yyj4c5wj35fpefpeny0` (`hospital_id`),
+  KEY `FKq23vqgpxphxpr1wwn10fxifhh` (`specialization_id`),
+  CONSTRAINT `FKds7ws3yyj4c5wj35fpefpeny0` FOREIGN KEY (`hospital_id`) REFERENCES `hospital` (`hospital_id`),
+  CONSTRAINT `FKq23vqgpxphxpr1wwn10fxifhh` FOREIGN KEY (`specialization_id`) REFERENCES `specialization` (`specialization_id`)
+);
+
+CREATE TABLE `patients` (
+  `patient_id` bigint NOT NULL AUTO_INCREMENT,
+  `created_at` datetime(6) NOT NULL,
+  `dob` date NOT NULL,
+  `first_name` varchar(255) NOT NULL,
+  `last_name` varchar(255) NOT NULL,
+  `patient_email` varchar(255) NOT NULL,
+  `patient_password` varchar(255) NOT NULL,
+  `patient_phone` varchar(255) NOT NULL,
+  `updated_at` datetime(6) NOT NULL,
+  `gender` varchar(10) NOT NULL,
+  PRIMARY KEY (`patient_id`),
+  UNIQUE KEY `UKrp7dtdql56dgru73meoqq2qdt` (`patient_email`),
+  UNIQUE KEY `UKnescschbuvf1tkxflibqp0xol` (`patient_phone`)
+);
+
+CREATE TABLE `appointments` (
+  `appointment_id` bigint NOT NULL AUTO_INCREMENT,
+  `appointment_date` date NOT NULL,
+  `created_at` datetime(6) NOT NULL,
+  `doctor_id` bigint NOT NULL,
+  `reason` varchar(30) NOT NULL,
+  `updated_at` datetime(6) NOT NULL,
+  `patient_id` bigint NOT NULL,
+  `status_id` int NOT NULL,
+  PRIMARY KEY (`appointment_id`),
+  KEY `FK8exap5wmg8kmb1g1rx3by21yt` (`patient_id`),
+  CONSTRAINT `FK8exap5wmg8kmb1g1rx3by21yt` FOREIGN KEY (`patient_id`) REFERENCES `patients` (`patient_id`)
+);
@@ -0,0 +1,18 @@
+-- Indexes for the filters and sorts used by AppointmentsRepo and PatientRepo.
+
+-- countAppointmentsByDate, fetchApptsAscendingDate, findPatientsWithAppointmentsDay
+CREATE INDEX `idx_appointments_date` ON `appointments` (`appointment_date`);
+
+-- findAppointmentsByPatientIdAndDate, findAppointmentsByPatientIdAndDateRange,
+-- findAllApptByPatientId (leftmost column)
+CREATE INDEX `idx_appointments_patient_date` ON `appointments` (`patient_id`, `appointment_date`);
+
+-- countAppointmentsForDoctorOnDate and the grouped per doctor/date count,
+-- covering for both
+CREATE INDEX `idx_appointments_doctor_date` ON `appointments` (`doctor_id`, `appointment_date`);
+
+-- fetchAscending (ORDER BY first_name)
+CREATE INDEX `idx_patients_first_name` ON `patients` (`first_name`);
+
+-- fetchBetweenDOBpat and findMostCommonDOB (GROUP BY dob, covering)
+CREATE INDEX `idx_patients_dob` ON `patients` (`dob`);
@@ -0,0 +1,15 @@
+-- Transactional outbox: written in the same transaction as the appointment or
+-- patient change, relayed in id order by OutboxRelayBO.
+CREATE TABLE `outbox_events` (
+  `event_id` bigint NOT NULL AUTO_INCREMENT,
+  `aggregate_type` varchar(32) NOT NULL,
+  `aggregate_id` bigint NOT NULL,
+  `event_type` varchar(64) NOT NULL,
+  `payload` text NOT NULL,
+  `created_at` datetime(6) NOT NULL,
+  `published_at` datetime(6) DEFAULT NULL,
+  PRIMARY KEY (`event_id`)
+);
+
+-- the relay polls for unpublished rows in id order
+CREATE INDEX `idx_outbox_unpublished` ON `outbox_events` (`published_at`, `event_id`);
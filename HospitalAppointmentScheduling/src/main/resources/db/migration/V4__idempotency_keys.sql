@@ -0,0 +1,16 @@
+-- Idempotency keys shared by all nodes when idempotency.store=table. A row is
+-- inserted when a request claims its key and filled with the response once
+-- the request finishes.
+CREATE TABLE `idempotency_keys` (
+  `idem_key` varchar(200) NOT NULL,
+  `fingerprint` char(64) NOT NULL,
+  `status` int DEFAULT NULL,
+  `content_type` varchar(100) DEFAULT NULL,
+  `body` mediumblob DEFAULT NULL,
+  `created_at` datetime(6) NOT NULL,
+  `expires_at` datetime(6) NOT NULL,
+  PRIMARY KEY (`idem_key`)
+);
+
+-- the purge deletes by expiry
+CREATE INDEX `idx_idempotency_expires` ON `idempotency_keys` (`expires_at`);
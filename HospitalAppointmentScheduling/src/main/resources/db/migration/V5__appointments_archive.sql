@@ -0,0 +1,19 @@
+-- Past appointments moved out of `appointments` by AppointmentArchiveBO. Same
+-- columns, the IDs are kept. No foreign keys: the rows are history and are
+-- only read back for a patient or a date range.
+CREATE TABLE `appointments_archive` (
+  `appointment_id` bigint NOT NULL,
+  `appointment_date` date NOT NULL,
+  `created_at` datetime(6) NOT NULL,
+  `doctor_id` bigint NOT NULL,
+  `reason` varchar(30) NOT NULL,
+  `updated_at` datetime(6) NOT NULL,
+  `patient_id` bigint NOT NULL,
+  `status_id` int NOT NULL,
+  `archived_at` datetime(6) NOT NULL,
+  PRIMARY KEY (`appointment_id`)
+);
+
+CREATE INDEX `idx_appointments_archive_date` ON `appointments_archive` (`appointment_date`);
+CREATE INDEX `idx_appointments_archive_patient_date` ON `appointments_archive` (`patient_id`, `appointment_date`);
+CREATE INDEX `idx_appointments_archive_doctor_date` ON `appointments_archive` (`doctor_id`, `appointment_date`);
@@ -0,0 +1,2 @@
+-- incremental refresh of the columnar analytics snapshot (updated_at watermark)
+CREATE INDEX `idx_appointments_updated_at` ON `appointments` (`updated_at`);
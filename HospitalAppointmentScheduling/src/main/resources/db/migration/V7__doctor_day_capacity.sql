@@ -0,0 +1,20 @@
+-- Booked slots per doctor day, shared by every node. A booking takes a slot
+-- with one conditional UPDATE (booked < capacity) in its own transaction, so
+-- two nodes can never both take the last one. Rows are created on the first
+-- booking of the day; capacity is set from appointment.slots-per-doctor-day
+-- at startup.
+CREATE TABLE `doctor_day_capacity` (
+  `doctor_id` bigint NOT NULL,
+  `appointment_date` date NOT NULL,
+  `booked` int NOT NULL,
+  `capacity` int NOT NULL,
+  PRIMARY KEY (`doctor_id`, `appointment_date`)
+);
+
+-- the daily purge drops past days
+CREATE INDEX `idx_capacity_date` ON `doctor_day_capacity` (`appointment_date`);
+
+-- upcoming bookings so far, with the default capacity
+INSERT INTO `doctor_day_capacity` (`doctor_id`, `appointment_date`, `booked`, `capacity`)
+SELECT `doctor_id`, `appointment_date`, COUNT(*), 5 FROM `appointments`
+WHERE `appointment_date` >= CURRENT_DATE GROUP BY `doctor_id`, `appointment_date`;
@@ -0,0 +1,12 @@
+-- One row per background job that must run on a single node. The node named
+-- in owner runs the job until expires_at; it pushes expires_at forward on
+-- every heartbeat, and once it stops another node takes the row over with a
+-- higher token. Jobs check the token before each write, so a node that paused
+-- past its lease cannot keep writing after the takeover.
+CREATE TABLE `scheduler_leases` (
+  `name` varchar(64) NOT NULL,
+  `owner` varchar(128) NOT NULL,
+  `token` bigint NOT NULL,
+  `expires_at` datetime(6) NOT NULL,
+  PRIMARY KEY (`name`)
+);
@@ -0,0 +1,8 @@
+-- Position of a relayed event in the change stream. The node leading the
+-- relay numbers rows as it publishes them, in commit order rather than id
+-- order; every node copies the numbered rows to its own change log, so an
+-- offset names the same event on every node.
+ALTER TABLE `outbox_events` ADD COLUMN `log_offset` bigint DEFAULT NULL;
+
+-- nodes follow the stream by offset; unique so two relays cannot both use one
+CREATE UNIQUE INDEX `idx_outbox_log_offset` ON `outbox_events` (`log_offset`);
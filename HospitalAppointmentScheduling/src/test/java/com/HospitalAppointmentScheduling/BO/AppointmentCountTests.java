@@ -0,0 +1,141 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.HospitalAppointmentScheduling.DAO.AppointmentArchiveRepo;
+import com.HospitalAppointmentScheduling.DAO.AppointmentsRepo;
+import com.HospitalAppointmentScheduling.DAO.DoctorDateCountProjection;
+import com.HospitalAppointmentScheduling.WebConfig.ShardProperties;
+
+// The grouped queries are mocked; what they return is the database.
+class AppointmentCountTests {
+
+	private static final LocalDate DAY = LocalDate.now().plusDays(3);
+	private static final LocalDate PAST = LocalDate.now().minusYears(2);
+
+	record Row(Long doctorId, LocalDate appointmentDate, Long total) implements DoctorDateCountProjection {
+		@Override
+		public Long getDoctorId() {
+			return doctorId;
+		}
+
+		@Override
+		public LocalDate getAppointmentDate() {
+			return appointmentDate;
+		}
+
+		@Override
+		public Long getTotal() {
+			return total;
+		}
+	}
+
+	private final List<DoctorDateCountProjection> live = new ArrayList<>();
+	private AppointmentCountBO counts;
+
+	@BeforeEach
+	void setUp() {
+		live.add(new Row(7L, DAY, 2L));
+		live.add(new Row(8L, DAY, 1L));
+		counts = new AppointmentCountBO();
+		counts.appointmentsRepo = Mockito.mock(AppointmentsRepo.class);
+		counts.archiveRepo = Mockito.mock(AppointmentArchiveRepo.class);
+		counts.archiveBO = Mockito.mock(AppointmentArchiveBO.class);
+		counts.transactionManager = Mockito.mock(PlatformTransactionManager.class);
+		counts.scatter = new ScatterGatherBO();
+		counts.scatter.shardProps = new ShardProperties();
+		Mockito.when(counts.appointmentsRepo.countAppointmentsByDoctorAndDate()).thenAnswer(i -> List.copyOf(live));
+		Mockito.when(counts.archiveRepo.countByDoctorAndDate()).thenReturn(List.of(new Row(7L, PAST, 4L)));
+		Mockito.when(counts.archiveBO.boundary()).thenReturn(LocalDate.now().minusYears(1));
+		counts.seed();
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void seedsBothTablesAndFollowsTheWrites() {
+		assertEquals(3, counts.countByDate(DAY));
+		assertEquals(2, counts.countByDoctorAndDate(7, DAY));
+		assertEquals(4, counts.countByDoctorAndDate(7, PAST));
+
+		counts.booked(8, DAY);
+		counts.moved(7, DAY, 8, DAY.plusDays(1));
+		counts.cancelled(8, DAY);
+		assertEquals(2, counts.countByDate(DAY));
+		assertEquals(1, counts.countByDoctorAndDate(7, DAY));
+		assertEquals(1, counts.countByDoctorAndDate(8, DAY.plusDays(1)));
+	}
+
+	@Test
+	void reconcileRepairsDriftButLeavesArchivedDaysAlone() {
+		live.set(0, new Row(7L, DAY, 5L));
+		live.remove(1);
+		counts.reconcile();
+		assertEquals(5, counts.countByDoctorAndDate(7, DAY));
+		assertEquals(0, counts.countByDoctorAndDate(8, DAY));
+		assertEquals(5, counts.countByDate(DAY));
+		assertEquals(4, counts.countByDoctorAndDate(7, PAST));
+	}
+
+	// another node cancelled one of doctor 7's appointments
+	@Test
+	void refreshReadsOneDayAgain() {
+		Mockito.when(counts.appointmentsRepo.countAppointmentsForDoctorOnDate(7, DAY)).thenReturn(1L);
+		counts.refresh(new AppointmentCountBO.DoctorDateKey(7, DAY));
+		assertEquals(1, counts.countByDoctorAndDate(7, DAY));
+		assertEquals(2, counts.countByDate(DAY));
+		assertEquals(1, counts.countByDoctorAndDate(8, DAY));
+	}
+
+	// a booking committed after the snapshot was read is applied while the
+	// query runs; setting the day to the snapshot would lose it
+	@Test
+	void reconcileSkipsADayWrittenWhileItReads() {
+		Mockito.when(counts.appointmentsRepo.countAppointmentsByDoctorAndDate()).thenAnswer(i -> {
+			List<DoctorDateCountProjection> snapshot = List.copyOf(live);
+			counts.booked(7, DAY);
+			return snapshot;
+		});
+		counts.reconcile();
+		assertEquals(3, counts.countByDoctorAndDate(7, DAY));
+		assertEquals(4, counts.countByDate(DAY));
+	}
+
+	// committed and in the snapshot, but the after-commit hook has not run
+	// yet: the day is left alone until the hook has applied the booking
+	@Test
+	void reconcileSkipsADayWithAWriteNotYetApplied() {
+		TransactionSynchronizationManager.initSynchronization();
+		counts.booked(7, DAY);
+		List<TransactionSynchronization> hooks = TransactionSynchronizationManager.getSynchronizations();
+		TransactionSynchronizationManager.clearSynchronization();
+
+		live.set(0, new Row(7L, DAY, 3L));
+		counts.reconcile();
+		assertEquals(2, counts.countByDoctorAndDate(7, DAY));
+
+		hooks.forEach(TransactionSynchronization::afterCommit);
+		hooks.forEach(h -> h.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+		assertEquals(3, counts.countByDoctorAndDate(7, DAY));
+		counts.reconcile();
+		assertEquals(3, counts.countByDoctorAndDate(7, DAY));
+		assertEquals(4, counts.countByDate(DAY));
+	}
+}
@@ -0,0 +1,92 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.HospitalAppointmentScheduling.BO.AppointmentCountBO.DoctorDateKey;
+import com.HospitalAppointmentScheduling.CustomExceptions.AppointmentException;
+import com.HospitalAppointmentScheduling.DAO.AppointmentsRepo;
+import com.HospitalAppointmentScheduling.Entity.AppointmentsVO;
+import com.HospitalAppointmentScheduling.Entity.DoctorVO;
+
+class AppointmentMoveTests {
+
+	private static final LocalDate FROM = LocalDate.now().plusDays(2);
+	private static final LocalDate TO = LocalDate.now().plusDays(5);
+
+	private AppointmentsBO appointmentsBO;
+	private AppointmentsVO stored;
+
+	@BeforeEach
+	void setUp() {
+		DoctorVO doctor = new DoctorVO();
+		doctor.setDoctorId(7L);
+		stored = new AppointmentsVO();
+		stored.setAppointmentID(1L);
+		stored.setDoctor(doctor);
+		stored.setAppointmentDate(FROM);
+		stored.setReason("checkup");
+
+		appointmentsBO = new AppointmentsBO();
+		appointmentsBO.appointmentsRepo = Mockito.mock(AppointmentsRepo.class);
+		appointmentsBO.slotLocks = Mockito.mock(SlotLockBO.class);
+		appointmentsBO.waitlistBO = Mockito.mock(WaitlistBO.class);
+		appointmentsBO.ledger = Mockito.mock(CapacityLedgerBO.class);
+		appointmentsBO.countBO = Mockito.mock(AppointmentCountBO.class);
+		appointmentsBO.publisher = Mockito.mock(ApplicationEventPublisher.class);
+		Mockito.when(appointmentsBO.appointmentsRepo.findById(1L)).thenReturn(Optional.of(stored));
+		Mockito.when(appointmentsBO.appointmentsRepo.fetchAppointmentIds()).thenReturn(List.of(1L));
+		Mockito.when(appointmentsBO.appointmentsRepo.save(stored)).thenReturn(stored);
+	}
+
+	@Test
+	void aPatchedDateTakesTheNewDayBeforeGivingBackTheOld() throws Exception {
+		Mockito.when(appointmentsBO.ledger.take(7L, TO)).thenReturn(true);
+		AppointmentsVO patch = new AppointmentsVO();
+		patch.setAppointmentDate(TO);
+
+		appointmentsBO.patchAppointmentDetails(patch, 1);
+		assertEquals(TO, stored.getAppointmentDate());
+		InOrder order = Mockito.inOrder(appointmentsBO.slotLocks, appointmentsBO.ledger);
+		order.verify(appointmentsBO.slotLocks).lockForTransaction(List.of(new DoctorDateKey(7L, TO)));
+		order.verify(appointmentsBO.ledger).take(7L, TO);
+		order.verify(appointmentsBO.ledger).release(7L, FROM);
+	}
+
+	@Test
+	void aPatchOntoAFullDayChangesNothing() {
+		Mockito.when(appointmentsBO.waitlistBO.isFull(7L, TO)).thenReturn(true);
+		AppointmentsVO patch = new AppointmentsVO();
+		patch.setAppointmentDate(TO);
+		patch.setReason("follow-up");
+
+		assertThrows(AppointmentException.class, () -> appointmentsBO.patchAppointmentDetails(patch, 1));
+		assertEquals(FROM, stored.getAppointmentDate());
+		assertEquals("checkup", stored.getReason());
+		Mockito.verifyNoInteractions(appointmentsBO.ledger, appointmentsBO.countBO);
+		Mockito.verify(appointmentsBO.appointmentsRepo, Mockito.never()).save(Mockito.any());
+	}
+
+	// another node filled the day: the ledger refuses and the old slot is kept
+	@Test
+	void anUpdateTheLedgerRefusesKeepsTheOldDay() {
+		AppointmentsVO update = new AppointmentsVO();
+		update.setAppointmentDate(TO);
+		update.setReason("follow-up");
+
+		assertThrows(AppointmentException.class, () -> appointmentsBO.updateAppointmentDetails(update, 1L));
+		assertEquals(FROM, stored.getAppointmentDate());
+		Mockito.verify(appointmentsBO.ledger, Mockito.never()).release(Mockito.anyLong(), Mockito.any());
+		Mockito.verifyNoInteractions(appointmentsBO.countBO);
+	}
+}
@@ -0,0 +1,122 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.HospitalAppointmentScheduling.BO.AppointmentCountBO.DoctorDateKey;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+// The streams are opened through MockMvc, so the emitters get a real async
+// request and its completion callbacks.
+class AvailabilityFeedTests {
+
+	private static final long DOCTOR = 7;
+	private static final LocalDate DAY = LocalDate.now().plusDays(3);
+	private static final LocalDate NEXT = DAY.plusDays(1);
+
+	@RestController
+	static class Feed {
+
+		private final AvailabilityFeedBO feed;
+
+		Feed(AvailabilityFeedBO feed) {
+			this.feed = feed;
+		}
+
+		@GetMapping("/feed")
+		SseEmitter feed() throws IOException {
+			return feed.subscribe(DOCTOR, DAY, NEXT);
+		}
+	}
+
+	private AvailabilityFeedBO feed;
+	private MockMvc mvc;
+
+	// five slots a day, two booked and one held on DAY
+	@BeforeEach
+	void setUp() {
+		feed = new AvailabilityFeedBO();
+		feed.countBO = Mockito.mock(AppointmentCountBO.class);
+		feed.waitlistBO = Mockito.mock(WaitlistBO.class);
+		feed.mapper = JsonMapper.builder().findAndAddModules()
+				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+		ReflectionTestUtils.setField(feed, "emitterTimeoutMs", 60_000L);
+		Mockito.when(feed.countBO.countByDoctorAndDate(DOCTOR, DAY)).thenReturn(2L);
+		Mockito.when(feed.waitlistBO.freeSlots(DOCTOR, DAY)).thenReturn(2);
+		Mockito.when(feed.waitlistBO.freeSlots(DOCTOR, NEXT)).thenReturn(5);
+		mvc = MockMvcBuilders.standaloneSetup(new Feed(feed)).build();
+	}
+
+	@Test
+	void aSubscriberGetsEveryDayThenTheChanges() throws Exception {
+		MvcResult stream = subscribe();
+		String sent = stream.getResponse().getContentAsString();
+		assertTrue(sent.contains("\"date\":\"" + DAY + "\",\"booked\":2,\"available\":2"), sent);
+		assertTrue(sent.contains("\"date\":\"" + NEXT + "\",\"booked\":0,\"available\":5"), sent);
+		assertEquals(2, feed.topicCount());
+
+		Mockito.when(feed.countBO.countByDoctorAndDate(DOCTOR, DAY)).thenReturn(3L);
+		Mockito.when(feed.waitlistBO.freeSlots(DOCTOR, DAY)).thenReturn(1);
+		feed.onSlotChange(new SlotChangeEvent(DOCTOR, DAY));
+		feed.flush();
+		sent = stream.getResponse().getContentAsString();
+		assertTrue(sent.contains("\"date\":\"" + DAY + "\",\"booked\":3,\"available\":1"), sent);
+
+		// nothing new, nothing sent
+		int length = sent.length();
+		feed.onSlotChange(new SlotChangeEvent(DOCTOR, DAY));
+		feed.flush();
+		assertEquals(length, stream.getResponse().getContentAsString().length());
+	}
+
+	// a booking names its day; a delete on another node could have freed any
+	@Test
+	void relayedChangesReadTheDaysAgain() throws Exception {
+		subscribe();
+		feed.onChange(new ChangeEvent(1, 1, OutboxBO.APPOINTMENT, 5, "AppointmentBooked",
+				"{\"appointmentId\":5,\"appointmentDate\":\"" + NEXT + "\",\"doctorId\":7}", LocalDateTime.now()));
+		feed.flush();
+		Mockito.verify(feed.countBO).refresh(new DoctorDateKey(DOCTOR, NEXT));
+		Mockito.verify(feed.countBO, Mockito.never()).refresh(new DoctorDateKey(DOCTOR, DAY));
+
+		feed.onChange(new ChangeEvent(2, 2, OutboxBO.APPOINTMENT, 6, "AppointmentDeleted",
+				"{\"appointmentId\":6}", LocalDateTime.now()));
+		feed.flush();
+		Mockito.verify(feed.countBO).refresh(new DoctorDateKey(DOCTOR, DAY));
+		Mockito.verify(feed.countBO, Mockito.times(2)).refresh(new DoctorDateKey(DOCTOR, NEXT));
+	}
+
+	@Test
+	void aClosedStreamLeavesItsTopics() throws Exception {
+		MvcResult first = subscribe();
+		MvcResult second = subscribe();
+		assertEquals(2, feed.topicCount());
+
+		first.getRequest().getAsyncContext().complete();
+		assertEquals(2, feed.topicCount());
+		second.getRequest().getAsyncContext().complete();
+		assertEquals(0, feed.topicCount());
+	}
+
+	private MvcResult subscribe() throws Exception {
+		return mvc.perform(get("/feed")).andExpect(request().asyncStarted()).andReturn();
+	}
+}
@@ -0,0 +1,75 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.HospitalAppointmentScheduling.BO.AvailabilitySearchBO.DoctorPlace;
+import com.HospitalAppointmentScheduling.BO.AvailabilitySearchBO.FreeDay;
+
+class AvailabilitySearchTests {
+
+	private static final LocalDate BASE = LocalDate.of(2025, 3, 1);
+	private static final int HORIZON = 90;
+
+	// the merge gives the same days as checking every doctor on every day
+	@Test
+	void mergeMatchesABruteForceScan() {
+		Random random = new Random(42);
+		List<DoctorPlace> doctors = new ArrayList<>();
+		Map<Long, BitSet> full = new HashMap<>();
+		for (long id = 1; id <= 300; id++) {
+			doctors.add(new DoctorPlace(id, 1, 1));
+			BitSet bits = new BitSet(HORIZON);
+			for (int day = 0; day < HORIZON; day++) {
+				if (random.nextInt(100) < 97) {
+					bits.set(day);
+				}
+			}
+			full.put(id, bits);
+		}
+		for (int start : new int[] { 0, 10, 89 }) {
+			for (int limit : new int[] { 1, 10, 100 }) {
+				List<FreeDay> merged = AvailabilitySearchBO.merge(doctors, full, BASE, start, HORIZON, limit,
+						(doctorId, date) -> 1);
+				assertEquals(bruteForce(doctors, full, start, limit), merged);
+			}
+		}
+	}
+
+	// a day whose bit is stale is skipped when the live count says it is full
+	@Test
+	void staleBitsAreSkipped() {
+		List<DoctorPlace> doctors = List.of(new DoctorPlace(1, 1, 1), new DoctorPlace(2, 1, 1));
+		Map<Long, BitSet> full = Map.of(1L, new BitSet(), 2L, new BitSet());
+		Set<String> booked = new HashSet<>(Set.of(1 + "/" + BASE, 2 + "/" + BASE, 1 + "/" + BASE.plusDays(1)));
+		List<FreeDay> merged = AvailabilitySearchBO.merge(doctors, full, BASE, 0, HORIZON, 3,
+				(doctorId, date) -> booked.contains(doctorId + "/" + date) ? 0 : 2);
+		assertEquals(List.of(new FreeDay(2, BASE.plusDays(1), 2), new FreeDay(1, BASE.plusDays(2), 2),
+				new FreeDay(2, BASE.plusDays(2), 2)), merged);
+	}
+
+	private List<FreeDay> bruteForce(List<DoctorPlace> doctors, Map<Long, BitSet> full, int start, int limit) {
+		List<FreeDay> all = new ArrayList<>();
+		for (DoctorPlace d : doctors) {
+			for (int day = start; day < HORIZON; day++) {
+				if (!full.get(d.doctorId()).get(day)) {
+					all.add(new FreeDay(d.doctorId(), BASE.plusDays(day), 1));
+				}
+			}
+		}
+		all.sort(Comparator.comparing(FreeDay::date).thenComparingLong(FreeDay::doctorId));
+		return all.subList(0, Math.min(limit, all.size()));
+	}
+}
@@ -0,0 +1,177 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.HospitalAppointmentScheduling.BO.AppointmentCountBO.DoctorDateKey;
+import com.HospitalAppointmentScheduling.DAO.CapacityLedgerDAO;
+import com.HospitalAppointmentScheduling.WebConfig.ShardProperties;
+
+// Two application contexts stand in for two app nodes behind the load
+// balancer. Each has its own connections, transactions and in-memory state;
+// all they share is one embedded database migrated with the real scripts.
+class CapacityLedgerTests {
+
+	private static final String URL = "jdbc:h2:mem:ledger;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+	private static final int CAPACITY = 3;
+	private static final long DOCTOR = 11;
+
+	private final LocalDate day = LocalDate.now().plusDays(2);
+	private final List<AnnotationConfigApplicationContext> nodes = new ArrayList<>();
+	private JdbcTemplate db;
+
+	@Configuration
+	@Import({ CapacityLedgerDAO.class, CapacityLedgerBO.class, ScatterGatherBO.class })
+	static class Node {
+
+		@Bean
+		DataSource dataSource() {
+			return new SimpleDriverDataSource(new org.h2.Driver(), URL, "sa", "");
+		}
+
+		@Bean
+		JdbcTemplate jdbcTemplate(DataSource dataSource) {
+			return new JdbcTemplate(dataSource);
+		}
+
+		@Bean
+		PlatformTransactionManager transactionManager(DataSource dataSource) {
+			return new DataSourceTransactionManager(dataSource);
+		}
+
+		@Bean
+		ShardProperties shardProperties() {
+			return new ShardProperties();
+		}
+
+		@Bean
+		ExecutorService scatterExecutor() {
+			return Executors.newSingleThreadExecutor();
+		}
+	}
+
+	@BeforeAll
+	static void migrate() {
+		Flyway.configure().dataSource(URL, "sa", "").load().migrate();
+		JdbcTemplate t = new JdbcTemplate(new SimpleDriverDataSource(new org.h2.Driver(), URL, "sa", ""));
+		t.execute("CREATE TABLE booked_slots (node int, doctor_id bigint, appointment_date date)");
+	}
+
+	@BeforeEach
+	void setUp() {
+		for (int i = 0; i < 2; i++) {
+			AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext();
+			ctx.getEnvironment().getPropertySources().addFirst(
+					new MapPropertySource("node", Map.of("appointment.slots-per-doctor-day", CAPACITY)));
+			ctx.register(Node.class);
+			ctx.refresh();
+			nodes.add(ctx);
+		}
+		db = nodes.get(0).getBean(JdbcTemplate.class);
+		db.update("DELETE FROM doctor_day_capacity");
+		db.update("DELETE FROM booked_slots");
+	}
+
+	@AfterEach
+	void tearDown() {
+		nodes.forEach(AnnotationConfigApplicationContext::close);
+		nodes.clear();
+	}
+
+	// many bookings race for the same doctor day from both nodes, starting
+	// before the day has a ledger row; exactly the capacity gets through
+	@Test
+	void nodesNeverOverbookTheSameDay() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(16);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Boolean>> results = new ArrayList<>();
+		try {
+			for (int i = 0; i < 40; i++) {
+				int node = i % 2;
+				Callable<Boolean> booking = () -> {
+					start.await();
+					return book(node, DOCTOR, day);
+				};
+				results.add(pool.submit(booking));
+			}
+			start.countDown();
+			int booked = 0;
+			for (Future<Boolean> f : results) {
+				booked += f.get() ? 1 : 0;
+			}
+			assertEquals(CAPACITY, booked);
+		} finally {
+			pool.shutdownNow();
+		}
+		assertEquals(CAPACITY, db.queryForObject("SELECT COUNT(*) FROM booked_slots", Integer.class));
+		assertEquals(CAPACITY, nodes.get(1).getBean(CapacityLedgerDAO.class).booked(DOCTOR, day));
+	}
+
+	// the slot is taken inside the booking transaction, so a booking that
+	// fails afterwards leaves it free
+	@Test
+	void rolledBackBookingsGiveTheSlotBack() {
+		CapacityLedgerBO ledger = nodes.get(0).getBean(CapacityLedgerBO.class);
+		TransactionTemplate tx = new TransactionTemplate(nodes.get(0).getBean(PlatformTransactionManager.class));
+		assertThrows(IllegalStateException.class, () -> tx.executeWithoutResult(s -> {
+			ledger.take(DOCTOR, day);
+			throw new IllegalStateException("insert failed");
+		}));
+		assertEquals(0, nodes.get(1).getBean(CapacityLedgerDAO.class).booked(DOCTOR, day));
+
+		// a bundle that does not fit changes nothing, even when committed
+		for (int i = 0; i < CAPACITY - 1; i++) {
+			book(1, DOCTOR, day);
+		}
+		DoctorDateKey other = new DoctorDateKey(DOCTOR + 1, day);
+		DoctorDateKey full = tx.execute(s -> ledger.apply(Map.of(other, 1L, new DoctorDateKey(DOCTOR, day), 2L)));
+		assertEquals(new DoctorDateKey(DOCTOR, day), full);
+		assertEquals(0, nodes.get(0).getBean(CapacityLedgerDAO.class).booked(DOCTOR + 1, day));
+		assertEquals(CAPACITY - 1, nodes.get(0).getBean(CapacityLedgerDAO.class).booked(DOCTOR, day));
+		assertNull(tx.execute(s -> ledger.apply(Map.of(other, 1L, new DoctorDateKey(DOCTOR, day), 1L))));
+	}
+
+	// like AppointmentsBO: take the slot, then insert, in one transaction
+	private boolean book(int node, long doctorId, LocalDate date) {
+		AnnotationConfigApplicationContext ctx = nodes.get(node);
+		CapacityLedgerBO ledger = ctx.getBean(CapacityLedgerBO.class);
+		JdbcTemplate jdbc = ctx.getBean(JdbcTemplate.class);
+		return new TransactionTemplate(ctx.getBean(PlatformTransactionManager.class)).execute(s -> {
+			if (!ledger.take(doctorId, date)) {
+				return false;
+			}
+			jdbc.update("INSERT INTO booked_slots VALUES (?, ?, ?)", node, doctorId, Date.valueOf(date));
+			return true;
+		});
+	}
+}
@@ -0,0 +1,135 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.HospitalAppointmentScheduling.CustomExceptions.AppointmentException;
+import com.HospitalAppointmentScheduling.DAO.AppointmentBatchDAO;
+import com.HospitalAppointmentScheduling.DAO.AppointmentsRepo;
+import com.HospitalAppointmentScheduling.DAO.CapacityLedgerDAO;
+import com.HospitalAppointmentScheduling.DAO.DoctorRepo;
+import com.HospitalAppointmentScheduling.DAO.PatientRepo;
+import com.HospitalAppointmentScheduling.Entity.AppointmentsVO;
+import com.HospitalAppointmentScheduling.Entity.DoctorVO;
+import com.HospitalAppointmentScheduling.Entity.PatientVO;
+
+// The capacity ledger is real, on an embedded database migrated with the real
+// scripts; everything else the bundle talks to is mocked.
+class CareBundleTests {
+
+	private static final String URL = "jdbc:h2:mem:carebundle;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+	private static final long PATIENT = 1;
+
+	private final LocalDate day = LocalDate.now().plusDays(3);
+	private CapacityLedgerDAO ledgerDAO;
+	private CareBundleBO bundle;
+
+	@BeforeEach
+	void setUp() {
+		Flyway.configure().dataSource(URL, "sa", "").load().migrate();
+		JdbcTemplate jdbc = new JdbcTemplate(new SimpleDriverDataSource(new org.h2.Driver(), URL, "sa", ""));
+		jdbc.update("DELETE FROM doctor_day_capacity");
+		ledgerDAO = new CapacityLedgerDAO();
+		ReflectionTestUtils.setField(ledgerDAO, "jdbc", jdbc);
+
+		bundle = new CareBundleBO();
+		bundle.ledger = new CapacityLedgerBO();
+		bundle.ledger.ledgerDAO = ledgerDAO;
+		bundle.apptBO = Mockito.mock(AppointmentsBO.class);
+		bundle.appointmentsRepo = Mockito.mock(AppointmentsRepo.class);
+		bundle.batchDAO = Mockito.mock(AppointmentBatchDAO.class);
+		bundle.patientRepo = Mockito.mock(PatientRepo.class);
+		bundle.doctorRepo = Mockito.mock(DoctorRepo.class);
+		bundle.slotLocks = Mockito.mock(SlotLockBO.class);
+		bundle.waitlistBO = Mockito.mock(WaitlistBO.class);
+		bundle.countBO = Mockito.mock(AppointmentCountBO.class);
+		bundle.analyticsBO = Mockito.mock(PatientAnalyticsBO.class);
+		bundle.shardMap = Mockito.mock(ShardMapBO.class);
+		bundle.publisher = Mockito.mock(ApplicationEventPublisher.class);
+		ReflectionTestUtils.setField(bundle, "maxSize", 20);
+
+		PatientVO patient = new PatientVO();
+		patient.setPatientId(PATIENT);
+		Mockito.when(bundle.patientRepo.findById(PATIENT)).thenReturn(Optional.of(patient));
+		Mockito.when(bundle.doctorRepo.findAllById(ArgumentMatchers.any())).thenAnswer(i -> {
+			List<DoctorVO> found = new ArrayList<>();
+			for (Long id : i.<Iterable<Long>>getArgument(0)) {
+				found.add(doctor(id));
+			}
+			return found;
+		});
+		Mockito.when(bundle.waitlistBO.canBook(Mockito.anyLong(), Mockito.any(), Mockito.anyInt())).thenReturn(true);
+		Mockito.when(bundle.shardMap.shardOfDoctor(Mockito.anyLong())).thenReturn(ShardContext.DEFAULT);
+	}
+
+	@Test
+	void booksEveryDay() throws Exception {
+		assertEquals(2, bundle.book(PATIENT, List.of(appointment(7, day), appointment(8, day))).size());
+		assertEquals(1, ledgerDAO.booked(7, day));
+		assertEquals(1, ledgerDAO.booked(8, day));
+		Mockito.verify(bundle.batchDAO).insertAll(Mockito.anyList());
+	}
+
+	// the first day was taken in the ledger before the second turned out full
+	@Test
+	void aFullSecondDayGivesTheFirstBack() {
+		ledgerDAO.force(8, day, 5, 5);
+		AppointmentException e = assertThrows(AppointmentException.class,
+				() -> bundle.book(PATIENT, List.of(appointment(7, day), appointment(8, day))));
+		assertTrue(e.getMessage().contains("doctor 8 is fully booked"), e.getMessage());
+		assertEquals(0, ledgerDAO.booked(7, day));
+		assertEquals(5, ledgerDAO.booked(8, day));
+		Mockito.verify(bundle.batchDAO, Mockito.never()).insertAll(Mockito.anyList());
+		Mockito.verify(bundle.countBO, Mockito.never()).adjusted(Mockito.anyMap());
+	}
+
+	@Test
+	void aDoctorTwiceOnOneDayIsRefused() {
+		AppointmentException e = assertThrows(AppointmentException.class,
+				() -> bundle.book(PATIENT, List.of(appointment(7, day), appointment(7, day))));
+		assertTrue(e.getMessage().contains("appears twice"), e.getMessage());
+		assertEquals(0, ledgerDAO.booked(7, day));
+		Mockito.verify(bundle.batchDAO, Mockito.never()).insertAll(Mockito.anyList());
+	}
+
+	@Test
+	void doctorsOnTwoShardsAreRefused() {
+		Mockito.when(bundle.shardMap.shardOfDoctor(8)).thenReturn("north");
+		AppointmentException e = assertThrows(AppointmentException.class,
+				() -> bundle.book(PATIENT, List.of(appointment(7, day), appointment(8, day))));
+		assertTrue(e.getMessage().contains("same shard"), e.getMessage());
+		assertEquals(0, ledgerDAO.booked(7, day));
+		assertEquals(0, ledgerDAO.booked(8, day));
+		Mockito.verify(bundle.batchDAO, Mockito.never()).insertAll(Mockito.anyList());
+	}
+
+	private AppointmentsVO appointment(long doctorId, LocalDate date) {
+		AppointmentsVO a = new AppointmentsVO();
+		a.setDoctor(doctor(doctorId));
+		a.setAppointmentDate(date);
+		a.setReason("checkup");
+		return a;
+	}
+
+	private DoctorVO doctor(long doctorId) {
+		DoctorVO doctor = new DoctorVO();
+		doctor.setDoctorId(doctorId);
+		return doctor;
+	}
+}
@@ -0,0 +1,59 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+class ChangeLogTests {
+
+	@TempDir
+	Path dir;
+
+	private ChangeLogBO changeLog;
+	private Path file;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		file = dir.resolve("changes.log");
+		changeLog = new ChangeLogBO();
+		changeLog.mapper = JsonMapper.builder().findAndAddModules().build();
+		ReflectionTestUtils.setField(changeLog, "path", file.toString());
+		changeLog.open();
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		changeLog.close();
+	}
+
+	// bytes an append is still writing are past the end a reader starts with
+	@Test
+	void readersStopAtTheLastCompleteEvent() throws IOException {
+		changeLog.append(List.of(event(1), event(2)));
+		Files.write(file, "{\"offset\":3,\"eventId\":3,\"aggr".getBytes(StandardCharsets.UTF_8),
+				StandardOpenOption.APPEND);
+
+		List<ChangeEvent> read = changeLog.readAfter(0, 10);
+		assertEquals(List.of(1L, 2L), read.stream().map(ChangeEvent::offset).toList());
+		assertEquals(List.of(2L), changeLog.readAfter(1, 10).stream().map(ChangeEvent::offset).toList());
+	}
+
+	private static ChangeEvent event(long offset) {
+		return new ChangeEvent(offset, offset, OutboxBO.APPOINTMENT, offset, "AppointmentBooked", "{}",
+				LocalDateTime.of(2030, 1, 1, 9, 0));
+	}
+}
@@ -0,0 +1,105 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.HospitalAppointmentScheduling.BO.ColumnarAnalyticsBO.Dimension;
+import com.HospitalAppointmentScheduling.BO.ColumnarAnalyticsBO.Filter;
+import com.HospitalAppointmentScheduling.BO.ColumnarAnalyticsBO.Row;
+import com.HospitalAppointmentScheduling.DAO.AppointmentSnapshotDAO;
+import com.HospitalAppointmentScheduling.WebConfig.ShardProperties;
+
+class ColumnarAnalyticsTests {
+
+	private static final LocalDate DAY = LocalDate.of(2025, 1, 15);
+	private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 1, 9, 0);
+	private static final Filter ALL = new Filter(null, null, null, null, null);
+
+	// stands in for the appointments table
+	private final List<Row> table = new ArrayList<>();
+	private ColumnarAnalyticsBO columnar;
+
+	@BeforeEach
+	void setUp() {
+		for (int a = 1; a <= 10_000; a++) {
+			if (a == 5000) {
+				// committed late, see refreshUpdatesAppendsAndMergesLateRows
+				continue;
+			}
+			table.add(new Row(a, DAY.plusDays(a % 7), 1 + a % 100, 1 + a % 5, a % 10 == 0 ? "Cancelled" : "Pending",
+					a % 2 == 0 ? "fever" : "checkup", T0));
+		}
+		columnar = new ColumnarAnalyticsBO();
+		columnar.snapshotDAO = new AppointmentSnapshotDAO() {
+			@Override
+			public void streamAll(RowSink sink) {
+				table.forEach(r -> sink.row(r.id(), r.date(), r.patientId(), r.doctorId(), r.status(), r.reason(),
+						r.updatedAt()));
+			}
+		};
+		columnar.scatter = new ScatterGatherBO();
+		columnar.scatter.shardProps = new ShardProperties();
+		columnar.pool = new ForkJoinPool(4);
+		// small leaves so the scans really fork
+		columnar.leafSize = 500;
+		columnar.rebuild();
+	}
+
+	@AfterEach
+	void tearDown() {
+		columnar.pool.shutdown();
+	}
+
+	@Test
+	void groupsAndFiltersLikeTheAggregateQueries() {
+		Map<String, Long> byDate = columnar.count(Dimension.DATE, ALL, 0);
+		assertEquals(7, byDate.size());
+		assertEquals(DAY.toString(), byDate.keySet().iterator().next());
+		assertEquals(9_999, byDate.values().stream().mapToLong(Long::longValue).sum());
+
+		assertEquals(Map.of("Pending", 9_000L, "Cancelled", 999L), columnar.count(Dimension.STATUS, ALL, 0));
+		assertEquals(2_000L, columnar.count(Dimension.DOCTOR, ALL, 0).get("3"));
+		assertEquals(100L, columnar.count(Dimension.PATIENT, new Filter(null, null, null, 7L, null), 0).get("7"));
+		assertEquals(1, columnar.count(Dimension.PATIENT, ALL, 1).size());
+
+		// doctor 3 is a % 5 == 2, on DAY a % 7 == 0: a multiple of 7 ending in 2 or 7
+		long expected = table.stream().filter(r -> r.doctorId() == 3 && r.date().equals(DAY)).count();
+		assertEquals(Map.of(DAY.toString(), expected),
+				columnar.count(Dimension.DATE, new Filter(DAY, DAY, 3L, null, null), 0));
+		assertTrue(columnar.count(Dimension.REASON, new Filter(null, null, null, null, "Unknown"), 0).isEmpty());
+		assertTrue(columnar.bytesPerAppointment() < 32);
+	}
+
+	@Test
+	void refreshUpdatesAppendsAndMergesLateRows() {
+		LocalDateTime t1 = T0.plusMinutes(5);
+		List<Row> changed = new ArrayList<>();
+		// moved to another doctor, a new booking, and one that committed late
+		changed.add(new Row(5, DAY, 1, 9, "Pending", "fever", t1));
+		changed.add(new Row(10_001, DAY, 1, 9, "Pending", "fever", t1));
+		changed.add(new Row(5000, DAY, 1, 9, "Pending", "rash", t1));
+		columnar.apply(changed);
+
+		assertEquals(10_001, columnar.size());
+		assertEquals(3L, columnar.count(Dimension.DOCTOR, ALL, 0).get("9"));
+		assertEquals(1L, columnar.count(Dimension.REASON, ALL, 0).get("rash"));
+		// the append and the merge leave only a little room
+		assertTrue(columnar.bytesPerAppointment() < 32);
+
+		columnar.onChange(new ChangeEvent(1, 1, OutboxBO.APPOINTMENT, 10_001, "AppointmentDeleted", "{}", t1));
+		assertEquals(2L, columnar.count(Dimension.DOCTOR, ALL, 0).get("9"));
+		columnar.onChange(new ChangeEvent(2, 2, OutboxBO.PATIENT, 1, "PatientDeleted", "{}", t1));
+		assertEquals(null, columnar.count(Dimension.PATIENT, ALL, 0).get("1"));
+	}
+}
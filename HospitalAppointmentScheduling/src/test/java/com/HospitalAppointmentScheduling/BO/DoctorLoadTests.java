@@ -0,0 +1,56 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.HospitalAppointmentScheduling.BO.DoctorLoadBO.LoadHeap;
+
+class DoctorLoadTests {
+
+	// every assignment goes to a doctor with the lowest load, ties to the
+	// lowest ID, also after loads change behind the heap's back
+	@Test
+	void assignsTheLeastLoadedDoctor() {
+		Random random = new Random(7);
+		int n = 50;
+		long[] ids = new long[n];
+		int[] loads = new int[n];
+		for (int i = 0; i < n; i++) {
+			ids[i] = 100 + i;
+			loads[i] = random.nextInt(10);
+		}
+		LoadHeap heap = new LoadHeap(ids, loads);
+		for (int round = 0; round < 2000; round++) {
+			if (random.nextInt(3) == 0) {
+				int i = random.nextInt(n);
+				loads[i] = random.nextInt(20);
+				heap.update(ids[i], loads[i]);
+				continue;
+			}
+			int least = -1;
+			for (int i = 0; i < n; i++) {
+				if (loads[i] < 20 && (least < 0 || loads[i] < loads[least])) {
+					least = i;
+				}
+			}
+			long assigned = heap.takeBelow(20);
+			assertEquals(least < 0 ? -1 : ids[least], assigned);
+			if (least >= 0) {
+				loads[least]++;
+				assertEquals(loads[least], heap.loadOf(assigned));
+			}
+		}
+	}
+
+	@Test
+	void noDoctorWhenAllAreAtTheLimit() {
+		LoadHeap heap = new LoadHeap(new long[] { 1, 2 }, new int[] { 3, 2 });
+		assertEquals(2, heap.takeBelow(3));
+		assertEquals(-1, heap.takeBelow(3));
+		heap.update(1, 1);
+		assertEquals(1, heap.takeBelow(3));
+	}
+}
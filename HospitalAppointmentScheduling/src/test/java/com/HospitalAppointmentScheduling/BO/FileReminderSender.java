@@ -0,0 +1,29 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// test stub: appends one line per reminder to a local file
+class FileReminderSender implements ReminderSender {
+
+	private final Path file;
+
+	FileReminderSender(Path file) {
+		this.file = file;
+	}
+
+	@Override
+	public synchronized void send(Reminder reminder) throws IOException {
+		String line = reminder.appointmentId() + "," + reminder.appointmentDate() + "," + reminder.patientEmail()
+				+ "," + reminder.remindAt() + System.lineSeparator();
+		Files.writeString(file, line, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+	}
+
+	List<String> lines() throws IOException {
+		return Files.exists(file) ? Files.readAllLines(file) : List.of();
+	}
+}
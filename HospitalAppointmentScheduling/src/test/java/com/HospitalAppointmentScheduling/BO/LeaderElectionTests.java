@@ -0,0 +1,162 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import com.HospitalAppointmentScheduling.BO.LeaderElectionBO.Lease;
+import com.HospitalAppointmentScheduling.DAO.LeaseDAO;
+import com.HospitalAppointmentScheduling.WebConfig.LeaderOnlyAspect;
+
+// Two application contexts stand in for two app nodes sharing one embedded
+// database. Heartbeats are driven by hand instead of by the scheduler.
+class LeaderElectionTests {
+
+	private static final String URL = "jdbc:h2:mem:leases;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+	private static final long LEASE_MS = 400;
+
+	private final List<AnnotationConfigApplicationContext> nodes = new ArrayList<>();
+
+	public static class Job {
+
+		private int runs;
+		private long lastToken;
+
+		@LeaderOnly("test-job")
+		public void run() {
+			runs++;
+			lastToken = LeaderElectionBO.current().token();
+		}
+
+		// through methods, the fields of the proxy itself stay unset
+		public int runs() {
+			return runs;
+		}
+
+		public long lastToken() {
+			return lastToken;
+		}
+	}
+
+	@Configuration
+	@EnableAspectJAutoProxy(proxyTargetClass = true)
+	@Import({ LeaseDAO.class, LeaderElectionBO.class, LeaderOnlyAspect.class, Job.class })
+	static class Node {
+
+		@Bean
+		DataSource dataSource() {
+			return new SimpleDriverDataSource(new org.h2.Driver(), URL, "sa", "");
+		}
+
+		@Bean
+		JdbcTemplate jdbcTemplate(DataSource dataSource) {
+			return new JdbcTemplate(dataSource);
+		}
+	}
+
+	@BeforeAll
+	static void migrate() {
+		Flyway.configure().dataSource(URL, "sa", "").load().migrate();
+	}
+
+	@BeforeEach
+	void setUp() {
+		new JdbcTemplate(new SimpleDriverDataSource(new org.h2.Driver(), URL, "sa", ""))
+				.update("DELETE FROM scheduler_leases");
+		for (int i = 0; i < 2; i++) {
+			AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext();
+			ctx.getEnvironment().getPropertySources().addFirst(new MapPropertySource("node",
+					Map.of("leader.lease-ms", LEASE_MS, "leader.node-id", "node-" + i)));
+			ctx.register(Node.class);
+			ctx.refresh();
+			nodes.add(ctx);
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		nodes.forEach(AnnotationConfigApplicationContext::close);
+		nodes.clear();
+	}
+
+	@Test
+	void onlyTheLeaderRunsTheJob() {
+		for (int i = 0; i < 5; i++) {
+			job(0).run();
+			job(1).run();
+			election(1).heartbeat();
+		}
+		assertEquals(5, job(0).runs());
+		assertEquals(0, job(1).runs());
+		assertEquals(1, job(0).lastToken());
+	}
+
+	// the leader stops renewing; after the lease runs out the other node takes
+	// over with a higher token, and the old leader's writes are fenced off
+	@Test
+	void anotherNodeTakesOverAnExpiredLease() throws Exception {
+		job(0).run();
+		Lease stale = new Lease("test-job", job(0).lastToken());
+		job(1).run();
+		assertEquals(0, job(1).runs());
+
+		Thread.sleep(LEASE_MS + 200);
+		election(1).heartbeat();
+		assertTrue(election(1).leading().contains("test-job"));
+		job(1).run();
+		assertEquals(1, job(1).runs());
+		assertTrue(job(1).lastToken() > stale.token());
+
+		Lease previous = LeaderElectionBO.enter(stale);
+		try {
+			assertThrows(IllegalStateException.class, () -> election(0).fence());
+		} finally {
+			LeaderElectionBO.leave(previous);
+		}
+		job(0).run();
+		assertEquals(1, job(0).runs());
+	}
+
+	// a node shutting down cleanly hands its jobs over without waiting out
+	// the lease
+	@Test
+	void cleanShutdownHandsOverAtOnce() {
+		job(0).run();
+		job(1).run();
+		nodes.remove(0).close();
+
+		// the second node is the only one left
+		election(0).heartbeat();
+		job(0).run();
+		assertEquals(1, job(0).runs());
+		assertEquals(2, job(0).lastToken());
+	}
+
+	private Job job(int node) {
+		return nodes.get(node).getBean(Job.class);
+	}
+
+	private LeaderElectionBO election(int node) {
+		return nodes.get(node).getBean(LeaderElectionBO.class);
+	}
+}
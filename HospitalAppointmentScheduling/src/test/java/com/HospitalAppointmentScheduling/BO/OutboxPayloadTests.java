@@ -0,0 +1,69 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import com.HospitalAppointmentScheduling.DAO.OutboxRepo;
+import com.HospitalAppointmentScheduling.Entity.AppointmentsVO;
+import com.HospitalAppointmentScheduling.Entity.DoctorVO;
+import com.HospitalAppointmentScheduling.Entity.OutboxEventVO;
+import com.HospitalAppointmentScheduling.Entity.PatientVO;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+// the change stream is served without a login, payloads must not identify
+// or describe the patient
+class OutboxPayloadTests {
+
+	private OutboxBO outbox;
+	private PatientVO patient;
+
+	@BeforeEach
+	void setUp() {
+		outbox = new OutboxBO();
+		outbox.outboxRepo = Mockito.mock(OutboxRepo.class);
+		// dates as text, like the mapper Spring Boot configures
+		outbox.mapper = JsonMapper.builder().findAndAddModules()
+				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+		patient = new PatientVO();
+		patient.setPatientId(1L);
+		patient.setFirstName("Asha");
+		patient.setLastName("Nair");
+		patient.setDob(LocalDate.of(1990, 1, 1));
+		patient.setPatientPhone("9000000000");
+		patient.setPatientEmail("asha@example.com");
+	}
+
+	@Test
+	void patientEventsCarryOnlyTheId() {
+		outbox.patientEvent("PatientUpdated", patient);
+		assertEquals("{\"patientId\":1}", saved());
+	}
+
+	@Test
+	void appointmentEventsLeaveTheReasonOut() {
+		DoctorVO doctor = new DoctorVO();
+		doctor.setDoctorId(7L);
+		AppointmentsVO appt = new AppointmentsVO();
+		appt.setAppointmentID(5L);
+		appt.setAppointmentDate(LocalDate.of(2030, 3, 4));
+		appt.setReason("chest pain");
+		appt.setDoctor(doctor);
+		appt.setPatient(patient);
+
+		outbox.appointmentEvent("AppointmentBooked", appt);
+		assertEquals("{\"appointmentId\":5,\"appointmentDate\":\"2030-03-04\",\"doctorId\":7,\"patientId\":1}", saved());
+	}
+
+	private String saved() {
+		ArgumentCaptor<OutboxEventVO> row = ArgumentCaptor.forClass(OutboxEventVO.class);
+		Mockito.verify(outbox.outboxRepo).save(row.capture());
+		return row.getValue().getPayload();
+	}
+}
@@ -0,0 +1,182 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.HospitalAppointmentScheduling.DAO.LeaseDAO;
+import com.HospitalAppointmentScheduling.DAO.OutboxDAO;
+import com.HospitalAppointmentScheduling.WebConfig.ShardProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+// Two application contexts stand in for two app nodes, each with its own
+// change log file, sharing one embedded database migrated with the real
+// scripts. Outbox rows are inserted with their IDs, so a missing ID is a
+// transaction that has not committed yet.
+class OutboxRelayTests {
+
+	private static final String URL = "jdbc:h2:mem:outbox;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+	@TempDir
+	Path dir;
+
+	private final List<AnnotationConfigApplicationContext> nodes = new ArrayList<>();
+	private JdbcTemplate db;
+
+	@Configuration
+	@Import({ OutboxDAO.class, OutboxRelayBO.class, ChangeLogBO.class, LeaderElectionBO.class, LeaseDAO.class,
+			ShardProperties.class, Received.class })
+	static class Node {
+
+		@Bean
+		DataSource dataSource() {
+			return new SimpleDriverDataSource(new org.h2.Driver(), URL, "sa", "");
+		}
+
+		@Bean
+		JdbcTemplate jdbcTemplate(DataSource dataSource) {
+			return new JdbcTemplate(dataSource);
+		}
+
+		@Bean
+		PlatformTransactionManager transactionManager(DataSource dataSource) {
+			return new DataSourceTransactionManager(dataSource);
+		}
+
+		@Bean
+		ObjectMapper objectMapper() {
+			return JsonMapper.builder().findAndAddModules().build();
+		}
+	}
+
+	// what the node's event bus delivered
+	static class Received {
+
+		final List<Long> eventIds = new ArrayList<>();
+
+		@EventListener
+		public void onChange(ChangeEvent event) {
+			eventIds.add(event.eventId());
+		}
+	}
+
+	@BeforeAll
+	static void migrate() {
+		Flyway.configure().dataSource(URL, "sa", "").load().migrate();
+	}
+
+	@BeforeEach
+	void setUp() {
+		for (int i = 0; i < 2; i++) {
+			AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext();
+			ctx.getEnvironment().getPropertySources().addFirst(new MapPropertySource("node",
+					Map.of("outbox.log.path", dir.resolve("node" + i + ".log").toString(), "outbox.gap-wait-ms", 60_000)));
+			ctx.register(Node.class);
+			ctx.refresh();
+			nodes.add(ctx);
+		}
+		db = nodes.get(0).getBean(JdbcTemplate.class);
+		db.update("DELETE FROM outbox_events");
+	}
+
+	@AfterEach
+	void tearDown() {
+		nodes.forEach(AnnotationConfigApplicationContext::close);
+		nodes.clear();
+	}
+
+	@Test
+	void eventsBehindAnUncommittedIdWaitForIt() throws IOException {
+		insert(1, 2, 4);
+		relay(0).relay();
+		assertEquals(List.of(1L, 2L), numbered());
+
+		insert(3);
+		relay(0).relay();
+		assertEquals(List.of(1L, 2L, 3L, 4L), numbered());
+
+		// every node's log and bus get the whole stream in the same order
+		for (int i = 0; i < nodes.size(); i++) {
+			relay(i).follow();
+			List<Long> logged = new ArrayList<>();
+			List<Long> offsets = new ArrayList<>();
+			for (ChangeEvent e : nodes.get(i).getBean(ChangeLogBO.class).readAfter(0, 10)) {
+				logged.add(e.eventId());
+				offsets.add(e.offset());
+			}
+			assertEquals(List.of(1L, 2L, 3L, 4L), logged);
+			assertEquals(List.of(1L, 2L, 3L, 4L), offsets);
+			assertEquals(List.of(1L, 2L, 3L, 4L), nodes.get(i).getBean(Received.class).eventIds);
+		}
+	}
+
+	// a rolled back insert leaves a hole for good; it is waited on only for
+	// gap-wait-ms, and a row that commits after that still goes out
+	@Test
+	void aGapIsWaitedOnForABoundedTime() throws InterruptedException {
+		relay(0).gapWaitMs = 50;
+		insert(1, 3);
+		relay(0).relay();
+		assertEquals(List.of(1L), numbered());
+
+		Thread.sleep(60);
+		relay(0).relay();
+		assertEquals(List.of(1L, 3L), numbered());
+
+		insert(2);
+		relay(0).relay();
+		assertEquals(List.of(1L, 3L, 2L), numbered());
+	}
+
+	// a node taking the relay over carries on from the rows numbered before
+	@Test
+	void anotherNodeContinuesTheNumbering() {
+		insert(1, 2);
+		relay(0).relay();
+		insert(3);
+		relay(1).relay();
+		relay(0).relay();
+		assertEquals(List.of(1L, 2L, 3L), numbered());
+	}
+
+	private OutboxRelayBO relay(int node) {
+		return nodes.get(node).getBean(OutboxRelayBO.class);
+	}
+
+	private void insert(long... eventIds) {
+		for (long id : eventIds) {
+			db.update("INSERT INTO outbox_events (event_id, aggregate_type, aggregate_id, event_type, payload, "
+					+ "created_at) VALUES (?, 'appointment', ?, 'AppointmentBooked', '{}', CURRENT_TIMESTAMP)", id, id);
+		}
+	}
+
+	// event IDs in stream order
+	private List<Long> numbered() {
+		return db.queryForList("SELECT event_id FROM outbox_events WHERE log_offset IS NOT NULL ORDER BY log_offset",
+				Long.class);
+	}
+}
@@ -0,0 +1,62 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.log4j.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+class PasswordHashBenchmarkTests {
+
+	private static final int[] COST_FACTORS = { 10_000, 60_000, 120_000, 240_000 };
+	private static final int THREADS = 4;
+	private static final int VERIFICATIONS = 16;
+
+	Logger log = Logger.getLogger(PasswordHashBenchmarkTests.class);
+
+	@Test
+	void verifiesOwnHashesAndPlainLegacyValues() {
+		PasswordHashBO bo = new PasswordHashBO(1_000);
+		String stored = bo.hash("Secret@123");
+		assertTrue(bo.verify("Secret@123", stored));
+		assertFalse(bo.verify("Secret@124", stored));
+		assertFalse(bo.needsRehash(stored));
+		assertTrue(bo.verify("Secret@123", "Secret@123"));
+		assertTrue(bo.needsRehash("Secret@123"));
+		assertTrue(new PasswordHashBO(2_000).needsRehash(stored));
+	}
+
+	// logs logins per second for each cost factor on a pool the size of the
+	// production login pool; left out of the default test run
+	@Test
+	@Tag("benchmark")
+	void loginThroughputPerCostFactor() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		try {
+			for (int cost : COST_FACTORS) {
+				PasswordHashBO bo = new PasswordHashBO(cost);
+				String stored = bo.hash("Secret@123");
+				long start = System.nanoTime();
+				List<Future<Boolean>> results = new ArrayList<>();
+				for (int i = 0; i < VERIFICATIONS; i++) {
+					results.add(pool.submit(() -> bo.verify("Secret@123", stored)));
+				}
+				for (Future<Boolean> f : results) {
+					assertTrue(f.get());
+				}
+				double seconds = (System.nanoTime() - start) / 1e9;
+				log.info(String.format("cost=%d threads=%d verifications/s=%.1f ms/verification=%.2f", cost, THREADS,
+						VERIFICATIONS / seconds, seconds * 1000 * THREADS / VERIFICATIONS));
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.HospitalAppointmentScheduling.DAO.AppointmentArchiveRepo;
+import com.HospitalAppointmentScheduling.DAO.AppointmentsRepo;
+import com.HospitalAppointmentScheduling.DAO.DobCountProjection;
+import com.HospitalAppointmentScheduling.DAO.PatientAppointmentCountProjection;
+import com.HospitalAppointmentScheduling.DAO.PatientRepo;
+import com.HospitalAppointmentScheduling.WebConfig.ShardProperties;
+
+// The grouped queries are mocked. Patient 1 has two live appointments and
+// three archived ones, patient 2 has four live ones.
+class PatientAnalyticsTests {
+
+	record Dob(LocalDate dob, Long total) implements DobCountProjection {
+		@Override
+		public LocalDate getDob() {
+			return dob;
+		}
+
+		@Override
+		public Long getTotal() {
+			return total;
+		}
+	}
+
+	record Count(Long patientId, Long total) implements PatientAppointmentCountProjection {
+		@Override
+		public Long getPatientId() {
+			return patientId;
+		}
+
+		@Override
+		public Long getTotal() {
+			return total;
+		}
+	}
+
+	private PatientAnalyticsBO analytics;
+
+	@BeforeEach
+	void setUp() {
+		analytics = new PatientAnalyticsBO();
+		analytics.patientRepo = Mockito.mock(PatientRepo.class);
+		analytics.appointmentsRepo = Mockito.mock(AppointmentsRepo.class);
+		analytics.archiveRepo = Mockito.mock(AppointmentArchiveRepo.class);
+		analytics.transactionManager = Mockito.mock(PlatformTransactionManager.class);
+		analytics.scatter = new ScatterGatherBO();
+		analytics.scatter.shardProps = new ShardProperties();
+		ReflectionTestUtils.setField(analytics, "topK", 10);
+		Mockito.when(analytics.patientRepo.countPatientsByDob())
+				.thenReturn(List.of(new Dob(LocalDate.of(1990, 1, 1), 2L)));
+		Mockito.when(analytics.appointmentsRepo.countAppointmentsByPatient())
+				.thenReturn(List.of(new Count(1L, 2L), new Count(2L, 4L)));
+		Mockito.when(analytics.archiveRepo.countByPatient()).thenReturn(List.of(new Count(1L, 3L)));
+	}
+
+	@Test
+	void archivedAppointmentsCountTowardsTheRanking() {
+		analytics.seed();
+		assertEquals(List.of(1L, 2L), analytics.mostActivePatientIds());
+		analytics.rebuild();
+		assertEquals(List.of(1L, 2L), analytics.mostActivePatientIds());
+	}
+
+	// bookings committed after the snapshot and applied while the queries
+	// run survive the swap to the rebuilt counters
+	@Test
+	void writesDuringARebuildAreKept() {
+		analytics.seed();
+		Mockito.when(analytics.archiveRepo.countByPatient()).thenAnswer(i -> {
+			analytics.booked(2L, 2);
+			return List.of(new Count(1L, 3L));
+		});
+		analytics.rebuild();
+		assertEquals(List.of(2L, 1L), analytics.mostActivePatientIds());
+	}
+}
@@ -0,0 +1,68 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.HospitalAppointmentScheduling.CustomExceptions.EmailException;
+import com.HospitalAppointmentScheduling.DAO.PatientRepo;
+import com.HospitalAppointmentScheduling.Entity.PatientVO;
+
+class PatientPatchTests {
+
+	private PatientBO patientBO;
+	private PatientVO stored;
+
+	// the stored email predates the validators and would fail them
+	@BeforeEach
+	void setUp() {
+		stored = new PatientVO();
+		stored.setPatientId(1L);
+		stored.setFirstName("Asha");
+		stored.setLastName("Nair");
+		stored.setDob(LocalDate.of(1990, 1, 1));
+		stored.setPatientPhone("9000000000");
+		stored.setPatientEmail("legacy");
+		stored.setPatientPassword("hash");
+		stored.setGender("female");
+
+		patientBO = new PatientBO();
+		patientBO.patientRepo = Mockito.mock(PatientRepo.class);
+		patientBO.credentialCache = Mockito.mock(CredentialCacheBO.class);
+		patientBO.passwordHashBO = Mockito.mock(PasswordHashBO.class);
+		patientBO.analyticsBO = Mockito.mock(PatientAnalyticsBO.class);
+		Mockito.when(patientBO.patientRepo.findById(1L)).thenReturn(Optional.of(stored));
+		Mockito.when(patientBO.patientRepo.save(stored)).thenReturn(stored);
+	}
+
+	@Test
+	void onlyTheChangedFieldIsValidatedAndSet() throws Exception {
+		PatientVO patch = new PatientVO();
+		patch.setPatientPhone("8000000000");
+		patch.setFirstName("Asha");
+
+		assertEquals(stored, patientBO.patchPatientDetails(patch, 1));
+		assertEquals("8000000000", stored.getPatientPhone());
+		assertEquals("legacy", stored.getPatientEmail());
+		assertEquals("hash", stored.getPatientPassword());
+		Mockito.verify(patientBO.patientRepo).existsByPhone("8000000000");
+		Mockito.verifyNoInteractions(patientBO.credentialCache, patientBO.passwordHashBO, patientBO.analyticsBO);
+	}
+
+	@Test
+	void nothingIsSetWhenAChangedFieldIsInvalid() {
+		PatientVO patch = new PatientVO();
+		patch.setPatientPhone("8000000000");
+		patch.setPatientEmail("no-at-sign");
+
+		assertThrows(EmailException.class, () -> patientBO.patchPatientDetails(patch, 1));
+		assertEquals("9000000000", stored.getPatientPhone());
+		Mockito.verify(patientBO.patientRepo, Mockito.never()).save(Mockito.any());
+	}
+}
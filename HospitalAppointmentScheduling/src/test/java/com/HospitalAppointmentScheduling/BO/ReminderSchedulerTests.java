@@ -0,0 +1,220 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Pageable;
+
+import com.HospitalAppointmentScheduling.DAO.AppointmentsRepo;
+import com.HospitalAppointmentScheduling.DAO.ReminderProjection;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class ReminderSchedulerTests {
+
+	private static final ZoneId ZONE = ZoneOffset.UTC;
+	private static final LocalDateTime START = LocalDateTime.of(2025, 3, 10, 8, 0);
+
+	@TempDir
+	Path dir;
+
+	// every timer fires within one tick of its deadline, in deadline order,
+	// whichever level of the wheel it started on
+	@Test
+	void wheelFiresTimersAcrossLevelsInOrder() {
+		long start = 1_741_593_600_000L;
+		TimingWheel<Long> wheel = new TimingWheel<>(1000, start);
+		Random random = new Random(42);
+		List<TimingWheel.Timer<Long>> cancelled = new ArrayList<>();
+		for (int i = 0; i < 20_000; i++) {
+			// up to about 40 days ahead, spanning the first four levels
+			long deadline = start + 1000 + (long) (random.nextDouble() * 3_500_000_000L);
+			TimingWheel.Timer<Long> t = wheel.schedule(deadline, deadline);
+			if (i % 10 == 0) {
+				cancelled.add(t);
+			}
+		}
+		for (TimingWheel.Timer<Long> t : cancelled) {
+			assertTrue(wheel.cancel(t));
+		}
+		assertEquals(18_000, wheel.size());
+
+		List<Long> fired = new ArrayList<>();
+		long now = start;
+		while (wheel.size() > 0) {
+			now += 60_000;
+			long tickEnd = now;
+			wheel.advance(now, deadline -> {
+				assertTrue(deadline <= tickEnd, "fired early: " + deadline + " at " + tickEnd);
+				assertTrue(deadline > tickEnd - 60_000 - 1000, "fired late: " + deadline + " at " + tickEnd);
+				fired.add(deadline);
+			});
+		}
+		assertEquals(18_000, fired.size());
+		for (int i = 1; i < fired.size(); i++) {
+			assertTrue(fired.get(i - 1) / 1000 <= fired.get(i) / 1000, "out of order at " + i);
+		}
+	}
+
+	// loads upcoming appointments page by page, sends each reminder once
+	// through the stub sender, and after a "restart" a fresh scheduler rebuilt
+	// from the same table only sends what is still due
+	@Test
+	void loadsInPagesSendsAndRebuildsAfterRestart() throws Exception {
+		Map<Long, LocalDate> table = new TreeMap<>();
+		LocalDate today = START.toLocalDate();
+		for (long id = 1; id <= 25; id++) {
+			table.put(id, today.plusDays(1 + id % 3));
+		}
+		AppointmentsRepo repo = fakeRepo(table);
+		FileReminderSender sender = new FileReminderSender(dir.resolve("reminders.txt"));
+		MutableClock clock = new MutableClock(START.atZone(ZONE).toInstant());
+
+		ReminderSchedulerBO first = scheduler(repo, sender, clock);
+		for (int i = 0; i < 10; i++) {
+			first.tick();
+		}
+		assertEquals(today.plusDays(7), first.loadedThrough());
+		assertEquals(25, first.pending());
+
+		// 09:00 today: reminders for tomorrow's appointments go out
+		clock.set(today.atTime(9, 0, 1).atZone(ZONE).toInstant());
+		first.tick();
+		List<String> sent = sender.lines();
+		assertEquals(count(table, today.plusDays(1)), sent.size());
+		assertTrue(sent.stream().allMatch(l -> l.contains("," + today.plusDays(1) + ",")));
+
+		clock.set(today.plusDays(1).atTime(9, 0, 1).atZone(ZONE).toInstant());
+		first.tick();
+		assertEquals(count(table, today.plusDays(1)) + count(table, today.plusDays(2)), sender.lines().size());
+
+		// restart an hour later: the reminders already sent are not repeated
+		clock.set(today.plusDays(1).atTime(10, 0).atZone(ZONE).toInstant());
+		ReminderSchedulerBO second = scheduler(repo, sender, clock);
+		for (int i = 0; i < 10; i++) {
+			second.tick();
+		}
+		assertEquals(count(table, today.plusDays(3)), second.pending());
+
+		clock.set(today.plusDays(2).atTime(9, 0, 1).atZone(ZONE).toInstant());
+		second.tick();
+		assertEquals(table.size(), sender.lines().size());
+		assertEquals(table.size(), sender.lines().stream().map(l -> l.split(",")[0]).collect(Collectors.toSet()).size());
+	}
+
+	private long count(Map<Long, LocalDate> table, LocalDate date) {
+		return table.values().stream().filter(date::equals).count();
+	}
+
+	private ReminderSchedulerBO scheduler(AppointmentsRepo repo, ReminderSender sender, Clock clock) {
+		ReminderSchedulerBO bo = new ReminderSchedulerBO();
+		bo.appointmentsRepo = repo;
+		bo.sender = sender;
+		bo.executor = Runnable::run;
+		bo.mapper = new ObjectMapper();
+		bo.clock = clock;
+		bo.pageSize = 4;
+		bo.init();
+		return bo;
+	}
+
+	// keyset pages over an in-memory table, like the JPQL query does
+	private AppointmentsRepo fakeRepo(Map<Long, LocalDate> table) {
+		AppointmentsRepo repo = Mockito.mock(AppointmentsRepo.class);
+		Mockito.when(repo.findUpcomingForReminders(Mockito.any(), Mockito.any(), Mockito.anyLong(), Mockito.any()))
+				.thenAnswer(inv -> {
+					LocalDate from = inv.getArgument(0);
+					LocalDate to = inv.getArgument(1);
+					long after = inv.getArgument(2);
+					Pageable page = inv.getArgument(3);
+					return table.entrySet().stream()
+							.filter(e -> e.getKey() > after && !e.getValue().isBefore(from) && !e.getValue().isAfter(to))
+							.limit(page.getPageSize()).map(e -> row(e.getKey(), e.getValue()))
+							.collect(Collectors.toList());
+				});
+		Mockito.when(repo.findReminderById(Mockito.anyLong())).thenAnswer(inv -> {
+			long id = inv.getArgument(0);
+			return table.containsKey(id) ? row(id, table.get(id)) : null;
+		});
+		return repo;
+	}
+
+	private ReminderProjection row(long id, LocalDate date) {
+		return new ReminderProjection() {
+			public Long getAppointmentId() {
+				return id;
+			}
+
+			public LocalDate getAppointmentDate() {
+				return date;
+			}
+
+			public String getReason() {
+				return "checkup";
+			}
+
+			public Long getPatientId() {
+				return id * 10;
+			}
+
+			public String getPatientName() {
+				return "Patient " + id;
+			}
+
+			public String getPatientEmail() {
+				return "p" + id + "@example.com";
+			}
+
+			public String getPatientPhone() {
+				return "9000000000";
+			}
+
+			public String getDoctorName() {
+				return "Doctor";
+			}
+		};
+	}
+
+	private static class MutableClock extends Clock {
+		private Instant now;
+
+		MutableClock(Instant now) {
+			this.now = now;
+		}
+
+		void set(Instant now) {
+			this.now = now;
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZONE;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.HospitalAppointmentScheduling.BO.AppointmentCountBO.DoctorDateKey;
+import com.HospitalAppointmentScheduling.BO.RescheduleBO.Move;
+import com.HospitalAppointmentScheduling.DAO.AffectedAppointmentProjection;
+
+class RescheduleBOTests {
+
+	private static final long ABSENT = 1;
+	private static final LocalDate FROM = LocalDate.of(2025, 6, 2);
+
+	// same day first, least loaded peer first, then the nearest later day
+	@Test
+	void prefersSameDayAndLeastLoadedPeer() {
+		List<AffectedAppointmentProjection> affected = List.of(row(10, FROM), row(11, FROM), row(12, FROM));
+		Map<DoctorDateKey, Integer> free = new HashMap<>();
+		free.put(new DoctorDateKey(2, FROM), 1);
+		free.put(new DoctorDateKey(3, FROM), 2);
+		free.put(new DoctorDateKey(3, FROM.plusDays(2)), 1);
+
+		List<Move> moves = new ArrayList<>();
+		List<Long> unplaceable = new ArrayList<>();
+		RescheduleBO.plan(affected, ABSENT, FROM, List.of(2L, 3L),
+				(d, day) -> free.getOrDefault(new DoctorDateKey(d, day), 0), 14, moves, unplaceable);
+
+		assertEquals(List.of(new Move(10, FROM, 3, FROM), new Move(11, FROM, 2, FROM),
+				new Move(12, FROM, 3, FROM)), moves);
+		assertTrue(unplaceable.isEmpty());
+	}
+
+	// 10k appointments over two weeks: nobody is overbooked, nothing moves
+	// backwards or past the search window, and what does not fit is reported
+	@Test
+	void placesTenThousandWithinCapacity() {
+		LocalDate to = FROM.plusDays(13);
+		List<AffectedAppointmentProjection> affected = new ArrayList<>();
+		for (int i = 0; i < 10_000; i++) {
+			affected.add(row(i + 1, FROM.plusDays(i % 14)));
+		}
+		affected.sort((a, b) -> a.getAppointmentDate().compareTo(b.getAppointmentDate()));
+		List<Long> peers = new ArrayList<>();
+		for (long d = 2; d < 42; d++) {
+			peers.add(d);
+		}
+		int capacity = 12;
+
+		List<Move> moves = new ArrayList<>();
+		List<Long> unplaceable = new ArrayList<>();
+		assertTimeoutPreemptively(Duration.ofSeconds(2), () -> RescheduleBO.plan(affected, ABSENT, to, peers,
+				(d, day) -> capacity - (int) (d % 5), 7, moves, unplaceable));
+
+		assertEquals(affected.size(), moves.size() + unplaceable.size());
+		assertFalse(unplaceable.isEmpty());
+		Map<DoctorDateKey, Integer> used = new HashMap<>();
+		Set<Long> seen = new HashSet<>();
+		for (Move m : moves) {
+			assertTrue(seen.add(m.appointmentId()));
+			assertFalse(m.toDate().isBefore(m.fromDate()));
+			assertTrue(m.toDate().isBefore(m.fromDate().plusDays(8)));
+			assertTrue(m.toDoctorId() != ABSENT || m.toDate().isAfter(to));
+			used.merge(new DoctorDateKey(m.toDoctorId(), m.toDate()), 1, Integer::sum);
+		}
+		used.forEach((k, n) -> assertTrue(n <= capacity - k.doctorId() % 5, "overbooked " + k));
+	}
+
+	private static AffectedAppointmentProjection row(long id, LocalDate date) {
+		return new AffectedAppointmentProjection() {
+			@Override
+			public Long getAppointmentId() {
+				return id;
+			}
+
+			@Override
+			public LocalDate getAppointmentDate() {
+				return date;
+			}
+
+			@Override
+			public Long getPatientId() {
+				return id;
+			}
+		};
+	}
+}
@@ -0,0 +1,90 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import com.HospitalAppointmentScheduling.WebConfig.ShardProperties;
+import com.HospitalAppointmentScheduling.WebConfig.ShardRoutingDataSource;
+
+// Two embedded H2 databases stand in for the default database and one shard,
+// each holding a different patient's appointments.
+class ScatterGatherTests {
+
+	private JdbcTemplate jdbc;
+	private ScatterGatherBO scatter;
+
+	@BeforeEach
+	void setUp() {
+		SimpleDriverDataSource main = h2("shard_default");
+		SimpleDriverDataSource north = h2("shard_north");
+		for (SimpleDriverDataSource ds : List.of(main, north)) {
+			JdbcTemplate t = new JdbcTemplate(ds);
+			t.execute("CREATE TABLE IF NOT EXISTS appts (id bigint, patient_id bigint)");
+			t.execute("DELETE FROM appts");
+		}
+		new JdbcTemplate(main).update("INSERT INTO appts VALUES (1, 7), (2, 8)");
+		new JdbcTemplate(north).update("INSERT INTO appts VALUES (1001, 7)");
+
+		// wired like ShardingConfig
+		ShardRoutingDataSource routing = new ShardRoutingDataSource();
+		routing.setTargetDataSources(Map.of(ShardContext.DEFAULT, main, "north", north));
+		routing.setDefaultTargetDataSource(main);
+		routing.afterPropertiesSet();
+		jdbc = new JdbcTemplate(routing);
+
+		ShardProperties props = new ShardProperties();
+		props.setEnabled(true);
+		ShardProperties.Node node = new ShardProperties.Node();
+		node.setName("north");
+		node.setUrl("jdbc:h2:mem:shard_north");
+		props.setNodes(List.of(node));
+		scatter = new ScatterGatherBO();
+		scatter.shardProps = props;
+		scatter.executor = Executors.newFixedThreadPool(2);
+	}
+
+	@AfterEach
+	void tearDown() {
+		scatter.executor.shutdownNow();
+	}
+
+	@Test
+	void readsEveryShardAndMergesInShardOrder() {
+		List<Long> ids = scatter.gatherAll(() -> jdbc.queryForList(
+				"SELECT id FROM appts WHERE patient_id = 7 ORDER BY id", Long.class));
+		assertEquals(List.of(1L, 1001L), ids);
+		assertEquals(3, scatter.sum(() -> jdbc.queryForObject("SELECT COUNT(*) FROM appts", Long.class)));
+
+		// the caller's own thread never left the default database
+		assertFalse(ShardContext.isSet());
+		assertEquals(2, jdbc.queryForObject("SELECT COUNT(*) FROM appts", Long.class));
+		assertEquals(1, ShardContext.call("north",
+				() -> jdbc.queryForObject("SELECT COUNT(*) FROM appts", Long.class)));
+	}
+
+	@Test
+	void oneFailingShardFailsTheWholeRead() {
+		ShardContext.call("north", () -> {
+			jdbc.execute("DROP TABLE appts");
+			return null;
+		});
+		IllegalStateException e = assertThrows(IllegalStateException.class,
+				() -> scatter.gatherAll(() -> jdbc.queryForList("SELECT id FROM appts", Long.class)));
+		assertEquals("ERROR: the read on shard north failed", e.getMessage());
+	}
+
+	private static SimpleDriverDataSource h2(String name) {
+		return new SimpleDriverDataSource(new org.h2.Driver(), "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+	}
+}
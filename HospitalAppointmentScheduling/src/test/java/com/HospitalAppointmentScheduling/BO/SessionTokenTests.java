@@ -0,0 +1,60 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class SessionTokenTests {
+
+	private SessionTokenBO tokens;
+
+	@BeforeEach
+	void setUp() {
+		tokens = new SessionTokenBO();
+		ReflectionTestUtils.setField(tokens, "ttlMinutes", 30L);
+		tokens.init();
+	}
+
+	@Test
+	void loggedOutTokensNoLongerVerify() {
+		String token = tokens.issue(7);
+		assertEquals(7L, tokens.verify(token));
+		tokens.revoke(token);
+		assertNull(tokens.verify(token));
+		assertEquals(1, revoked().size());
+	}
+
+	// unsigned or forged tokens with far-off expiries must not pile up
+	@Test
+	void onlySignedTokensAreRemembered() {
+		String token = tokens.issue(7);
+		String forged = "7." + Long.MAX_VALUE + token.substring(token.lastIndexOf('.'));
+		tokens.revoke(forged);
+		tokens.revoke("1." + Long.MAX_VALUE + ".junk");
+		tokens.revoke("garbage");
+		assertEquals(0, revoked().size());
+		assertEquals(7L, tokens.verify(token));
+	}
+
+	// an admin token is no patient token and the other way round
+	@Test
+	void adminTokensAreTheirOwnType() {
+		String admin = tokens.issueAdmin(3);
+		String patient = tokens.issue(3);
+		assertEquals(3L, tokens.verifyAdmin(admin));
+		assertNull(tokens.verify(admin));
+		assertNull(tokens.verifyAdmin(patient));
+		tokens.revoke(admin);
+		assertNull(tokens.verifyAdmin(admin));
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<String, Long> revoked() {
+		return (Map<String, Long>) ReflectionTestUtils.getField(tokens, "revoked");
+	}
+}
@@ -0,0 +1,161 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.HospitalAppointmentScheduling.DAO.LeaseDAO;
+import com.HospitalAppointmentScheduling.DAO.OutboxDAO;
+import com.HospitalAppointmentScheduling.WebConfig.ShardProperties;
+import com.HospitalAppointmentScheduling.WebConfig.ShardRoutingDataSource;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+// One node over a default database and one shard, both embedded and migrated
+// with the real scripts. Bookings of sharded doctors write their outbox rows
+// to the shard.
+class ShardedOutboxRelayTests {
+
+	private static final String DEFAULT_URL = "jdbc:h2:mem:shardmain;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+	private static final String NORTH_URL = "jdbc:h2:mem:shardnorth;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+	@TempDir
+	Path dir;
+
+	private AnnotationConfigApplicationContext node;
+	private JdbcTemplate defaultDb;
+	private JdbcTemplate northDb;
+
+	@Configuration
+	@Import({ OutboxDAO.class, OutboxRelayBO.class, ChangeLogBO.class, LeaderElectionBO.class, LeaseDAO.class })
+	static class Node {
+
+		@Bean
+		ShardProperties shardProperties() {
+			ShardProperties props = new ShardProperties();
+			ShardProperties.Node north = new ShardProperties.Node();
+			north.setName("north");
+			north.setUrl(NORTH_URL);
+			props.setNodes(List.of(north));
+			props.setEnabled(true);
+			return props;
+		}
+
+		@Bean
+		DataSource dataSource() {
+			Map<Object, Object> targets = new LinkedHashMap<>();
+			DataSource defaultDs = new SimpleDriverDataSource(new org.h2.Driver(), DEFAULT_URL, "sa", "");
+			targets.put(ShardContext.DEFAULT, defaultDs);
+			targets.put("north", new SimpleDriverDataSource(new org.h2.Driver(), NORTH_URL, "sa", ""));
+			ShardRoutingDataSource routing = new ShardRoutingDataSource();
+			routing.setTargetDataSources(targets);
+			routing.setDefaultTargetDataSource(defaultDs);
+			return routing;
+		}
+
+		@Bean
+		JdbcTemplate jdbcTemplate(DataSource dataSource) {
+			return new JdbcTemplate(dataSource);
+		}
+
+		@Bean
+		PlatformTransactionManager transactionManager(DataSource dataSource) {
+			return new DataSourceTransactionManager(dataSource);
+		}
+
+		@Bean
+		ObjectMapper objectMapper() {
+			return JsonMapper.builder().findAndAddModules().build();
+		}
+	}
+
+	@BeforeAll
+	static void migrate() {
+		Flyway.configure().dataSource(DEFAULT_URL, "sa", "").load().migrate();
+		Flyway.configure().dataSource(NORTH_URL, "sa", "").load().migrate();
+	}
+
+	@BeforeEach
+	void setUp() {
+		node = new AnnotationConfigApplicationContext();
+		node.getEnvironment().getPropertySources().addFirst(new MapPropertySource("node",
+				Map.of("outbox.log.path", dir.resolve("node.log").toString(), "outbox.gap-wait-ms", 60_000)));
+		node.register(Node.class);
+		node.refresh();
+		defaultDb = new JdbcTemplate(new SimpleDriverDataSource(new org.h2.Driver(), DEFAULT_URL, "sa", ""));
+		northDb = new JdbcTemplate(new SimpleDriverDataSource(new org.h2.Driver(), NORTH_URL, "sa", ""));
+		defaultDb.update("DELETE FROM outbox_events");
+		northDb.update("DELETE FROM outbox_events");
+	}
+
+	@AfterEach
+	void tearDown() {
+		node.close();
+	}
+
+	@Test
+	void shardEventsJoinTheStream() throws IOException {
+		insert(defaultDb, 1, 2);
+		insert(northDb, 1, 2, 3);
+		relay().relay();
+		relay().follow();
+
+		List<String> streamed = new ArrayList<>();
+		for (ChangeEvent e : node.getBean(ChangeLogBO.class).readAfter(0, 10)) {
+			streamed.add(e.offset() + ":" + e.aggregateId());
+		}
+		assertEquals(List.of("1:1", "2:2", "3:101", "4:102", "5:103"), streamed);
+	}
+
+	// the leader committed offset 2 to the shard after the follower read the
+	// default database, where offset 1 is not visible yet
+	@Test
+	void followersWaitForAnOffsetNotVisibleYet() throws IOException {
+		insert(defaultDb, 1);
+		insert(northDb, 1);
+		northDb.update("UPDATE outbox_events SET log_offset = 2, published_at = CURRENT_TIMESTAMP");
+		relay().follow();
+		assertEquals(0, node.getBean(ChangeLogBO.class).lastOffset());
+
+		defaultDb.update("UPDATE outbox_events SET log_offset = 1, published_at = CURRENT_TIMESTAMP");
+		relay().follow();
+		assertEquals(2, node.getBean(ChangeLogBO.class).lastOffset());
+	}
+
+	private OutboxRelayBO relay() {
+		return node.getBean(OutboxRelayBO.class);
+	}
+
+	// aggregate IDs on the shard start at 101, to tell the databases apart
+	private void insert(JdbcTemplate db, long... eventIds) {
+		long base = db == northDb ? 100 : 0;
+		for (long id : eventIds) {
+			db.update("INSERT INTO outbox_events (event_id, aggregate_type, aggregate_id, event_type, payload, "
+					+ "created_at) VALUES (?, 'appointment', ?, 'AppointmentBooked', '{}', CURRENT_TIMESTAMP)", id,
+					base + id);
+		}
+	}
+}
@@ -0,0 +1,166 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.HospitalAppointmentScheduling.BO.AppointmentCountBO.DoctorDateKey;
+import com.HospitalAppointmentScheduling.CustomExceptions.IdException;
+import com.HospitalAppointmentScheduling.DAO.CapacityLedgerDAO;
+import com.HospitalAppointmentScheduling.DAO.PatientDeletionDAO;
+import com.HospitalAppointmentScheduling.WebConfig.ShardProperties;
+import com.HospitalAppointmentScheduling.WebConfig.ShardRoutingDataSource;
+
+// A default database and one shard, both embedded and migrated with the real
+// scripts. The patients are on both, as reference data is; doctor 7 books on
+// the default database, doctor 9 on the shard.
+class ShardedPatientDeleteTests {
+
+	private static final String DEFAULT_URL = "jdbc:h2:mem:deletemain;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+	private static final String NORTH_URL = "jdbc:h2:mem:deletenorth;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+	private static final LocalDateTime NOW = LocalDateTime.now();
+
+	private final LocalDate day = LocalDate.now().plusDays(3);
+	private JdbcTemplate defaultDb;
+	private JdbcTemplate northDb;
+	private CapacityLedgerDAO ledgerDAO;
+	private TransactionTemplate tx;
+	private PatientBO patientBO;
+	private long nextId;
+
+	@BeforeAll
+	static void migrate() {
+		Flyway.configure().dataSource(DEFAULT_URL, "sa", "").load().migrate();
+		Flyway.configure().dataSource(NORTH_URL, "sa", "").load().migrate();
+	}
+
+	@BeforeEach
+	void setUp() {
+		defaultDb = new JdbcTemplate(new SimpleDriverDataSource(new org.h2.Driver(), DEFAULT_URL, "sa", ""));
+		northDb = new JdbcTemplate(new SimpleDriverDataSource(new org.h2.Driver(), NORTH_URL, "sa", ""));
+		for (JdbcTemplate db : List.of(defaultDb, northDb)) {
+			for (String table : List.of("appointments", "appointmentstatus", "patients", "doctor_day_capacity",
+					"outbox_events")) {
+				db.update("DELETE FROM " + table);
+			}
+			for (long p = 1; p <= 2; p++) {
+				db.update("INSERT INTO patients (patient_id, created_at, dob, first_name, last_name, patient_email, "
+						+ "patient_password, patient_phone, updated_at, gender) VALUES (?, ?, ?, 'A', 'B', ?, 'x', ?, ?, "
+						+ "'F')", p, Timestamp.valueOf(NOW), Date.valueOf(LocalDate.of(1990, 1, (int) p)),
+						"p" + p + "@b.c", "900000000" + p, Timestamp.valueOf(NOW));
+			}
+		}
+		nextId = 1;
+
+		ShardProperties props = new ShardProperties();
+		ShardProperties.Node north = new ShardProperties.Node();
+		north.setName("north");
+		north.setUrl(NORTH_URL);
+		props.setNodes(List.of(north));
+		props.setEnabled(true);
+
+		Map<Object, Object> targets = new LinkedHashMap<>();
+		DataSource defaultDs = new SimpleDriverDataSource(new org.h2.Driver(), DEFAULT_URL, "sa", "");
+		targets.put(ShardContext.DEFAULT, defaultDs);
+		targets.put("north", new SimpleDriverDataSource(new org.h2.Driver(), NORTH_URL, "sa", ""));
+		ShardRoutingDataSource routing = new ShardRoutingDataSource();
+		routing.setTargetDataSources(targets);
+		routing.setDefaultTargetDataSource(defaultDs);
+		routing.afterPropertiesSet();
+		JdbcTemplate jdbc = new JdbcTemplate(routing);
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+		tx = new TransactionTemplate(transactionManager);
+
+		ScatterGatherBO scatter = new ScatterGatherBO();
+		scatter.shardProps = props;
+		ledgerDAO = new CapacityLedgerDAO();
+		ReflectionTestUtils.setField(ledgerDAO, "jdbc", jdbc);
+		PatientDeletionDAO deletionDAO = new PatientDeletionDAO();
+		ReflectionTestUtils.setField(deletionDAO, "jdbc", jdbc);
+
+		patientBO = new PatientBO();
+		patientBO.deletionDAO = deletionDAO;
+		patientBO.ledger = new CapacityLedgerBO();
+		patientBO.ledger.ledgerDAO = ledgerDAO;
+		patientBO.ledger.scatter = scatter;
+		patientBO.scatter = scatter;
+		patientBO.transactionManager = transactionManager;
+		patientBO.countBO = Mockito.mock(AppointmentCountBO.class);
+		patientBO.publisher = Mockito.mock(ApplicationEventPublisher.class);
+		patientBO.credentialCache = Mockito.mock(CredentialCacheBO.class);
+		patientBO.analyticsBO = Mockito.mock(PatientAnalyticsBO.class);
+	}
+
+	@Test
+	void removesTheAppointmentsOnEveryShard() {
+		appointment(defaultDb, 1, 7);
+		appointment(defaultDb, 2, 7);
+		appointment(northDb, 1, 9);
+		appointment(northDb, 1, 9);
+		appointment(northDb, 2, 9);
+		ShardContext.call(ShardContext.DEFAULT, () -> {
+			ledgerDAO.force(7, day, 2, 5);
+			return null;
+		});
+		ShardContext.call("north", () -> {
+			ledgerDAO.force(9, day, 3, 5);
+			return null;
+		});
+
+		assertEquals(List.of(1L), tx.execute(s -> delete(List.of(1L))));
+
+		assertEquals(List.of(2L), defaultDb.queryForList("SELECT patient_id FROM patients", Long.class));
+		assertEquals(List.of(2L), defaultDb.queryForList("SELECT patient_id FROM appointments", Long.class));
+		assertEquals(List.of(2L), northDb.queryForList("SELECT patient_id FROM appointments", Long.class));
+		assertEquals(1, count(defaultDb, "outbox_events"));
+		assertEquals(2, count(northDb, "outbox_events"));
+		assertEquals(1, booked(ShardContext.DEFAULT, 7));
+		assertEquals(1, booked("north", 9));
+		Mockito.verify(patientBO.countBO).adjusted(Map.of(new DoctorDateKey(7, day), -1L,
+				new DoctorDateKey(9, day), -2L));
+	}
+
+	private List<Long> delete(List<Long> ids) {
+		try {
+			return patientBO.deletePatients(ids);
+		} catch (IdException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private int booked(String shard, long doctorId) {
+		return ShardContext.call(shard, () -> ledgerDAO.booked(doctorId, day));
+	}
+
+	private int count(JdbcTemplate db, String table) {
+		return db.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+	}
+
+	private void appointment(JdbcTemplate db, long patientId, long doctorId) {
+		long id = nextId++;
+		db.update("INSERT INTO appointmentstatus (status_id, status_name) VALUES (?, 'Pending')", id);
+		db.update("INSERT INTO appointments (appointment_id, appointment_date, created_at, doctor_id, reason, "
+				+ "updated_at, patient_id, status_id) VALUES (?, ?, ?, ?, 'checkup', ?, ?, ?)", id, Date.valueOf(day),
+				Timestamp.valueOf(NOW), doctorId, Timestamp.valueOf(NOW), patientId, id);
+	}
+}
@@ -0,0 +1,76 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.HospitalAppointmentScheduling.BO.SlotHoldBO.Hold;
+import com.HospitalAppointmentScheduling.CustomExceptions.WaitlistException;
+
+class SlotHoldTests {
+
+	private static final long DOCTOR = 7;
+	private static final LocalDate DAY = LocalDate.now().plusDays(3);
+
+	private WaitlistBO waitlist;
+	private SlotHoldBO holds;
+
+	// three slots a day, one of them already booked
+	@BeforeEach
+	void setUp() {
+		AppointmentCountBO counts = Mockito.mock(AppointmentCountBO.class);
+		Mockito.when(counts.countByDoctorAndDate(DOCTOR, DAY)).thenReturn(1L);
+		waitlist = new WaitlistBO();
+		waitlist.countBO = counts;
+		ReflectionTestUtils.setField(waitlist, "slotsPerDay", 3);
+		holds = new SlotHoldBO();
+		holds.waitlistBO = waitlist;
+	}
+
+	@AfterEach
+	void tearDown() {
+		holds.stop();
+	}
+
+	@Test
+	void holdsCountAgainstCapacityUntilReleased() throws WaitlistException {
+		holds.start();
+		Hold first = holds.hold(1, DOCTOR, DAY);
+		holds.hold(2, DOCTOR, DAY);
+		assertEquals(0, waitlist.freeSlots(DOCTOR, DAY));
+		assertThrows(WaitlistException.class, () -> holds.hold(3, DOCTOR, DAY));
+
+		assertThrows(WaitlistException.class, () -> holds.claim(first.holdId(), 2));
+		holds.cancel(first.holdId(), 1);
+		assertEquals(1, waitlist.freeSlots(DOCTOR, DAY));
+		assertThrows(WaitlistException.class, () -> holds.claim(first.holdId(), 1));
+
+		// claimed holds keep the slot until the booking completes
+		Hold third = holds.hold(3, DOCTOR, DAY);
+		holds.releaseOnCompletion(holds.claim(third.holdId(), 3));
+		assertEquals(1, waitlist.freeSlots(DOCTOR, DAY));
+	}
+
+	@Test
+	void expiredHoldsAreReleasedByTheReaper() throws Exception {
+		holds.ttlMs = 500;
+		holds.start();
+		for (int p = 1; p <= 2; p++) {
+			holds.hold(p, DOCTOR, DAY);
+		}
+		assertEquals(0, waitlist.freeSlots(DOCTOR, DAY));
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (holds.activeHolds() > 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(0, holds.activeHolds());
+		assertEquals(2, waitlist.freeSlots(DOCTOR, DAY));
+	}
+}
@@ -0,0 +1,76 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+// Time is passed in by hand, one token refills every 100 ms.
+class TokenBucketTests {
+
+	private static final long MS = 1_000_000L;
+	private static final long START = 1_000_000 * MS;
+
+	@Test
+	void allowsABurstOfCapacityThenRefillsAtTheRate() {
+		TokenBucket bucket = new TokenBucket(5, 10, START);
+		for (int i = 0; i < 5; i++) {
+			assertTrue(bucket.tryAcquire(START));
+		}
+		assertFalse(bucket.tryAcquire(START));
+		assertEquals(100 * MS, bucket.waitTime(START));
+
+		assertFalse(bucket.tryAcquire(START + 99 * MS));
+		assertTrue(bucket.tryAcquire(START + 100 * MS));
+		assertFalse(bucket.tryAcquire(START + 100 * MS));
+
+		// a long pause refills to capacity and no further
+		long later = START + 10_000 * MS;
+		assertTrue(bucket.isIdle(later, 1_000 * MS));
+		for (int i = 0; i < 5; i++) {
+			assertTrue(bucket.tryAcquire(later));
+		}
+		assertFalse(bucket.tryAcquire(later));
+	}
+
+	// many threads racing on the same instant: the compare-and-set hands out
+	// exactly the capacity, never more
+	@Test
+	void concurrentCallersNeverOvershootTheCapacity() throws Exception {
+		TokenBucket bucket = new TokenBucket(100, 10, START);
+		int threads = 8;
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		CountDownLatch go = new CountDownLatch(1);
+		try {
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				results.add(pool.submit(() -> {
+					go.await();
+					int granted = 0;
+					for (int i = 0; i < 1_000; i++) {
+						if (bucket.tryAcquire(START)) {
+							granted++;
+						}
+					}
+					return granted;
+				}));
+			}
+			go.countDown();
+			int granted = 0;
+			for (Future<Integer> f : results) {
+				granted += f.get();
+			}
+			assertEquals(100, granted);
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,129 @@
+package com.HospitalAppointmentScheduling.BO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.HospitalAppointmentScheduling.BO.AppointmentCountBO.DoctorDateKey;
+import com.HospitalAppointmentScheduling.BO.WaitlistBO.Offer;
+import com.HospitalAppointmentScheduling.BO.WaitlistBO.WaitlistEntry;
+import com.HospitalAppointmentScheduling.CustomExceptions.WaitlistException;
+
+// The counters are mocked; what they return is what this node has booked.
+class WaitlistTests {
+
+	private static final long DOCTOR = 7;
+	private static final LocalDate DAY = LocalDate.now().plusDays(3);
+	private static final DoctorDateKey KEY = new DoctorDateKey(DOCTOR, DAY);
+
+	private AppointmentCountBO counts;
+	private WaitlistBO waitlist;
+
+	// two slots a day, both booked
+	@BeforeEach
+	void setUp() {
+		counts = Mockito.mock(AppointmentCountBO.class);
+		Mockito.when(counts.countByDoctorAndDate(DOCTOR, DAY)).thenReturn(2L);
+		waitlist = new WaitlistBO();
+		waitlist.countBO = counts;
+		ReflectionTestUtils.setField(waitlist, "slotsPerDay", 2);
+		ReflectionTestUtils.setField(waitlist, "holdMinutes", 15L);
+	}
+
+	@Test
+	void higherPriorityGoesFirstThenEarlierRequests() throws WaitlistException {
+		WaitlistEntry first = waitlist.join(1, DOCTOR, DAY, "checkup", 0);
+		WaitlistEntry second = waitlist.join(2, DOCTOR, DAY, "checkup", 0);
+		WaitlistEntry urgent = waitlist.join(3, DOCTOR, DAY, "chest pain", 5);
+
+		assertEquals(1, waitlist.position(urgent));
+		assertEquals(2, waitlist.position(first));
+		assertEquals(3, waitlist.position(second));
+		// joining again keeps the place
+		assertEquals(first, waitlist.join(1, DOCTOR, DAY, "checkup", 9));
+		assertTrue(waitlist.isFull(DOCTOR, DAY));
+		assertThrows(WaitlistException.class, () -> waitlist.join(4, DOCTOR, DAY, "checkup", 10));
+	}
+
+	@Test
+	void aCancellationOffersTheSlotToTheHeadOfTheQueue() throws WaitlistException {
+		waitlist.join(1, DOCTOR, DAY, "checkup", 0);
+		WaitlistEntry urgent = waitlist.join(2, DOCTOR, DAY, "chest pain", 5);
+
+		cancelOne();
+		waitlist.onSlotChange(new SlotChangeEvent(DOCTOR, DAY));
+		assertEquals(List.of(), waitlist.offersFor(1));
+		List<Offer> offers = waitlist.offersFor(2);
+		assertEquals(1, offers.size());
+		assertEquals(urgent, offers.get(0).entry());
+		// the held slot keeps the day full for direct bookings
+		assertEquals(0, waitlist.freeSlots(DOCTOR, DAY));
+	}
+
+	@Test
+	void anExpiredOfferPassesTheSlotOn() throws Exception {
+		ReflectionTestUtils.setField(waitlist, "holdMinutes", 0L);
+		waitlist.join(1, DOCTOR, DAY, "checkup", 0);
+		waitlist.join(2, DOCTOR, DAY, "checkup", 0);
+		cancelOne();
+		waitlist.onSlotChange(new SlotChangeEvent(DOCTOR, DAY));
+		Offer expired = waitlist.offersFor(1).get(0);
+
+		Thread.sleep(5);
+		waitlist.sweep();
+		assertEquals(List.of(), waitlist.offersFor(1));
+		assertEquals(1, waitlist.offersFor(2).size());
+		assertThrows(WaitlistException.class, () -> waitlist.claim(expired.offerId(), 1));
+	}
+
+	@Test
+	void acceptingKeepsTheSlotAndDecliningPassesItOn() throws WaitlistException {
+		waitlist.join(1, DOCTOR, DAY, "checkup", 0);
+		waitlist.join(2, DOCTOR, DAY, "checkup", 0);
+		waitlist.join(3, DOCTOR, DAY, "checkup", 0);
+		cancelOne();
+		waitlist.onSlotChange(new SlotChangeEvent(DOCTOR, DAY));
+
+		Offer declined = waitlist.offersFor(1).get(0);
+		assertThrows(WaitlistException.class, () -> waitlist.decline(declined.offerId(), 2));
+		waitlist.decline(declined.offerId(), 1);
+		Offer accepted = waitlist.offersFor(2).get(0);
+
+		// once booked the counters take the slot over from the hold
+		waitlist.claim(accepted.offerId(), 2);
+		Mockito.when(counts.countByDoctorAndDate(DOCTOR, DAY)).thenReturn(2L);
+		waitlist.releaseOnCompletion(accepted);
+		assertEquals(List.of(), waitlist.offersFor(3));
+		assertThrows(WaitlistException.class, () -> waitlist.claim(accepted.offerId(), 2));
+	}
+
+	// a slot freed on another node shows up here only in the relayed stream,
+	// the day is read again before it is offered
+	@Test
+	void aChangeFromAnotherNodeIsOfferedAfterTheDayIsReadAgain() throws WaitlistException {
+		waitlist.join(1, DOCTOR, DAY, "checkup", 0);
+		Mockito.doAnswer(i -> cancelOne()).when(counts).refresh(KEY);
+
+		waitlist.onChange(new ChangeEvent(1, 1, OutboxBO.PATIENT, 9, "PatientUpdated", "{}", LocalDateTime.now()));
+		Mockito.verify(counts, Mockito.never()).refresh(KEY);
+
+		waitlist.onChange(new ChangeEvent(2, 2, OutboxBO.APPOINTMENT, 5, "AppointmentDeleted",
+				"{\"appointmentId\":5}", LocalDateTime.now()));
+		Mockito.verify(counts).refresh(KEY);
+		assertEquals(1, waitlist.offersFor(1).size());
+	}
+
+	private Object cancelOne() {
+		Mockito.when(counts.countByDoctorAndDate(DOCTOR, DAY)).thenReturn(1L);
+		return null;
+	}
+}
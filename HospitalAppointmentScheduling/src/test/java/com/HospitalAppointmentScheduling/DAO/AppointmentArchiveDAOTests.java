@@ -0,0 +1,128 @@
+package com.HospitalAppointmentScheduling.DAO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.HospitalAppointmentScheduling.BO.AppointmentArchiveBO;
+import com.HospitalAppointmentScheduling.Entity.AppointmentsVO;
+import com.HospitalAppointmentScheduling.Entity.ArchivedAppointmentVO;
+
+class AppointmentArchiveDAOTests {
+
+	private static final String URL = "jdbc:h2:mem:archive;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+	private static final int HORIZON_DAYS = 365;
+	private static final LocalDateTime NOW = LocalDateTime.now().withNano(0);
+
+	private final LocalDate cutoff = LocalDate.now().minusDays(HORIZON_DAYS);
+	private JdbcTemplate jdbc;
+	private AppointmentArchiveDAO dao;
+	private AppointmentArchiveBO archiveBO;
+
+	@BeforeEach
+	void setUp() {
+		Flyway.configure().dataSource(URL, "sa", "").load().migrate();
+		jdbc = new JdbcTemplate(new SimpleDriverDataSource(new org.h2.Driver(), URL, "sa", ""));
+		jdbc.update("DELETE FROM appointments");
+		jdbc.update("DELETE FROM appointments_archive");
+		jdbc.update("DELETE FROM appointmentstatus");
+		jdbc.update("DELETE FROM patients");
+		jdbc.update("INSERT INTO patients (patient_id, created_at, dob, first_name, last_name, patient_email, "
+				+ "patient_password, patient_phone, updated_at, gender) VALUES (1, ?, '1990-01-01', 'A', 'B', "
+				+ "'a@b.c', 'x', '9000000000', ?, 'F')", Timestamp.valueOf(NOW), Timestamp.valueOf(NOW));
+		dao = new AppointmentArchiveDAO();
+		dao.jdbc = jdbc;
+		archiveBO = new AppointmentArchiveBO();
+		ReflectionTestUtils.setField(archiveBO, "enabled", true);
+		ReflectionTestUtils.setField(archiveBO, "horizonDays", HORIZON_DAYS);
+
+		// three before the cutoff, given out of date order; one on it, one today
+		insert(1, cutoff.minusDays(1));
+		insert(2, cutoff.minusDays(10));
+		insert(3, cutoff.minusDays(1));
+		insert(4, cutoff);
+		insert(5, LocalDate.now());
+	}
+
+	@Test
+	void movesOnlyTheRowsBeforeTheCutoffOldestFirst() {
+		assertEquals(2, dao.moveBatch(cutoff, 2, NOW));
+		assertEquals(List.of(2L, 1L), archivedIds());
+		assertEquals(1, dao.moveBatch(cutoff, 2, NOW));
+		assertEquals(0, dao.moveBatch(cutoff, 2, NOW));
+
+		assertEquals(List.of(1L, 2L, 3L), jdbc.queryForList(
+				"SELECT appointment_id FROM appointments_archive ORDER BY appointment_id", Long.class));
+		assertEquals(List.of(4L, 5L), jdbc.queryForList(
+				"SELECT appointment_id FROM appointments ORDER BY appointment_id", Long.class));
+		assertEquals(3, jdbc.queryForObject("SELECT COUNT(*) FROM appointments_archive WHERE archived_at = ? "
+				+ "AND doctor_id = 1 AND patient_id = 1 AND reason = 'checkup'", Integer.class,
+				Timestamp.valueOf(NOW)));
+	}
+
+	// reads from the cutoff on never touch the archive
+	@Test
+	void readsAddTheArchiveOnlyWhenTheyCrossTheBoundary() {
+		dao.moveBatch(cutoff, 10, NOW);
+		AtomicInteger archiveReads = new AtomicInteger();
+		Supplier<List<ArchivedAppointmentVO>> archived = () -> {
+			archiveReads.incrementAndGet();
+			List<ArchivedAppointmentVO> rows = new ArrayList<>();
+			for (Long id : archivedIds()) {
+				ArchivedAppointmentVO a = new ArchivedAppointmentVO();
+				ReflectionTestUtils.setField(a, "appointmentID", id);
+				rows.add(a);
+			}
+			return rows;
+		};
+		List<AppointmentsVO> live = new ArrayList<>();
+		for (Long id : jdbc.queryForList("SELECT appointment_id FROM appointments ORDER BY appointment_id",
+				Long.class)) {
+			AppointmentsVO a = new AppointmentsVO();
+			a.setAppointmentID(id);
+			live.add(a);
+		}
+
+		assertFalse(archiveBO.reaches(cutoff));
+		assertEquals(List.of(4L, 5L), ids(archiveBO.withArchived(cutoff, live, archived)));
+		assertEquals(0, archiveReads.get());
+
+		assertTrue(archiveBO.reaches(cutoff.minusDays(1)));
+		assertTrue(archiveBO.reaches(null));
+		assertEquals(List.of(2L, 1L, 3L, 4L, 5L), ids(archiveBO.withArchived(cutoff.minusDays(1), live, archived)));
+		assertEquals(List.of(2L, 1L, 3L, 4L, 5L), ids(archiveBO.withArchived(null, live, archived)));
+		assertEquals(2, archiveReads.get());
+	}
+
+	private List<Long> ids(List<AppointmentsVO> appts) {
+		return appts.stream().map(AppointmentsVO::getAppointmentID).toList();
+	}
+
+	private List<Long> archivedIds() {
+		return jdbc.queryForList("SELECT appointment_id FROM appointments_archive ORDER BY appointment_date, "
+				+ "appointment_id", Long.class);
+	}
+
+	private void insert(long id, LocalDate date) {
+		jdbc.update("INSERT INTO appointmentstatus (status_id, status_name) VALUES (?, 'Completed')", id);
+		jdbc.update("INSERT INTO appointments (appointment_id, appointment_date, created_at, doctor_id, reason, "
+				+ "updated_at, patient_id, status_id) VALUES (?, ?, ?, 1, 'checkup', ?, 1, ?)", id,
+				Date.valueOf(date), Timestamp.valueOf(NOW.minusDays(30)), Timestamp.valueOf(NOW.minusDays(30)), id);
+	}
+}
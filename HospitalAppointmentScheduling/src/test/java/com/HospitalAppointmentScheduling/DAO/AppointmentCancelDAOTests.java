@@ -0,0 +1,96 @@
+package com.HospitalAppointmentScheduling.DAO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import com.HospitalAppointmentScheduling.DAO.AppointmentCancelDAO.Row;
+
+class AppointmentCancelDAOTests {
+
+	private static final String URL = "jdbc:h2:mem:cancel;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+	private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 1, 9, 0);
+	private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+	private JdbcTemplate jdbc;
+	private AppointmentCancelDAO dao;
+	private long nextId;
+
+	@BeforeEach
+	void setUp() {
+		Flyway.configure().dataSource(URL, "sa", "").load().migrate();
+		jdbc = new JdbcTemplate(new SimpleDriverDataSource(new org.h2.Driver(), URL, "sa", ""));
+		for (String table : List.of("appointments", "appointmentstatus", "patients", "doctor", "hospital", "city",
+				"state", "country", "specialization")) {
+			jdbc.update("DELETE FROM " + table);
+		}
+		dao = new AppointmentCancelDAO();
+		dao.jdbc = jdbc;
+		nextId = 1;
+
+		jdbc.update("INSERT INTO country VALUES (1, 'India')");
+		jdbc.update("INSERT INTO state VALUES (1, 'Kerala')");
+		jdbc.update("INSERT INTO city VALUES (1, 'Kochi')");
+		jdbc.update("INSERT INTO specialization VALUES (1, 'Cardiology')");
+		for (long h = 1; h <= 2; h++) {
+			jdbc.update("INSERT INTO hospital (hospital_id, created_at, hospital_email, hospital_name, hospital_phone, "
+					+ "updated_at, city_id, country_id, state_id) VALUES (?, ?, ?, 'H', ?, ?, 1, 1, 1)", h,
+					Timestamp.valueOf(NOW), "h" + h + "@x.y", "80000000" + h, Timestamp.valueOf(NOW));
+		}
+		// doctors 1 and 2 work at hospital 1, doctor 3 at hospital 2
+		for (long d = 1; d <= 3; d++) {
+			jdbc.update("INSERT INTO doctor (doctor_id, doc_email, doc_password, doc_phone, first_name, last_name, "
+					+ "hospital_id, specialization_id) VALUES (?, ?, ?, ?, 'D', 'R', ?, 1)", d, "d" + d + "@x.y",
+					"pw" + d, "70000000" + d, d < 3 ? 1 : 2);
+		}
+		jdbc.update("INSERT INTO patients (patient_id, created_at, dob, first_name, last_name, patient_email, "
+				+ "patient_password, patient_phone, updated_at, gender) VALUES (1, ?, '1990-01-01', 'A', 'B', "
+				+ "'a@b.c', 'x', '9000000000', ?, 'F')", Timestamp.valueOf(NOW), Timestamp.valueOf(NOW));
+
+		appointment(1, DAY);
+		appointment(2, DAY);
+		appointment(3, DAY);
+		appointment(1, DAY.plusDays(1));
+		appointment(1, DAY.plusDays(5));
+	}
+
+	@Test
+	void picksAppointmentsByHospitalDoctorRangeOrIds() {
+		assertEquals(List.of(1L, 2L), ids(dao.lockForHospital(1, DAY)));
+		assertEquals(List.of(1L, 4L), ids(dao.lockForDoctor(1, DAY, DAY.plusDays(1))));
+		assertEquals(List.of(2L, 5L), ids(dao.lockByIds(List.of(5L, 2L, 99L))));
+		assertEquals(new Row(3, 3, DAY, 1), dao.lockByIds(List.of(3L)).get(0));
+	}
+
+	@Test
+	void deletesTheAppointmentsAndTheirStatusRows() {
+		assertEquals(2, dao.delete(ids(dao.lockForHospital(1, DAY))));
+		assertEquals(List.of(3L, 4L, 5L), jdbc.queryForList(
+				"SELECT appointment_id FROM appointments ORDER BY appointment_id", Long.class));
+		assertEquals(List.of(3L, 4L, 5L), jdbc.queryForList(
+				"SELECT status_id FROM appointmentstatus ORDER BY status_id", Long.class));
+		assertEquals(0, dao.delete(List.of(1L)));
+	}
+
+	private static List<Long> ids(List<Row> rows) {
+		return rows.stream().map(Row::appointmentId).toList();
+	}
+
+	private void appointment(long doctorId, LocalDate date) {
+		long id = nextId++;
+		jdbc.update("INSERT INTO appointmentstatus (status_id, status_name) VALUES (?, 'Pending')", id);
+		jdbc.update("INSERT INTO appointments (appointment_id, appointment_date, created_at, doctor_id, reason, "
+				+ "updated_at, patient_id, status_id) VALUES (?, ?, ?, ?, 'checkup', ?, 1, ?)", id, Date.valueOf(date),
+				Timestamp.valueOf(NOW), doctorId, Timestamp.valueOf(NOW), id);
+	}
+}
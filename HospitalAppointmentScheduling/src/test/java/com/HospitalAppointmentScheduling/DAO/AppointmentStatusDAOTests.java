@@ -0,0 +1,82 @@
+package com.HospitalAppointmentScheduling.DAO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import com.HospitalAppointmentScheduling.DAO.AppointmentStatusDAO.Chunk;
+
+class AppointmentStatusDAOTests {
+
+	private static final String URL = "jdbc:h2:mem:statussweep;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+	private static final LocalDate TODAY = LocalDate.of(2025, 3, 10);
+	private static final LocalDateTime NOW = TODAY.atTime(0, 30);
+
+	private JdbcTemplate jdbc;
+	private AppointmentStatusDAO dao;
+
+	@BeforeEach
+	void setUp() {
+		Flyway.configure().dataSource(URL, "sa", "").load().migrate();
+		jdbc = new JdbcTemplate(new SimpleDriverDataSource(new org.h2.Driver(), URL, "sa", ""));
+		jdbc.update("DELETE FROM appointments");
+		jdbc.update("DELETE FROM appointmentstatus");
+		jdbc.update("DELETE FROM patients");
+		jdbc.update("INSERT INTO patients (patient_id, created_at, dob, first_name, last_name, patient_email, "
+				+ "patient_password, patient_phone, updated_at, gender) VALUES (1, ?, '1990-01-01', 'A', 'B', "
+				+ "'a@b.c', 'x', '9000000000', ?, 'F')", Timestamp.valueOf(NOW), Timestamp.valueOf(NOW));
+		dao = new AppointmentStatusDAO();
+		dao.jdbc = jdbc;
+
+		// five past Pending, one past Cancelled, one today and one next week
+		for (int i = 1; i <= 5; i++) {
+			insert(i, TODAY.minusDays(6 - i / 2), "Pending");
+		}
+		insert(6, TODAY.minusDays(1), "Cancelled");
+		insert(7, TODAY, "Pending");
+		insert(8, TODAY.plusDays(7), "Pending");
+	}
+
+	@Test
+	void movesPastAppointmentsInChunksInDateOrder() {
+		Chunk first = dao.transition("Pending", "Completed", LocalDate.EPOCH, TODAY, 2, NOW);
+		assertEquals(List.of(1L, 2L), first.ids());
+		assertEquals(TODAY.minusDays(5), first.lastDate());
+
+		Chunk second = dao.transition("Pending", "Completed", first.lastDate(), TODAY, 2, NOW);
+		assertEquals(List.of(3L, 4L), second.ids());
+		Chunk third = dao.transition("Pending", "Completed", second.lastDate(), TODAY, 2, NOW);
+		assertEquals(List.of(5L), third.ids());
+		Chunk done = dao.transition("Pending", "Completed", third.lastDate(), TODAY, 2, NOW);
+		assertEquals(List.of(), done.ids());
+		assertNull(done.lastDate());
+
+		assertEquals(List.of("Completed", "Completed", "Completed", "Completed", "Completed", "Cancelled",
+				"Pending", "Pending"), statuses());
+		assertEquals(5, jdbc.queryForObject("SELECT COUNT(*) FROM appointments WHERE updated_at = ?",
+				Integer.class, Timestamp.valueOf(NOW)));
+	}
+
+	private List<String> statuses() {
+		return jdbc.queryForList("SELECT s.status_name FROM appointments a JOIN appointmentstatus s "
+				+ "ON s.status_id = a.status_id ORDER BY a.appointment_id", String.class);
+	}
+
+	private void insert(long id, LocalDate date, String status) {
+		jdbc.update("INSERT INTO appointmentstatus (status_id, status_name) VALUES (?, ?)", id, status);
+		jdbc.update("INSERT INTO appointments (appointment_id, appointment_date, created_at, doctor_id, reason, "
+				+ "updated_at, patient_id, status_id) VALUES (?, ?, ?, 1, 'checkup', ?, 1, ?)", id,
+				Date.valueOf(date), Timestamp.valueOf(NOW.minusDays(30)), Timestamp.valueOf(NOW.minusDays(30)), id);
+	}
+}
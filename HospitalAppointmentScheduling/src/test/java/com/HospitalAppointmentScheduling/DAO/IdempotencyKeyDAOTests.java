@@ -0,0 +1,49 @@
+package com.HospitalAppointmentScheduling.DAO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import com.HospitalAppointmentScheduling.BO.IdempotencyStore.Outcome;
+import com.HospitalAppointmentScheduling.BO.IdempotencyStore.StoredResponse;
+
+class IdempotencyKeyDAOTests {
+
+	private static final String URL = "jdbc:h2:mem:idempotency;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+	private JdbcTemplate jdbc;
+
+	@BeforeEach
+	void setUp() {
+		Flyway.configure().dataSource(URL, "sa", "").load().migrate();
+		jdbc = new JdbcTemplate(new SimpleDriverDataSource(new org.h2.Driver(), URL, "sa", ""));
+		jdbc.update("DELETE FROM idempotency_keys");
+	}
+
+	// the node holding the claim died: another one takes the key over once
+	// the lease is up
+	@Test
+	void anUnfinishedClaimLastsOnlyForTheLease() throws InterruptedException {
+		IdempotencyKeyDAO dao = new IdempotencyKeyDAO(jdbc, 60_000, 50);
+		assertEquals(Outcome.CLAIMED, dao.claim("k", "f").outcome());
+		assertEquals(Outcome.IN_PROGRESS, dao.claim("k", "f").outcome());
+		Thread.sleep(60);
+		assertEquals(Outcome.CLAIMED, dao.claim("k", "f").outcome());
+	}
+
+	@Test
+	void aCompletedResponseIsKeptForTheTtl() throws InterruptedException {
+		IdempotencyKeyDAO dao = new IdempotencyKeyDAO(jdbc, 60_000, 50);
+		dao.claim("k", "f");
+		dao.complete("k", new StoredResponse(200, "text/plain", "saved: 1".getBytes()));
+		Thread.sleep(60);
+		assertEquals(Outcome.REPLAY, dao.claim("k", "f").outcome());
+		assertEquals("saved: 1", new String(dao.claim("k", "f").response().body()));
+		dao.purge();
+		assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM idempotency_keys", Integer.class));
+	}
+}
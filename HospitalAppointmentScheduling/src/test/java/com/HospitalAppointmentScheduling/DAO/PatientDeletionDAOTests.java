@@ -0,0 +1,117 @@
+package com.HospitalAppointmentScheduling.DAO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import com.HospitalAppointmentScheduling.BO.AppointmentCountBO.DoctorDateKey;
+
+class PatientDeletionDAOTests {
+
+	private static final String URL = "jdbc:h2:mem:patientdelete;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+	private static final LocalDateTime NOW = LocalDateTime.now();
+
+	private final LocalDate today = LocalDate.now();
+	private JdbcTemplate jdbc;
+	private PatientDeletionDAO dao;
+	private CapacityLedgerDAO ledger;
+	private long nextId;
+
+	@BeforeEach
+	void setUp() {
+		Flyway.configure().dataSource(URL, "sa", "").load().migrate();
+		jdbc = new JdbcTemplate(new SimpleDriverDataSource(new org.h2.Driver(), URL, "sa", ""));
+		for (String table : List.of("appointments", "appointments_archive", "appointmentstatus", "patients",
+				"doctor_day_capacity", "outbox_events")) {
+			jdbc.update("DELETE FROM " + table);
+		}
+		dao = new PatientDeletionDAO();
+		dao.jdbc = jdbc;
+		ledger = new CapacityLedgerDAO();
+		ledger.jdbc = jdbc;
+		nextId = 1;
+
+		for (long p = 1; p <= 3; p++) {
+			jdbc.update("INSERT INTO patients (patient_id, created_at, dob, first_name, last_name, patient_email, "
+					+ "patient_password, patient_phone, updated_at, gender) VALUES (?, ?, ?, 'A', 'B', ?, 'x', ?, ?, 'F')",
+					p, Timestamp.valueOf(NOW), Date.valueOf(LocalDate.of(1990, 1, (int) p)), "p" + p + "@b.c",
+					"900000000" + p, Timestamp.valueOf(NOW));
+		}
+		// patient 1: two on one doctor day, one on another, one past, one archived
+		appointment("appointments", 1, 7, today.plusDays(3));
+		appointment("appointments", 1, 7, today.plusDays(3));
+		appointment("appointments", 1, 8, today.plusDays(4));
+		appointment("appointments", 1, 7, today.minusDays(3));
+		appointment("appointments_archive", 1, 7, today.minusYears(2));
+		// patient 2 shares the first doctor day, patient 3 keeps everything
+		appointment("appointments", 2, 7, today.plusDays(3));
+		appointment("appointments", 3, 7, today.plusDays(3));
+		appointment("appointments_archive", 3, 8, today.minusYears(2));
+		ledger.force(7, today.plusDays(3), 4, 5);
+		ledger.force(8, today.plusDays(4), 1, 5);
+	}
+
+	@Test
+	void deletesThePatientsAndEverythingHangingOffThem() {
+		Map<Long, LocalDate> found = dao.lockPatients(List.of(1L, 2L, 99L));
+		assertEquals(List.of(1L, 2L), List.copyOf(found.keySet()));
+		List<Long> ids = List.copyOf(found.keySet());
+
+		Map<DoctorDateKey, Long> freed = dao.upcomingSlots(ids, today);
+		assertEquals(Map.of(new DoctorDateKey(7, today.plusDays(3)), 3L, new DoctorDateKey(8, today.plusDays(4)), 1L),
+				freed);
+
+		ledger.releasePatients(ids, today);
+		assertEquals(6, dao.outboxAppointmentsDeleted(ids, "appointment", "AppointmentDeleted", NOW));
+		assertEquals(6, dao.deleteAppointments(ids));
+		assertEquals(2, dao.deletePatients(ids));
+
+		assertEquals(List.of(3L), jdbc.queryForList("SELECT patient_id FROM patients", Long.class));
+		assertEquals(1, count("appointments"));
+		assertEquals(1, count("appointments_archive"));
+		assertEquals(2, count("appointmentstatus"));
+		assertEquals(1, ledger.booked(7, today.plusDays(3)));
+		assertEquals(0, ledger.booked(8, today.plusDays(4)));
+	}
+
+	// the same rows OutboxBO.deleted writes for a cancelled appointment
+	@Test
+	void writesADeletedEventPerAppointment() {
+		dao.outboxAppointmentsDeleted(List.of(1L), "appointment", "AppointmentDeleted", NOW);
+		assertEquals(List.of(1L, 2L, 3L, 4L, 5L), jdbc.queryForList(
+				"SELECT aggregate_id FROM outbox_events WHERE event_type = 'AppointmentDeleted' AND "
+						+ "aggregate_type = 'appointment' ORDER BY aggregate_id", Long.class));
+		assertEquals("{\"appointmentId\":5}",
+				jdbc.queryForObject("SELECT payload FROM outbox_events WHERE aggregate_id = 5", String.class));
+	}
+
+	private int count(String table) {
+		return jdbc.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+	}
+
+	private void appointment(String table, long patientId, long doctorId, LocalDate date) {
+		long id = nextId++;
+		jdbc.update("INSERT INTO appointmentstatus (status_id, status_name) VALUES (?, 'Pending')", id);
+		String columns = "appointment_id, appointment_date, created_at, doctor_id, reason, updated_at, patient_id, "
+				+ "status_id";
+		if (table.equals("appointments_archive")) {
+			jdbc.update("INSERT INTO appointments_archive (" + columns + ", archived_at) VALUES (?, ?, ?, ?, 'checkup', "
+					+ "?, ?, ?, ?)", id, Date.valueOf(date), Timestamp.valueOf(NOW), doctorId, Timestamp.valueOf(NOW),
+					patientId, id, Timestamp.valueOf(NOW));
+		} else {
+			jdbc.update("INSERT INTO appointments (" + columns + ") VALUES (?, ?, ?, ?, 'checkup', ?, ?, ?)", id,
+					Date.valueOf(date), Timestamp.valueOf(NOW), doctorId, Timestamp.valueOf(NOW), patientId, id);
+		}
+	}
+}
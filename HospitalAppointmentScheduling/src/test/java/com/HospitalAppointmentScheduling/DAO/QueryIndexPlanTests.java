@@ -0,0 +1,234 @@
+package com.HospitalAppointmentScheduling.DAO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.HospitalAppointmentScheduling.Entity.AppointmentsVO;
+
+import jakarta.persistence.EntityManager;
+
+// Runs the Flyway migrations on H2 in MySQL mode, executes every repository
+// query, captures the SQL Hibernate sends and fails if EXPLAIN shows a full
+// table scan for a query that filters or sorts.
+@DataJpaTest(properties = { "spring.datasource.url=jdbc:h2:mem:plans;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+		"spring.datasource.driver-class-name=org.h2.Driver", "spring.datasource.username=sa",
+		"spring.datasource.password=", "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=validate", "spring.jpa.show-sql=false", "logging.level.org.hibernate=WARN",
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector=com.HospitalAppointmentScheduling.DAO.QueryIndexPlanTests$CapturingInspector" })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class QueryIndexPlanTests {
+
+	private static final int PATIENTS = 300;
+	private static final int APPOINTMENTS = 3000;
+	private static final LocalDate DAY = LocalDate.of(2025, 1, 15);
+
+	@SpringBootConfiguration
+	@EnableAutoConfiguration
+	@EnableJpaAuditing
+	@EntityScan(basePackageClasses = AppointmentsVO.class)
+	@EnableJpaRepositories(basePackageClasses = AppointmentsRepo.class)
+	static class Config {
+	}
+
+	public static class CapturingInspector implements StatementInspector {
+		private static final long serialVersionUID = 1L;
+
+		static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+		@Override
+		public String inspect(String sql) {
+			SQL.add(sql);
+			return sql;
+		}
+	}
+
+	@Autowired
+	AppointmentsRepo appointmentsRepo;
+
+	@Autowired
+	PatientRepo patientRepo;
+
+	@Autowired
+	AppointmentArchiveRepo archiveRepo;
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	@Autowired
+	DataSource dataSource;
+
+	@Autowired
+	EntityManager em;
+
+	// ANALYZE commits, so the data survives the test rollback and is loaded once
+	@BeforeEach
+	void seed() {
+		if (jdbc.queryForObject("SELECT COUNT(*) FROM country", Integer.class) > 0) {
+			return;
+		}
+		jdbc.update("INSERT INTO country (country_id, country) VALUES (1, 'India')");
+		jdbc.update("INSERT INTO state (state_id, state) VALUES (1, 'Tamil Nadu')");
+		jdbc.update("INSERT INTO city (city_id, city) VALUES (1, 'Chennai')");
+		jdbc.update("INSERT INTO specialization (specialization_id, specialization) VALUES (1, 'General')");
+		jdbc.update("INSERT INTO hospital (hospital_id, created_at, hospital_email, hospital_name, hospital_phone, "
+				+ "updated_at, city_id, country_id, state_id) VALUES (1, NOW(), 'h@x.com', 'H', '9000000000', NOW(), 1, 1, 1)");
+		for (int d = 1; d <= 10; d++) {
+			jdbc.update("INSERT INTO doctor (doctor_id, created_at, doc_email, doc_password, doc_phone, first_name, "
+					+ "last_name, updated_at, hospital_id, specialization_id) VALUES (?, NOW(), ?, ?, ?, 'Doc', 'Tor', NOW(), 1, 1)",
+					d, "d" + d + "@x.com", "pw" + d, "80000000" + (10 + d));
+		}
+		List<Object[]> patients = new ArrayList<>();
+		for (int p = 1; p <= PATIENTS; p++) {
+			patients.add(new Object[] { p, DAY.minusYears(20).minusDays(p % 90), "First" + p, "Last" + p,
+					"p" + p + "@x.com", "pw", "9" + String.format("%09d", p), "male" });
+		}
+		jdbc.batchUpdate("INSERT INTO patients (patient_id, created_at, dob, first_name, last_name, patient_email, "
+				+ "patient_password, patient_phone, updated_at, gender) VALUES (?, NOW(), ?, ?, ?, ?, ?, ?, NOW(), ?)",
+				patients);
+		List<Object[]> statuses = new ArrayList<>();
+		List<Object[]> appts = new ArrayList<>();
+		for (int a = 1; a <= APPOINTMENTS; a++) {
+			statuses.add(new Object[] { a });
+			appts.add(new Object[] { a, DAY.plusDays(a % 60), 1 + a % 10, 1 + a % PATIENTS, a });
+		}
+		jdbc.batchUpdate("INSERT INTO appointmentstatus (status_id, status_name) VALUES (?, 'Pending')", statuses);
+		jdbc.batchUpdate("INSERT INTO appointments (appointment_id, appointment_date, created_at, doctor_id, reason, "
+				+ "updated_at, patient_id, status_id) VALUES (?, ?, NOW(), ?, 'check', NOW(), ?, ?)", appts);
+		jdbc.execute("ANALYZE");
+	}
+
+	@Test
+	void appointmentQueriesUseIndexes() throws SQLException {
+		assertIndexed("countAppointmentsByDate", () -> appointmentsRepo.countAppointmentsByDate(DAY));
+		assertIndexed("countAppointmentsForDoctorOnDate",
+				() -> appointmentsRepo.countAppointmentsForDoctorOnDate(3, DAY));
+		assertIndexed("findAllApptByPatientId", () -> appointmentsRepo.findAllApptByPatientId(7));
+		assertIndexed("findAppointmentsByPatientIdAndDate",
+				() -> appointmentsRepo.findAppointmentsByPatientIdAndDate(DAY, 7L));
+		assertIndexed("findAppointmentsByPatientIdAndDateRange",
+				() -> appointmentsRepo.findAppointmentsByPatientIdAndDateRange(DAY, DAY.plusDays(10), 7L));
+		assertIndexed("fetchApptsAscendingDate", () -> appointmentsRepo.fetchApptsAscendingDate());
+		assertIndexed("countAppointmentsByDoctorAndDate", () -> appointmentsRepo.countAppointmentsByDoctorAndDate());
+		assertIndexed("countAppointmentsByPatient", () -> appointmentsRepo.countAppointmentsByPatient());
+		assertIndexed("findUpcomingForReminders",
+				() -> appointmentsRepo.findUpcomingForReminders(DAY, DAY.plusDays(7), 0L, PageRequest.of(0, 50)));
+		assertIndexed("findReminderById", () -> appointmentsRepo.findReminderById(7L));
+		assertIndexed("findForDoctorBetween", () -> appointmentsRepo.findForDoctorBetween(3, DAY, DAY.plusDays(7)));
+	}
+
+	// the move itself rolls back with the test
+	@Test
+	void archiveMovesTheOldestFirstAndItsQueriesUseIndexes() throws SQLException {
+		AppointmentArchiveDAO archiveDAO = new AppointmentArchiveDAO();
+		archiveDAO.jdbc = jdbc;
+		assertEquals(100, archiveDAO.moveBatch(DAY.plusDays(3), 100, LocalDateTime.now()));
+		assertEquals(APPOINTMENTS - 100, jdbc.queryForObject("SELECT COUNT(*) FROM appointments", Integer.class));
+		assertEquals(DAY.plusDays(1), archiveRepo.findLatestDate());
+		assertEquals(50, archiveDAO.moveBatch(DAY.plusDays(3), 100, LocalDateTime.now()));
+		assertEquals(0, archiveDAO.moveBatch(DAY.plusDays(3), 100, LocalDateTime.now()));
+		assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM appointments WHERE appointment_date < ?",
+				Integer.class, DAY.plusDays(3)));
+
+		// the analytics snapshot still sees every appointment
+		AppointmentSnapshotDAO snapshotDAO = new AppointmentSnapshotDAO();
+		snapshotDAO.jdbc = jdbc;
+		AtomicInteger rows = new AtomicInteger();
+		snapshotDAO.streamAll((id, date, patient, doctor, status, reason, updatedAt) -> rows.incrementAndGet());
+		assertEquals(APPOINTMENTS, rows.get());
+
+		assertIndexed("findAllByPatientId", () -> archiveRepo.findAllByPatientId(7));
+		assertIndexed("findByPatientIdAndDateRange",
+				() -> archiveRepo.findByPatientIdAndDateRange(DAY, DAY.plusDays(10), 7L));
+		assertIndexed("findAllOrderByDate", () -> archiveRepo.findAllOrderByDate());
+		assertIndexed("countByDoctorAndDate", () -> archiveRepo.countByDoctorAndDate());
+		assertIndexed("findLatestDate", () -> archiveRepo.findLatestDate());
+	}
+
+	@Test
+	void patientQueriesUseIndexes() throws SQLException {
+		assertIndexed("findByEmail", () -> patientRepo.findByEmail("p7@x.com"));
+		assertIndexed("existsByEmail", () -> patientRepo.existsByEmail("p7@x.com"));
+		assertIndexed("existsByPhone", () -> patientRepo.existsByPhone("9000000007"));
+		assertIndexed("findByPhoneNumber", () -> patientRepo.findByPhoneNumber("9000000007"));
+		assertIndexed("findNameOfPatientById", () -> patientRepo.findNameOfPatientById(7L));
+		assertIndexed("findPatientsWithAppointmentsDay", () -> patientRepo.findPatientsWithAppointmentsDay(DAY));
+		assertIndexed("fetchBetweenDOBpat",
+				() -> patientRepo.fetchBetweenDOBpat(DAY.minusYears(20).minusDays(10), DAY.minusYears(20)));
+		assertIndexed("fetchAscending", () -> patientRepo.fetchAscending());
+		assertIndexed("findMostCommonDOB", () -> patientRepo.findMostCommonDOB(PageRequest.of(0, 10)));
+		assertIndexed("countPatientsByDob", () -> patientRepo.countPatientsByDob());
+		assertIndexed("findPatientIdsWithMostAppointments",
+				() -> patientRepo.findPatientIdsWithMostAppointments(PageRequest.of(0, 10)));
+	}
+
+	// runs the repository call, then EXPLAINs every statement it produced
+	private void assertIndexed(String name, Runnable query) throws SQLException {
+		em.clear();
+		CapturingInspector.SQL.clear();
+		query.run();
+		Set<String> statements = new LinkedHashSet<>(CapturingInspector.SQL);
+		assertFalse(statements.isEmpty(), name + " did not reach the database");
+		for (String sql : statements) {
+			String plan = explain(sql);
+			assertFalse(plan.contains(".tableScan"), name + " scans a whole table:\n" + plan);
+		}
+	}
+
+	private String explain(String sql) throws SQLException {
+		try (Connection con = dataSource.getConnection();
+				PreparedStatement ps = con.prepareStatement("EXPLAIN " + sql)) {
+			ParameterMetaData meta = ps.getParameterMetaData();
+			for (int i = 1; i <= meta.getParameterCount(); i++) {
+				bindSample(ps, i, meta.getParameterType(i));
+			}
+			StringBuilder plan = new StringBuilder();
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					plan.append(rs.getString(1));
+				}
+			}
+			assertTrue(plan.length() > 0);
+			return plan.toString();
+		}
+	}
+
+	private void bindSample(PreparedStatement ps, int i, int type) throws SQLException {
+		switch (type) {
+		case Types.DATE -> ps.setObject(i, DAY);
+		case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT -> ps.setLong(i, 7);
+		default -> ps.setString(i, "x");
+		}
+	}
+}
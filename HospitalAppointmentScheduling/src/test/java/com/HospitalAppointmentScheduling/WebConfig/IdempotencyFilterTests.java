@@ -0,0 +1,142 @@
+package com.HospitalAppointmentScheduling.WebConfig;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.HospitalAppointmentScheduling.BO.InMemoryIdempotencyStore;
+import com.HospitalAppointmentScheduling.BO.SessionTokenBO;
+import com.HospitalAppointmentScheduling.Controller.LoginAuthenticationController;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+
+class IdempotencyFilterTests {
+
+	private final AtomicInteger executions = new AtomicInteger();
+
+	// stands in for the controller: books once per call and answers with a
+	// new appointment ID each time
+	private final FilterChain booking = (req, res) -> {
+		req.getInputStream().readAllBytes();
+		((HttpServletResponse) res).setStatus(200);
+		res.setContentType("text/plain");
+		res.getWriter().write("Appointments Details successfully saved: " + executions.incrementAndGet());
+	};
+
+	private final SessionTokenBO sessionTokens = new SessionTokenBO();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(sessionTokens, "ttlMinutes", 30L);
+		sessionTokens.init();
+	}
+
+	private IdempotencyFilter filter(InMemoryIdempotencyStore store) {
+		IdempotencyFilter f = new IdempotencyFilter();
+		f.store = store;
+		f.sessionTokens = sessionTokens;
+		f.rateLimitProps = new RateLimitProperties();
+		return f;
+	}
+
+	@Test
+	void replaysTheFirstResponseWithoutRunningAgain() throws Exception {
+		IdempotencyFilter f = filter(new InMemoryIdempotencyStore(60_000, 100));
+
+		MockHttpServletResponse first = send(f, "k-1", "{\"reason\":\"fever\"}");
+		MockHttpServletResponse retry = send(f, "k-1", "{\"reason\":\"fever\"}");
+
+		assertEquals(1, executions.get());
+		assertEquals(200, retry.getStatus());
+		assertEquals(first.getContentAsString(), retry.getContentAsString());
+		assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+		assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+
+		assertEquals(422, send(f, "k-1", "{\"reason\":\"cough\"}").getStatus());
+		send(f, "k-2", "{\"reason\":\"fever\"}");
+		send(f, null, "{\"reason\":\"fever\"}");
+		assertEquals(3, executions.get());
+	}
+
+	// a refusal such as a full day is not replayed, the retry books once the
+	// slot is free
+	@Test
+	void runsAgainAfterARefusal() throws Exception {
+		IdempotencyFilter f = filter(new InMemoryIdempotencyStore(60_000, 100));
+		FilterChain full = (req, res) -> {
+			((HttpServletResponse) res).setStatus(400);
+			res.getWriter().write("ERROR: the doctor is fully booked");
+		};
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/appointment/insertWithPatientID");
+		request.setContent("{}".getBytes());
+		request.addHeader(IdempotencyFilter.HEADER, "k-1");
+		f.doFilter(request, new MockHttpServletResponse(), full);
+
+		MockHttpServletResponse retry = send(f, "k-1", "{}");
+		assertEquals(200, retry.getStatus());
+		assertNull(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+		assertEquals(1, executions.get());
+	}
+
+	// another patient, or another client without a session, reusing the key
+	// runs their own request
+	@Test
+	void keysArePerCaller() throws Exception {
+		IdempotencyFilter f = filter(new InMemoryIdempotencyStore(60_000, 100));
+		String asha = sessionTokens.issue(1);
+		send(f, "k-1", "{}", asha, "10.0.0.1");
+		assertEquals("true", send(f, "k-1", "{}", asha, "10.0.0.2").getHeader(IdempotencyFilter.REPLAYED_HEADER));
+		assertEquals(1, executions.get());
+
+		String ravi = sessionTokens.issue(2);
+		assertNull(send(f, "k-1", "{}", ravi, "10.0.0.1").getHeader(IdempotencyFilter.REPLAYED_HEADER));
+		assertNull(send(f, "k-1", "{}", null, "10.0.0.1").getHeader(IdempotencyFilter.REPLAYED_HEADER));
+		assertNull(send(f, "k-1", "{}", null, "10.0.0.2").getHeader(IdempotencyFilter.REPLAYED_HEADER));
+		assertEquals(4, executions.get());
+		assertEquals("true", send(f, "k-1", "{}", null, "10.0.0.2").getHeader(IdempotencyFilter.REPLAYED_HEADER));
+	}
+
+	// the store never grows past its bound, the eldest key goes first
+	@Test
+	void evictsTheEldestKeyWhenFull() throws Exception {
+		InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(60_000, 2);
+		IdempotencyFilter f = filter(store);
+		send(f, "a", "{}");
+		send(f, "b", "{}");
+		send(f, "c", "{}");
+		assertEquals(2, store.size());
+		send(f, "a", "{}");
+		assertEquals(4, executions.get());
+		send(f, "c", "{}");
+		assertEquals(4, executions.get());
+	}
+
+	private MockHttpServletResponse send(IdempotencyFilter f, String key, String body) throws Exception {
+		return send(f, key, body, null, "127.0.0.1");
+	}
+
+	private MockHttpServletResponse send(IdempotencyFilter f, String key, String body, String session, String ip)
+			throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/appointment/insertWithPatientID");
+		request.setRemoteAddr(ip);
+		if (session != null) {
+			request.addHeader(LoginAuthenticationController.SESSION_HEADER, session);
+		}
+		request.setContent(body.getBytes());
+		request.setContentType("application/json");
+		if (key != null) {
+			request.addHeader(IdempotencyFilter.HEADER, key);
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		f.doFilter(request, response, booking);
+		return response;
+	}
+}
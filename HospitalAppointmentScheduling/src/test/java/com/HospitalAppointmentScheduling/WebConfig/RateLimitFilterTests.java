@@ -0,0 +1,120 @@
+package com.HospitalAppointmentScheduling.WebConfig;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.HospitalAppointmentScheduling.BO.RateLimitBO;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+class RateLimitFilterTests {
+
+	private final AtomicInteger logins = new AtomicInteger();
+
+	// stands in for the controller and checks the body still reaches it
+	private final FilterChain login = (req, res) -> {
+		assertEquals('{', req.getInputStream().readAllBytes()[0]);
+		logins.incrementAndGet();
+	};
+
+	private RateLimitFilter filter;
+
+	// two attempts per account, ten per client
+	@BeforeEach
+	void setUp() {
+		RateLimitProperties.Route route = new RateLimitProperties.Route();
+		route.setPath("/loginPage/patientLogin");
+		route.setIpCapacity(10);
+		route.setAccountField("patientEmail");
+		route.setAccountCapacity(2);
+		RateLimitProperties props = new RateLimitProperties();
+		props.setRoutes(List.of(route));
+		props.setMaxBodyBytes(256);
+
+		RateLimitBO rateLimitBO = new RateLimitBO();
+		ReflectionTestUtils.setField(rateLimitBO, "props", props);
+		filter = new RateLimitFilter();
+		ReflectionTestUtils.setField(filter, "props", props);
+		ReflectionTestUtils.setField(filter, "rateLimitBO", rateLimitBO);
+	}
+
+	@Test
+	void throttlesAnAccountWithTooManyRequests() throws Exception {
+		assertEquals(200, send("{\"patientEmail\":\"a@b.c\"}").getStatus());
+		assertEquals(200, send("{\"patientEmail\":\"A@b.c \"}").getStatus());
+		MockHttpServletResponse third = send("{\"patientEmail\":\"a@b.c\"}");
+		assertEquals(429, third.getStatus());
+		assertEquals("1", third.getHeader("Retry-After"));
+		assertEquals(200, send("{\"patientEmail\":\"x@b.c\"}").getStatus());
+		assertEquals(3, logins.get());
+	}
+
+	@Test
+	void refusesBodiesOverTheLimitWithoutPassingThemOn() throws Exception {
+		String padding = "x".repeat(300);
+		assertEquals(413, send("{\"patientEmail\":\"a@b.c\",\"p\":\"" + padding + "\"}").getStatus());
+
+		// a chunked body carries no length up front
+		MockHttpServletRequest chunked = request("{\"p\":\"" + padding + "\"}");
+		MockHttpServletResponse res = new MockHttpServletResponse();
+		filter.doFilter(new HttpServletRequestWrapper(chunked) {
+			@Override
+			public long getContentLengthLong() {
+				return -1;
+			}
+		}, res, login);
+		assertEquals(413, res.getStatus());
+		assertEquals(0, logins.get());
+	}
+
+	// async readers get the replayed body through the listener
+	@Test
+	void replaysTheBodyToAReadListener() throws Exception {
+		byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+		ServletInputStream in = new RateLimitFilter.CachedBodyRequest(request(""), body).getInputStream();
+		StringBuilder events = new StringBuilder();
+		in.setReadListener(new ReadListener() {
+			@Override
+			public void onDataAvailable() throws IOException {
+				events.append(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+			}
+
+			@Override
+			public void onAllDataRead() {
+				events.append(" done");
+			}
+
+			@Override
+			public void onError(Throwable t) {
+				events.append(" error");
+			}
+		});
+		assertEquals("{} done", events.toString());
+	}
+
+	private MockHttpServletResponse send(String body) throws Exception {
+		MockHttpServletResponse res = new MockHttpServletResponse();
+		filter.doFilter(request(body), res, login);
+		return res;
+	}
+
+	private MockHttpServletRequest request(String body) {
+		MockHttpServletRequest req = new MockHttpServletRequest("POST", "/loginPage/patientLogin");
+		req.setContentType("application/json");
+		req.setContent(body.getBytes(StandardCharsets.UTF_8));
+		return req;
+	}
+}
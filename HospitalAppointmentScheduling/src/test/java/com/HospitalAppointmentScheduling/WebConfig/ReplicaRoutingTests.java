@@ -0,0 +1,94 @@
+package com.HospitalAppointmentScheduling.WebConfig;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Two embedded H2 databases stand in for the MySQL primary and a replica.
+// Each has a marker row naming it, so a query shows where it was routed.
+class ReplicaRoutingTests {
+
+	private static final String LAG_QUERY = "SELECT seconds FROM replica_lag";
+
+	private JdbcTemplate primaryJdbc;
+	private JdbcTemplate replicaJdbc;
+	private ReplicaDataSource replicas;
+	private JdbcTemplate jdbc;
+	private TransactionTemplate writeTx;
+	private TransactionTemplate readTx;
+
+	@BeforeEach
+	void setUp() {
+		SimpleDriverDataSource primary = h2("primary");
+		SimpleDriverDataSource replica = h2("replica");
+		primaryJdbc = new JdbcTemplate(primary);
+		replicaJdbc = new JdbcTemplate(replica);
+		for (JdbcTemplate t : List.of(primaryJdbc, replicaJdbc)) {
+			t.execute("CREATE TABLE IF NOT EXISTS marker (name varchar(16))");
+			t.execute("DELETE FROM marker");
+		}
+		primaryJdbc.update("INSERT INTO marker VALUES ('primary')");
+		replicaJdbc.update("INSERT INTO marker VALUES ('replica')");
+		replicaJdbc.execute("CREATE TABLE IF NOT EXISTS replica_lag (seconds bigint)");
+		replicaJdbc.execute("DELETE FROM replica_lag");
+		replicaJdbc.update("INSERT INTO replica_lag VALUES (0)");
+
+		// wired like DataSourceRoutingConfig
+		replicas = new ReplicaDataSource(primary, List.of(replica));
+		replicas.checkLag(LAG_QUERY, 5);
+		LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primary);
+		routing.setReadOnlyDataSource(replicas);
+
+		jdbc = new JdbcTemplate(routing);
+		DataSourceTransactionManager tm = new DataSourceTransactionManager(routing);
+		writeTx = new TransactionTemplate(tm);
+		readTx = new TransactionTemplate(tm);
+		readTx.setReadOnly(true);
+	}
+
+	@Test
+	void readOnlyTransactionsGoToTheReplica() {
+		assertEquals("replica", readTx.execute(s -> where()));
+		assertEquals("primary", writeTx.execute(s -> where()));
+		assertEquals("primary", where());
+
+		writeTx.executeWithoutResult(s -> jdbc.update("INSERT INTO marker VALUES ('written')"));
+		assertEquals(2, primaryJdbc.queryForObject("SELECT COUNT(*) FROM marker", Integer.class));
+		assertEquals(1, replicaJdbc.queryForObject("SELECT COUNT(*) FROM marker", Integer.class));
+	}
+
+	@Test
+	void laggingOrBrokenReplicaFallsBackToThePrimary() {
+		replicaJdbc.update("UPDATE replica_lag SET seconds = 30");
+		replicas.checkLag(LAG_QUERY, 5);
+		assertFalse(replicas.isHealthy(0));
+		assertEquals("primary", readTx.execute(s -> where()));
+
+		replicaJdbc.update("UPDATE replica_lag SET seconds = NULL");
+		replicas.checkLag(LAG_QUERY, 5);
+		assertEquals("primary", readTx.execute(s -> where()));
+
+		replicaJdbc.update("UPDATE replica_lag SET seconds = 1");
+		replicas.checkLag(LAG_QUERY, 5);
+		assertTrue(replicas.isHealthy(0));
+		assertEquals("replica", readTx.execute(s -> where()));
+	}
+
+	private String where() {
+		return jdbc.queryForObject("SELECT name FROM marker ORDER BY name LIMIT 1", String.class);
+	}
+
+	private static SimpleDriverDataSource h2(String name) {
+		return new SimpleDriverDataSource(new org.h2.Driver(), "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+	}
+}
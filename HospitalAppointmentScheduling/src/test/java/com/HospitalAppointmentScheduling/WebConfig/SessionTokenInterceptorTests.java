@@ -0,0 +1,102 @@
+package com.HospitalAppointmentScheduling.WebConfig;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.HospitalAppointmentScheduling.BO.SessionTokenBO;
+import com.HospitalAppointmentScheduling.Controller.LoginAuthenticationController;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+class SessionTokenInterceptorTests {
+
+	@RestController
+	static class Api {
+
+		@PatientScoped("id")
+		@GetMapping("/patient/{id}")
+		String patient(@PathVariable long id) {
+			return "ok";
+		}
+
+		@PatientScoped("patientId")
+		@GetMapping("/holds")
+		String holds(@RequestParam long patientId) {
+			return "ok";
+		}
+
+		@StaffOnly
+		@GetMapping("/cancel")
+		String cancel() {
+			return "ok";
+		}
+
+		// a patient ID in the body, checked by the handler
+		@GetMapping("/bundle/{body}")
+		String bundle(@PathVariable long body, HttpServletRequest request) {
+			return SessionTokenInterceptor.mayActFor(request, body) ? "ok" : "refused";
+		}
+	}
+
+	private final SessionTokenBO tokens = new SessionTokenBO();
+	private final SessionTokenInterceptor interceptor = new SessionTokenInterceptor();
+	private MockMvc mvc;
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(tokens, "ttlMinutes", 30L);
+		tokens.init();
+		ReflectionTestUtils.setField(interceptor, "sessionTokenBO", tokens);
+		ReflectionTestUtils.setField(interceptor, "required", true);
+		mvc = MockMvcBuilders.standaloneSetup(new Api()).addInterceptors(interceptor).build();
+	}
+
+	@Test
+	void aPatientReachesOnlyTheirOwnData() throws Exception {
+		String asha = tokens.issue(1);
+		mvc.perform(get("/patient/1").header(LoginAuthenticationController.SESSION_HEADER, asha))
+				.andExpect(status().isOk());
+		mvc.perform(get("/patient/2").header(LoginAuthenticationController.SESSION_HEADER, asha))
+				.andExpect(status().isForbidden());
+		mvc.perform(get("/holds").param("patientId", "1").header(LoginAuthenticationController.SESSION_HEADER, asha))
+				.andExpect(status().isOk());
+		mvc.perform(get("/holds").param("patientId", "2").header(LoginAuthenticationController.SESSION_HEADER, asha))
+				.andExpect(status().isForbidden());
+		mvc.perform(get("/bundle/2").header(LoginAuthenticationController.SESSION_HEADER, asha))
+				.andExpect(content().string("refused"));
+	}
+
+	@Test
+	void staffRoutesTakeOnlyAdminTokens() throws Exception {
+		mvc.perform(get("/cancel").header(LoginAuthenticationController.SESSION_HEADER, tokens.issue(1)))
+				.andExpect(status().isForbidden());
+		String admin = tokens.issueAdmin(4);
+		mvc.perform(get("/cancel").header(LoginAuthenticationController.SESSION_HEADER, admin))
+				.andExpect(status().isOk());
+		mvc.perform(get("/patient/2").header(LoginAuthenticationController.SESSION_HEADER, admin))
+				.andExpect(status().isOk());
+		mvc.perform(get("/cancel")).andExpect(status().isUnauthorized());
+	}
+
+	// without login.session.required a request without a token goes through
+	// as before, a token that is sent still counts
+	@Test
+	void optionalTokensAreStillChecked() throws Exception {
+		ReflectionTestUtils.setField(interceptor, "required", false);
+		mvc.perform(get("/cancel")).andExpect(status().isOk());
+		mvc.perform(get("/patient/2")).andExpect(status().isOk());
+		mvc.perform(get("/patient/2").header(LoginAuthenticationController.SESSION_HEADER, tokens.issue(1)))
+				.andExpect(status().isForbidden());
+	}
+}
@@ -15,6 +15,8 @@ export default class AddAppointment extends Component {
       selectedDoctor: "",
       errorMessage: "",
       successMessage: "",
+      // slot held for the chosen doctor and date until the form is submitted
+      hold: null,
       doctors: [
         { doctorId: 1, name: "Dr. P. Raghu - General" },
         { doctorId: 2, name: "Dr. R. K. K. Sharma - Dentist" },
@@ -30,9 +32,56 @@ export default class AddAppointment extends Component {
     };
   }
 
+  componentWillUnmount() {
+    this.releaseHold();
+  }
+
   handleChange = (e) => {
     const { name, value } = e.target;
-    this.setState({ [name]: value });
+    this.setState({ [name]: value }, () => {
+      if (name === "appointmentDate" || name === "selectedDoctor") {
+        this.placeHold();
+      }
+    });
+  };
+
+  // keeps a slot for the chosen doctor and date while the form is filled in,
+  // so nobody else can take it before submitting
+  placeHold = () => {
+    const { appointmentDate, selectedDoctor } = this.state;
+    const patient = this.context;
+    this.releaseHold();
+    if (!appointmentDate || !selectedDoctor || !patient || !patient.patientId) {
+      return;
+    }
+    const params = new URLSearchParams({
+      patientId: patient.patientId,
+      doctorId: selectedDoctor,
+      date: appointmentDate,
+    });
+    fetch(`http://localhost:8080/appointment/holds?${params}`, {
+      method: "POST",
+    })
+      .then((response) =>
+        response.ok
+          ? response.json().then((hold) => this.setState({ hold, errorMessage: "" }))
+          : response.text().then((message) =>
+              this.setState({ errorMessage: message, successMessage: "" })
+            )
+      )
+      .catch(() => this.setState({ hold: null }));
+  };
+
+  releaseHold = () => {
+    const { hold } = this.state;
+    if (!hold) {
+      return;
+    }
+    this.setState({ hold: null });
+    fetch(
+      `http://localhost:8080/appointment/holds/${hold.holdId}?patientId=${hold.patientId}`,
+      { method: "DELETE" }
+    ).catch(() => {});
   };
 
   validateInputs = () => {
@@ -68,6 +117,45 @@ export default class AddAppointment extends Component {
     return !Object.values(formErrors).some((error) => error !== "");
   };
 
+  handleBooked = (data) => {
+    const { appointmentDate, reason, selectedDoctor } = this.state;
+    const patient = this.context;
+    if (data.startsWith("Appointments Details successfully saved")) {
+      const successMessage = data;
+      this.setState({
+        successMessage,
+        errorMessage: "",
+      });
+
+      // Update the context with the new appointment
+      const updatedPatient = {
+        ...patient,
+        appointments: [
+          ...(patient.appointments || []),
+          {
+            appointmentDate,
+            reason,
+            doctorId: selectedDoctor,
+          },
+        ],
+      };
+
+      this.context.updatePatientContext(updatedPatient);
+
+      // Reset the form fields
+      this.setState({
+        appointmentDate: "",
+        reason: "",
+        selectedDoctor: "",
+      });
+    } else {
+      this.setState({
+        errorMessage: "Failed to book appointment.",
+        successMessage: "",
+      });
+    }
+  };
+
   handleSubmit = (e) => {
     e.preventDefault();
 
@@ -79,6 +167,32 @@ export default class AddAppointment extends Component {
       return;
     }
 
+    // the slot is already held, confirming books it
+    const { hold } = this.state;
+    if (
+      hold &&
+      hold.date === appointmentDate &&
+      String(hold.doctorId) === String(selectedDoctor)
+    ) {
+      const params = new URLSearchParams({ patientId: patient.patientId, reason });
+      fetch(
+        `http://localhost:8080/appointment/holds/${hold.holdId}/confirm?${params}`,
+        { method: "POST" }
+      )
+        .then((response) => response.text())
+        .then((data) => {
+          this.setState({ hold: null });
+          this.handleBooked(data);
+        })
+        .catch(() => {
+          this.setState({
+            errorMessage: "Error booking appointment.",
+            successMessage: "",
+          });
+        });
+      return;
+    }
+
     // Check the number of appointments for the selected date
     const apiUrl = `http://localhost:8080/appointment/countOfAppointmentsByDate/${appointmentDate}`;
     fetch(apiUrl)
@@ -116,42 +230,7 @@ export default class AddAppointment extends Component {
             body: JSON.stringify(requestBody),
           })
             .then((response) => response.text())
-            .then((data) => {
-              if (data.startsWith("Appointments Details successfully saved")) {
-                const successMessage = data;
-                this.setState({
-                  successMessage,
-                  errorMessage: "",
-                });
-
-                // Update the context with the new appointment
-                const updatedPatient = {
-                  ...patient,
-                  appointments: [
-                    ...(patient.appointments || []),
-                    {
-                      appointmentDate,
-                      reason,
-                      doctorId: selectedDoctor,
-                    },
-                  ],
-                };
-
-                this.context.updatePatientContext(updatedPatient);
-
-                // Reset the form fields
-                this.setState({
-                  appointmentDate: "",
-                  reason: "",
-                  selectedDoctor: "",
-                });
-              } else {
-                this.setState({
-                  errorMessage: "Failed to book appointment.",
-                  successMessage: "",
-                });
-              }
-            })
+            .then((data) => this.handleBooked(data))
             .catch(() => {
               this.setState({
                 errorMessage: "Error booking appointment.",